@@ -0,0 +1,73 @@
+package com.oriana.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.oriana.backend.domain.Problem;
+import com.oriana.backend.domain.ProblemSource;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AI 응답 파싱 + Entity 변환 핫패스 벤치마크 (생성 요청마다 도는 코드)
+ * 코퍼스(src/jmh/resources/corpus)는 실제 Gemini 응답 모양을 흉내낸 것:
+ * clean / fenced(마크다운+설명) / latex(잘못된 이스케이프) / multiline(raw 개행, 후행 쉼표) / truncated(잘린 배열)
+ *
+ * 실행: ./gradlew jmh  → build/results/jmh/results.txt (gc 프로파일러의 gc.alloc.rate.norm = 호출당 할당 바이트)
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class AiResponseParsingBenchmark {
+
+    @Param({"clean", "fenced", "latex", "multiline", "truncated"})
+    public String corpus;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private String aiText;
+    private JsonNode parsed;
+
+    @Setup
+    public void setUp() throws IOException {
+        try (InputStream in = getClass().getResourceAsStream("/corpus/" + corpus + ".txt")) {
+            aiText = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        parsed = LenientJsonParser.parseArray(aiText).items();
+    }
+
+    // 현재 파서 (한 번의 스캔으로 복구 + 트리 생성)
+    @Benchmark
+    public JsonNode lenientParser() {
+        return LenientJsonParser.parseArray(aiText).items();
+    }
+
+    // 기준선: 이전 정규식/다중 패스 파이프라인. truncated 코퍼스는 복구 불가 → 예외 비용까지 그대로 측정
+    @Benchmark
+    public Object legacyPipeline() {
+        try {
+            return LegacyJsonPipeline.parse(aiText, objectMapper);
+        } catch (JsonProcessingException e) {
+            return e;
+        }
+    }
+
+    // 파싱된 JSON → Problem Entity (ProblemService.saveProblemListToDb 의 변환 단계)
+    @Benchmark
+    public List<Problem> mapToEntities() {
+        return GeneratedProblemMapper.toProblems(parsed, ProblemSource.RECOMMEND, null);
+    }
+
+    // 파싱 + 변환 한 번에 (요청 하나가 실제로 쓰는 CPU)
+    @Benchmark
+    public List<Problem> parseAndMap() {
+        return GeneratedProblemMapper.toProblems(LenientJsonParser.parseArray(aiText).items(), ProblemSource.RECOMMEND, null);
+    }
+}
@@ -0,0 +1,235 @@
+package com.oriana.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * 비교용 기준선: LenientJsonParser 도입 전 AiService의 파싱 파이프라인을 그대로 옮겨둔 것
+ * (extractJsonArray → sanitizeJson → readTree, 실패 시 aggressiveJsonRecovery 후 한 번 더)
+ * 로그만 뺐고 로직은 건드리지 않음. 운영 코드에서는 쓰지 않는다.
+ */
+final class LegacyJsonPipeline {
+
+    private LegacyJsonPipeline() {
+    }
+
+    static JsonNode parse(String aiText, ObjectMapper objectMapper) throws JsonProcessingException {
+        String cleanJson = sanitizeJson(extractJsonArray(aiText));
+        try {
+            return objectMapper.readTree(cleanJson);
+        } catch (JsonProcessingException e) {
+            return objectMapper.readTree(aggressiveJsonRecovery(cleanJson));
+        }
+    }
+
+
+    /**
+     * JSON 배열 추출 - 중첩 배열 지원
+     */
+    private static String extractJsonArray(String text) {
+        // Markdown 코드 블록 제거
+        text = text.replaceAll("```json\\s*", "").replaceAll("```\\s*", "");
+        text = text.trim();
+
+        int firstBracket = text.indexOf('[');
+        if (firstBracket == -1) {
+            return text;
+        }
+
+        // 매칭되는 닫는 괄호 찾기 (중첩 고려)
+        int depth = 0;
+        int endBracket = -1;
+
+        for (int i = firstBracket; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '[') {
+                depth++;
+            } else if (c == ']') {
+                depth--;
+                if (depth == 0) {
+                    endBracket = i;
+                    break;
+                }
+            }
+        }
+
+        if (endBracket != -1) {
+            return text.substring(firstBracket, endBracket + 1);
+        }
+
+        // 매칭 실패 시 마지막 ] 사용
+        int lastBracket = text.lastIndexOf(']');
+        if (lastBracket != -1) {
+            return text.substring(firstBracket, lastBracket + 1);
+        }
+
+        return text;
+    }
+
+    /**
+     * JSON 정제 - 파싱 오류를 일으키는 요소 제거/수정
+     */
+    private static String sanitizeJson(String json) {
+        // 1. 제어 문자 제거 (탭/개행 제외)
+        json = json.replaceAll("[\\x00-\\x08\\x0B\\x0C\\x0E-\\x1F\\x7F]", "");
+
+        // 2. JSON 문자열 값 내부의 줄바꿈을 공백으로 변경
+        json = fixMultilineStrings(json);
+
+        // 3. 잘못된 백슬래시 이스케이프 수정 (LaTeX 수식 때문에 발생)
+        json = fixInvalidEscapes(json);
+
+        return json;
+    }
+
+    /**
+     * 잘못된 이스케이프 시퀀스 수정
+     * JSON에서 허용되지 않는 \x 패턴을 \\x로 변경
+     */
+    private static String fixInvalidEscapes(String json) {
+        StringBuilder result = new StringBuilder();
+        boolean inString = false;
+
+        for (int i = 0; i < json.length(); i++) {
+            char c = json.charAt(i);
+
+            // 따옴표 토글 (문자열 시작/끝 추적)
+            if (c == '"') {
+                // 이스케이프되지 않은 따옴표인지 확인
+                int backslashCount = 0;
+                for (int j = i - 1; j >= 0 && json.charAt(j) == '\\'; j--) {
+                    backslashCount++;
+                }
+                // 백슬래시가 짝수 개면 이스케이프되지 않은 따옴표
+                if (backslashCount % 2 == 0) {
+                    inString = !inString;
+                }
+                result.append(c);
+                continue;
+            }
+
+            // 문자열 내부가 아니면 그대로 출력
+            if (!inString) {
+                result.append(c);
+                continue;
+            }
+
+            // 문자열 내부에서 백슬래시 발견
+            if (c == '\\' && i + 1 < json.length()) {
+                char next = json.charAt(i + 1);
+
+                // 유효한 기본 이스케이프 문자
+                if (next == '"' || next == '\\' || next == '/' || next == 'b' ||
+                        next == 'f' || next == 'n' || next == 'r' || next == 't') {
+                    result.append(c).append(next);
+                    i++; // 다음 문자 건너뜀
+                }
+                // 유니코드 이스케이프
+                else if (next == 'u') {
+                    if (i + 5 < json.length()) {
+                        String hexChars = json.substring(i + 2, i + 6);
+                        if (isValidHex(hexChars)) {
+
+                            result.append("\\u").append(hexChars);
+                            i += 5;
+                        } else {
+                            // 잘못된 유니코드 -> \\u로 변경
+                            result.append("\\\\u");
+                            i++; // u만 건너뜀
+                        }
+                    } else {
+                        result.append("\\\\u");
+                        i++;
+                    }
+                }
+                // 유효하지 않은 이스케이프 (LaTeX 명령어 등)
+                else {
+                    // \d, \m, \s 등 -> \\d, \\m, \\s로 변경
+                    result.append("\\\\").append(next);
+                    i++; // 다음 문자 건너뜀
+                }
+            } else {
+                result.append(c);
+            }
+        }
+
+        return result.toString();
+    }
+
+    /**
+     * 4자리 16진수인지 확인
+     */
+    private static boolean isValidHex(String str) {
+        if (str.length() != 4) {
+            return false;
+        }
+        for (char c : str.toCharArray()) {
+            if (!((c >= '0' && c <= '9') ||
+                    (c >= 'a' && c <= 'f') ||
+                    (c >= 'A' && c <= 'F'))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * JSON 문자열 내부의 개행 문자 처리
+     */
+    private static String fixMultilineStrings(String json) {
+        // "key": "value with
+        // newline" 패턴을 찾아서 개행을 공백으로 치환
+        StringBuilder result = new StringBuilder();
+        boolean inString = false;
+        boolean escaped = false;
+
+        for (int i = 0; i < json.length(); i++) {
+            char c = json.charAt(i);
+
+            if (escaped) {
+                result.append(c);
+                escaped = false;
+                continue;
+            }
+
+            if (c == '\\') {
+                result.append(c);
+                escaped = true;
+                continue;
+            }
+
+            if (c == '"') {
+                inString = !inString;
+                result.append(c);
+                continue;
+            }
+
+            // 문자열 내부의 개행을 공백으로 변경
+            if (inString && (c == '\n' || c == '\r')) {
+                result.append(' ');
+                continue;
+            }
+
+            result.append(c);
+        }
+
+        return result.toString();
+    }
+
+    /**
+     * 최후의 수단: 공격적인 JSON 복구
+     */
+    private static String aggressiveJsonRecovery(String json) {
+        // 1. 모든 연속된 공백을 하나로
+        json = json.replaceAll("\\s+", " ");
+
+        // 2. 잘못된 trailing comma 제거
+        json = json.replaceAll(",\\s*([}\\]])", "$1");
+
+        // 3. 다시 한번 이스케이프 수정 (중요!)
+        json = fixInvalidEscapes(json);
+
+        return json;
+    }
+}
@@ -0,0 +1,238 @@
+package com.oriana.backend.config;
+
+import org.apache.hc.client5.http.classic.HttpClient;
+import org.apache.hc.core5.concurrent.Cancellable;
+import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * HttpComponents 요청 팩토리 + 요청 전체 제한 시간(total deadline)
+ * readTimeout은 "패킷 사이" 대기 시간이라 조금씩 흘러나오는 느린 응답은 못 끊는다.
+ * 그래서 요청 시작부터 totalTimeout이 지나면 요청 자체를 abort 해서 스레드가 묶이지 않게 한다.
+ * 다른 스레드에서 요청을 끊어야 할 때(hedging 에서 진 쪽)는 AbortHandle 로 묶어서 호출한다.
+ */
+public class DeadlineClientHttpRequestFactory extends HttpComponentsClientHttpRequestFactory {
+
+    // createRequest 안에서 postProcessHttpRequest로 넘어온 원본 요청을 잠깐 잡아두는 용도
+    private static final ThreadLocal<ClassicHttpRequest> CREATED_REQUEST = new ThreadLocal<>();
+    // runAbortable 안에서 나가는 요청이 붙는 handle
+    private static final ThreadLocal<AbortHandle> ABORT_HANDLE = new ThreadLocal<>();
+
+    private final Duration totalTimeout;
+    private final ScheduledExecutorService deadlineScheduler;
+
+    public DeadlineClientHttpRequestFactory(HttpClient httpClient, Duration totalTimeout,
+                                            ScheduledExecutorService deadlineScheduler) {
+        super(httpClient);
+        this.totalTimeout = totalTimeout;
+        this.deadlineScheduler = deadlineScheduler;
+    }
+
+    @Override
+    public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) throws IOException {
+        try {
+            ClientHttpRequest request = super.createRequest(uri, httpMethod);
+            if (CREATED_REQUEST.get() instanceof Cancellable cancellable) {
+                return new DeadlineRequest(request, cancellable);
+            }
+            return request;
+        } finally {
+            CREATED_REQUEST.remove();
+        }
+    }
+
+    @Override
+    protected void postProcessHttpRequest(ClassicHttpRequest request) {
+        CREATED_REQUEST.set(request);
+    }
+
+    /**
+     * call 안에서 이 팩토리로 나가는 요청들을 handle.abort() 로 다른 스레드에서 끊을 수 있게 함
+     * 끊긴 요청은 RequestAbortedException(IOException) 으로 실패한다.
+     */
+    public static <T> T runAbortable(AbortHandle handle, Supplier<T> call) {
+        AbortHandle previous = ABORT_HANDLE.get();
+        ABORT_HANDLE.set(handle);
+        try {
+            return call.get();
+        } finally {
+            ABORT_HANDLE.set(previous);
+        }
+    }
+
+    // 지금 스레드의 요청이 abort 로 끊긴 것인지 (메트릭에서 일반 I/O 오류와 구분하는 용도)
+    public static boolean isAborted() {
+        AbortHandle handle = ABORT_HANDLE.get();
+        return handle != null && handle.isAborted();
+    }
+
+    /**
+     * 다른 스레드에서 진행 중인 요청을 끊기 위한 손잡이 (호출 1번당 하나)
+     * abort 이후에 시작되는 요청은 보내지도 않고 바로 실패.
+     */
+    public static final class AbortHandle {
+
+        private Cancellable current;
+        private boolean aborted;
+
+        public synchronized void abort() {
+            aborted = true;
+            if (current != null) {
+                current.cancel();
+            }
+        }
+
+        public synchronized boolean isAborted() {
+            return aborted;
+        }
+
+        private synchronized boolean attach(Cancellable cancellable) {
+            current = cancellable;
+            return !aborted;
+        }
+    }
+
+    public static class RequestAbortedException extends IOException {
+        RequestAbortedException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+
+    private class DeadlineRequest implements ClientHttpRequest, StreamingHttpOutputMessage {
+
+        private final ClientHttpRequest delegate;
+        private final Cancellable cancellable;
+
+        DeadlineRequest(ClientHttpRequest delegate, Cancellable cancellable) {
+            this.delegate = delegate;
+            this.cancellable = cancellable;
+        }
+
+        @Override
+        public ClientHttpResponse execute() throws IOException {
+            AbortHandle abortHandle = ABORT_HANDLE.get();
+            if (abortHandle != null && !abortHandle.attach(cancellable)) {
+                throw new RequestAbortedException("요청이 시작 전에 취소됨: " + getURI().getPath(), null);
+            }
+
+            AtomicBoolean expired = new AtomicBoolean(false);
+            ScheduledFuture<?> timer = deadlineScheduler.schedule(() -> {
+                expired.set(true);
+                cancellable.cancel();
+            }, totalTimeout.toMillis(), TimeUnit.MILLISECONDS);
+
+            try {
+                return new DeadlineResponse(delegate.execute(), timer, expired);
+            } catch (IOException e) {
+                timer.cancel(false);
+                if (expired.get()) {
+                    throw new SocketTimeoutException("요청 전체 제한 시간(" + totalTimeout + ") 초과: " + getURI().getPath());
+                }
+                if (abortHandle != null && abortHandle.isAborted()) {
+                    throw new RequestAbortedException("요청이 취소됨: " + getURI().getPath(), e);
+                }
+                throw e;
+            }
+        }
+
+        @Override
+        public void setBody(Body body) {
+            if (delegate instanceof StreamingHttpOutputMessage streaming) {
+                streaming.setBody(body);
+                return;
+            }
+            try {
+                body.writeTo(delegate.getBody());
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public OutputStream getBody() throws IOException {
+            return delegate.getBody();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public HttpMethod getMethod() {
+            return delegate.getMethod();
+        }
+
+        @Override
+        public URI getURI() {
+            return delegate.getURI();
+        }
+
+        @Override
+        public Map<String, Object> getAttributes() {
+            return delegate.getAttributes();
+        }
+    }
+
+    // 응답 본문을 다 읽고 close 될 때까지 deadline 유지
+    private class DeadlineResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse delegate;
+        private final ScheduledFuture<?> timer;
+        private final AtomicBoolean expired;
+
+        DeadlineResponse(ClientHttpResponse delegate, ScheduledFuture<?> timer, AtomicBoolean expired) {
+            this.delegate = delegate;
+            this.timer = timer;
+            this.expired = expired;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            if (expired.get()) {
+                throw new SocketTimeoutException("요청 전체 제한 시간(" + totalTimeout + ") 초과");
+            }
+            return delegate.getBody();
+        }
+
+        @Override
+        public void close() {
+            timer.cancel(false);
+            delegate.close();
+        }
+    }
+}
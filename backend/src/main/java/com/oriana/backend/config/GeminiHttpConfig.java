@@ -0,0 +1,115 @@
+package com.oriana.backend.config;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.ssl.DefaultClientTlsStrategy;
+import org.apache.hc.core5.pool.PoolConcurrencyPolicy;
+import org.apache.hc.core5.pool.PoolReusePolicy;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.client.RestTemplate;
+
+import javax.net.ssl.SSLContext;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+/**
+ * Gemini 전용 HTTP 클라이언트
+ * - 커넥션 풀 + keep-alive로 매 호출마다 TLS 핸드셰이크를 다시 하지 않음
+ * - 풀 크기에 상한이 있어서 Gemini가 느려져도 커넥션이 무한정 늘지 않음
+ * - 텍스트 프롬프트 / 사진 분석은 제한 시간을 따로 줌 (사진이 더 오래 걸림)
+ */
+@Configuration
+@EnableConfigurationProperties({GeminiHttpProperties.class, GeminiResilienceProperties.class})
+public class GeminiHttpConfig {
+
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager geminiConnectionManager(GeminiHttpProperties props) throws NoSuchAlgorithmException {
+        return buildConnectionManager(props, SSLContext.getDefault());
+    }
+
+    // 테스트(로컬 HTTPS 스텁)에서 직접 만든 SSLContext를 넣을 수 있도록 분리
+    public static PoolingHttpClientConnectionManager buildConnectionManager(GeminiHttpProperties props, SSLContext sslContext) {
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setTlsSocketStrategy(new DefaultClientTlsStrategy(sslContext))
+                .setMaxConnTotal(props.getMaxConnections())
+                .setMaxConnPerRoute(props.getMaxConnectionsPerRoute())
+                .setPoolConcurrencyPolicy(PoolConcurrencyPolicy.STRICT)
+                .setConnPoolPolicy(PoolReusePolicy.LIFO) // 최근에 쓴(따뜻한) 커넥션부터 재사용
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(props.getConnectTimeout()))
+                        .setTimeToLive(TimeValue.of(props.getTimeToLive()))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(5))
+                        .build())
+                .build();
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient geminiHttpClient(PoolingHttpClientConnectionManager geminiConnectionManager,
+                                                GeminiHttpProperties props) {
+        return buildHttpClient(geminiConnectionManager, props);
+    }
+
+    public static CloseableHttpClient buildHttpClient(PoolingHttpClientConnectionManager connectionManager,
+                                                      GeminiHttpProperties props) {
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(props.getIdleEvictAfter()))
+                .disableAutomaticRetries() // 재시도는 AiService에서 직접 관리
+                .build();
+    }
+
+    // 요청별 전체 제한 시간(deadline)을 재는 타이머 스레드
+    @Bean(destroyMethod = "shutdownNow")
+    public ScheduledExecutorService geminiDeadlineScheduler() {
+        ScheduledThreadPoolExecutor scheduler = (ScheduledThreadPoolExecutor) Executors.newScheduledThreadPool(1, runnable -> {
+            Thread thread = new Thread(runnable, "gemini-deadline");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.setRemoveOnCancelPolicy(true); // 정상 종료된 요청의 타이머는 바로 큐에서 제거
+        return scheduler;
+    }
+
+    // 텍스트 프롬프트용 (추천 / 유사 문제)
+    @Bean
+    public RestTemplate geminiRestTemplate(CloseableHttpClient geminiHttpClient, GeminiHttpProperties props,
+                                           @Qualifier("geminiDeadlineScheduler") ScheduledExecutorService scheduler) {
+        return new RestTemplate(requestFactory(geminiHttpClient, props, props.getText(), scheduler));
+    }
+
+    // 사진 분석용 (이미지 업로드 + 멀티모달이라 제한 시간이 더 김)
+    @Bean
+    public RestTemplate geminiPhotoRestTemplate(CloseableHttpClient geminiHttpClient, GeminiHttpProperties props,
+                                                @Qualifier("geminiDeadlineScheduler") ScheduledExecutorService scheduler) {
+        return new RestTemplate(requestFactory(geminiHttpClient, props, props.getPhoto(), scheduler));
+    }
+
+    public static DeadlineClientHttpRequestFactory requestFactory(CloseableHttpClient httpClient, GeminiHttpProperties props,
+                                                                  GeminiHttpProperties.Operation operation,
+                                                                  ScheduledExecutorService scheduler) {
+        DeadlineClientHttpRequestFactory factory =
+                new DeadlineClientHttpRequestFactory(httpClient, operation.getTotalTimeout(), scheduler);
+        factory.setConnectionRequestTimeout(props.getPoolAcquireTimeout());
+        factory.setReadTimeout(operation.getReadTimeout());
+        return factory;
+    }
+
+    // 풀 상태(사용 중/대기 중/유휴 커넥션 수) → /actuator/metrics/httpcomponents.httpclient.pool.*
+    @Bean
+    public MeterBinder geminiConnectionPoolMetrics(PoolingHttpClientConnectionManager geminiConnectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(geminiConnectionManager, "gemini");
+    }
+}
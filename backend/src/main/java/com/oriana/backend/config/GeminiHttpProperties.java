@@ -0,0 +1,42 @@
+package com.oriana.backend.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Gemini 호출 전용 HTTP 클라이언트 설정 (gemini.http.*)
+ * 커넥션 풀은 하나를 같이 쓰고, 제한 시간은 작업(텍스트/사진)별로 따로 준다.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "gemini.http")
+public class GeminiHttpProperties {
+
+    private int maxConnections = 50;                           // 풀 전체 최대 커넥션 수
+    private int maxConnectionsPerRoute = 50;                   // 호스트(Gemini)당 최대 커넥션 수
+    private Duration connectTimeout = Duration.ofSeconds(3);   // TCP + TLS 연결 제한 시간
+    private Duration poolAcquireTimeout = Duration.ofSeconds(2); // 풀에서 커넥션 빌릴 때 대기 한도
+    private Duration idleEvictAfter = Duration.ofSeconds(30);  // 이만큼 놀고 있는 커넥션은 정리
+    private Duration timeToLive = Duration.ofMinutes(5);       // 커넥션 최대 수명 (DNS 변경 대비)
+
+    private Operation text = new Operation(Duration.ofSeconds(30), Duration.ofSeconds(45));
+    private Operation photo = new Operation(Duration.ofSeconds(60), Duration.ofSeconds(90));
+
+    @Getter
+    @Setter
+    public static class Operation {
+        private Duration readTimeout;   // 응답 패킷 사이 최대 대기 시간
+        private Duration totalTimeout;  // 요청 시작 ~ 응답 본문 끝까지 전체 제한 시간
+
+        public Operation() {
+        }
+
+        public Operation(Duration readTimeout, Duration totalTimeout) {
+            this.readTimeout = readTimeout;
+            this.totalTimeout = totalTimeout;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.oriana.backend.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Gemini 호출 보호 설정 (gemini.resilience.*)
+ * 쿼터에 맞춘 호출 속도 제한 → 동시 호출 상한 → 재시도(지수 백오프 + 지터) → 서킷 브레이커 순으로 감쌈.
+ * hedge 는 꼬리 지연을 줄이기 위한 중복 호출 정책 (GeminiHedger).
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "gemini.resilience")
+public class GeminiResilienceProperties {
+
+    private RateLimit rateLimit = new RateLimit();
+    private Bulkhead bulkhead = new Bulkhead();
+    private Retry retry = new Retry();
+    private CircuitBreaker circuitBreaker = new CircuitBreaker();
+    private Hedge hedge = new Hedge();
+
+    @Getter
+    @Setter
+    public static class RateLimit {
+        private int limitForPeriod = 5;                            // 주기당 허용 호출 수 (API 쿼터 RPM / 60 정도로 맞춤)
+        private Duration refreshPeriod = Duration.ofSeconds(1);    // 허용량이 다시 채워지는 주기
+        private Duration timeout = Duration.ofSeconds(2);          // 허용량이 없을 때 기다리는 최대 시간
+    }
+
+    @Getter
+    @Setter
+    public static class Bulkhead {
+        private int maxConcurrentCalls = 20;                       // 동시에 Gemini로 나가는 호출 상한 (커넥션 풀보다 작게)
+        private Duration maxWait = Duration.ofSeconds(1);          // 자리가 없을 때 기다리는 최대 시간
+    }
+
+    @Getter
+    @Setter
+    public static class Retry {
+        private int maxAttempts = 3;                               // 첫 호출 포함 최대 시도 횟수
+        private Duration initialBackoff = Duration.ofMillis(500);
+        private double multiplier = 2.0;
+        private double jitter = 0.5;                               // 백오프 ±50% 랜덤 (동시에 재시도가 몰리지 않게)
+        private Duration maxBackoff = Duration.ofSeconds(8);
+        private Duration maxRetryAfter = Duration.ofSeconds(10);   // 429의 Retry-After가 이보다 길면 재시도하지 않고 실패
+    }
+
+    @Getter
+    @Setter
+    public static class CircuitBreaker {
+        private int slidingWindowSize = 20;                        // 최근 N번 호출 기준으로 실패율 계산
+        private int minimumNumberOfCalls = 10;
+        private float failureRateThreshold = 50;                   // 실패율(%)이 이 이상이면 OPEN
+        private Duration slowCallThreshold = Duration.ofSeconds(40);
+        private float slowCallRateThreshold = 80;
+        private Duration waitInOpenState = Duration.ofSeconds(30); // OPEN 유지 시간 (그동안은 바로 실패)
+        private int permittedCallsInHalfOpenState = 3;
+    }
+
+    @Getter
+    @Setter
+    public static class Hedge {
+        private boolean enabled = false;                           // 켜면 느린 호출에 똑같은 호출을 하나 더 보내고 먼저 끝난 쪽을 씀
+        private double percentile = 0.9;                           // 프롬프트 종류별 최근 지연 시간의 이 백분위를 넘기면 hedge
+        private Duration minDelay = Duration.ofMillis(500);        // 백분위가 아무리 짧아도 이보다 빨리는 hedge 안 함
+        private int minSamples = 20;                               // 지연 시간 표본이 이만큼 쌓이기 전엔 hedge 안 함
+        private int windowSize = 200;                              // 백분위 계산에 쓰는 최근 표본 수 (프롬프트 종류별)
+        private double budget = 0.1;                               // 전체 호출 중 hedge 비율 상한 (호출 1번마다 0.1회분 적립)
+        private int maxBurst = 10;                                 // 적립해둘 수 있는 hedge 최대 횟수
+    }
+}
@@ -0,0 +1,50 @@
+package com.oriana.backend.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * AI 문제 생성 전용 스레드 풀
+ * Gemini 응답을 기다리는 동안 Tomcat 요청 스레드를 붙잡지 않도록, 생성 API는 이 풀에서 돌린다.
+ * 풀/큐 크기에 상한이 있어서 AI 호출이 몰려도 다른 API(조회, 채점)용 스레드는 남아있음.
+ * ThreadPoolExecutor 는 큐가 꽉 찬 뒤에야 core 를 넘겨 스레드를 늘리므로, core = max(pool-size)로 두고 한가하면 줄어들게 함.
+ * (core < max 면 큐에 queue-capacity 개가 쌓이기 전까지 core 개만 돌아서, 그 사이 요청은 스레드가 남아도 줄 서서 기다림)
+ * 실제 Gemini 동시 호출은 bulkhead(max-concurrent-calls)가 따로 제한함. 나머지 스레드는 같은 요청에 합쳐져 결과를 기다리거나
+ * 재고/사진 재사용처럼 AI 호출 없이 끝나는 요청 몫.
+ */
+@Configuration
+public class GenerationExecutorConfig {
+
+    @Value("${oriana.generation.async.enabled:true}")
+    private boolean asyncEnabled;
+
+    @Value("${oriana.generation.executor.pool-size:64}")
+    private int poolSize;
+
+    @Value("${oriana.generation.executor.queue-capacity:200}")
+    private int queueCapacity;
+
+    @Bean
+    public AsyncTaskExecutor generationExecutor() {
+        if (!asyncEnabled) {
+            // 비교/롤백용: 예전처럼 요청 스레드에서 바로 실행
+            return new TaskExecutorAdapter(new SyncTaskExecutor());
+        }
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("ai-gen-");
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setAllowCoreThreadTimeOut(true); // 한가할 때는 keep-alive(60초) 뒤 스레드 반납
+        executor.setQueueCapacity(queueCapacity); // 꽉 차면 TaskRejectedException → 503
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+}
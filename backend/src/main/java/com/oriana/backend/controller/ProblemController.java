@@ -1,15 +1,31 @@
 package com.oriana.backend.controller;
 
+import com.oriana.backend.dto.CursorPageDto;
 import com.oriana.backend.dto.ProblemRequestDto;
 import com.oriana.backend.dto.ProblemResponseDto;
 import com.oriana.backend.dto.SimilarGenerateRequestDto;
+import com.oriana.backend.service.AiUnavailableException;
 import com.oriana.backend.service.ProblemService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/problems")
@@ -17,38 +33,113 @@ import java.util.List;
 @CrossOrigin(originPatterns = "*", allowCredentials = "true")
 public class ProblemController {
 
+    private static final long STREAM_TIMEOUT_MS = 150_000L;
+
+    // 🏷️ 문제는 저장한 뒤로 안 바뀌고 id는 재사용되지 않음 (시퀀스는 앞으로만) → id만으로 강한 ETag
+    // ProblemResponseDto 필드가 바뀌면 버전을 올려서 예전 응답을 들고 있는 브라우저도 새로 받게
+    private static final String PROBLEM_REPRESENTATION_VERSION = "v1";
+    // immutable 은 안 붙임: 중복 정리(ProblemDedupJob)가 합친 문제는 지워지니까, 1시간 뒤엔 다시 물어봐서(If-None-Match)
+    // 아직 있으면 304, 지워졌으면 404 로 알 수 있게
+    private static final CacheControl REVALIDATE_HOURLY = CacheControl.maxAge(1, TimeUnit.HOURS).cachePublic();
+
     private final ProblemService problemService;
 
+    // AI 생성 API는 CompletableFuture로 리턴 → Tomcat 스레드는 바로 반납되고, 생성은 전용 풀에서 진행
+    @Qualifier("generationExecutor")
+    private final AsyncTaskExecutor generationExecutor;
+
     // 1. 맞춤 문제 추천 API (POST /api/problems/recommend)
     @PostMapping("/recommend")
-    public ResponseEntity<List<ProblemResponseDto>> recommendProblem(@RequestBody ProblemRequestDto prefs) {
-        return ResponseEntity.ok(problemService.createRecommendedProblem(prefs));
+    public CompletableFuture<ResponseEntity<List<ProblemResponseDto>>> recommendProblem(@RequestBody ProblemRequestDto prefs) {
+        return CompletableFuture.supplyAsync(
+                () -> ResponseEntity.ok(problemService.createRecommendedProblem(prefs)), generationExecutor);
+    }
+
+    // 1-1. 맞춤 문제 스트리밍 API (GET /api/problems/recommend/stream?grade=..&subject=..)
+    // 문제가 하나 만들어질 때마다 "problem" 이벤트로 바로 보내고, 끝나면 "done" 이벤트
+    @GetMapping(value = "/recommend/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter recommendProblemStream(@ModelAttribute ProblemRequestDto prefs) {
+        SseEmitter emitter = new SseEmitter(STREAM_TIMEOUT_MS);
+
+        generationExecutor.execute(() -> {
+            try {
+                int count = problemService.streamRecommendedProblem(prefs, problem -> send(emitter, "problem", problem));
+                send(emitter, "done", count);
+                emitter.complete();
+            } catch (Exception e) {
+                emitter.completeWithError(e);
+            }
+        });
+        return emitter;
+    }
+
+    private void send(SseEmitter emitter, String eventName, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(eventName).data(data));
+        } catch (IOException e) {
+            // 클라이언트가 연결을 끊음 → 예외를 던져서 Gemini 스트림도 같이 중단
+            throw new UncheckedIOException(e);
+        }
     }
 
     // 2. 사진 문제 스캔 API (POST /api/problems/upload)
+    // 업로드 임시 파일은 비동기 처리가 끝날 때까지 유지됨 (Spring이 async 완료 후 정리)
     @PostMapping("/upload")
-    public ResponseEntity<List<ProblemResponseDto>> uploadProblem(@RequestParam("file") MultipartFile file) {
-        return ResponseEntity.ok(problemService.createPhotoProblem(file));
+    public CompletableFuture<ResponseEntity<List<ProblemResponseDto>>> uploadProblem(@RequestParam("file") MultipartFile file) {
+        return CompletableFuture.supplyAsync(
+                () -> ResponseEntity.ok(problemService.createPhotoProblem(file)), generationExecutor);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<ProblemResponseDto> getProblem(@PathVariable Long id) {
+    public ResponseEntity<ProblemResponseDto> getProblem(@PathVariable Long id, ServletWebRequest request) {
+        // 문제 캐시에서 확인 (대부분 DB 안 감). 중복 정리로 지워진 문제면 다시 물어본 브라우저에도 404
+        Optional<ProblemResponseDto> problem = problemService.findProblem(id);
+        if (problem.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        // 이미 받아간 문제면 (If-None-Match) 본문 없이 304
+        String eTag = problemETag(id);
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).cacheControl(REVALIDATE_HOURLY).build();
+        }
         // Service에서 DTO로 변환된 데이터를 받아와서 리턴
-        return ResponseEntity.ok(problemService.getProblemById(id));
+        return ResponseEntity.ok().eTag(eTag).cacheControl(REVALIDATE_HOURLY).body(problem.get());
+    }
+
+    static String problemETag(Long id) {
+        return "\"problem-" + id + "-" + PROBLEM_REPRESENTATION_VERSION + "\"";
     }
 
     // 🔄 유사 문제 생성 API (역할: 데이터 생성 및 저장)
     // 프론트의 api.post('/problems/similar/generate')와 매칭돼!
     @PostMapping("/similar/generate")
-    public ResponseEntity<List<ProblemResponseDto>> generateSimilar(@RequestBody SimilarGenerateRequestDto request) {
-        return ResponseEntity.ok(problemService.generateSimilarProblems(request.baseId()));
+    public CompletableFuture<ResponseEntity<List<ProblemResponseDto>>> generateSimilar(@RequestBody SimilarGenerateRequestDto request) {
+        return CompletableFuture.supplyAsync(
+                () -> ResponseEntity.ok(problemService.generateSimilarProblems(request.baseId())), generationExecutor);
     }
 
     // 📋 유사 문제 리스트 조회 API (역할: 순수 조회)
-    // 프론트의 api.get('/problems/similar')와 매칭돼!
+    // 프론트의 api.get('/problems/similar')와 매칭돼! 최신순 size개씩, 다음 페이지는 응답의 nextCursor 로
     @GetMapping("/similar")
-    public ResponseEntity<List<ProblemResponseDto>> getSimilarList(@RequestParam Long baseId) {
-        return ResponseEntity.ok(problemService.getSimilarProblems(baseId));
+    public ResponseEntity<CursorPageDto<ProblemResponseDto>> getSimilarList(@RequestParam Long baseId,
+                                                                           @RequestParam(required = false) String cursor,
+                                                                           @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(problemService.getSimilarProblems(baseId, cursor, size));
     }
 
+    // 생성 풀 + 대기 큐가 가득 찼을 때: 무한정 쌓지 말고 잠시 후 다시 시도하라고 알려줌
+    @ExceptionHandler(TaskRejectedException.class)
+    public ResponseEntity<String> handleGenerationOverload(TaskRejectedException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "5")
+                .body("문제 생성 요청이 너무 많아요. 잠시 후 다시 시도해주세요.");
+    }
+
+    // Gemini 서킷 OPEN / 호출 한도 초과: 기다리며 재시도하지 않고 바로 실패 응답
+    @ExceptionHandler(AiUnavailableException.class)
+    public ResponseEntity<String> handleAiUnavailable(AiUnavailableException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, e.getRetryAfter().toSeconds())))
+                .body(e.getMessage());
+    }
 }
\ No newline at end of file
@@ -6,8 +6,8 @@ import com.oriana.backend.service.SolveService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import com.oriana.backend.dto.CursorPageDto;
 import com.oriana.backend.dto.HistoryResponseDto;
-import java.util.List;
 
 @RestController
 @RequestMapping("/api/solve")
@@ -23,8 +23,11 @@ public class SolveController {
         return ResponseEntity.ok(solveService.gradeProblem(request));
     }
 
+    // 풀이 기록 (GET /api/solve/history?userId=..&cursor=..&size=..) 최신순 size개씩, 다음 페이지는 응답의 nextCursor 로
     @GetMapping("/history")
-    public ResponseEntity<List<HistoryResponseDto>> getHistory(@RequestParam Long userId) {
-        return ResponseEntity.ok(solveService.getUserHistory(userId));
+    public ResponseEntity<CursorPageDto<HistoryResponseDto>> getHistory(@RequestParam Long userId,
+                                                                        @RequestParam(required = false) String cursor,
+                                                                        @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(solveService.getUserHistory(userId, cursor, size));
     }
 }
\ No newline at end of file
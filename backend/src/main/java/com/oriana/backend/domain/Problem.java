@@ -9,15 +9,27 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "problems")
+// 실제 스키마는 Flyway(db/migration)가 만들고, 여기 인덱스는 같은 내용을 적어둔 것
+@Table(name = "problems", indexes = {
+        // 재고 꺼내기: WHERE inventory_bucket = ? AND served_at IS NULL
+        @Index(name = "idx_problems_inventory", columnList = "inventory_bucket, served_at"),
+        // 사진 중복 캐시를 재시작 때 다시 채울 때: WHERE photo_hash IS NOT NULL
+        @Index(name = "idx_problems_photo_hash", columnList = "photo_hash"),
+        // 같은 내용의 문제는 한 행만: 저장 전에 content_hash 로 찾아서 재사용
+        @Index(name = "uk_problems_content_hash", columnList = "content_hash", unique = true),
+        // 유사 문제 커서 페이지: WHERE parent_problem_id = ? AND (created_at, id) < (?, ?) ORDER BY created_at DESC, id DESC
+        @Index(name = "idx_problems_parent_created", columnList = "parent_problem_id, created_at desc, id desc")
+})
 @Getter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 public class Problem {
 
+    // 🔢 시퀀스에서 50개씩 미리 받아와서 씀 (IDENTITY 는 INSERT 마다 id를 받아와야 해서 JDBC 배치가 꺼짐 → saveAll 이 행마다 왕복)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "problems_seq")
+    @SequenceGenerator(name = "problems_seq", sequenceName = "problems_seq", allocationSize = 50)
     private Long id;
 
     // 💡 원본 문제와 유사 문제를 연결해주는 핵심 족보
@@ -62,11 +74,52 @@ public class Problem {
     @Column(name = "is_subjective", nullable = false)
     private boolean isSubjective; // 주관식 여부
 
-    @Column(name = "created_at", updatable = false)
+    @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
+    // 📦 미리 만들어둔 재고 문제의 버킷 키 (학년|과목|단원|난이도|유형). 바로 생성해서 준 문제는 null
+    @Column(name = "inventory_bucket", length = 255)
+    private String inventoryBucket;
+
+    // 재고 문제가 학생에게 나간 시각 (null이면 아직 재고로 남아있음)
+    @Column(name = "served_at")
+    private LocalDateTime servedAt;
+
+    // 📷 사진 스캔 문제면 원본 사진의 지각 해시(pHash). 같은 문제를 다시 찍어 올리면 이걸로 찾아서 재사용
+    @Column(name = "photo_hash")
+    private Long photoHash;
+
+    // 🔑 정규화한 문제 + 보기 + 정답의 SHA-256 (ProblemFingerprint). 예전 행은 dedup 작업이 채우기 전까지 null
+    // 어디에 붙은 문제인지(원본 문제 / 재고 버킷)는 안 들어감 → 같은 문제는 한 행, 연결은 ProblemIngestService 가 따로 처리
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    // 재고로 넣기 (백그라운드 채우기에서 저장 전에 호출)
+    public void stockInto(String bucketKey) {
+        this.inventoryBucket = bucketKey;
+    }
+
+    // 재고에서 꺼내서 학생에게 내보냄
+    public void markServed() {
+        this.servedAt = LocalDateTime.now();
+    }
+
+    // 어떤 사진에서 뽑은 문제인지 기록 (저장 전에 호출)
+    public void scannedFrom(Long photoHash) {
+        this.photoHash = photoHash;
+    }
+
+    // 내용 지문 (없으면 계산해서 채움)
+    public String fingerprint() {
+        if (contentHash == null) {
+            contentHash = ProblemFingerprint.of(question, options, answer);
+        }
+        return contentHash;
+    }
+
     @PrePersist
     protected void onCreate() {
         this.createdAt = LocalDateTime.now();
+        fingerprint();
     }
 }
\ No newline at end of file
@@ -0,0 +1,54 @@
+package com.oriana.backend.domain;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * 🔑 문제 내용 지문 (problems.content_hash)
+ * 정규화한 문제 텍스트 + 보기 + 정답의 SHA-256. 재시도 / 같은 프롬프트 반복 / 재스캔으로
+ * 글자 하나 안 다르거나 공백만 다른 문제가 다시 나오면 같은 지문이 나와서 기존 행을 재사용한다.
+ * 정규화: NFKC(전각 → 반각 등) → 보이지 않는 서식 문자 제거 → 연속 공백을 공백 1개로 → 앞뒤 공백 제거
+ */
+public final class ProblemFingerprint {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern FORMAT_CHARS = Pattern.compile("\\p{Cf}"); // zero-width space, BOM 등
+    private static final char FIELD_SEPARATOR = '\u001E';
+    private static final char OPTION_SEPARATOR = '\u001F';
+
+    private ProblemFingerprint() {
+    }
+
+    public static String of(String question, List<String> options, String answer) {
+        StringBuilder canonical = new StringBuilder(normalize(question)).append(FIELD_SEPARATOR);
+        if (options != null) {
+            for (String option : options) {
+                canonical.append(normalize(option)).append(OPTION_SEPARATOR);
+            }
+        }
+        canonical.append(FIELD_SEPARATOR).append(normalize(answer));
+        return HexFormat.of().formatHex(sha256().digest(canonical.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFKC);
+        normalized = FORMAT_CHARS.matcher(normalized).replaceAll("");
+        return WHITESPACE.matcher(normalized).replaceAll(" ").trim();
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // 모든 JVM에 있음
+        }
+    }
+}
@@ -7,7 +7,14 @@ import org.hibernate.annotations.ColumnDefault;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "solve_history")
+// 실제 스키마는 Flyway(db/migration)가 만들고, 여기 인덱스 / 제약은 같은 내용을 적어둔 것
+@Table(name = "solve_history", uniqueConstraints = {
+        // 채점할 때마다: WHERE user_id = ? AND problem_id = ? (학생 + 문제당 기록 하나)
+        @UniqueConstraint(name = "uk_solve_history_user_problem", columnNames = {"user_id", "problem_id"})
+}, indexes = {
+        // 풀이 기록 커서 페이지: WHERE user_id = ? AND (solved_at, id) < (?, ?) ORDER BY solved_at DESC, id DESC
+        @Index(name = "idx_solve_history_user_solved", columnList = "user_id, solved_at desc, id desc")
+})
 @Getter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @AllArgsConstructor
@@ -15,7 +22,8 @@ import java.time.LocalDateTime;
 public class SolveHistory {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "solve_history_seq")
+    @SequenceGenerator(name = "solve_history_seq", sequenceName = "solve_history_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -32,22 +40,13 @@ public class SolveHistory {
     @Column(name = "attempt_count", nullable = false)
     @ColumnDefault("0")
     @Builder.Default
-    private int attemptCount = 0; // 이 문제를 몇 번 만에 맞췄는지 기록
+    private int attemptCount = 0; // 이 문제를 몇 번 만에 맞췄는지 기록 (채점할 때 SolveHistoryRepository.grade 가 올림)
 
-    @Column(name = "solved_at")
+    @Column(name = "solved_at", nullable = false)
     private LocalDateTime solvedAt;
 
-    // 시도 횟수 증가 로직
-    public void incrementAttempt() {
-        this.attemptCount++;
-    }
-
     @PrePersist
     protected void onCreate() {
         this.solvedAt = LocalDateTime.now();
     }
-
-    public void markAsCorrect() {
-        this.isCorrect = true;
-    }
 }
\ No newline at end of file
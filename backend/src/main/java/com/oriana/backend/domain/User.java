@@ -15,7 +15,8 @@ import java.time.LocalDateTime;
 public class User {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, length = 50)
@@ -35,19 +36,11 @@ public class User {
     @ColumnDefault("10")
     @Builder.Default
     private int nextLevelPoints = 10; // 다음 레벨업에 필요한 포인트
+    // 포인트 적립 / 레벨업은 채점 쿼리(SolveHistoryRepository.grade)가 UPDATE 한 번으로 처리 (동시에 적립해도 안 사라지게)
 
-    @Column(name = "created_at", updatable = false)
+    @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
-    // 포인트 획득 및 레벨업 비즈니스 로직
-    public void addPoints(int earnedPoints) {
-        this.points += earnedPoints;
-        if (this.points >= this.nextLevelPoints) {
-            this.level += 1;
-            this.nextLevelPoints += this.level*10; // 레벨업 시 다음 기준치 증가
-        }
-    }
-
     @PrePersist
     protected void onCreate() {
         this.createdAt = LocalDateTime.now();
@@ -0,0 +1,6 @@
+package com.oriana.backend.dto;
+
+import java.util.List;
+
+// 커서 페이지 응답: nextCursor 를 그대로 다음 요청의 cursor 로 보내면 이어서 가져옴 (마지막 페이지면 null)
+public record CursorPageDto<T>(List<T> items, String nextCursor) {}
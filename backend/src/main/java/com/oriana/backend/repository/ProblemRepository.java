@@ -1,10 +1,123 @@
 package com.oriana.backend.repository;
 
 import com.oriana.backend.domain.Problem;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface ProblemRepository extends JpaRepository<Problem, Long> {
-    List<Problem> findByParentProblemIdOrderByCreatedAtDesc(Long parentId);
-}
\ No newline at end of file
+    // 🔄 유사 문제 목록 한 페이지 (최신순, PageCursor). idx_problems_parent_created (parent_problem_id, created_at, id)
+    @Query("""
+            SELECT p FROM Problem p
+            WHERE p.parentProblem.id = :parentId
+            ORDER BY p.createdAt DESC, p.id DESC
+            """)
+    List<Problem> findSimilarPage(@Param("parentId") Long parentId, Pageable limit);
+
+    @Query("""
+            SELECT p FROM Problem p
+            WHERE p.parentProblem.id = :parentId AND (p.createdAt, p.id) < (:createdAt, :id)
+            ORDER BY p.createdAt DESC, p.id DESC
+            """)
+    List<Problem> findSimilarPageAfter(@Param("parentId") Long parentId, @Param("createdAt") LocalDateTime createdAt,
+                                       @Param("id") Long id, Pageable limit);
+
+    // 📦 재고에서 아직 안 나간 문제를 잠그고 가져오기
+    // SKIP LOCKED: 동시에 같은 버킷을 요청한 다른 학생이 잠근 행은 건너뜀 → 같은 문제를 두 명에게 주지 않고, 서로 기다리지도 않음
+    @Query(value = """
+            SELECT * FROM problems
+            WHERE inventory_bucket = :bucket AND served_at IS NULL
+            ORDER BY id
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<Problem> lockUnservedStock(@Param("bucket") String bucket, @Param("limit") int limit);
+
+    long countByInventoryBucketAndServedAtIsNull(String inventoryBucket);
+
+    @Query("SELECT DISTINCT p.inventoryBucket FROM Problem p WHERE p.inventoryBucket IS NOT NULL AND p.servedAt IS NULL")
+    List<String> findStockedBuckets();
+
+    // 📷 사진 중복 캐시 복원용 (최근 것부터)
+    @Query("SELECT p.photoHash AS photoHash, p.id AS id FROM Problem p WHERE p.photoHash IS NOT NULL ORDER BY p.id DESC")
+    List<PhotoHashRow> findPhotoHashes(Pageable pageable);
+
+    // 사진 해시 없이 저장됐던 문제를 다른 사진 스캔이 재사용하면 그 사진 해시를 채움 (재시작 후에도 그 사진으로 찾히게)
+    @Modifying
+    @Query("UPDATE Problem p SET p.photoHash = :photoHash WHERE p.id IN :ids AND p.photoHash IS NULL")
+    @Transactional
+    int fillPhotoHash(@Param("ids") Collection<Long> ids, @Param("photoHash") Long photoHash);
+
+    // 📷 사진 재사용 전 확인용 세부 밝기 지도 (엔티티에는 매핑하지 않음 - 문제 조회마다 12KB씩 같이 읽지 않게)
+    @Query(value = "SELECT id AS id, photo_detail AS photoDetail FROM problems WHERE id IN (:ids) AND photo_detail IS NOT NULL",
+            nativeQuery = true)
+    List<PhotoDetailRow> findPhotoDetails(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query(value = "UPDATE problems SET photo_detail = :detail WHERE id IN (:ids) AND photo_detail IS NULL", nativeQuery = true)
+    @Transactional
+    int fillPhotoDetail(@Param("ids") Collection<Long> ids, @Param("detail") byte[] detail);
+
+    // 유사 문제로 다시 나온 기존 문제가 아직 원본 없이 있으면 그 원본 아래로 연결 (이미 다른 원본 아래면 그대로)
+    // 원본 자신이나 원본의 원본은 제외 (순환 안 생기게)
+    @Modifying
+    @Query(value = """
+            UPDATE problems SET parent_problem_id = :parentId
+            WHERE id IN (:ids) AND parent_problem_id IS NULL AND id <> :parentId
+              AND NOT EXISTS (SELECT 1 FROM problems parent WHERE parent.id = :parentId AND parent.parent_problem_id = problems.id)
+            """, nativeQuery = true)
+    @Transactional
+    int linkToParent(@Param("ids") Collection<Long> ids, @Param("parentId") Long parentId);
+
+    // 바로 생성 결과로 내준 기존 문제가 아직 안 나간 재고였으면 재고에서 뺌
+    @Modifying
+    @Query("UPDATE Problem p SET p.servedAt = :servedAt WHERE p.id IN :ids AND p.inventoryBucket IS NOT NULL AND p.servedAt IS NULL")
+    @Transactional
+    int markStockServed(@Param("ids") Collection<Long> ids, @Param("servedAt") LocalDateTime servedAt);
+
+    // 🗃️ 문제 캐시 미리 채우기용 (최근 것부터)
+    List<Problem> findByOrderByIdDesc(Pageable pageable);
+
+    // 🔑 내용 지문으로 기존 문제 찾기 (저장 전 중복 확인)
+    List<Problem> findByContentHashIn(Collection<String> contentHashes);
+
+    @Query("SELECT p.id FROM Problem p WHERE p.contentHash = :contentHash")
+    Optional<Long> findIdByContentHash(@Param("contentHash") String contentHash);
+
+    // dedup 작업용: 아직 지문이 없는 예전 행 (id 순서대로 끊어서)
+    @Query("SELECT p FROM Problem p WHERE p.contentHash IS NULL AND p.id > :afterId ORDER BY p.id")
+    List<Problem> findUnfingerprinted(@Param("afterId") long afterId, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE Problem p SET p.contentHash = :contentHash WHERE p.id = :id")
+    int setContentHash(@Param("id") Long id, @Param("contentHash") String contentHash);
+
+    // 중복 행의 유사 문제들을 남길 행으로 옮김 (남길 행 자신이 중복 행의 자식이었으면 부모 없음으로)
+    @Modifying
+    @Query(value = """
+            UPDATE problems
+            SET parent_problem_id = CASE WHEN id = :canonicalId THEN NULL ELSE :canonicalId END
+            WHERE parent_problem_id = :duplicateId
+            """, nativeQuery = true)
+    int repointChildren(@Param("duplicateId") Long duplicateId, @Param("canonicalId") Long canonicalId);
+
+    interface PhotoHashRow {
+        Long getPhotoHash();
+
+        Long getId();
+    }
+
+    interface PhotoDetailRow {
+        Long getId();
+
+        byte[] getPhotoDetail();
+    }
+}
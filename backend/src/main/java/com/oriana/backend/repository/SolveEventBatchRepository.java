@@ -0,0 +1,152 @@
+package com.oriana.backend.repository;
+
+import com.oriana.backend.service.SolveEvent;
+import com.oriana.backend.service.SolveEventLog;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 📼 write-behind 채점 이벤트를 DB에 몰아서 반영 (SolveWriteBehind 의 flusher 가 호출)
+ * 이벤트 수천 개 = 트랜잭션 1번 + SQL 3번: 기록 upsert 1번(배열 unnest) + 포인트 적립 배치 1번 + 체크포인트 1번.
+ * 체크포인트(solve_event_checkpoint, 노드별 마지막 반영 seq)를 같은 트랜잭션에서 올리니까
+ * 반영 중에 죽어도 재시작 후 로그를 다시 적용할 때 두 번 반영되지 않음.
+ */
+@Repository
+@RequiredArgsConstructor
+public class SolveEventBatchRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // 같은 (학생, 문제) 이벤트를 합친 행을 한 번에 upsert. 새로 만든 행만 inserted = true (xmax = 0)
+    // 그 사이 지워진 학생 / 문제(중복 정리 등) 이벤트는 건너뜀 → FK 위반으로 묶음 전체가 막히지 않게
+    private static final String UPSERT_HISTORY = """
+            INSERT INTO solve_history (id, user_id, problem_id, is_correct, attempt_count, solved_at)
+            SELECT nextval('solve_history_seq'), e.user_id, e.problem_id, e.is_correct, e.attempts, e.solved_at
+            FROM unnest(?::bigint[], ?::bigint[], ?::boolean[], ?::int[], ?::timestamp[])
+                     AS e(user_id, problem_id, is_correct, attempts, solved_at)
+            WHERE EXISTS (SELECT 1 FROM users u WHERE u.id = e.user_id)
+              AND EXISTS (SELECT 1 FROM problems p WHERE p.id = e.problem_id)
+            ON CONFLICT (user_id, problem_id) DO UPDATE
+            SET attempt_count = solve_history.attempt_count + EXCLUDED.attempt_count,
+                is_correct = solve_history.is_correct OR EXCLUDED.is_correct
+            RETURNING user_id, problem_id, xmax = 0 AS inserted
+            """;
+
+    // SolveHistoryRepository.grade 의 적립 / 레벨업 규칙과 같음
+    private static final String REWARD = """
+            UPDATE users
+            SET points = points + ?,
+                level = CASE WHEN points + ? >= next_level_points THEN level + 1 ELSE level END,
+                next_level_points = CASE WHEN points + ? >= next_level_points
+                                         THEN next_level_points + (level + 1) * 10 ELSE next_level_points END
+            WHERE id = ?
+            """;
+
+    private static final String CHECKPOINT = """
+            INSERT INTO solve_event_checkpoint (node_id, applied_seq, updated_at) VALUES (?, ?, now())
+            ON CONFLICT (node_id) DO UPDATE
+            SET applied_seq = GREATEST(solve_event_checkpoint.applied_seq, EXCLUDED.applied_seq), updated_at = now()
+            """;
+
+    public long findCheckpoint(String nodeId) {
+        return jdbcTemplate.query("SELECT applied_seq FROM solve_event_checkpoint WHERE node_id = ?",
+                        (rs, rowNum) -> rs.getLong(1), nodeId)
+                .stream().findFirst().orElse(0L);
+    }
+
+    /**
+     * seq 순서대로 받은 이벤트 묶음 반영. 첫 시도 정답 보상은 DB 기준:
+     * 이번에 기록이 새로 생겼고, 묶음 안에서 그 (학생, 문제)의 첫 이벤트가 정답일 때만
+     *
+     * @return 포인트를 적립한 이벤트 수
+     */
+    @Transactional
+    public int apply(String nodeId, List<SolveEventLog.Entry> entries) {
+        Map<List<Long>, Attempts> attempts = new LinkedHashMap<>();
+        for (SolveEventLog.Entry entry : entries) {
+            SolveEvent event = entry.event();
+            attempts.computeIfAbsent(List.of(event.userId(), event.problemId()), key -> new Attempts(event))
+                    .add(event);
+        }
+
+        Set<List<Long>> inserted = new HashSet<>(jdbcTemplate.execute(UPSERT_HISTORY, (PreparedStatement statement) -> {
+            int size = attempts.size();
+            Long[] userIds = new Long[size];
+            Long[] problemIds = new Long[size];
+            Boolean[] correct = new Boolean[size];
+            Integer[] counts = new Integer[size];
+            Timestamp[] solvedAt = new Timestamp[size];
+            int i = 0;
+            for (Attempts attempt : attempts.values()) {
+                userIds[i] = attempt.first.userId();
+                problemIds[i] = attempt.first.problemId();
+                correct[i] = attempt.anyCorrect;
+                counts[i] = attempt.count;
+                solvedAt[i] = Timestamp.valueOf(attempt.first.solvedAt());
+                i++;
+            }
+            statement.setArray(1, array(statement, "bigint", userIds));
+            statement.setArray(2, array(statement, "bigint", problemIds));
+            statement.setArray(3, array(statement, "boolean", correct));
+            statement.setArray(4, array(statement, "integer", counts));
+            statement.setArray(5, array(statement, "timestamp", solvedAt));
+            List<List<Long>> keys = new ArrayList<>();
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    if (rs.getBoolean("inserted")) {
+                        keys.add(List.of(rs.getLong("user_id"), rs.getLong("problem_id")));
+                    }
+                }
+            }
+            return keys;
+        }));
+
+        // 적립은 seq 순서대로 (레벨업 기준이 적립할 때마다 바뀜)
+        List<Object[]> rewards = attempts.entrySet().stream()
+                .filter(attempt -> attempt.getValue().first.correct() && inserted.contains(attempt.getKey()))
+                .map(attempt -> {
+                    SolveEvent first = attempt.getValue().first;
+                    return new Object[]{first.points(), first.points(), first.points(), first.userId()};
+                })
+                .toList();
+        if (!rewards.isEmpty()) {
+            jdbcTemplate.batchUpdate(REWARD, rewards);
+        }
+
+        jdbcTemplate.update(CHECKPOINT, nodeId, entries.get(entries.size() - 1).seq());
+        return rewards.size();
+    }
+
+    private static Array array(PreparedStatement statement, String type, Object[] values) throws SQLException {
+        return statement.getConnection().createArrayOf(type, values);
+    }
+
+    private static final class Attempts {
+        private final SolveEvent first;
+        private int count;
+        private boolean anyCorrect;
+
+        private Attempts(SolveEvent first) {
+            this.first = first;
+        }
+
+        private void add(SolveEvent event) {
+            count++;
+            anyCorrect |= event.correct();
+        }
+    }
+}
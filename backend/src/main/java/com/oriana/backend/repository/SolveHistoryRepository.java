@@ -1,12 +1,109 @@
 package com.oriana.backend.repository;
 
 import com.oriana.backend.domain.SolveHistory;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Optional;
 
 public interface SolveHistoryRepository extends JpaRepository<SolveHistory, Long> {
-    // 마이페이지용: 특정 유저의 오답노트(문제 풀이 기록)를 최신순으로 가져오기
-    List<SolveHistory> findByUserIdOrderBySolvedAtDesc(Long userId);
-    Optional<SolveHistory> findByUserIdAndProblemId(Long userId, Long problemId);
+    // 마이페이지용: 특정 유저의 오답노트(문제 풀이 기록)를 최신순으로 한 페이지씩 가져오기 (PageCursor)
+    // 문제까지 한 번에 JOIN 해서 가져옴 (안 그러면 기록마다 문제 SELECT 가 한 번씩 더 나감 = N+1)
+    // idx_solve_history_user_solved (user_id, solved_at, id) 를 거꾸로 읽으면서 limit 만큼만 읽고 끝남
+    @Query("""
+            SELECT h FROM SolveHistory h JOIN FETCH h.problem
+            WHERE h.user.id = :userId
+            ORDER BY h.solvedAt DESC, h.id DESC
+            """)
+    List<SolveHistory> findHistoryPage(@Param("userId") Long userId, Pageable limit);
+
+    // 커서 다음 페이지
+    @Query("""
+            SELECT h FROM SolveHistory h JOIN FETCH h.problem
+            WHERE h.user.id = :userId AND (h.solvedAt, h.id) < (:solvedAt, :id)
+            ORDER BY h.solvedAt DESC, h.id DESC
+            """)
+    List<SolveHistory> findHistoryPageAfter(@Param("userId") Long userId, @Param("solvedAt") LocalDateTime solvedAt,
+                                            @Param("id") Long id, Pageable limit);
+
+
+    // ✅ 채점 한 번 = 이 쿼리 한 번 (DB 왕복 1회, 동시에 제출해도 안전)
+    // 1) attempt: 기록이 없으면 만들고 있으면 시도 횟수 +1 (uk_solve_history_user_problem 으로 판단 → 중복 기록 안 생김)
+    // 2) reward: 이번이 첫 시도 + 정답이면 포인트 적립 + 레벨업을 UPDATE 한 번에 (행 잠금이라 동시에 적립해도 안 사라짐)
+    //    레벨업 규칙: 적립 후 포인트가 다음 레벨 기준 이상이면 레벨 +1, 다음 기준 += 새 레벨 x 10
+    // 3) 적립했으면 적립 후 값, 아니면 지금 포인트 / 레벨
+    // 유저가 없으면 FK 위반 (DataIntegrityViolationException)
+    @Query(value = """
+            WITH attempt AS (
+                INSERT INTO solve_history (id, user_id, problem_id, is_correct, attempt_count, solved_at)
+                VALUES (nextval('solve_history_seq'), :userId, :problemId, :correct, 1, :now)
+                ON CONFLICT (user_id, problem_id) DO UPDATE
+                SET attempt_count = solve_history.attempt_count + 1,
+                    is_correct = solve_history.is_correct OR EXCLUDED.is_correct
+                RETURNING attempt_count
+            ), reward AS (
+                UPDATE users
+                SET points = points + :points,
+                    level = CASE WHEN points + :points >= next_level_points THEN level + 1 ELSE level END,
+                    next_level_points = CASE WHEN points + :points >= next_level_points
+                                             THEN next_level_points + (level + 1) * 10 ELSE next_level_points END
+                WHERE id = :userId AND :correct AND (SELECT attempt_count FROM attempt) = 1
+                RETURNING points, level
+            )
+            SELECT attempt.attempt_count AS "attemptCount",
+                   reward.points IS NOT NULL AS "rewarded",
+                   COALESCE(reward.points, users.points) AS "points",
+                   COALESCE(reward.level, users.level) AS "level"
+            FROM attempt
+            JOIN users ON users.id = :userId
+            LEFT JOIN reward ON TRUE
+            """, nativeQuery = true)
+    @Transactional // 쓰기 쿼리라 기본(readOnly) 트랜잭션이면 안 됨. 채점 서비스는 트랜잭션 없이 이것만 부름
+    GradeRow grade(@Param("userId") Long userId, @Param("problemId") Long problemId, @Param("correct") boolean correct,
+                   @Param("points") int points, @Param("now") LocalDateTime now);
+
+    // 🔑 중복 문제 정리(ProblemDedupJob)용: 중복 행을 푼 기록을 남길 행으로 합치기
+    // 1) 같은 학생이 둘 다 풀었으면 남길 행 기록에 시도 횟수 / 정답 여부를 합침
+    @Modifying
+    @Query(value = """
+            UPDATE solve_history kept
+            SET attempt_count = kept.attempt_count + dup.attempt_count,
+                is_correct = kept.is_correct OR dup.is_correct
+            FROM solve_history dup
+            WHERE dup.problem_id = :duplicateId AND kept.problem_id = :canonicalId AND kept.user_id = dup.user_id
+            """, nativeQuery = true)
+    int mergeAttempts(@Param("duplicateId") Long duplicateId, @Param("canonicalId") Long canonicalId);
+
+    // 2) 합친 쪽 기록은 지움
+    @Modifying
+    @Query(value = """
+            DELETE FROM solve_history dup
+            USING solve_history kept
+            WHERE dup.problem_id = :duplicateId AND kept.problem_id = :canonicalId AND kept.user_id = dup.user_id
+            """, nativeQuery = true)
+    int deleteMerged(@Param("duplicateId") Long duplicateId, @Param("canonicalId") Long canonicalId);
+
+    // 3) 나머지 기록은 남길 행을 가리키게
+    @Modifying
+    @Query(value = "UPDATE solve_history SET problem_id = :canonicalId WHERE problem_id = :duplicateId", nativeQuery = true)
+    int repoint(@Param("duplicateId") Long duplicateId, @Param("canonicalId") Long canonicalId);
+
+    // write-behind 채점(SolveWriteBehind)용: 이 학생이 한 번이라도 푼 문제 id (첫 시도인지 메모리에서 판단)
+    @Query("SELECT h.problem.id FROM SolveHistory h WHERE h.user.id = :userId")
+    List<Long> findProblemIdsByUserId(@Param("userId") Long userId);
+
+    interface GradeRow {
+        int getAttemptCount();
+
+        boolean getRewarded();
+
+        int getPoints();
+
+        int getLevel();
+    }
 }
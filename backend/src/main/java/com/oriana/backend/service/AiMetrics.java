@@ -0,0 +1,103 @@
+package com.oriana.backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * 📊 AI 파이프라인 메트릭 (/actuator/prometheus 로 노출)
+ * 프롬프트 종류(prompt 태그)별로 비용(토큰)과 지연 시간을 비교해서 프롬프트를 다듬기 위한 용도.
+ * - oriana.gemini.requests        : Gemini HTTP 호출 1번(시도 1번)의 지연 시간 {prompt, outcome}
+ * - oriana.gemini.tokens          : usageMetadata 토큰 수 {prompt, type=prompt|candidates|thoughts}
+ * - oriana.gemini.retries         : 재시도 횟수 {prompt}
+ * - oriana.ai.parse               : 응답을 어느 복구 단계까지 가서 읽었는지 {prompt, stage} (구조화 출력이면 stage=schema)
+ * - oriana.problems.discarded     : 응답엔 있었지만 저장하지 못한 문제 수 {source, reason}
+ */
+@Component
+@RequiredArgsConstructor
+public class AiMetrics {
+
+    // prompt 태그 값
+    static final String RECOMMEND = "recommend";
+    static final String RECOMMEND_STREAM = "recommend_stream";
+    static final String SIMILAR = "similar";
+    static final String PHOTO = "photo";
+    static final String BATCH = "batch";
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Gemini 호출 1번 시간 재기 (재시도하면 시도마다 따로 기록됨)
+     */
+    public Timer.Sample startRequest() {
+        return Timer.start(meterRegistry);
+    }
+
+    public void recordRequest(Timer.Sample sample, String prompt, String outcome) {
+        sample.stop(Timer.builder("oriana.gemini.requests")
+                .description("Gemini generateContent 호출 1번의 지연 시간")
+                .tag("prompt", prompt)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+
+    /**
+     * generateContent 응답의 usageMetadata (없으면 무시)
+     */
+    public void recordTokens(String prompt, JsonNode usageMetadata) {
+        if (usageMetadata == null || usageMetadata.isMissingNode()) {
+            return;
+        }
+        recordTokens(prompt, "prompt", usageMetadata.path("promptTokenCount"));
+        recordTokens(prompt, "candidates", usageMetadata.path("candidatesTokenCount"));
+        recordTokens(prompt, "thoughts", usageMetadata.path("thoughtsTokenCount"));
+    }
+
+    private void recordTokens(String prompt, String type, JsonNode count) {
+        if (!count.canConvertToLong()) {
+            return;
+        }
+        DistributionSummary.builder("oriana.gemini.tokens")
+                .description("Gemini 호출 1번의 토큰 수")
+                .baseUnit("tokens")
+                .tag("prompt", prompt)
+                .tag("type", type)
+                .register(meterRegistry)
+                .record(count.asLong());
+    }
+
+    public void recordRetry(String prompt) {
+        meterRegistry.counter("oriana.gemini.retries", "prompt", prompt).increment();
+    }
+
+    /**
+     * 응답 파싱 결과: clean(그대로 JSON) / sanitized(코드블록·이스케이프·쉼표 등 고침) / recovered(잘린 응답에서 완성된 문제만 살림) / failed
+     */
+    public void recordParse(String prompt, LenientJsonParser.Result result) {
+        String stage;
+        if (result.items().isEmpty()) {
+            stage = "failed";
+        } else if (result.truncated()) {
+            stage = "recovered";
+        } else if (result.repaired()) {
+            stage = "sanitized";
+        } else {
+            stage = "clean";
+        }
+        recordParse(prompt, stage);
+    }
+
+    public void recordParse(String prompt, String stage) {
+        meterRegistry.counter("oriana.ai.parse", "prompt", prompt, "stage", stage).increment();
+    }
+
+    public void recordDiscarded(String source, String reason, int count) {
+        if (count > 0) {
+            meterRegistry.counter("oriana.problems.discarded", "source", source, "reason", reason).increment(count);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.oriana.backend.service;
+
+/**
+ * Gemini가 응답은 했지만 내용을 쓸 수 없을 때 (빈 응답, 문제를 하나도 못 건진 경우 등)
+ * 다시 물어보면 되는 문제라 재시도는 하지만, 서버 장애는 아니라서 서킷 브레이커 실패율에는 넣지 않음.
+ */
+public class AiResponseException extends RuntimeException {
+
+    public AiResponseException(String message) {
+        super(message);
+    }
+
+    public AiResponseException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
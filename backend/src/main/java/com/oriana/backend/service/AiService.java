@@ -1,337 +1,348 @@
 package com.oriana.backend.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.oriana.backend.config.DeadlineClientHttpRequestFactory;
 import com.oriana.backend.domain.Problem;
 import com.oriana.backend.dto.ProblemRequestDto;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
+import org.springframework.http.StreamingHttpOutputMessage;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.multipart.MultipartFile;
-import java.util.Base64;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class AiService {
 
+    // 텍스트 / 사진 분석은 제한 시간이 달라서 RestTemplate을 따로 씀 (커넥션 풀은 공유, GeminiHttpConfig 참고)
+    @Qualifier("geminiRestTemplate")
     private final RestTemplate restTemplate;
+    @Qualifier("geminiPhotoRestTemplate")
+    private final RestTemplate photoRestTemplate;
     private final ObjectMapper objectMapper;
+    private final GenerationBatcher batcher;
+    private final GeminiCallGuard geminiCallGuard;
+    private final GeminiHedger geminiHedger;
+    private final AiMetrics aiMetrics;
 
     @Value("${gemini.api-key}")
     private String geminiApiKey;
 
-    private static final String GEMINI_URL = "https://generativelanguage.googleapis.com/v1beta/models/gemini-2.5-flash-lite:generateContent";
-
-    private JsonNode callGeminiApi(String prompt) {
-        return callGeminiApiWithRetry(prompt, 2); // 최대 2번 시도
-    }
-
-    private JsonNode callGeminiApiWithRetry(String prompt, int maxRetries) {
-        String url = GEMINI_URL + "?key=" + geminiApiKey;
-
-        Map<String, Object> requestBody = new HashMap<>();
-        requestBody.put("contents", new Object[]{
-                Map.of("parts", new Object[]{Map.of("text", prompt)})
-        });
-
-        // Gemini API 설정 추가
-        Map<String, Object> generationConfig = new HashMap<>();
-        generationConfig.put("maxOutputTokens", 8192); // 충분한 토큰 할당
-        generationConfig.put("temperature", 0.7);
-        requestBody.put("generationConfig", generationConfig);
-
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        HttpEntity<Map<String, Object>> request = new HttpEntity<>(requestBody, headers);
-
-        try {
-            String responseStr = restTemplate.postForObject(url, request, String.class);
-            if (responseStr == null) {
-                log.error("Gemini API 응답이 null입니다.");
-                return null;
-            }
-
-            JsonNode root = objectMapper.readTree(responseStr);
-            String aiText = root.path("candidates").get(0).path("content").path("parts").get(0).path("text").asText();
-
-            log.info("=== AI 원본 응답 (처음 500자) ===\n{}", aiText.substring(0, Math.min(500, aiText.length())));
+    @Value("${gemini.model-url:https://generativelanguage.googleapis.com/v1beta/models/gemini-2.5-flash-lite}")
+    private String geminiModelUrl;
 
-            // 응답 완전성 체크
-            if (!aiText.trim().endsWith("]")) {
-                log.warn("⚠️ AI 응답이 불완전합니다 (']'로 끝나지 않음). 응답이 잘렸을 가능성이 있습니다.");
-                log.warn("응답 마지막 100자: {}", aiText.substring(Math.max(0, aiText.length() - 100)));
-            }
-
-            // 1단계: JSON 배열 추출
-            String jsonArray = extractJsonArray(aiText);
-            log.info("=== JSON 추출 완료 (길이: {}) ===", jsonArray.length());
+    // 사진은 긴 변 기준 이 크기로 줄이고 JPEG으로 다시 인코딩해서 보냄 (문제 글씨를 읽기엔 충분한 해상도)
+    @Value("${oriana.photo.max-dimension:1600}")
+    private int photoMaxDimension;
 
-            // 2단계: JSON 정제 (가장 중요!)
-            String cleanJson = sanitizeJson(jsonArray);
-            log.info("=== JSON 정제 완료 ===");
+    @Value("${oriana.photo.jpeg-quality:0.85}")
+    private float photoJpegQuality;
 
-            // 3단계: 파싱 시도
-            try {
-                return objectMapper.readTree(cleanJson);
-            } catch (JsonProcessingException e) {
-                log.error("=== JSON 파싱 1차 실패, 추가 복구 시도 ===");
-                log.error("파싱 실패한 JSON (처음 1000자):\n{}", cleanJson.substring(0, Math.min(1000, cleanJson.length())));
+    // 구조화 출력: responseSchema 로 JSON 모양을 강제하고 응답을 GeneratedProblem 으로 바로 바인딩
+    // false면 예전처럼 자유 텍스트 + LenientJsonParser 복구 (비교/롤백용)
+    @Value("${oriana.ai.structured-output:true}")
+    private boolean structuredOutput;
 
-                // 최후의 수단: 더 공격적인 정제
-                String recoveredJson = aggressiveJsonRecovery(cleanJson);
+    // 문제 3개 기준 출력 토큰 (묶음 호출은 섹션 수만큼 늘림, 모델 상한까지)
+    private static final int MAX_OUTPUT_TOKENS = 8192;
+    private static final int MAX_BATCH_OUTPUT_TOKENS = 65536;
 
-                try {
-                    return objectMapper.readTree(recoveredJson);
-                } catch (JsonProcessingException e2) {
-                    log.error("=== JSON 파싱 2차 실패 ===");
-                    log.error("복구 시도한 JSON (처음 500자):\n{}", recoveredJson.substring(0, Math.min(500, recoveredJson.length())));
-                    throw new RuntimeException("AI 문제 생성 실패: " + e2.getMessage());
+    private static final String PHOTO_PROMPT = """
+            당신은 이미지 속 문제를 디지털로 변환하는 전문가입니다.
+            첨부된 이미지를 분석하여 1개의 문제를 JSON 배열로 반환하세요.
+            
+            ⚠️ 중요:
+            1. 오직 JSON 배열만 출력
+            2. 문자열은 한 줄로 작성
+            3. 따옴표는 작은따옴표(')로 대체
+            4. LaTeX: $...$ 형식, 백슬래시 1개
+            
+            [출력]
+            [
+                {
+                  "grade": "고1",
+                  "subject": "수학",
+                  "difficulty": "중",
+                  "tags": ["사진분석"],
+                  "points": 20,
+                  "question": "이미지 문제 (한 줄)",
+                  "options": ["①", "②", "③", "④"],
+                  "answer": "정답",
+                  "solution": "풀이 (한 줄)",
+                  "isSubjective": false
                 }
-            }
+            ]
+            """;
 
+    // retryable=false: 묶음 호출이 실패한 뒤의 단일 호출처럼 이미 재시도를 한 번 거친 경우 (GenerationBatcher)
+    private JsonNode callGeminiApi(String prompt, String promptType, boolean retryable) {
+        try {
+            return guardedRequest(prompt, MAX_OUTPUT_TOKENS, GeneratedProblem.RESPONSE_SCHEMA, promptType, retryable);
+        } catch (AiUnavailableException e) {
+            throw e; // 서킷 OPEN, 한도 초과 → 503으로 바로 알려줌
         } catch (Exception e) {
-            log.error("AI 데이터 파싱 최종 실패: {}", e.getMessage(), e);
+            log.error("AI 문제 생성 최종 실패: {}", e.getMessage(), e);
+            return null;
+        }
+    }
 
-            // 재시도 로직
-            if (maxRetries > 1) {
-                log.warn("⚠️ {}번 남은 재시도로 다시 시도합니다...", maxRetries - 1);
-                try {
-                    Thread.sleep(1000); // 1초 대기
-                } catch (InterruptedException ie) {
-                    Thread.currentThread().interrupt();
-                }
-                return callGeminiApiWithRetry(prompt, maxRetries - 1);
+    // 속도 제한 / 동시 호출 상한 / 재시도(백오프) / 서킷 브레이커는 GeminiCallGuard가 처리
+    // 시도 1번이 평소보다 느리면 GeminiHedger가 같은 요청을 하나 더 보냄 (설정으로 켰을 때만)
+    private JsonNode guardedRequest(String prompt, int maxOutputTokens, Map<String, Object> responseSchema, String promptType,
+                                    boolean retryable) {
+        AtomicInteger attempts = new AtomicInteger();
+        return geminiCallGuard.call(() -> {
+            if (attempts.incrementAndGet() > 1) {
+                aiMetrics.recordRetry(promptType);
             }
+            return geminiHedger.call(promptType, () -> requestProblems(prompt, maxOutputTokens, responseSchema, promptType));
+        }, retryable);
+    }
 
-            return null;
+    // Gemini 호출 1번 (재시도는 여기서 하지 않음)
+    private JsonNode requestProblems(String prompt, int maxOutputTokens, Map<String, Object> responseSchema, String promptType) {
+        String url = geminiModelUrl + ":generateContent?key=" + geminiApiKey;
+        Timer.Sample sample = aiMetrics.startRequest();
+        String responseStr;
+        try {
+            responseStr = restTemplate.postForObject(url, buildTextRequest(prompt, maxOutputTokens, responseSchema), String.class);
+            aiMetrics.recordRequest(sample, promptType, "success");
+        } catch (RuntimeException e) {
+            aiMetrics.recordRequest(sample, promptType, outcomeOf(e));
+            throw e;
         }
+        String aiText = extractText(responseStr, promptType);
+
+        log.debug("=== AI 원본 응답 (처음 500자) ===\n{}", aiText.substring(0, Math.min(500, aiText.length())));
+
+        return readProblems(aiText, promptType);
     }
 
-    /**
-     * JSON 배열 추출 - 중첩 배열 지원
-     */
-    private String extractJsonArray(String text) {
-        // Markdown 코드 블록 제거
-        text = text.replaceAll("```json\\s*", "").replaceAll("```\\s*", "");
-        text = text.trim();
-
-        int firstBracket = text.indexOf('[');
-        if (firstBracket == -1) {
-            return text;
+    // 📊 실패한 호출의 outcome 태그
+    private static String outcomeOf(Throwable e) {
+        if (DeadlineClientHttpRequestFactory.isAborted()) {
+            return "cancelled"; // hedge 에서 진 쪽
         }
-
-        // 매칭되는 닫는 괄호 찾기 (중첩 고려)
-        int depth = 0;
-        int endBracket = -1;
-
-        for (int i = firstBracket; i < text.length(); i++) {
-            char c = text.charAt(i);
-            if (c == '[') {
-                depth++;
-            } else if (c == ']') {
-                depth--;
-                if (depth == 0) {
-                    endBracket = i;
-                    break;
-                }
-            }
+        if (e instanceof HttpClientErrorException.TooManyRequests) {
+            return "rate_limited";
         }
-
-        if (endBracket != -1) {
-            return text.substring(firstBracket, endBracket + 1);
+        if (e instanceof HttpServerErrorException) {
+            return "server_error";
         }
-
-        // 매칭 실패 시 마지막 ] 사용
-        int lastBracket = text.lastIndexOf(']');
-        if (lastBracket != -1) {
-            return text.substring(firstBracket, lastBracket + 1);
+        if (e instanceof HttpClientErrorException) {
+            return "client_error";
         }
+        if (e instanceof ResourceAccessException) {
+            return "io_error"; // 연결 실패, 타임아웃
+        }
+        return "error";
+    }
 
-        return text;
+    // generateContent 응답 → 모델이 쓴 텍스트 (토큰 사용량도 같이 기록)
+    private String extractText(String responseStr, String promptType) {
+        if (responseStr == null) {
+            throw new AiResponseException("Gemini API 응답이 null입니다.");
+        }
+        try {
+            JsonNode root = objectMapper.readTree(responseStr);
+            aiMetrics.recordTokens(promptType, root.path("usageMetadata"));
+            return root.path("candidates").path(0).path("content").path("parts").path(0).path("text").asText();
+        } catch (JsonProcessingException e) {
+            throw new AiResponseException("Gemini API 응답을 읽을 수 없습니다.", e);
+        }
     }
 
-    /**
-     * JSON 정제 - 파싱 오류를 일으키는 요소 제거/수정
-     */
-    private String sanitizeJson(String json) {
-        // 1. 제어 문자 제거 (탭/개행 제외)
-        json = json.replaceAll("[\\x00-\\x08\\x0B\\x0C\\x0E-\\x1F\\x7F]", "");
+    private HttpEntity<Map<String, Object>> buildTextRequest(String prompt) {
+        return buildTextRequest(prompt, MAX_OUTPUT_TOKENS, GeneratedProblem.RESPONSE_SCHEMA);
+    }
 
-        // 2. JSON 문자열 값 내부의 줄바꿈을 공백으로 변경
-        json = fixMultilineStrings(json);
+    private HttpEntity<Map<String, Object>> buildTextRequest(String prompt, int maxOutputTokens, Map<String, Object> responseSchema) {
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("contents", new Object[]{
+                Map.of("parts", new Object[]{Map.of("text", prompt)})
+        });
 
-        // 3. 잘못된 백슬래시 이스케이프 수정 (LaTeX 수식 때문에 발생)
-        json = fixInvalidEscapes(json);
+        // Gemini API 설정 추가
+        Map<String, Object> generationConfig = new HashMap<>();
+        generationConfig.put("maxOutputTokens", maxOutputTokens); // 충분한 토큰 할당
+        generationConfig.put("temperature", 0.7);
+        if (structuredOutput) {
+            generationConfig.putAll(structuredConfig(responseSchema));
+        }
+        requestBody.put("generationConfig", generationConfig);
 
-        return json;
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        return new HttpEntity<>(requestBody, headers);
     }
 
     /**
-     * 잘못된 이스케이프 시퀀스 수정
-     * JSON에서 허용되지 않는 \x 패턴을 \\x로 변경
+     * 스트리밍 호출 (streamGenerateContent + SSE)
+     * 응답 조각이 도착할 때마다 배열 안의 문제 객체가 하나 완성되면 바로 onProblem으로 넘긴다.
+     * 이미 일부 문제를 넘겨준 뒤라서 재시도는 하지 않음.
      */
-    private String fixInvalidEscapes(String json) {
-        StringBuilder result = new StringBuilder();
-        boolean inString = false;
-
-        for (int i = 0; i < json.length(); i++) {
-            char c = json.charAt(i);
-
-            // 따옴표 토글 (문자열 시작/끝 추적)
-            if (c == '"') {
-                // 이스케이프되지 않은 따옴표인지 확인
-                int backslashCount = 0;
-                for (int j = i - 1; j >= 0 && json.charAt(j) == '\\'; j--) {
-                    backslashCount++;
-                }
-                // 백슬래시가 짝수 개면 이스케이프되지 않은 따옴표
-                if (backslashCount % 2 == 0) {
-                    inString = !inString;
-                }
-                result.append(c);
-                continue;
-            }
-
-            // 문자열 내부가 아니면 그대로 출력
-            if (!inString) {
-                result.append(c);
-                continue;
-            }
-
-            // 문자열 내부에서 백슬래시 발견
-            if (c == '\\' && i + 1 < json.length()) {
-                char next = json.charAt(i + 1);
-
-                // 유효한 기본 이스케이프 문자
-                if (next == '"' || next == '\\' || next == '/' || next == 'b' ||
-                        next == 'f' || next == 'n' || next == 'r' || next == 't') {
-                    result.append(c).append(next);
-                    i++; // 다음 문자 건너뜀
-                }
-                // 유니코드 이스케이프
-                else if (next == 'u') {
-                    if (i + 5 < json.length()) {
-                        String hexChars = json.substring(i + 2, i + 6);
-                        if (isValidHex(hexChars)) {
-
-                            result.append("\\u").append(hexChars);
-                            i += 5;
-                        } else {
-                            // 잘못된 유니코드 -> \\u로 변경
-                            result.append("\\\\u");
-                            i++; // u만 건너뜀
+    private int streamGeminiApi(String prompt, Consumer<JsonNode> onProblem) {
+        String url = geminiModelUrl + ":streamGenerateContent?alt=sse&key=" + geminiApiKey;
+        HttpEntity<Map<String, Object>> request = buildTextRequest(prompt);
+        StreamingJsonArraySplitter splitter = new StreamingJsonArraySplitter();
+        AtomicReference<JsonNode> usage = new AtomicReference<>(); // 마지막 조각에 전체 토큰 수가 옴
+        Timer.Sample sample = aiMetrics.startRequest();
+
+        // 스트리밍은 재시도 없이 보호막(속도 제한, 동시 호출 상한, 서킷 브레이커)만 씌움
+        Integer emitted;
+        try {
+            emitted = geminiCallGuard.call(() -> restTemplate.execute(url, HttpMethod.POST, restTemplate.httpEntityCallback(request), response -> {
+                int count = 0;
+                try (BufferedReader reader = new BufferedReader(
+                        new InputStreamReader(response.getBody(), StandardCharsets.UTF_8))) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        // SSE: "data: {...}" 한 줄이 응답 조각 하나
+                        if (!line.startsWith("data:")) {
+                            continue;
+                        }
+                        JsonNode chunk = objectMapper.readTree(line.substring(5));
+                        if (chunk.has("usageMetadata")) {
+                            usage.set(chunk.get("usageMetadata"));
+                        }
+                        String text = chunk.path("candidates").path(0).path("content").path("parts").path(0).path("text").asText("");
+
+                        for (String objectJson : splitter.feed(text)) {
+                            JsonNode problem = LenientJsonParser.parseObject(objectJson);
+                            if (problem == null) {
+                                // 문제 하나가 깨져도 나머지 스트림은 계속 받음
+                                log.warn("⚠️ 스트리밍 중 문제 1개 파싱 실패 (스킵)");
+                                continue;
+                            }
+                            onProblem.accept(problem);
+                            count++;
                         }
-                    } else {
-                        result.append("\\\\u");
-                        i++;
                     }
                 }
-                // 유효하지 않은 이스케이프 (LaTeX 명령어 등)
-                else {
-                    // \d, \m, \s 등 -> \\d, \\m, \\s로 변경
-                    result.append("\\\\").append(next);
-                    i++; // 다음 문자 건너뜀
-                }
-            } else {
-                result.append(c);
-            }
+                return count;
+            }), false);
+            aiMetrics.recordRequest(sample, AiMetrics.RECOMMEND_STREAM, "success");
+        } catch (RuntimeException e) {
+            aiMetrics.recordRequest(sample, AiMetrics.RECOMMEND_STREAM, outcomeOf(e));
+            throw e;
         }
+        aiMetrics.recordTokens(AiMetrics.RECOMMEND_STREAM, usage.get());
 
-        return result.toString();
+        log.info("=== 스트리밍 완료: 문제 {}개 전달 ===", emitted);
+        return emitted == null ? 0 : emitted;
+    }
+
+    // 구조화 출력 설정 (generationConfig 에 합침)
+    private static Map<String, Object> structuredConfig(Map<String, Object> responseSchema) {
+        return Map.of("responseMimeType", "application/json", "responseSchema", responseSchema);
     }
 
     /**
-     * 4자리 16진수인지 확인
+     * 구조화 응답 → record 바인딩 (정제 없이 Jackson 한 번)
+     * 주입받은 ObjectMapper 설정(모듈 등)을 그대로 쓰고, deserializer 는 mapper 쪽에 캐시돼서 매번 만들어도 가벼움
      */
-    private boolean isValidHex(String str) {
-        if (str.length() != 4) {
-            return false;
-        }
-        for (char c : str.toCharArray()) {
-            if (!((c >= '0' && c <= '9') ||
-                    (c >= 'a' && c <= 'f') ||
-                    (c >= 'A' && c <= 'F'))) {
-                return false;
-            }
-        }
-        return true;
+    private ObjectReader generatedProblems() {
+        return objectMapper.readerForListOf(GeneratedProblem.class)
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
     }
 
     /**
-     * JSON 문자열 내부의 개행 문자 처리
+     * AI 응답 텍스트 → 문제 JSON 배열 (모드에 따라 바인딩 또는 복구 파싱)
      */
-    private String fixMultilineStrings(String json) {
-        // "key": "value with
-        // newline" 패턴을 찾아서 개행을 공백으로 치환
-        StringBuilder result = new StringBuilder();
-        boolean inString = false;
-        boolean escaped = false;
-
-        for (int i = 0; i < json.length(); i++) {
-            char c = json.charAt(i);
-
-            if (escaped) {
-                result.append(c);
-                escaped = false;
-                continue;
-            }
-
-            if (c == '\\') {
-                result.append(c);
-                escaped = true;
-                continue;
-            }
-
-            if (c == '"') {
-                inString = !inString;
-                result.append(c);
-                continue;
-            }
-
-            // 문자열 내부의 개행을 공백으로 변경
-            if (inString && (c == '\n' || c == '\r')) {
-                result.append(' ');
-                continue;
+    private JsonNode readProblems(String aiText, String promptType) {
+        if (!structuredOutput) {
+            // 한 번 훑으면서 마크다운 제거 / 이스케이프 수정 / 잘린 배열 복구까지 처리
+            return parseProblems(aiText, promptType);
+        }
+        try {
+            List<GeneratedProblem> problems = generatedProblems().readValue(aiText);
+            if (problems == null || problems.isEmpty()) {
+                aiMetrics.recordParse(promptType, "failed");
+                throw new AiResponseException("AI 응답에서 문제를 하나도 찾지 못했습니다.");
             }
-
-            result.append(c);
+            aiMetrics.recordParse(promptType, "schema");
+            return objectMapper.valueToTree(problems);
+        } catch (JsonProcessingException e) {
+            // 스키마를 지정해도 토큰 한도에 걸리면 잘린 JSON이 올 수 있음 → 자유 텍스트 경로로 살릴 수 있는 만큼 살림
+            log.warn("⚠️ 구조화 응답 바인딩 실패, 복구 파서로 다시 읽습니다: {}", e.getOriginalMessage());
+            return parseProblems(aiText, promptType);
         }
-
-        return result.toString();
     }
 
     /**
-     * 최후의 수단: 공격적인 JSON 복구
+     * AI 응답 텍스트 → 문제 JSON 배열
+     * 잘린 응답이면 완성된 문제까지만 살리고, 하나도 못 건지면 예외 (→ 재시도)
      */
-    private String aggressiveJsonRecovery(String json) {
-        log.warn("공격적인 JSON 복구 시도 중...");
-
-        // 1. 모든 연속된 공백을 하나로
-        json = json.replaceAll("\\s+", " ");
-
-        // 2. 잘못된 trailing comma 제거
-        json = json.replaceAll(",\\s*([}\\]])", "$1");
-
-        // 3. 다시 한번 이스케이프 수정 (중요!)
-        json = fixInvalidEscapes(json);
+    private JsonNode parseProblems(String aiText, String promptType) {
+        LenientJsonParser.Result result = LenientJsonParser.parseArray(aiText);
+        aiMetrics.recordParse(promptType, result);
+
+        if (result.truncated()) {
+            log.warn("⚠️ AI 응답이 중간에 잘렸습니다. 완성된 문제 {}개만 사용합니다. (마지막 100자: {})",
+                    result.items().size(), aiText.substring(Math.max(0, aiText.length() - 100)));
+        } else if (result.repaired()) {
+            log.info("=== JSON 복구 후 파싱 완료 (문제 {}개) ===", result.items().size());
+        }
 
-        return json;
+        if (result.items().isEmpty()) {
+            throw new AiResponseException("AI 응답에서 문제를 하나도 찾지 못했습니다.");
+        }
+        return result.items();
     }
 
     /**
      * 1. [맞춤 추천] 프롬프트
      */
     public JsonNode generateRecommendedProblem(ProblemRequestDto prefs) {
-        String prompt = String.format("""
+        // 같은 조건의 요청은 ProblemService 에서 이미 하나로 합쳐져서 옴 (SingleFlightCoalescer)
+        // 다른 조건의 요청들은 잠깐 모아서 Gemini 호출 1번으로 (GenerationBatcher)
+        return batcher.submit(recommendSection(prefs),
+                retryable -> callGeminiApi(recommendPrompt(prefs), AiMetrics.RECOMMEND, retryable), this::callGeminiBatch);
+    }
+
+    /**
+     * 1-1. [맞춤 추천] 스트리밍 버전 - 문제가 하나 완성될 때마다 onProblem 호출
+     */
+    public int streamRecommendedProblem(ProblemRequestDto prefs, Consumer<JsonNode> onProblem) {
+        return streamGeminiApi(recommendPrompt(prefs), onProblem);
+    }
+
+    private String recommendPrompt(ProblemRequestDto prefs) {
+        return String.format("""
             당신은 대한민국 최고 수준의 %s 강사입니다.
             다음 조건에 맞는 문제를 3개 생성하고, 반드시 유효한 JSON 배열로만 응답하세요.
             
@@ -399,15 +410,18 @@ public class AiService {
                 prefs.getGrade(), prefs.getSubject(), prefs.getDifficulty(),
                 prefs.getGrade(), prefs.getSubject()
         );
-
-        return callGeminiApi(prompt);
     }
 
     /**
      * 2. [유사 문제] 프롬프트
      */
     public JsonNode generateSimilarProblem(Problem baseProblem) {
-        String prompt = String.format("""
+        return batcher.submit(similarSection(baseProblem),
+                retryable -> callGeminiApi(similarPrompt(baseProblem), AiMetrics.SIMILAR, retryable), this::callGeminiBatch);
+    }
+
+    private String similarPrompt(Problem baseProblem) {
+        return String.format("""
             당신은 수학 문제 변형 전문가입니다.
             아래 원본 문제와 동일한 개념이지만 숫자나 상황이 다른 유사 문제 3개를 생성하세요.
             
@@ -473,72 +487,184 @@ public class AiService {
                 baseProblem.getGrade(), baseProblem.getSubject(), baseProblem.getDifficulty(),
                 baseProblem.getPoints(), baseProblem.isSubjective()
         );
+    }
+
+    /**
+     * 📨 묶음 호출: 섹션(요청)마다 문제 3개씩을 배열 하나로 받아서 "section" 번호로 나눔
+     * 돌려주는 리스트는 sections 와 같은 순서, 문제를 하나도 못 받은 섹션은 null (→ 그 요청만 단일 호출로 다시)
+     */
+    private List<JsonNode> callGeminiBatch(List<String> sections) {
+        int maxOutputTokens = Math.min(MAX_OUTPUT_TOKENS * sections.size(), MAX_BATCH_OUTPUT_TOKENS);
+        String prompt = batchPrompt(sections);
+        JsonNode problems = guardedRequest(prompt, maxOutputTokens, GeneratedProblem.BATCH_RESPONSE_SCHEMA, AiMetrics.BATCH, true);
+
+        List<ArrayNode> bySection = new ArrayList<>();
+        for (int i = 0; i < sections.size(); i++) {
+            bySection.add(JsonNodeFactory.instance.arrayNode());
+        }
+        for (JsonNode problem : problems) {
+            int section = problem.path("section").asInt(0);
+            if (section < 1 || section > sections.size() || !(problem instanceof ObjectNode object)) {
+                log.warn("⚠️ 섹션 번호가 없거나 잘못된 문제 1개 스킵: {}", problem.path("section"));
+                continue;
+            }
+            object.remove("section");
+            bySection.get(section - 1).add(object);
+        }
+
+        List<JsonNode> results = new ArrayList<>();
+        for (ArrayNode sectionProblems : bySection) {
+            results.add(sectionProblems.isEmpty() ? null : sectionProblems);
+        }
+        return results;
+    }
+
+    private String recommendSection(ProblemRequestDto prefs) {
+        return String.format("""
+            [조건] 학년: %s / 과목: %s / 단원: %s / 난이도: %s / 유형: %s
+            → 이 조건에 맞는 %s 문제 3개 (세 번째는 난이도 '상'의 심화 문제)""",
+                prefs.getGrade(), prefs.getSubject(), prefs.getUnit(), prefs.getDifficulty(), prefs.getType(),
+                prefs.getSubject());
+    }
 
-        return callGeminiApi(prompt);
+    private String similarSection(Problem baseProblem) {
+        return String.format("""
+            [원본 문제] %s
+            → 원본과 동일한 개념이지만 숫자나 상황이 다른 유사 문제 3개
+              (grade: %s, subject: %s, difficulty: %s, points: %d, isSubjective: %s 는 원본과 동일하게)""",
+                baseProblem.getQuestion(),
+                baseProblem.getGrade(), baseProblem.getSubject(), baseProblem.getDifficulty(),
+                baseProblem.getPoints(), baseProblem.isSubjective());
+    }
+
+    // 규칙 / 출력 예시는 한 번만 쓰고, 요청별 조건만 섹션으로 나열
+    private String batchPrompt(List<String> sections) {
+        StringBuilder prompt = new StringBuilder(String.format("""
+            당신은 대한민국 최고 수준의 문제 출제 전문가입니다.
+            아래 %d개 섹션 각각에 대해 문제를 3개씩 생성하고, 모든 문제를 하나의 유효한 JSON 배열로만 응답하세요.
+            각 문제 객체의 "section" 필드에는 그 문제가 속한 섹션 번호를 반드시 넣으세요.
+            
+            ⚠️ 중요 규칙:
+            1. 오직 JSON 배열만 출력 (설명문, 마크다운 코드블록 금지)
+            2. 모든 문자열 값은 한 줄로 작성 (줄바꿈 금지)
+            3. 문자열 내부의 따옴표는 작은따옴표(')로 대체
+            4. LaTeX 수식: 인라인 모드만 사용 ($...$), 백슬래시는 반드시 2개 사용 (\\\\frac, \\\\mathrm)
+            5. 필드 길이 제한을 엄수하세요:
+               - grade, subject, difficulty: 각 20자 이내
+               - answer: 100자 이내
+               - tags 배열의 각 항목: 20자 이내
+            6. **solution(풀이)은 핵심만 간결하게 200자 이내로 작성**
+            7. 섹션 순서대로 출력 (섹션 1의 문제 3개 → 섹션 2의 문제 3개 → ...)
+            
+            """, sections.size()));
+
+        for (int i = 0; i < sections.size(); i++) {
+            prompt.append("[섹션 ").append(i + 1).append("]\n").append(sections.get(i)).append("\n\n");
+        }
+
+        prompt.append("""
+            [출력 예시]
+            [
+                {
+                  "section": 1,
+                  "grade": "고1",
+                  "subject": "수학",
+                  "difficulty": "중",
+                  "tags": ["개념1", "개념2"],
+                  "points": 20,
+                  "question": "문제 텍스트 (한 줄, 따옴표는 ' 사용)",
+                  "options": ["선택지1", "선택지2", "선택지3", "선택지4"],
+                  "answer": "정답",
+                  "solution": "풀이 과정 (한 줄로 작성)",
+                  "isSubjective": false
+                },
+                {
+                  "section": 2,
+                  "grade": "중2",
+                  "subject": "수학",
+                  "difficulty": "상",
+                  "tags": ["심화"],
+                  "points": 30,
+                  "question": "문제 텍스트",
+                  "options": [],
+                  "answer": "정답",
+                  "solution": "풀이",
+                  "isSubjective": true
+                }
+            ]
+            """);
+        return prompt.toString();
     }
 
     /**
      * 3. [멀티모달] 이미지 분석
      */
     public JsonNode analyzePhotoDirectly(MultipartFile imageFile) {
-        String url = GEMINI_URL + "?key=" + geminiApiKey;
+        String url = geminiModelUrl + ":generateContent?key=" + geminiApiKey;
+        Path photoFile = null;
 
         try {
-            String base64Image = Base64.getEncoder().encodeToString(imageFile.getBytes());
-            String mimeType = imageFile.getContentType();
-
-            Map<String, Object> requestBody = new HashMap<>();
-            requestBody.put("contents", new Object[]{
-                    Map.of("parts", new Object[]{
-                            Map.of("text", """
-                        당신은 이미지 속 문제를 디지털로 변환하는 전문가입니다.
-                        첨부된 이미지를 분석하여 1개의 문제를 JSON 배열로 반환하세요.
-                        
-                        ⚠️ 중요:
-                        1. 오직 JSON 배열만 출력
-                        2. 문자열은 한 줄로 작성
-                        3. 따옴표는 작은따옴표(')로 대체
-                        4. LaTeX: $...$ 형식, 백슬래시 1개
-                        
-                        [출력]
-                        [
-                            {
-                              "grade": "고1",
-                              "subject": "수학",
-                              "difficulty": "중",
-                              "tags": ["사진분석"],
-                              "points": 20,
-                              "question": "이미지 문제 (한 줄)",
-                              "options": ["①", "②", "③", "④"],
-                              "answer": "정답",
-                              "solution": "풀이 (한 줄)",
-                              "isSubjective": false
-                            }
-                        ]
-                        """),
-                            Map.of("inline_data", Map.of(
-                                    "mime_type", mimeType,
-                                    "data", base64Image
-                            ))
-                    })
-            });
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            HttpEntity<Map<String, Object>> request = new HttpEntity<>(requestBody, headers);
-
-            String responseStr = restTemplate.postForObject(url, request, String.class);
-            JsonNode root = objectMapper.readTree(responseStr);
-            String aiText = root.path("candidates").get(0).path("content").path("parts").get(0).path("text").asText();
-
-            String jsonArray = extractJsonArray(aiText);
-            String cleanJson = sanitizeJson(jsonArray);
+            // 📷 getBytes()로 사진 전체를 힙에 올리지 않고, 업로드 임시 파일을 복사해서 파일에서 읽음
+            photoFile = Files.createTempFile("oriana-photo-", ".img");
+            imageFile.transferTo(photoFile);
+            PhotoPayload photo = PhotoPayload.from(photoFile, imageFile.getContentType(), photoMaxDimension, photoJpegQuality);
+
+            // JSON 본문은 직접 씀: 앞부분 → 사진 base64 (인코딩하면서 바로 전송) → 뒷부분
+            byte[] head = ("{\"contents\":[{\"parts\":[{\"text\":" + objectMapper.writeValueAsString(PHOTO_PROMPT)
+                    + "},{\"inline_data\":{\"mime_type\":" + objectMapper.writeValueAsString(photo.mimeType())
+                    + ",\"data\":\"").getBytes(StandardCharsets.UTF_8);
+            String generationConfig = structuredOutput
+                    ? ",\"generationConfig\":" + objectMapper.writeValueAsString(structuredConfig(GeneratedProblem.RESPONSE_SCHEMA))
+                    : "";
+            byte[] tail = ("\"}}]}]" + generationConfig + "}").getBytes(StandardCharsets.UTF_8);
+
+            RequestCallback writeBody = request -> {
+                request.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+                StreamingHttpOutputMessage.Body body = out -> {
+                    out.write(head);
+                    photo.writeBase64To(out);
+                    out.write(tail);
+                };
+                if (request instanceof StreamingHttpOutputMessage streaming) {
+                    streaming.setBody(body); // 요청 본문을 메모리에 모으지 않고 바로 소켓으로
+                } else {
+                    body.writeTo(request.getBody());
+                }
+            };
 
-            return objectMapper.readTree(cleanJson);
+            // 사진은 업로드 + 분석이 오래 걸려서 재시도 없이 한 번만 (보호막은 동일하게 적용)
+            return geminiCallGuard.call(() -> {
+                Timer.Sample sample = aiMetrics.startRequest();
+                String responseStr;
+                try {
+                    responseStr = photoRestTemplate.execute(url, HttpMethod.POST, writeBody,
+                            response -> StreamUtils.copyToString(response.getBody(), StandardCharsets.UTF_8));
+                    aiMetrics.recordRequest(sample, AiMetrics.PHOTO, "success");
+                } catch (RuntimeException e) {
+                    aiMetrics.recordRequest(sample, AiMetrics.PHOTO, outcomeOf(e));
+                    throw e;
+                }
+                return readProblems(extractText(responseStr, AiMetrics.PHOTO), AiMetrics.PHOTO);
+            }, false);
 
+        } catch (AiUnavailableException e) {
+            throw e;
         } catch (Exception e) {
             log.error("사진 분석 실패: {}", e.getMessage(), e);
             return null;
+        } finally {
+            deleteQuietly(photoFile);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("⚠️ 사진 임시 파일 삭제 실패: {}", file);
         }
     }
-}
\ No newline at end of file
+}
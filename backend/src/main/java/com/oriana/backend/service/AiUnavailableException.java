@@ -0,0 +1,20 @@
+package com.oriana.backend.service;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * AI 서버 쪽 사정으로 지금은 문제를 생성할 수 없을 때 (서킷 OPEN, 호출 속도/동시 호출 한도 초과)
+ * 컨트롤러에서 503 + Retry-After 로 바로 응답함.
+ */
+@Getter
+public class AiUnavailableException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public AiUnavailableException(String message, Duration retryAfter, Throwable cause) {
+        super(message, cause);
+        this.retryAfter = retryAfter;
+    }
+}
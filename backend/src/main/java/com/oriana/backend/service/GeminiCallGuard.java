@@ -0,0 +1,208 @@
+package com.oriana.backend.service;
+
+import com.oriana.backend.config.GeminiResilienceProperties;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.core.IntervalFunction;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedRateLimiterMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedRetryMetrics;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import io.github.resilience4j.ratelimiter.RequestNotPermitted;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryConfig;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.function.Supplier;
+
+/**
+ * 🛡️ Gemini 호출 보호막
+ * 재시도( 서킷 브레이커( 속도 제한( 동시 호출 상한( 실제 호출 ))))
+ * - 속도 제한: 쿼터보다 빨리 보내서 429를 받는 일을 막음
+ * - 동시 호출 상한: Gemini가 느려져도 호출이 무한정 쌓이지 않게 함
+ * - 재시도: 429 / 5xx / 타임아웃 / 응답 파싱 실패만 지수 백오프 + 지터로 재시도 (429는 Retry-After를 따름)
+ * - 서킷 브레이커: 장애가 이어지면 한동안 바로 실패시켜서 재시도 폭주를 막음
+ */
+@Slf4j
+@Component
+public class GeminiCallGuard {
+
+    private static final String NAME = "gemini";
+
+    private final RateLimiter rateLimiter;
+    private final Bulkhead bulkhead;
+    private final Retry retry;
+    private final CircuitBreaker circuitBreaker;
+    private final GeminiResilienceProperties props;
+
+    public GeminiCallGuard(GeminiResilienceProperties props, MeterRegistry meterRegistry) {
+        this.props = props;
+
+        RateLimiterRegistry rateLimiterRegistry = RateLimiterRegistry.of(RateLimiterConfig.custom()
+                .limitForPeriod(props.getRateLimit().getLimitForPeriod())
+                .limitRefreshPeriod(props.getRateLimit().getRefreshPeriod())
+                .timeoutDuration(props.getRateLimit().getTimeout())
+                .build());
+        this.rateLimiter = rateLimiterRegistry.rateLimiter(NAME);
+
+        BulkheadRegistry bulkheadRegistry = BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxConcurrentCalls(props.getBulkhead().getMaxConcurrentCalls())
+                .maxWaitDuration(props.getBulkhead().getMaxWait())
+                .build());
+        this.bulkhead = bulkheadRegistry.bulkhead(NAME);
+
+        GeminiResilienceProperties.Retry retryProps = props.getRetry();
+        IntervalFunction backoff = IntervalFunction.ofExponentialRandomBackoff(
+                retryProps.getInitialBackoff(), retryProps.getMultiplier(), retryProps.getJitter(), retryProps.getMaxBackoff());
+        RetryRegistry retryRegistry = RetryRegistry.of(RetryConfig.<Object>custom()
+                .maxAttempts(retryProps.getMaxAttempts())
+                .retryOnException(this::isRetryable)
+                // 429에 Retry-After가 있으면 그만큼 기다리고, 아니면 지수 백오프 + 지터
+                .intervalBiFunction((attempt, result) -> {
+                    Duration retryAfter = result.isLeft() ? retryAfter(result.getLeft()) : null;
+                    return retryAfter != null ? retryAfter.toMillis() : backoff.apply(attempt);
+                })
+                .build());
+        this.retry = retryRegistry.retry(NAME);
+
+        GeminiResilienceProperties.CircuitBreaker cbProps = props.getCircuitBreaker();
+        CircuitBreakerRegistry circuitBreakerRegistry = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .slidingWindowSize(cbProps.getSlidingWindowSize())
+                .minimumNumberOfCalls(cbProps.getMinimumNumberOfCalls())
+                .failureRateThreshold(cbProps.getFailureRateThreshold())
+                .slowCallDurationThreshold(cbProps.getSlowCallThreshold())
+                .slowCallRateThreshold(cbProps.getSlowCallRateThreshold())
+                .waitDurationInOpenState(cbProps.getWaitInOpenState())
+                .permittedNumberOfCallsInHalfOpenState(cbProps.getPermittedCallsInHalfOpenState())
+                .automaticTransitionFromOpenToHalfOpenEnabled(true)
+                .recordException(GeminiCallGuard::isUpstreamFailure)
+                // 우리 쪽 한도 초과 / 응답 내용 문제는 Gemini 장애가 아니므로 실패율 계산에서 제외
+                .ignoreExceptions(RequestNotPermitted.class, BulkheadFullException.class, AiResponseException.class)
+                .build());
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker(NAME);
+
+        // 📊 메트릭: resilience4j.* (상태, 호출 결과, 남은 허용량 등) + 서킷 상태 전환 횟수
+        TaggedRateLimiterMetrics.ofRateLimiterRegistry(rateLimiterRegistry).bindTo(meterRegistry);
+        TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheadRegistry).bindTo(meterRegistry);
+        TaggedRetryMetrics.ofRetryRegistry(retryRegistry).bindTo(meterRegistry);
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakerRegistry).bindTo(meterRegistry);
+
+        circuitBreaker.getEventPublisher().onStateTransition(event -> {
+            log.warn("🔌 Gemini 서킷 브레이커 상태 변경: {}", event.getStateTransition());
+            meterRegistry.counter("oriana.gemini.circuit.transitions",
+                    "from", event.getStateTransition().getFromState().name(),
+                    "to", event.getStateTransition().getToState().name()).increment();
+        });
+        retry.getEventPublisher().onRetry(event ->
+                log.warn("⚠️ Gemini 호출 재시도 {}회차 ({}ms 후): {}", event.getNumberOfRetryAttempts(),
+                        event.getWaitInterval().toMillis(), String.valueOf(event.getLastThrowable())));
+    }
+
+    /**
+     * 보호막을 씌워서 호출. retryable=false 면 재시도 없이 한 번만 (스트리밍처럼 이미 결과를 내보내기 시작한 경우)
+     * 서킷 OPEN / 한도 초과면 AiUnavailableException 으로 바로 실패.
+     */
+    public <T> T call(Supplier<T> call, boolean retryable) {
+        Supplier<T> guarded = Bulkhead.decorateSupplier(bulkhead, call);
+        guarded = RateLimiter.decorateSupplier(rateLimiter, guarded);
+        guarded = CircuitBreaker.decorateSupplier(circuitBreaker, guarded);
+        if (retryable) {
+            guarded = Retry.decorateSupplier(retry, guarded);
+        }
+
+        try {
+            return guarded.get();
+        } catch (CallNotPermittedException e) {
+            throw new AiUnavailableException("AI 서버가 불안정해서 잠시 문제 생성을 멈췄어요. 잠시 후 다시 시도해주세요.",
+                    props.getCircuitBreaker().getWaitInOpenState(), e);
+        } catch (RequestNotPermitted | BulkheadFullException e) {
+            throw new AiUnavailableException("문제 생성 요청이 너무 많아요. 잠시 후 다시 시도해주세요.",
+                    props.getRateLimit().getRefreshPeriod().plus(props.getRateLimit().getTimeout()), e);
+        }
+    }
+
+    /**
+     * hedge 용 추가 호출 자리: 지금 바로 속도 제한 / 동시 호출 상한에 여유가 있을 때만 (기다리지 않음)
+     * 원래 호출보다 늦게 줄 서 봐야 의미가 없고, 진짜 요청의 자리를 뺏으면 안 되기 때문.
+     * true 를 받았으면 끝난 뒤 releaseHedgePermit() 을 꼭 호출.
+     */
+    boolean tryAcquireHedgePermit() {
+        if (!bulkhead.tryAcquirePermission()) {
+            return false;
+        }
+        if (rateLimiter.getMetrics().getAvailablePermissions() <= 0 || !rateLimiter.acquirePermission()) {
+            bulkhead.releasePermission();
+            return false;
+        }
+        return true;
+    }
+
+    void releaseHedgePermit() {
+        bulkhead.onComplete();
+    }
+
+    CircuitBreaker.State circuitState() {
+        return circuitBreaker.getState();
+    }
+
+    // 재시도할 가치가 있는 실패인지 (400 같은 요청 오류나 우리 쪽 한도 초과는 다시 해도 똑같음)
+    private boolean isRetryable(Throwable e) {
+        if (e instanceof HttpClientErrorException.TooManyRequests) {
+            Duration retryAfter = retryAfter(e);
+            return retryAfter == null || retryAfter.compareTo(props.getRetry().getMaxRetryAfter()) <= 0;
+        }
+        return e instanceof HttpServerErrorException
+                || e instanceof ResourceAccessException // 연결 실패, 타임아웃
+                || e instanceof AiResponseException;
+    }
+
+    private static boolean isUpstreamFailure(Throwable e) {
+        return e instanceof HttpClientErrorException.TooManyRequests
+                || e instanceof HttpServerErrorException
+                || e instanceof ResourceAccessException;
+    }
+
+    // 429 응답의 Retry-After (초 또는 HTTP 날짜). 없거나 못 읽으면 null
+    static Duration retryAfter(Throwable e) {
+        if (!(e instanceof HttpClientErrorException.TooManyRequests tooManyRequests)
+                || tooManyRequests.getResponseHeaders() == null) {
+            return null;
+        }
+        String value = tooManyRequests.getResponseHeaders().getFirst(HttpHeaders.RETRY_AFTER);
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Duration.ofSeconds(Long.parseLong(value.trim()));
+        } catch (NumberFormatException ignored) {
+            // HTTP 날짜 형식
+        }
+        try {
+            Duration until = Duration.between(ZonedDateTime.now(),
+                    ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME));
+            return until.isNegative() ? Duration.ZERO : until;
+        } catch (DateTimeParseException ignored) {
+            return null;
+        }
+    }
+}
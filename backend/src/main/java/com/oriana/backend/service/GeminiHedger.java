@@ -0,0 +1,238 @@
+package com.oriana.backend.service;
+
+import com.oriana.backend.config.DeadlineClientHttpRequestFactory;
+import com.oriana.backend.config.DeadlineClientHttpRequestFactory.AbortHandle;
+import com.oriana.backend.config.GeminiResilienceProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * ⏱️ Hedged request: Gemini 호출이 평소보다 오래 걸리면 똑같은 호출을 하나 더 보내고 먼저 성공한 쪽을 씀
+ * p99를 끌어올리는 건 대부분 가끔 나오는 아주 느린 응답이라, 그때만 한 번 더 던져서 꼬리를 자른다.
+ * - 기준 시간: 프롬프트 종류별 최근 성공 호출 지연 시간의 p90 (gemini.resilience.hedge.percentile)
+ * - 예산: 호출 1번마다 budget 만큼 적립, hedge 1번에 1 사용 → 전체 호출 중 hedge 비율이 budget 을 넘지 않음
+ * - 속도 제한 / 동시 호출 상한에 지금 여유가 없으면 hedge 안 함 (GeminiCallGuard.tryAcquireHedgePermit)
+ * - 진 쪽은 HTTP 요청 자체를 끊음 (DeadlineClientHttpRequestFactory.AbortHandle)
+ * 재시도 안쪽, 즉 시도 1번 단위로 돈다. 📊 oriana.gemini.hedge.* 로 hedge 비율 / 이긴 쪽 / 건너뛴 이유 기록.
+ */
+@Slf4j
+@Component
+public class GeminiHedger {
+
+    private final GeminiResilienceProperties.Hedge props;
+    private final GeminiCallGuard guard;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, LatencyWindow> windows = new ConcurrentHashMap<>();
+    private final ExecutorService executor;
+
+    private double tokens; // 남은 hedge 예산, 최대 maxBurst (this 로 동기화)
+
+    public GeminiHedger(GeminiResilienceProperties resilience, GeminiCallGuard guard, MeterRegistry meterRegistry) {
+        this.props = resilience.getHedge();
+        this.guard = guard;
+        this.meterRegistry = meterRegistry;
+        this.tokens = props.getMaxBurst(); // 처음엔 가득 찬 상태로 시작
+
+        // 동시에 도는 호출 수는 GeminiCallGuard 의 동시 호출 상한이 막아줌
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("gemini-hedge-");
+        threadFactory.setDaemon(true);
+        this.executor = Executors.newCachedThreadPool(threadFactory);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Gemini 호출 1번 (hedge 가 꺼져 있거나 표본이 부족하면 그냥 지금 스레드에서 호출)
+     */
+    public <T> T call(String promptType, Supplier<T> attempt) {
+        if (!props.isEnabled()) {
+            return attempt.get();
+        }
+        LatencyWindow window = windows.computeIfAbsent(promptType, this::newWindow);
+        deposit();
+
+        long delayMs = hedgeDelayMs(window);
+        if (delayMs < 0) {
+            countCall(promptType, false);
+            long start = System.nanoTime();
+            T result = attempt.get();
+            window.record((System.nanoTime() - start) / 1_000_000);
+            return result;
+        }
+
+        Branch<T> primary = new Branch<>(attempt, window, null);
+        try {
+            T result = primary.future.get(delayMs, TimeUnit.MILLISECONDS);
+            countCall(promptType, false);
+            return result;
+        } catch (TimeoutException e) {
+            // 평소보다 느림 → 아래에서 hedge
+        } catch (ExecutionException e) {
+            countCall(promptType, false);
+            throw unwrap(e);
+        } catch (InterruptedException e) {
+            primary.handle.abort();
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Gemini 응답 대기 중 인터럽트", e);
+        }
+
+        String skipped = reserveHedge();
+        if (skipped != null) {
+            meterRegistry.counter("oriana.gemini.hedge.skipped", "prompt", promptType, "reason", skipped).increment();
+            countCall(promptType, false);
+            return await(primary.future);
+        }
+        countCall(promptType, true);
+        log.info("⏱️ Gemini 호출이 {}ms 넘게 걸려서 같은 요청을 하나 더 보냄 ({})", delayMs, promptType);
+        Branch<T> hedge = new Branch<>(attempt, window, guard::releaseHedgePermit);
+
+        // 먼저 성공한 쪽. 둘 다 실패하면 원래 호출의 예외
+        CompletableFuture<Branch<T>> firstSuccess = new CompletableFuture<>();
+        primary.future.thenRun(() -> firstSuccess.complete(primary));
+        hedge.future.thenRun(() -> firstSuccess.complete(hedge));
+        CompletableFuture.allOf(primary.future, hedge.future).whenComplete((ignored, e) ->
+                firstSuccess.completeExceptionally(primary.future.handle((result, error) -> error).join()));
+
+        Branch<T> winner;
+        try {
+            winner = firstSuccess.get();
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } catch (InterruptedException e) {
+            primary.handle.abort();
+            hedge.handle.abort();
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Gemini 응답 대기 중 인터럽트", e);
+        }
+
+        (winner == primary ? hedge : primary).handle.abort();
+        meterRegistry.counter("oriana.gemini.hedge.wins", "prompt", promptType,
+                "winner", winner == primary ? "primary" : "hedge").increment();
+        return winner.future.join();
+    }
+
+    // hedge 기준 시간(ms). 표본이 부족하면 -1 (hedge 안 함)
+    private long hedgeDelayMs(LatencyWindow window) {
+        if (window.size() < props.getMinSamples()) {
+            return -1;
+        }
+        return Math.max(props.getMinDelay().toMillis(), window.percentile(props.getPercentile()));
+    }
+
+    private synchronized void deposit() {
+        tokens = Math.min(props.getMaxBurst(), tokens + props.getBudget());
+    }
+
+    // hedge 할 수 있으면 null, 아니면 못 한 이유
+    private String reserveHedge() {
+        synchronized (this) {
+            if (tokens < 1) {
+                return "budget";
+            }
+            tokens -= 1;
+        }
+        if (!guard.tryAcquireHedgePermit()) {
+            synchronized (this) {
+                tokens += 1; // 못 썼으니 돌려줌
+            }
+            return "capacity";
+        }
+        return null;
+    }
+
+    private void countCall(String promptType, boolean hedged) {
+        meterRegistry.counter("oriana.gemini.hedge.calls", "prompt", promptType, "hedged", String.valueOf(hedged)).increment();
+    }
+
+    private LatencyWindow newWindow(String promptType) {
+        LatencyWindow window = new LatencyWindow(props.getWindowSize());
+        Gauge.builder("oriana.gemini.hedge.delay", window, w -> hedgeDelayMs(w))
+                .description("지금 hedge 를 시작하는 기준 시간 (-1 이면 표본 부족)")
+                .baseUnit("milliseconds")
+                .tag("prompt", promptType)
+                .register(meterRegistry);
+        return window;
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw unwrap(e);
+        }
+    }
+
+    private static RuntimeException unwrap(Throwable e) {
+        Throwable cause = e;
+        while ((cause instanceof ExecutionException || cause instanceof CompletionException) && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause instanceof RuntimeException runtime ? runtime : new IllegalStateException(cause);
+    }
+
+    // 별도 스레드에서 도는 호출 1번 + 그 요청을 끊는 손잡이
+    private final class Branch<T> {
+        private final AbortHandle handle = new AbortHandle();
+        private final CompletableFuture<T> future;
+
+        Branch(Supplier<T> attempt, LatencyWindow window, Runnable onDone) {
+            long start = System.nanoTime();
+            this.future = CompletableFuture.supplyAsync(() -> DeadlineClientHttpRequestFactory.runAbortable(handle, attempt), executor);
+            future.whenComplete((result, error) -> {
+                // 끊긴 호출은 지연 시간 표본에서 뺌
+                if (error == null && !handle.isAborted()) {
+                    window.record((System.nanoTime() - start) / 1_000_000);
+                }
+                if (onDone != null) {
+                    onDone.run();
+                }
+            });
+        }
+    }
+
+    // 최근 성공 호출 지연 시간 (링 버퍼)
+    private static final class LatencyWindow {
+        private final long[] samples;
+        private int next;
+        private int size;
+
+        LatencyWindow(int capacity) {
+            this.samples = new long[capacity];
+        }
+
+        synchronized void record(long millis) {
+            samples[next] = millis;
+            next = (next + 1) % samples.length;
+            size = Math.min(size + 1, samples.length);
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        synchronized long percentile(double percentile) {
+            long[] sorted = Arrays.copyOf(samples, size);
+            Arrays.sort(sorted);
+            return sorted[Math.max(0, (int) Math.ceil(percentile * size) - 1)];
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.oriana.backend.service;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 구조화 출력(responseSchema) 모드에서 Gemini가 돌려주는 문제 1개
+ * 응답 텍스트를 정제 없이 바로 이 record 리스트로 바인딩한다. (필드 이름 = 프롬프트 출력 예시의 키)
+ * section 은 묶음 호출(GenerationBatcher)에서만 채워짐.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+record GeneratedProblem(
+        Integer section,
+        String grade,
+        String subject,
+        String difficulty,
+        List<String> tags,
+        Integer points,
+        String question,
+        List<String> options,
+        String answer,
+        String solution,
+        @JsonProperty("isSubjective") Boolean isSubjective) {
+
+    // Gemini generationConfig.responseSchema (OpenAPI 스키마 부분집합)
+    static final Map<String, Object> RESPONSE_SCHEMA = arraySchema(false);
+    static final Map<String, Object> BATCH_RESPONSE_SCHEMA = arraySchema(true);
+
+    private static Map<String, Object> arraySchema(boolean withSection) {
+        Map<String, Object> properties = new LinkedHashMap<>();
+        if (withSection) {
+            properties.put("section", Map.of("type", "INTEGER"));
+        }
+        properties.put("grade", Map.of("type", "STRING"));
+        properties.put("subject", Map.of("type", "STRING"));
+        properties.put("difficulty", Map.of("type", "STRING"));
+        properties.put("tags", Map.of("type", "ARRAY", "items", Map.of("type", "STRING")));
+        properties.put("points", Map.of("type", "INTEGER"));
+        properties.put("question", Map.of("type", "STRING"));
+        properties.put("options", Map.of("type", "ARRAY", "items", Map.of("type", "STRING")));
+        properties.put("answer", Map.of("type", "STRING"));
+        properties.put("solution", Map.of("type", "STRING"));
+        properties.put("isSubjective", Map.of("type", "BOOLEAN"));
+
+        List<String> fields = List.copyOf(properties.keySet());
+        return Map.of(
+                "type", "ARRAY",
+                "items", Map.of(
+                        "type", "OBJECT",
+                        "properties", properties,
+                        "required", fields,
+                        "propertyOrdering", fields)); // 문제 → 정답 → 풀이 순서로 생성되도록
+    }
+}
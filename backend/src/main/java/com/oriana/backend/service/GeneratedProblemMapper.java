@@ -0,0 +1,134 @@
+package com.oriana.backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.oriana.backend.domain.Problem;
+import com.oriana.backend.domain.ProblemSource;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * AI가 준 문제 JSON → Problem Entity 변환 (DB 접근 없음)
+ * 생성할 때마다 도는 코드라 ProblemService에서 떼어냄. (JMH 벤치마크에서도 이걸 그대로 씀)
+ */
+@Slf4j
+final class GeneratedProblemMapper {
+
+    private GeneratedProblemMapper() {
+    }
+
+    // AI 응답 JSON 배열 → Problem Entity 리스트 (DB 접근 없음)
+    static List<Problem> toProblems(JsonNode jsonArray, ProblemSource source, Problem parent) {
+        List<Problem> newProblems = new ArrayList<>();
+
+        // 🛡️ [방어 1] AI 응답 자체가 null이거나 배열이 아니면 빈 리스트 반환
+        if (jsonArray == null || !jsonArray.isArray()) {
+            log.error("🚨 AI 응답이 비어있거나 형식이 올바르지 않아 저장을 건너뜁니다.");
+            return new ArrayList<>();
+        }
+
+        // JSON 배열을 돌면서 각각의 문제 데이터를 추출
+        for (JsonNode json : jsonArray) {
+            Problem problem = toProblem(json, source, parent);
+            if (problem != null) {
+                newProblems.add(problem);
+            }
+        }
+
+        return newProblems;
+    }
+
+    // AI 응답 문제 1개 → Problem Entity (필수 데이터가 없거나 변환 중 오류면 null)
+    static Problem toProblem(JsonNode json, ProblemSource source, Problem parent) {
+        try {
+            // 🛡️ [방어 2] 필수 필드(문제 텍스트)가 없으면 이 문제는 스킵
+            if (json.path("question").isMissingNode() || json.path("question").asText().isEmpty()) {
+                log.warn("⚠️ 필수 데이터(질문)가 없는 문제가 있어 스킵합니다.");
+                return null;
+            }
+
+            // 💡 1. 보기(Options) 리스트 추출 - 각 항목 길이 제한
+            List<String> optionsList = new ArrayList<>();
+            json.path("options").forEach(opt -> {
+                String optText = opt.asText();
+                // 각 선택지는 500자로 제한 (안전)
+                if (optText.length() > 500) {
+                    optText = optText.substring(0, 500);
+                    log.warn("⚠️ 선택지가 500자를 초과하여 잘랐습니다.");
+                }
+                optionsList.add(optText);
+            });
+
+            // 💡 2. 태그(Tags) 리스트 추출 - 각 항목 길이 제한
+            List<String> tagsList = new ArrayList<>();
+            json.path("tags").forEach(tag -> {
+                String tagText = tag.asText();
+                // 각 태그는 50자로 제한
+                if (tagText.length() > 50) {
+                    tagText = tagText.substring(0, 50);
+                    log.warn("⚠️ 태그가 50자를 초과하여 잘랐습니다: {}", tagText);
+                }
+                tagsList.add(tagText);
+            });
+
+            // 💡 3. 길이 제한이 있는 필드들을 안전하게 추출
+            // Entity에서 VARCHAR(255)로 설정된 필드들
+            String grade = truncate(json.path("grade").asText("고1"), 255, "학년");
+            String subject = truncate(json.path("subject").asText("수학"), 255, "과목");
+            String difficulty = truncate(json.path("difficulty").asText("중"), 255, "난이도");
+
+            // TEXT 타입 필드들 (여유있게 설정)
+            String question = json.path("question").asText();
+            String answer = json.path("answer").asText("");
+            String solution = json.path("solution").asText("풀이가 제공되지 않습니다.");
+
+            // 💡 4. Entity 생성
+            Problem problem = Problem.builder()
+                    .parentProblem(parent)
+                    .sourceType(source)
+                    .grade(grade)
+                    .subject(subject)
+                    .difficulty(difficulty)
+                    .tags(tagsList)
+                    .question(question)
+                    .options(optionsList)
+                    .answer(answer)
+                    .solution(solution)
+                    .points(json.path("points").asInt(20))
+                    .isSubjective(json.path("isSubjective").asBoolean(false))
+                    .build();
+
+            log.info("✅ 문제 생성 완료: {} (태그: {}개, 선택지: {}개)",
+                    question.substring(0, Math.min(30, question.length())),
+                    tagsList.size(),
+                    optionsList.size());
+            return problem;
+
+        } catch (Exception e) {
+            // 🛡️ [방어 3] 특정 문제 하나가 파싱하다 터져도, 나머지 문제는 살림!
+            log.error("❌ 개별 문제 변환 중 오류 발생 (해당 문제만 스킵): {}", e.getMessage(), e);
+            return null;
+        }
+    }
+
+    /**
+     * 🛡️ 문자열 길이 제한 유틸리티
+     * DB 컬럼 길이를 초과하지 않도록 안전하게 자르기
+     */
+    private static String truncate(String str, int maxLength, String fieldName) {
+        if (str == null || str.isEmpty()) {
+            return str == null ? "" : str;
+        }
+
+        if (str.length() <= maxLength) {
+            return str;
+        }
+
+        log.warn("⚠️ {}이(가) {}자를 초과하여 잘랐습니다. 원본 길이: {}, 잘린 내용: {}...",
+                fieldName, maxLength, str.length(),
+                str.substring(0, Math.min(30, str.length())));
+
+        return str.substring(0, maxLength);
+    }
+}
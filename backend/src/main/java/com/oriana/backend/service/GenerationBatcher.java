@@ -0,0 +1,195 @@
+package com.oriana.backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 📨 생성 요청 묶기 (batching)
+ * Gemini 호출 1번에 문제 3개면, 고정 비용(왕복 지연, 긴 규칙 설명, 출력 예시)이 문제당 비용보다 큼.
+ * 그래서 짧은 시간(window) 동안 들어온 서로 다른 생성 요청(다른 추천 조건, 다른 원본 문제)을 모아
+ * 섹션이 여러 개인 프롬프트 하나로 보내고, 응답을 섹션별로 나눠서 기다리던 요청들에게 돌려준다.
+ *
+ * - 묶음을 처음 연 요청(리더)이 window 만큼(또는 max-sections 가 찰 때까지) 기다렸다가 자기 스레드에서 호출함 → 별도 스레드 없음
+ * - 진행 중인 다른 생성 요청이 하나도 없으면 기다리지 않고 바로 단일 호출 (한가할 때 window 만큼 손해 보지 않게)
+ * - 응답에서 자기 섹션을 못 받은 요청은 각자 단일 호출로 다시 시도 (배치 호출 자체가 실패해도 마찬가지).
+ *   묶음 호출이 이미 재시도까지 하고 실패한 뒤라 이때는 재시도 없이 한 번만 (실패 1번이 N x 재시도로 불어나지 않게)
+ * 같은 조건의 요청은 이 앞(ProblemService)에서 SingleFlightCoalescer 가 먼저 하나로 합침.
+ */
+@Slf4j
+@Component
+public class GenerationBatcher {
+
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final Duration window;
+    private final int maxSections;
+
+    private final Object lock = new Object();
+    private Batch open; // 지금 요청을 받고 있는 묶음 (없으면 null)
+    private int active; // submit 안에 있는 요청 수 (lock 으로 보호)
+
+    public GenerationBatcher(MeterRegistry meterRegistry,
+                             @Value("${oriana.generation.batch.enabled:true}") boolean enabled,
+                             @Value("${oriana.generation.batch.window:50ms}") Duration window,
+                             @Value("${oriana.generation.batch.max-sections:4}") int maxSections) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.window = window;
+        this.maxSections = Math.max(1, maxSections);
+    }
+
+    /**
+     * 혼자 호출. retryable=false 면 재시도 없이 한 번만 (서킷 브레이커 / 동시 호출 상한은 그대로 거침)
+     */
+    @FunctionalInterface
+    public interface SingleCall {
+        JsonNode call(boolean retryable);
+    }
+
+    /**
+     * @param section   묶음 프롬프트에 들어갈 이 요청 몫의 설명
+     * @param single    혼자 호출할 때 (묶음이 하나뿐이거나, 묶음 응답에서 자기 몫을 못 받았을 때)
+     * @param batchCall 섹션 목록 → 섹션별 결과 (같은 순서, 못 받은 섹션은 null)
+     */
+    public JsonNode submit(String section, SingleCall single, Function<List<String>, List<JsonNode>> batchCall) {
+        long start = System.nanoTime();
+        if (!enabled) {
+            return record("single", start, callSingle("single", single, true));
+        }
+
+        synchronized (lock) {
+            active++;
+        }
+        try {
+            return submitBatched(section, single, batchCall, start);
+        } finally {
+            synchronized (lock) {
+                active--;
+            }
+        }
+    }
+
+    private JsonNode submitBatched(String section, SingleCall single, Function<List<String>, List<JsonNode>> batchCall,
+                                   long start) {
+        Entry mine = new Entry(section);
+        Batch batch;
+        boolean leader;
+        synchronized (lock) {
+            leader = open == null;
+            if (leader && active == 1) {
+                batch = null; // 같이 묶을 요청이 올 기미가 없음
+            } else {
+                if (leader) {
+                    open = new Batch();
+                }
+                batch = open;
+                batch.entries.add(mine);
+                if (batch.entries.size() >= maxSections) {
+                    open = null; // 꽉 찼으니 닫고 리더를 깨움
+                    batch.full.countDown();
+                }
+            }
+        }
+        if (batch == null) {
+            return record("single", start, callSingle("single", single, true));
+        }
+
+        if (leader) {
+            awaitQuietly(batch.full);
+            synchronized (lock) {
+                if (open == batch) {
+                    open = null;
+                }
+            }
+            if (batch.entries.size() == 1) {
+                return record("single", start, callSingle("single", single, true));
+            }
+            run(batch, batchCall);
+        }
+
+        JsonNode result = join(mine.result);
+        if (result != null) {
+            return record("batched", start, result);
+        }
+        // 묶음 응답에 내 몫이 없음 → 혼자 다시 (재시도 없이)
+        return record("fallback", start, callSingle("fallback", single, false));
+    }
+
+    private void run(Batch batch, Function<List<String>, List<JsonNode>> batchCall) {
+        List<String> sections = batch.entries.stream().map(Entry::section).toList();
+        meterRegistry.counter("oriana.generation.upstream.calls", "mode", "batch").increment();
+        try {
+            List<JsonNode> results = batchCall.apply(sections);
+            int served = 0;
+            for (int i = 0; i < batch.entries.size(); i++) {
+                JsonNode result = i < results.size() ? results.get(i) : null;
+                batch.entries.get(i).result.complete(result);
+                served += result == null ? 0 : 1;
+            }
+            log.info("📨 생성 요청 {}개를 Gemini 호출 1번으로 처리 (섹션 {}개 성공)", sections.size(), served);
+        } catch (AiUnavailableException e) {
+            // 서킷 OPEN / 한도 초과면 각자 다시 불러도 똑같으니 그대로 전달
+            batch.entries.forEach(entry -> entry.result.completeExceptionally(e));
+        } catch (RuntimeException e) {
+            log.warn("⚠️ 묶음 생성 실패, 요청별 단일 호출로 전환: {}", e.getMessage());
+            batch.entries.forEach(entry -> entry.result.complete(null));
+        }
+    }
+
+    private JsonNode callSingle(String mode, SingleCall single, boolean retryable) {
+        meterRegistry.counter("oriana.generation.upstream.calls", "mode", mode).increment();
+        return single.call(retryable);
+    }
+
+    // 📊 요청별 대기 포함 지연 시간 + 받아간 문제 수 (upstream.calls / problems = 문제당 Gemini 호출 수)
+    private JsonNode record(String mode, long start, JsonNode result) {
+        meterRegistry.timer("oriana.generation.latency", "mode", mode)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (result != null) {
+            meterRegistry.counter("oriana.generation.problems", "mode", mode).increment(result.size());
+        }
+        return result;
+    }
+
+    private void awaitQuietly(CountDownLatch full) {
+        try {
+            full.await(window.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static JsonNode join(CompletableFuture<JsonNode> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
+    private static final class Batch {
+        private final List<Entry> entries = new ArrayList<>();
+        private final CountDownLatch full = new CountDownLatch(1);
+    }
+
+    private record Entry(String section, CompletableFuture<JsonNode> result) {
+        Entry(String section) {
+            this(section, new CompletableFuture<>());
+        }
+    }
+}
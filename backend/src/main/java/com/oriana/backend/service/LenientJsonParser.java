@@ -0,0 +1,446 @@
+package com.oriana.backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * AI 응답 전용 관대한(lenient) JSON 파서 - 텍스트를 한 번만 훑으면서 바로 JsonNode를 만든다.
+ * 예전 정제 파이프라인(마크다운 제거 → 배열 추출 → 제어 문자 제거 → 줄바꿈 치환 → 이스케이프 수정 → 재파싱)을
+ * 한 번의 스캔으로 대체해서, 중간 문자열 복사 없이 O(n)으로 끝난다.
+ *
+ * 복구해주는 것들:
+ * - ```json 코드블록, 앞뒤 설명문 → 첫 '[' (없으면 첫 '{') 전까지 건너뜀
+ * - 문자열 안의 줄바꿈 → 공백, 그 밖의 제어 문자 → 제거
+ * - LaTeX 때문에 생기는 잘못된 이스케이프(\d, \m, \( ...) → 백슬래시를 글자 그대로 유지
+ *   (\frac, \times, \neq 처럼 \b \f \n \r \t 뒤에 영문자가 이어지면 LaTeX 명령어로 봄)
+ * - 이스케이프 안 된 따옴표 → 뒤에 , } ] : 가 오지 않으면 문자열 내용으로 취급
+ * - trailing comma, 빠진 쉼표
+ * - 응답이 중간에 잘린 경우(토큰 한도) → 완성된 원소까지만 살리고 나머지는 버림
+ */
+public final class LenientJsonParser {
+
+    /**
+     * @param items     파싱된 원소들 (문제 객체 배열)
+     * @param repaired  원문이 엄격한 JSON이 아니라서 뭔가 고쳐야 했는지
+     * @param truncated 응답이 중간에 끊겨서 뒷부분을 버렸는지
+     */
+    public record Result(ArrayNode items, boolean repaired, boolean truncated) {
+    }
+
+    private static final JsonNodeFactory NODES = JsonNodeFactory.instance;
+
+    private final CharSequence text;
+    private final int length;
+    private final StringBuilder buffer = new StringBuilder(256); // 문자열 값 조립용 (재사용)
+    private int pos;
+    private boolean repaired;
+
+    private LenientJsonParser(CharSequence text) {
+        this.text = text;
+        this.length = text.length();
+    }
+
+    /**
+     * AI 응답 전체 텍스트 → 문제 배열
+     * 배열이 없고 객체 하나만 있으면 배열로 감싸서 돌려준다.
+     */
+    public static Result parseArray(CharSequence text) {
+        return new LenientJsonParser(text).parseTopLevel();
+    }
+
+    /**
+     * 객체 하나짜리 텍스트 → ObjectNode (스트리밍에서 잘라낸 조각용). 잘려 있으면 null
+     */
+    public static JsonNode parseObject(CharSequence text) {
+        LenientJsonParser parser = new LenientJsonParser(text);
+        int start = parser.indexOf('{', 0);
+        if (start < 0) {
+            return null;
+        }
+        parser.pos = start;
+        try {
+            return parser.parseObjectValue();
+        } catch (EndOfInput e) {
+            return null;
+        }
+    }
+
+    private Result parseTopLevel() {
+        ArrayNode items = NODES.arrayNode();
+
+        int arrayStart = indexOf('[', 0);
+        int objectStart = indexOf('{', 0);
+        // '[' 가 없거나, 첫 '{' 보다 뒤에 있으면 배열 없이 객체만 온 것
+        boolean bareObject = objectStart >= 0 && (arrayStart < 0 || objectStart < arrayStart);
+        int start = bareObject ? objectStart : arrayStart;
+        if (start < 0) {
+            return new Result(items, true, false);
+        }
+        if (bareObject || !onlyWhitespace(0, start)) {
+            repaired = true; // 코드블록/설명문/배열 누락
+        }
+
+        boolean truncated = false;
+        try {
+            if (bareObject) {
+                pos = start;
+                addBareObject(items, parseObjectValue());
+            } else {
+                pos = start + 1;
+                parseElements(items);
+            }
+        } catch (EndOfInput e) {
+            truncated = true;
+        }
+
+        if (!truncated && !onlyWhitespace(pos, length)) {
+            repaired = true; // 닫는 ``` 등 뒤에 붙은 텍스트
+        }
+        return new Result(items, repaired || truncated, truncated);
+    }
+
+    // {"problems": [...]} 처럼 배열을 감싼 객체면 안쪽 배열을 꺼내고, 아니면 객체 하나를 원소로
+    private void addBareObject(ArrayNode items, ObjectNode object) {
+        if (!object.has("question")) {
+            for (JsonNode field : object) {
+                if (field.isArray()) {
+                    items.addAll((ArrayNode) field);
+                    return;
+                }
+            }
+        }
+        items.add(object);
+    }
+
+    // '[' 다음부터 ']' 까지 원소들을 target에 추가. 중간에 끝나면 EndOfInput (그때까지 추가된 원소는 유지)
+    private void parseElements(ArrayNode target) {
+        boolean needComma = false;
+        boolean lastWasComma = false;
+
+        while (true) {
+            skipWhitespace();
+            char c = peek();
+            if (c == ']') {
+                pos++;
+                if (lastWasComma) {
+                    repaired = true; // trailing comma
+                }
+                return;
+            }
+            if (c == ',') {
+                pos++;
+                if (!needComma) {
+                    repaired = true; // 쉼표 중복
+                }
+                needComma = false;
+                lastWasComma = true;
+                continue;
+            }
+            if (c == '}') {
+                pos++;
+                repaired = true; // 짝 없는 닫는 괄호
+                continue;
+            }
+            if (needComma) {
+                repaired = true; // 빠진 쉼표
+            }
+            target.add(parseValue());
+            needComma = true;
+            lastWasComma = false;
+        }
+    }
+
+    private JsonNode parseValue() {
+        skipWhitespace();
+        char c = peek();
+        if (c == '{') {
+            return parseObjectValue();
+        }
+        if (c == '[') {
+            pos++;
+            ArrayNode array = NODES.arrayNode();
+            parseElements(array);
+            return array;
+        }
+        if (c == '"') {
+            return NODES.textNode(parseString());
+        }
+        return parseScalar();
+    }
+
+    // pos가 '{' 를 가리키는 상태에서 시작
+    private ObjectNode parseObjectValue() {
+        pos++;
+        ObjectNode object = NODES.objectNode();
+        boolean needComma = false;
+        boolean lastWasComma = false;
+
+        while (true) {
+            skipWhitespace();
+            char c = peek();
+            if (c == '}') {
+                pos++;
+                if (lastWasComma) {
+                    repaired = true;
+                }
+                return object;
+            }
+            if (c == ']') {
+                // '}' 를 빼먹고 배열을 닫은 경우 → 객체는 여기서 끝내고 ']' 는 배열 쪽에서 처리
+                repaired = true;
+                return object;
+            }
+            if (c == ',') {
+                pos++;
+                if (!needComma) {
+                    repaired = true;
+                }
+                needComma = false;
+                lastWasComma = true;
+                continue;
+            }
+            if (needComma) {
+                repaired = true;
+            }
+
+            String key = (c == '"') ? parseString() : parseBareKey();
+            skipWhitespace();
+            if (peek() == ':') {
+                pos++;
+            } else {
+                repaired = true; // 콜론 누락
+            }
+            object.set(key, parseValue());
+            needComma = true;
+            lastWasComma = false;
+        }
+    }
+
+    // pos가 여는 '"' 를 가리키는 상태에서 시작, 닫는 '"' 다음으로 이동
+    private String parseString() {
+        pos++;
+        buffer.setLength(0);
+
+        while (true) {
+            // 평범한 글자는 한 번에 덩어리로 복사
+            int runStart = pos;
+            while (pos < length) {
+                char c = text.charAt(pos);
+                if (c == '"' || c == '\\' || c < 0x20 || c == 0x7F) {
+                    break;
+                }
+                pos++;
+            }
+            buffer.append(text, runStart, pos);
+
+            char c = peek();
+            pos++;
+            if (c == '"') {
+                if (isClosingQuote(pos)) {
+                    return buffer.toString();
+                }
+                buffer.append('"'); // 문자열 안에 이스케이프 안 된 따옴표
+                repaired = true;
+            } else if (c == '\\') {
+                readEscape();
+            } else if (c == '\n' || c == '\r') {
+                if (c == '\r' && pos < length && text.charAt(pos) == '\n') {
+                    pos++;
+                }
+                buffer.append(' '); // 문자열 안의 줄바꿈 → 공백
+                repaired = true;
+            } else if (c == '\t') {
+                buffer.append('\t');
+                repaired = true;
+            } else {
+                repaired = true; // 나머지 제어 문자는 버림
+            }
+        }
+    }
+
+    // 백슬래시 바로 다음 글자부터 처리
+    private void readEscape() {
+        char e = peek();
+        switch (e) {
+            case '"', '\\', '/' -> {
+                buffer.append(e);
+                pos++;
+            }
+            case 'b', 'f', 'n', 'r', 't' -> {
+                if (isAsciiLetter(pos + 1)) {
+                    // \frac, \beta, \neq, \right, \times ... → LaTeX 명령어 그대로
+                    buffer.append('\\');
+                    repaired = true;
+                    return;
+                }
+                buffer.append(switch (e) {
+                    case 'b' -> '\b';
+                    case 'f' -> '\f';
+                    case 'n' -> '\n';
+                    case 'r' -> '\r';
+                    default -> '\t';
+                });
+                pos++;
+            }
+            case 'u' -> {
+                if (pos + 4 >= length) {
+                    throw EndOfInput.INSTANCE;
+                }
+                int code = hex4(pos + 1);
+                if (code < 0) {
+                    buffer.append('\\'); // u 뒤가 16진수 4자리가 아님 → LaTeX(underline 등)
+                    repaired = true;
+                    return;
+                }
+                buffer.append((char) code);
+                pos += 5;
+            }
+            default -> {
+                // \d, \m, \s, \( ... JSON에 없는 이스케이프 → 백슬래시를 글자로 남기고, 다음 글자는 평소대로 처리
+                buffer.append('\\');
+                repaired = true;
+            }
+        }
+    }
+
+    // 따옴표 다음에 구조 문자가 오면 진짜 닫는 따옴표
+    private boolean isClosingQuote(int from) {
+        boolean sawNewline = false;
+        for (int i = from; i < length; i++) {
+            char c = text.charAt(i);
+            if (c == ',' || c == '}' || c == ']' || c == ':') {
+                return true;
+            }
+            if (c == '"') {
+                return sawNewline; // 줄이 바뀐 뒤 다음 키가 시작 → 쉼표가 빠진 것
+            }
+            if (c == '\n' || c == '\r') {
+                sawNewline = true;
+            } else if (!Character.isWhitespace(c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // 숫자 / true / false / null / 따옴표 없는 텍스트
+    private JsonNode parseScalar() {
+        int start = pos;
+        while (pos < length) {
+            char c = text.charAt(pos);
+            if (c == ',' || c == '}' || c == ']' || c == '\n' || c == '\r') {
+                break;
+            }
+            pos++;
+        }
+        if (pos >= length) {
+            throw EndOfInput.INSTANCE; // 값이 끝까지 왔는지 알 수 없음
+        }
+
+        String token = text.subSequence(start, pos).toString().trim();
+        switch (token) {
+            case "true":
+                return NODES.booleanNode(true);
+            case "false":
+                return NODES.booleanNode(false);
+            case "null":
+                return NODES.nullNode();
+            default:
+                break;
+        }
+        if (looksNumeric(token)) {
+            try {
+                return (token.indexOf('.') < 0 && token.indexOf('e') < 0 && token.indexOf('E') < 0)
+                        ? NODES.numberNode(Long.parseLong(token))
+                        : NODES.numberNode(Double.parseDouble(token));
+            } catch (NumberFormatException ignored) {
+                // 아래에서 텍스트로 처리
+            }
+        }
+        repaired = true;
+        return NODES.textNode(token);
+    }
+
+    private String parseBareKey() {
+        int start = pos;
+        while (pos < length) {
+            char c = text.charAt(pos);
+            if (c == ':' || c == ',' || c == '}' || Character.isWhitespace(c)) {
+                break;
+            }
+            pos++;
+        }
+        repaired = true;
+        return text.subSequence(start, pos).toString();
+    }
+
+    private char peek() {
+        if (pos >= length) {
+            throw EndOfInput.INSTANCE;
+        }
+        return text.charAt(pos);
+    }
+
+    private void skipWhitespace() {
+        while (pos < length && Character.isWhitespace(text.charAt(pos))) {
+            pos++;
+        }
+    }
+
+    private int indexOf(char target, int from) {
+        for (int i = from; i < length; i++) {
+            if (text.charAt(i) == target) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private boolean onlyWhitespace(int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (!Character.isWhitespace(text.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isAsciiLetter(int index) {
+        if (index >= length) {
+            return false;
+        }
+        char c = text.charAt(index);
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private int hex4(int from) {
+        int value = 0;
+        for (int i = from; i < from + 4; i++) {
+            int digit = Character.digit(text.charAt(i), 16);
+            if (digit < 0) {
+                return -1;
+            }
+            value = (value << 4) | digit;
+        }
+        return value;
+    }
+
+    private static boolean looksNumeric(String token) {
+        if (token.isEmpty()) {
+            return false;
+        }
+        char first = token.charAt(0);
+        return first == '-' || (first >= '0' && first <= '9');
+    }
+
+    // 입력이 중간에 끝남 (스택 트레이스 없이 가볍게 되감기용)
+    private static final class EndOfInput extends RuntimeException {
+        static final EndOfInput INSTANCE = new EndOfInput();
+
+        private EndOfInput() {
+            super("JSON 입력이 중간에 끝났습니다.", null, false, false);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.oriana.backend.service;
+
+import com.oriana.backend.dto.CursorPageDto;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 📜 키셋(커서) 페이지네이션 위치: 마지막으로 보낸 행의 (시각, id)
+ * 목록은 (시각 DESC, id DESC) 순서이고, 다음 페이지는 WHERE (시각, id) < (커서) 로 인덱스에서 바로 이어 읽음.
+ * OFFSET 처럼 앞 행들을 세며 건너뛰지 않아서 기록이 10개든 10만 개든 페이지 하나 읽는 비용이 같다.
+ * 클라이언트에겐 base64url 문자열로만 보여줌 (형식은 언제든 바꿀 수 있게).
+ */
+public record PageCursor(LocalDateTime at, Long id) {
+
+    public static final int DEFAULT_SIZE = 20;
+    public static final int MAX_SIZE = 100;
+
+    private static final char SEPARATOR = ',';
+
+    public String encode() {
+        String raw = at.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // null 이면 첫 페이지
+    public static PageCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            return new PageCursor(LocalDateTime.parse(raw.substring(0, separator)), Long.parseLong(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new InvalidCursorException(cursor);
+        }
+    }
+
+    // 요청한 페이지 크기를 1..MAX_SIZE 로 자름
+    public static int pageSize(Integer requested) {
+        if (requested == null) {
+            return DEFAULT_SIZE;
+        }
+        return Math.max(1, Math.min(requested, MAX_SIZE));
+    }
+
+    // 다음 페이지가 있는지 알려고 한 행 더 읽음
+    public static PageRequest limitFor(int pageSize) {
+        return PageRequest.of(0, pageSize + 1);
+    }
+
+    // limitFor 로 읽은 행들 → 응답 (한 행 더 읽혔으면 그건 빼고, 이 페이지 마지막 행을 다음 커서로)
+    public static <E, T> CursorPageDto<T> page(List<E> rows, int pageSize, Function<E, T> mapper,
+                                               Function<E, PageCursor> cursorOf) {
+        boolean hasNext = rows.size() > pageSize;
+        List<E> page = hasNext ? rows.subList(0, pageSize) : rows;
+        String nextCursor = hasNext ? cursorOf.apply(page.get(page.size() - 1)).encode() : null;
+        return new CursorPageDto<>(page.stream().map(mapper).toList(), nextCursor);
+    }
+
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public static class InvalidCursorException extends IllegalArgumentException {
+        public InvalidCursorException(String cursor) {
+            super("잘못된 cursor 입니다: " + cursor);
+        }
+    }
+}
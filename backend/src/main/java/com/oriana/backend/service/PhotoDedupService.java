@@ -0,0 +1,241 @@
+package com.oriana.backend.service;
+
+import com.oriana.backend.domain.Problem;
+import com.oriana.backend.repository.ProblemRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 📷 사진 스캔 중복 캐시
+ * 같은 반 학생들은 같은 학습지의 같은 문제를 찍어서 올림. (각도/잘림/압축률만 조금씩 다름)
+ * 사진의 지각 해시(pHash)가 max-distance 비트 이하로 차이 나는 사진이 이미 있으면 후보로 보고,
+ * 후보 문제마다 저장해둔 세부 밝기 지도(problems.photo_detail)까지 detail-tolerance 안으로 같을 때만
+ * Gemini를 다시 부르지 않고 그때 뽑아서 저장해둔 문제들을 그대로 돌려준다.
+ * (양식이 같고 숫자만 다른 학습지는 pHash가 거의 같아서, 해시만 보면 다른 문제의 답을 돌려주게 됨)
+ * 해시 → 문제 id 목록은 메모리에 최근 max-entries 개까지만 두고, 재시작하면 problems.photo_hash 에서 다시 채움.
+ * 중복 정리(ProblemDedupJob)가 문제를 합치면 repoint 로 남은 행을 가리키게 바꾸고,
+ * 그래도(다른 노드에서 합쳤거나 해서) 일부 문제가 없어졌으면 그 사진은 잊고 새로 생성함 (문제 일부만 돌려주지 않게)
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PhotoDedupService {
+
+    private final ProblemRepository problemRepository;
+    private final MeterRegistry meterRegistry;
+
+    // 해시 → 그 사진에서 뽑은 문제 id들 (접근 순서 LRU)
+    private final Map<Long, List<Long>> scans = new LinkedHashMap<>(256, 0.75f, true);
+
+    @Value("${oriana.photo.dedup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${oriana.photo.dedup.max-distance:3}")
+    private int maxDistance;
+
+    @Value("${oriana.photo.dedup.detail-tolerance:0.03}")
+    private double detailTolerance;
+
+    @Value("${oriana.photo.dedup.max-entries:50000}")
+    private int maxEntries;
+
+    /**
+     * 업로드된 사진의 해시 + 세부 밝기 지도. 꺼져 있거나 ImageIO가 못 읽는 형식(HEIC 등)이면 null → 중복 확인 없이 바로 생성
+     */
+    public PhotoHash.Scan scan(MultipartFile imageFile) {
+        if (!enabled) {
+            return null;
+        }
+        try (InputStream in = imageFile.getInputStream()) {
+            return PhotoHash.of(in);
+        } catch (Exception e) {
+            log.warn("⚠️ 사진 해시 계산 실패 (중복 확인 없이 진행): {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 거의 같은 사진에서 뽑아둔 문제들. 없으면 빈 리스트
+     */
+    public List<Problem> findNearDuplicate(PhotoHash.Scan scan) {
+        if (scan == null) {
+            return List.of();
+        }
+
+        Long matched = closest(scan.hash());
+        if (matched == null) {
+            return List.of();
+        }
+
+        List<Long> ids = idsOf(matched);
+        List<Problem> problems = ids == null ? List.of() : problemRepository.findAllById(ids);
+        if (problems.isEmpty() || problems.size() < ids.size()) {
+            // 그 사이 문제가 (일부라도) 지워졌으면 캐시에서도 뺌
+            forget(matched);
+            return List.of();
+        }
+        if (!sameDetail(scan, ids)) {
+            return List.of();
+        }
+        log.info("📷 이미 스캔한 사진과 거의 같아서 문제 {}개 재사용 (해밍 거리 {})",
+                problems.size(), PhotoHash.distance(scan.hash(), matched));
+        return problems;
+    }
+
+    /**
+     * 새로 저장한 문제들을 이 사진 해시로 기억하고, 아직 세부 밝기 지도가 없는 문제에는 이 사진 것을 저장
+     * (중복 제거로 재사용된 기존 문제에 이미 다른 사진의 지도가 있으면 그대로 둠 → 그 문제는 다음에 이 사진으로 확인이 안 되어 새로 생성할 뿐)
+     */
+    public void remember(PhotoHash.Scan scan, List<Problem> problems) {
+        if (scan == null) {
+            return;
+        }
+        List<Long> ids = problems.stream()
+                .map(Problem::getId)
+                .filter(id -> id != null)
+                .toList();
+        if (ids.isEmpty()) {
+            return;
+        }
+        put(scan.hash(), ids);
+        try {
+            problemRepository.fillPhotoDetail(ids, scan.detail());
+        } catch (Exception e) {
+            log.warn("⚠️ 사진 세부 정보 저장 실패 (이 사진은 다음에 재사용되지 않음): {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 중복 정리로 합쳐진 문제 id(중복 → 남긴 행)를 기억해둔 목록에서도 바꿈 (같은 목록에 둘 다 있으면 하나로)
+     */
+    public void repoint(Map<Long, Long> mergedInto) {
+        if (mergedInto.isEmpty()) {
+            return;
+        }
+        synchronized (scans) {
+            for (List<Long> ids : scans.values()) {
+                List<Long> repointed = ids.stream()
+                        .map(id -> mergedInto.getOrDefault(id, id))
+                        .distinct()
+                        .toList();
+                ids.clear();
+                ids.addAll(repointed);
+            }
+        }
+    }
+
+    /**
+     * 📊 사진 스캔 처리 시간 (result = hit / miss / skipped). 횟수로 적중률도 같이 봄
+     */
+    public void recordScan(String result, long startNanos) {
+        Timer.builder("oriana.photo.scan")
+                .tag("result", result)
+                .register(meterRegistry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    // 재시작 후에도 예전에 스캔한 사진은 계속 재사용
+    @EventListener(ApplicationReadyEvent.class)
+    public void restore() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            List<ProblemRepository.PhotoHashRow> rows = problemRepository.findPhotoHashes(PageRequest.of(0, maxEntries * 3));
+            // 최근 것부터 오므로 거꾸로 넣어야 최근 것이 LRU에서 가장 늦게 밀려남
+            for (int i = rows.size() - 1; i >= 0; i--) {
+                ProblemRepository.PhotoHashRow row = rows.get(i);
+                synchronized (scans) {
+                    scans.computeIfAbsent(row.getPhotoHash(), k -> new ArrayList<>()).add(row.getId());
+                    trim();
+                }
+            }
+            log.info("📷 스캔한 사진 해시 {}개를 불러왔습니다.", size());
+        } catch (Exception e) {
+            log.warn("⚠️ 사진 해시를 불러오지 못했습니다: {}", e.getMessage());
+        }
+    }
+
+    int size() {
+        synchronized (scans) {
+            return scans.size();
+        }
+    }
+
+    // 후보 문제 모두가 이 사진과 세부까지 같은 사진에서 뽑은 것인지 (지도가 없는 예전 문제면 확인 불가 → 재사용 안 함)
+    private boolean sameDetail(PhotoHash.Scan scan, List<Long> ids) {
+        List<ProblemRepository.PhotoDetailRow> rows = problemRepository.findPhotoDetails(ids);
+        double worst = rows.size() < ids.size() ? Double.MAX_VALUE : 0;
+        for (ProblemRepository.PhotoDetailRow row : rows) {
+            worst = Math.max(worst, PhotoHash.detailDifference(scan.detail(), row.getPhotoDetail()));
+        }
+        if (worst > detailTolerance) {
+            log.info("📷 해시가 가까운 사진이 있지만 세부가 달라서 새로 생성합니다 (ids {}, 차이 {})",
+                    ids, rows.size() < ids.size() ? "확인 불가" : String.format("%.3f", worst));
+            return false;
+        }
+        return true;
+    }
+
+    // 해밍 거리가 가장 가까운 해시 (max-distance 이하만). 64비트 XOR + bitCount 라 수만 개도 1ms 안쪽
+    private Long closest(long photoHash) {
+        synchronized (scans) {
+            if (scans.containsKey(photoHash)) {
+                return photoHash;
+            }
+            Long best = null;
+            int bestDistance = maxDistance + 1;
+            for (Long known : scans.keySet()) {
+                int distance = PhotoHash.distance(photoHash, known);
+                if (distance < bestDistance) {
+                    best = known;
+                    bestDistance = distance;
+                }
+            }
+            return best;
+        }
+    }
+
+    private List<Long> idsOf(Long photoHash) {
+        synchronized (scans) {
+            List<Long> ids = scans.get(photoHash); // LRU 순서 갱신
+            return ids == null ? null : List.copyOf(ids);
+        }
+    }
+
+    private void put(Long photoHash, List<Long> ids) {
+        synchronized (scans) {
+            scans.put(photoHash, new ArrayList<>(ids));
+            trim();
+        }
+    }
+
+    private void forget(Long photoHash) {
+        synchronized (scans) {
+            scans.remove(photoHash);
+        }
+    }
+
+    private void trim() {
+        var oldest = scans.keySet().iterator();
+        while (scans.size() > maxEntries && oldest.hasNext()) {
+            oldest.next();
+            oldest.remove();
+        }
+    }
+}
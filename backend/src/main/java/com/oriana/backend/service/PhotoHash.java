@@ -0,0 +1,234 @@
+package com.oriana.backend.service;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Locale;
+
+/**
+ * 🔍 사진 지각 해시 (pHash, 64비트)
+ * 같은 학습지를 찍은 사진은 조금 잘리거나 압축률이 달라도 해시가 거의 같고(해밍 거리 작음), 다른 문제면 크게 달라짐.
+ * 여백을 잘라낸 내용 영역을 흑백 32x32로 줄인 뒤 DCT의 저주파 8x8 계수가 중앙값보다 큰지로 비트를 만든다. (세세한 픽셀 차이는 고주파라서 무시됨)
+ * 그래서 양식은 같고 숫자만 다른 학습지는 해시가 거의 같음 → 같은 내용 영역을 128x96 밝기 지도(detail)로도 남겨서,
+ * 재사용 전에 detailDifference 로 한 번 더 확인한다. (숫자 몇 글자가 바뀌면 그 자리 블록의 밝기가 크게 달라짐)
+ */
+final class PhotoHash {
+
+    private static final int SIZE = 32;       // 정규화 크기
+    private static final int LOW = 8;         // 사용할 저주파 계수 (8x8 = 64비트)
+    private static final int DECODE_SIZE = 1024; // 이 정도로만 디코딩 (메모리 절약). 더 건너뛰면 가는 획이 빠져서 세부 비교가 흔들림
+    private static final float INK_RATIO = 0.75f; // 평균 밝기의 75%보다 어두우면 글씨/그림으로 봄
+    private static final int DETAIL_WIDTH = 128;  // 세부 밝기 지도 크기 (글자 하나가 몇 칸 정도)
+    private static final int DETAIL_HEIGHT = 96;
+    private static final int BLOCK = 6;           // 세부 비교 단위 (6x6칸, 반씩 겹쳐서)
+    private static final double[][] COS = new double[LOW][SIZE];
+
+    static {
+        for (int u = 0; u < LOW; u++) {
+            for (int x = 0; x < SIZE; x++) {
+                COS[u][x] = Math.cos((2 * x + 1) * u * Math.PI / (2 * SIZE));
+            }
+        }
+    }
+
+    private PhotoHash() {
+    }
+
+    /**
+     * 사진 한 장의 해시 + 세부 밝기 지도 (칸마다 종이 밝기 대비 0~255)
+     */
+    record Scan(long hash, byte[] detail) {
+    }
+
+    /**
+     * 이미지 스트림 → 해시. ImageIO가 못 읽는 형식이면 null
+     * JPEG은 EXIF 회전 정보대로 돌려서 계산함 (PhotoPayload와 같은 방식, 같은 사진을 돌려 찍어 올려도 같은 해시)
+     */
+    static Scan of(InputStream imageStream) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(imageStream)) {
+            Iterator<ImageReader> readers = in == null ? null : ImageIO.getImageReaders(in);
+            if (readers == null || !readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                String format = reader.getFormatName().toLowerCase(Locale.ROOT);
+                boolean jpeg = format.equals("jpeg") || format.equals("jpg");
+                reader.setInput(in, true, !jpeg);
+                int orientation = jpeg ? PhotoPayload.exifOrientation(reader.getImageMetadata(0)) : 1;
+
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = Math.max(1, Math.max(reader.getWidth(0), reader.getHeight(0)) / DECODE_SIZE);
+                param.setSourceSubsampling(step, step, 0, 0);
+                return of(PhotoPayload.normalize(reader.read(0, param), orientation));
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    static Scan of(BufferedImage image) {
+        Content content = Content.of(image);
+        return new Scan(hash(content.average(SIZE, SIZE)), detail(content.average(DETAIL_WIDTH, DETAIL_HEIGHT)));
+    }
+
+    static int distance(long a, long b) {
+        return Long.bitCount(a ^ b);
+    }
+
+    /**
+     * 두 세부 밝기 지도의 차이 (0~1). 블록마다 ±1칸 밀어본 것 중 가장 잘 맞는 평균 차이를 구하고, 그중 가장 다른 블록 값.
+     * 같은 학습지는 압축/잘림/EXIF 회전이 달라도 0.01 안쪽, 숫자 몇 개만 바뀐 학습지는 그 자리 블록 때문에 0.05 넘게 나옴
+     * (해상도가 크게 다른 사진은 리샘플링 차이로 0.04 정도까지 벌어져서 재사용하지 않고 새로 생성하는 쪽으로 빠짐)
+     */
+    static double detailDifference(byte[] a, byte[] b) {
+        int worst = 0;
+        for (int by = 1; by + BLOCK < DETAIL_HEIGHT; by += BLOCK / 2) {
+            for (int bx = 1; bx + BLOCK < DETAIL_WIDTH; bx += BLOCK / 2) {
+                int best = Integer.MAX_VALUE;
+                for (int dy = -1; dy <= 1; dy++) {
+                    for (int dx = -1; dx <= 1; dx++) {
+                        best = Math.min(best, blockDifference(a, b, bx, by, dx, dy));
+                    }
+                }
+                worst = Math.max(worst, best);
+            }
+        }
+        return worst / (255.0 * BLOCK * BLOCK);
+    }
+
+    private static int blockDifference(byte[] a, byte[] b, int bx, int by, int dx, int dy) {
+        int sum = 0;
+        for (int y = by; y < by + BLOCK; y++) {
+            for (int x = bx; x < bx + BLOCK; x++) {
+                sum += Math.abs((a[y * DETAIL_WIDTH + x] & 0xFF) - (b[(y + dy) * DETAIL_WIDTH + x + dx] & 0xFF));
+            }
+        }
+        return sum;
+    }
+
+    private static long hash(double[][] pixels) {
+        // 2차원 DCT 중 저주파 8x8 계수만 계산
+        double[] coefficients = new double[LOW * LOW];
+        for (int u = 0; u < LOW; u++) {
+            for (int v = 0; v < LOW; v++) {
+                double sum = 0;
+                for (int y = 0; y < SIZE; y++) {
+                    for (int x = 0; x < SIZE; x++) {
+                        sum += pixels[y][x] * COS[u][x] * COS[v][y];
+                    }
+                }
+                coefficients[v * LOW + u] = sum;
+            }
+        }
+
+        // DC(전체 밝기)를 뺀 계수들의 중앙값 기준으로 비트 설정
+        double[] ac = Arrays.copyOfRange(coefficients, 1, coefficients.length);
+        Arrays.sort(ac);
+        double median = ac[ac.length / 2];
+
+        long hash = 0;
+        for (int i = 0; i < coefficients.length; i++) {
+            if (coefficients[i] > median) {
+                hash |= 1L << i;
+            }
+        }
+        return hash;
+    }
+
+    // 종이 밝기(칸들의 상위 25% 지점)를 255로 맞춘 밝기 지도 → 조명/노출이 달라도 같은 값
+    private static byte[] detail(double[][] cells) {
+        double[] sorted = Arrays.stream(cells).flatMapToDouble(Arrays::stream).sorted().toArray();
+        double paper = Math.max(1, sorted[sorted.length * 3 / 4]);
+        byte[] detail = new byte[DETAIL_WIDTH * DETAIL_HEIGHT];
+        for (int y = 0; y < DETAIL_HEIGHT; y++) {
+            for (int x = 0; x < DETAIL_WIDTH; x++) {
+                detail[y * DETAIL_WIDTH + x] = (byte) Math.round(Math.min(1.0, cells[y][x] / paper) * 255);
+            }
+        }
+        return detail;
+    }
+
+    // 흑백으로 바꾸고 → 글씨/그림이 있는 영역만 잘라둔 것. 영역 평균으로 원하는 크기로 줄여 씀
+    // (사진마다 여백을 다르게 찍어도 문제 내용 기준으로 맞춰짐)
+    private record Content(float[] luma, int width, int left, int top, int boxWidth, int boxHeight) {
+
+        static Content of(BufferedImage image) {
+            int width = image.getWidth();
+            int height = image.getHeight();
+            float[] luma = new float[width * height];
+            double total = 0;
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    int rgb = image.getRGB(x, y);
+                    float value = 0.299f * ((rgb >> 16) & 0xFF) + 0.587f * ((rgb >> 8) & 0xFF) + 0.114f * (rgb & 0xFF);
+                    luma[y * width + x] = value;
+                    total += value;
+                }
+            }
+
+            int[] box = contentBox(luma, width, height, (float) (total / luma.length) * INK_RATIO);
+            return new Content(luma, width, box[0], box[1], box[2] - box[0], box[3] - box[1]);
+        }
+
+        double[][] average(int columns, int rows) {
+            double[][] sum = new double[rows][columns];
+            int[][] count = new int[rows][columns];
+            for (int y = 0; y < boxHeight; y++) {
+                int cy = y * rows / boxHeight;
+                for (int x = 0; x < boxWidth; x++) {
+                    int cx = x * columns / boxWidth;
+                    sum[cy][cx] += luma[(top + y) * width + left + x];
+                    count[cy][cx]++;
+                }
+            }
+            for (int y = 0; y < rows; y++) {
+                for (int x = 0; x < columns; x++) {
+                    sum[y][x] = count[y][x] == 0 ? 0 : sum[y][x] / count[y][x];
+                }
+            }
+            return sum;
+        }
+    }
+
+    // 평균 밝기보다 확실히 어두운(잉크) 픽셀이 있는 행/열의 범위 [left, top, right, bottom). 너무 작으면 전체
+    private static int[] contentBox(float[] luma, int width, int height, float inkThreshold) {
+        int[] rowInk = new int[height];
+        int[] columnInk = new int[width];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                if (luma[y * width + x] < inkThreshold) {
+                    rowInk[y]++;
+                    columnInk[x]++;
+                }
+            }
+        }
+        // 점 몇 개짜리 얼룩/노이즈는 무시
+        int[] rows = span(rowInk, Math.max(1, width / 200));
+        int[] columns = span(columnInk, Math.max(1, height / 200));
+        if (rows == null || columns == null
+                || columns[1] - columns[0] < width / 4 || rows[1] - rows[0] < height / 4) {
+            return new int[]{0, 0, width, height};
+        }
+        return new int[]{columns[0], rows[0], columns[1], rows[1]};
+    }
+
+    private static int[] span(int[] ink, int minInk) {
+        int first = -1, last = -1;
+        for (int i = 0; i < ink.length; i++) {
+            if (ink[i] >= minInk) {
+                if (first < 0) {
+                    first = i;
+                }
+                last = i;
+            }
+        }
+        return first < 0 ? null : new int[]{first, last + 1};
+    }
+}
@@ -0,0 +1,264 @@
+package com.oriana.backend.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.w3c.dom.Node;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.Locale;
+
+/**
+ * 📷 Gemini로 보낼 사진 (요청 본문에 바로 base64로 써넣기 위한 준비물)
+ * 폰 사진을 getBytes() → base64 String → JSON 직렬화 하면 같은 사진이 힙에 4벌씩 올라감.
+ * 그래서 임시 파일에서 읽으면서 디코딩 단계부터 최대 해상도 이하로 줄이고(서브샘플링),
+ * JPEG 인코딩 결과를 base64 인코더 → HTTP 요청 본문으로 바로 흘려보낸다.
+ * 이미 충분히 작은 JPEG/PNG, 또는 ImageIO가 못 읽는 형식(HEIC 등)은 원본 파일을 그대로 base64로 흘려보냄.
+ */
+@Slf4j
+final class PhotoPayload {
+
+    private static final String JPEG = "image/jpeg";
+
+    private final BufferedImage image; // 다시 인코딩할 이미지 (원본 그대로 보낼 땐 null)
+    private final Path original;
+    private final String mimeType;
+    private final float jpegQuality;
+
+    private PhotoPayload(BufferedImage image, Path original, String mimeType, float jpegQuality) {
+        this.image = image;
+        this.original = original;
+        this.mimeType = mimeType;
+        this.jpegQuality = jpegQuality;
+    }
+
+    /**
+     * 사진 파일을 읽어서 보낼 준비. 긴 변이 maxDimension 보다 크면 줄이고 JPEG(jpegQuality)로 다시 인코딩함.
+     */
+    static PhotoPayload from(Path file, String mimeType, int maxDimension, float jpegQuality) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(file.toFile())) {
+            Iterator<ImageReader> readers = in == null ? null : ImageIO.getImageReaders(in);
+            if (readers == null || !readers.hasNext()) {
+                log.info("📷 ImageIO가 읽을 수 없는 형식이라 원본 그대로 보냅니다: {}", mimeType);
+                return passThrough(file, mimeType);
+            }
+
+            ImageReader reader = readers.next();
+            try {
+                String format = reader.getFormatName().toLowerCase(Locale.ROOT);
+                boolean jpeg = format.equals("jpeg") || format.equals("jpg");
+                reader.setInput(in, true, !jpeg); // JPEG은 EXIF 회전 정보를 보려고 메타데이터를 읽음
+
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                int longest = Math.max(width, height);
+                int orientation = jpeg ? exifOrientation(reader.getImageMetadata(0)) : 1;
+
+                // 이미 작고 Gemini가 그대로 받는 형식이면 다시 인코딩하지 않음
+                if (longest <= maxDimension && orientation == 1 && (jpeg || format.equals("png"))) {
+                    return passThrough(file, jpeg ? JPEG : "image/png");
+                }
+
+                // 디코딩할 때부터 픽셀을 건너뛰어 읽음 → 원본 해상도의 Raster를 아예 만들지 않고, 따로 축소하는 단계도 없음
+                // (JPEG 디코더는 결과 Raster의 약 2배를 할당하므로, 크게 읽고 줄이는 것보다 이쪽이 훨씬 적게 씀)
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = (longest + maxDimension - 1) / maxDimension;
+                param.setSourceSubsampling(step, step, 0, 0);
+                BufferedImage decoded = reader.read(0, param);
+
+                BufferedImage resized = normalize(decoded, orientation);
+                log.info("📷 사진 축소: {}x{} → {}x{} (서브샘플링 1/{})",
+                        width, height, resized.getWidth(), resized.getHeight(), step);
+                return new PhotoPayload(resized, file, JPEG, jpegQuality);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static PhotoPayload passThrough(Path file, String mimeType) {
+        return new PhotoPayload(null, file, mimeType == null ? JPEG : mimeType, 0);
+    }
+
+    String mimeType() {
+        return mimeType;
+    }
+
+    /**
+     * 사진을 base64로 out에 바로 써넣음 (out은 닫지 않음 - 뒤에 JSON 나머지를 이어서 씀)
+     */
+    void writeBase64To(OutputStream out) throws IOException {
+        OutputStream base64 = Base64.getEncoder().wrap(new NonClosingOutputStream(out));
+        try (base64) {
+            if (image == null) {
+                Files.copy(original, base64);
+            } else {
+                writeJpeg(base64);
+            }
+        } // close()가 마지막 패딩까지 써줌
+    }
+
+    private void writeJpeg(OutputStream out) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(out)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            writer.setOutput(ios);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    // EXIF 방향대로 회전 + 투명 배경은 흰색으로 (JPEG은 알파 채널이 없음). 그대로 인코딩 가능하면 복사하지 않음 (PhotoHash도 같이 씀)
+    static BufferedImage normalize(BufferedImage source, int orientation) {
+        boolean encodable = source.getType() == BufferedImage.TYPE_3BYTE_BGR || source.getType() == BufferedImage.TYPE_BYTE_GRAY;
+        if (orientation == 1 && encodable) {
+            return source;
+        }
+
+        int width = source.getWidth();
+        int height = source.getHeight();
+        boolean swap = orientation == 6 || orientation == 8;
+
+        BufferedImage target = new BufferedImage(swap ? height : width, swap ? width : height, BufferedImage.TYPE_3BYTE_BGR);
+        Graphics2D g = target.createGraphics();
+        try {
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, target.getWidth(), target.getHeight());
+            g.transform(orientationTransform(orientation, width, height));
+            g.drawImage(source, 0, 0, null);
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+
+    private static AffineTransform orientationTransform(int orientation, int width, int height) {
+        AffineTransform transform = new AffineTransform();
+        switch (orientation) {
+            case 3 -> { // 180도
+                transform.translate(width, height);
+                transform.rotate(Math.PI);
+            }
+            case 6 -> { // 시계 방향 90도
+                transform.translate(height, 0);
+                transform.rotate(Math.PI / 2);
+            }
+            case 8 -> { // 반시계 방향 90도
+                transform.translate(0, width);
+                transform.rotate(-Math.PI / 2);
+            }
+            default -> { // 1(정방향), 좌우 반전 계열(2,4,5,7)은 폰 카메라에서 거의 안 나와서 그대로 둠
+            }
+        }
+        return transform;
+    }
+
+    // JPEG APP1(EXIF)의 Orientation 태그(0x0112). 없거나 못 읽으면 1
+    static int exifOrientation(IIOMetadata metadata) {
+        if (metadata == null) {
+            return 1;
+        }
+        try {
+            Node markers = findChild(metadata.getAsTree("javax_imageio_jpeg_image_1.0"), "markerSequence");
+            if (markers == null) {
+                return 1;
+            }
+            for (Node node = markers.getFirstChild(); node != null; node = node.getNextSibling()) {
+                Node tag = node.getAttributes() == null ? null : node.getAttributes().getNamedItem("MarkerTag");
+                if ("unknown".equals(node.getNodeName()) && tag != null && "225".equals(tag.getNodeValue())
+                        && node instanceof IIOMetadataNode app1 && app1.getUserObject() instanceof byte[] data) {
+                    int orientation = readOrientation(data);
+                    if (orientation > 0) {
+                        return orientation;
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            log.debug("EXIF 방향 정보를 읽지 못했습니다: {}", e.getMessage());
+        }
+        return 1;
+    }
+
+    private static Node findChild(Node parent, String name) {
+        for (Node node = parent.getFirstChild(); node != null; node = node.getNextSibling()) {
+            if (name.equals(node.getNodeName())) {
+                return node;
+            }
+        }
+        return null;
+    }
+
+    // "Exif\0\0" + TIFF 헤더(II/MM) + IFD0 에서 Orientation 값 찾기
+    private static int readOrientation(byte[] data) {
+        if (data.length < 14 || data[0] != 'E' || data[1] != 'x' || data[2] != 'i' || data[3] != 'f') {
+            return -1;
+        }
+        int tiff = 6;
+        boolean little = data[tiff] == 'I';
+        int ifd = tiff + readInt(data, tiff + 4, little);
+        if (ifd + 2 > data.length) {
+            return -1;
+        }
+        int entries = readShort(data, ifd, little);
+        for (int i = 0; i < entries; i++) {
+            int entry = ifd + 2 + i * 12;
+            if (entry + 12 > data.length) {
+                return -1;
+            }
+            if (readShort(data, entry, little) == 0x0112) {
+                return readShort(data, entry + 8, little);
+            }
+        }
+        return -1;
+    }
+
+    private static int readShort(byte[] data, int offset, boolean little) {
+        int a = data[offset] & 0xFF;
+        int b = data[offset + 1] & 0xFF;
+        return little ? (b << 8) | a : (a << 8) | b;
+    }
+
+    private static int readInt(byte[] data, int offset, boolean little) {
+        int high = readShort(data, little ? offset + 2 : offset, little);
+        int low = readShort(data, little ? offset : offset + 2, little);
+        return (high << 16) | low;
+    }
+
+    // base64 인코더를 닫을 때 HTTP 요청 본문까지 닫히지 않도록
+    private static class NonClosingOutputStream extends FilterOutputStream {
+        NonClosingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
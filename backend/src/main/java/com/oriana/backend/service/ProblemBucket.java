@@ -0,0 +1,49 @@
+package com.oriana.backend.service;
+
+import com.oriana.backend.dto.ProblemRequestDto;
+
+/**
+ * 재고 버킷 = 추천 요청 조건 (학년, 과목, 단원, 난이도, 유형)
+ * 같은 조건의 요청은 같은 버킷의 재고를 나눠 씀. 공백/빈 값은 정규화해서 " 고1" 과 "고1" 이 같은 버킷이 되게 함.
+ */
+record ProblemBucket(String grade, String subject, String unit, String difficulty, String type) {
+
+    private static final String SEPARATOR = "|";
+
+    static ProblemBucket of(ProblemRequestDto prefs) {
+        return new ProblemBucket(clean(prefs.getGrade()), clean(prefs.getSubject()), clean(prefs.getUnit()),
+                clean(prefs.getDifficulty()), clean(prefs.getType()));
+    }
+
+    // DB에 저장된 키(inventory_bucket)에서 복원 - 재시작 후 기존 재고 버킷을 다시 관리하기 위해 사용
+    static ProblemBucket fromKey(String key) {
+        String[] parts = key.split("\\|", -1);
+        if (parts.length != 5) {
+            throw new IllegalArgumentException("잘못된 재고 버킷 키: " + key);
+        }
+        return new ProblemBucket(parts[0], parts[1], parts[2], parts[3], parts[4]);
+    }
+
+    String key() {
+        return String.join(SEPARATOR, grade, subject, unit, difficulty, type);
+    }
+
+    // 재고 채우기용 AI 요청 조건 (빈 값은 null로 돌려서 프롬프트 기본값이 쓰이게 함)
+    ProblemRequestDto toRequest() {
+        ProblemRequestDto prefs = new ProblemRequestDto();
+        prefs.setGrade(nullIfEmpty(grade));
+        prefs.setSubject(nullIfEmpty(subject));
+        prefs.setUnit(nullIfEmpty(unit));
+        prefs.setDifficulty(nullIfEmpty(difficulty));
+        prefs.setType(nullIfEmpty(type));
+        return prefs;
+    }
+
+    private static String clean(String value) {
+        return value == null ? "" : value.trim().replace(SEPARATOR, "/");
+    }
+
+    private static String nullIfEmpty(String value) {
+        return value.isEmpty() ? null : value;
+    }
+}
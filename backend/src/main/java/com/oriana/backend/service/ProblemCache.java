@@ -0,0 +1,94 @@
+package com.oriana.backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.oriana.backend.domain.Problem;
+import com.oriana.backend.dto.ProblemResponseDto;
+import com.oriana.backend.repository.ProblemRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * 🗃️ 문제 조회 캐시 (id → ProblemResponseDto)
+ * 문제 내용(문제 / 보기 / 정답 / 풀이 / 포인트)은 저장한 뒤로 바뀌지 않는데, 문제 조회 / 채점마다
+ * 같은 행을 다시 읽고 tags / options jsonb 를 다시 역직렬화하고 있었음.
+ * 읽을 때 없으면 DB에서 읽어서 넣고(read-through), 새로 저장한 문제는 저장하자마자 넣어둠(ProblemIngestService).
+ * max-size 개를 넘으면 Caffeine 이 덜 쓰이는 것부터 밀어냄. 0 이면 캐시 없이 매번 DB.
+ * 📊 cache.gets{cache=problems, result=hit|miss}, cache.evictions, cache.size
+ * (재고 꺼냄 / 내보낸 시각 같은 바뀌는 컬럼은 DTO에 없어서 캐시해도 안전. 중복 정리로 지운 문제만 evict)
+ */
+@Slf4j
+@Component
+public class ProblemCache {
+
+    private final ProblemRepository problemRepository;
+    private final Cache<Long, ProblemResponseDto> cache;
+    private final boolean enabled;
+
+    @Value("${oriana.problems.cache.warm-up:2000}")
+    private int warmUp;
+
+    public ProblemCache(ProblemRepository problemRepository, MeterRegistry meterRegistry,
+                        @Value("${oriana.problems.cache.max-size:10000}") long maxSize) {
+        this.problemRepository = problemRepository;
+        this.enabled = maxSize > 0;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "problems");
+    }
+
+    // 같은 id를 동시에 처음 읽으면 DB에는 한 번만 감 (나머지는 그 결과를 기다림)
+    public Optional<ProblemResponseDto> find(Long id) {
+        if (!enabled) {
+            return load(id);
+        }
+        return Optional.ofNullable(cache.get(id, key -> load(key).orElse(null)));
+    }
+
+    public void putAll(Collection<Problem> problems) {
+        if (!enabled) {
+            return;
+        }
+        problems.stream()
+                .filter(problem -> problem.getId() != null)
+                .forEach(problem -> cache.put(problem.getId(), ProblemResponseDto.from(problem)));
+    }
+
+    public void evict(Long id) {
+        cache.invalidate(id);
+    }
+
+    // 재시작 직후 요청이 전부 DB로 가지 않게 최근 문제부터 채워둠
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!enabled || warmUp <= 0) {
+            return;
+        }
+        try {
+            putAll(problemRepository.findByOrderByIdDesc(PageRequest.of(0, warmUp)));
+            log.info("🗃️ 최근 문제 {}개를 캐시에 올렸습니다.", cache.estimatedSize());
+        } catch (Exception e) {
+            log.warn("⚠️ 문제 캐시를 미리 채우지 못했습니다: {}", e.getMessage());
+        }
+    }
+
+    long size() {
+        cache.cleanUp();
+        return cache.estimatedSize();
+    }
+
+    private Optional<ProblemResponseDto> load(Long id) {
+        return problemRepository.findById(id).map(ProblemResponseDto::from);
+    }
+}
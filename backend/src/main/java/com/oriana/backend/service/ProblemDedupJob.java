@@ -0,0 +1,114 @@
+package com.oriana.backend.service;
+
+import com.oriana.backend.domain.Problem;
+import com.oriana.backend.repository.ProblemRepository;
+import com.oriana.backend.repository.SolveHistoryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * 🧹 기존 중복 문제 정리 (한 번만 돌리는 작업)
+ * content_hash 가 생기기 전에 쌓인 행들에 id 순서대로 지문을 채우면서, 같은 지문의 행이 이미 있으면(= 중복)
+ * 그 행(먼저 지문을 채운 예전 행, 또는 그 뒤로 새로 저장된 행)만 남기고 이 행은 지운다. 지우기 전에
+ * - 중복 행의 유사 문제(parent_problem_id)는 남길 행을 가리키게 옮기고
+ * - 중복 행이 어떤 원본의 유사 문제였고 남길 행에 원본이 없으면 남길 행을 그 원본 아래로 (지문에 연결 정보가 없어서 출처가 달라도 합쳐짐)
+ * - 중복 행을 푼 기록(solve_history)도 남길 행으로 옮김 (같은 학생이 둘 다 풀었으면 시도 횟수 / 정답 여부를 합침)
+ * - 사진 중복 캐시(PhotoDedupService)가 기억하는 id도 페이지마다 남길 행으로 바꿈
+ * 행 하나마다 짧은 트랜잭션이라 서비스 중에 돌려도 됨. 다 돌고 나면 oriana.problems.dedup-job.enabled 를 다시 false 로.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProblemDedupJob {
+
+    private static final int PAGE_SIZE = 500;
+
+    private final ProblemRepository problemRepository;
+    private final SolveHistoryRepository solveHistoryRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ProblemCache problemCache;
+    private final PhotoDedupService photoDedupService;
+
+    @Value("${oriana.problems.dedup-job.enabled:false}")
+    private boolean enabled;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void runOnStartup() {
+        if (enabled) {
+            run();
+        }
+    }
+
+    public void run() {
+        long afterId = 0;
+        int fingerprinted = 0;
+        int merged = 0;
+
+        List<Problem> page;
+        while (!(page = problemRepository.findUnfingerprinted(afterId, PageRequest.of(0, PAGE_SIZE))).isEmpty()) {
+            Map<Long, Long> mergedInto = new HashMap<>();
+            for (Problem problem : page) {
+                Long canonicalId = process(problem);
+                if (canonicalId != null) {
+                    mergedInto.put(problem.getId(), canonicalId);
+                    merged++;
+                } else {
+                    fingerprinted++;
+                }
+                afterId = problem.getId();
+            }
+            photoDedupService.repoint(mergedInto);
+            log.info("🧹 중복 문제 정리 중... (id {}까지, 지문 {}개 채움, 중복 {}개 합침)", afterId, fingerprinted, merged);
+        }
+        log.info("🧹 중복 문제 정리 완료: 지문 {}개 채움, 중복 {}개 합침", fingerprinted, merged);
+    }
+
+    // 중복이라서 합쳤으면 남긴 행 id, 지문만 채웠으면 null
+    private Long process(Problem problem) {
+        String contentHash = problem.fingerprint();
+        Long canonicalId;
+        try {
+            canonicalId = transactionTemplate.execute(status -> apply(problem, contentHash));
+        } catch (DataIntegrityViolationException e) {
+            // 지문을 채우는 사이에 같은 내용이 새로 저장됨 → 이번엔 그 행이 보이니까 한 번 더
+            canonicalId = transactionTemplate.execute(status -> apply(problem, contentHash));
+        }
+        if (canonicalId != null) {
+            problemCache.evict(problem.getId()); // 지운 문제로 채점하지 않게
+        }
+        return canonicalId;
+    }
+
+    private Long apply(Problem problem, String contentHash) {
+        Long id = problem.getId();
+        Optional<Long> canonical = problemRepository.findIdByContentHash(contentHash);
+        if (canonical.isEmpty()) {
+            problemRepository.setContentHash(id, contentHash);
+            return null;
+        }
+
+        Long canonicalId = canonical.get();
+        solveHistoryRepository.mergeAttempts(id, canonicalId);
+        solveHistoryRepository.deleteMerged(id, canonicalId);
+        solveHistoryRepository.repoint(id, canonicalId);
+        problemRepository.repointChildren(id, canonicalId);
+        if (problem.getParentProblem() != null) {
+            problemRepository.linkToParent(List.of(canonicalId), problem.getParentProblem().getId());
+        }
+        problemRepository.deleteById(id);
+        log.debug("🧹 중복 문제 {} → {} 로 합침", id, canonicalId);
+        return canonicalId;
+    }
+}
@@ -0,0 +1,127 @@
+package com.oriana.backend.service;
+
+import com.oriana.backend.domain.Problem;
+import com.oriana.backend.repository.ProblemRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 🔑 생성된 문제 저장 (내용 지문 기준 멱등)
+ * 재시도 / 같은 프롬프트 / 다른 프롬프트 / 재스캔으로 이미 있는 문제가 다시 나오면 INSERT 하지 않고 기존 행을 돌려준다.
+ * 지문은 내용만 보고(어디에 붙은 문제인지는 안 봄), 재사용한 행의 연결은 여기서 맞춤:
+ * - 유사 문제로 다시 나왔는데 기존 행에 원본이 없으면 그 원본 아래로 연결 (이미 다른 원본 아래면 그대로 → 한 행은 원본 하나)
+ * - 바로 생성 결과가 아직 안 나간 재고 문제면 재고에서 뺌 (지금 내주니까, 나중에 재고로 또 나가지 않게)
+ * - 재고 채우기 결과가 기존 행이면 재고로 넣지 않음 (inserted 에 안 들어감 → 이미 나갔던 문제 / 다른 버킷 재고를 또 쌓지 않음)
+ * - 사진 스캔이 사진 해시 없는 행을 재사용하면 그 행에 이번 사진 해시를 채움
+ * (1) 지문 계산 + 한 응답 안의 중복 제거 → (2) 지문으로 기존 행 조회 → (3) 새 문제만 saveAll → (4) 재사용한 행 연결
+ * 조회와 INSERT 사이에 다른 요청이 같은 문제를 먼저 넣으면 unique 인덱스(uk_problems_content_hash)에 걸림
+ * → 다시 조회해서 그 행을 쓰고 나머지만 다시 저장.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProblemIngestService {
+
+    private final ProblemRepository problemRepository;
+    private final ProblemCache problemCache;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * @param problems 저장된 문제들 (입력 순서, 내용이 같은 건 하나로). 새로 넣은 것 + 재사용한 기존 행
+     * @param inserted 그중 이번에 새로 INSERT 한 것
+     */
+    public record Result(List<Problem> problems, List<Problem> inserted) {
+    }
+
+    // 트랜잭션 없음: 조회 / saveAll 이 각자 짧은 트랜잭션으로 끝남 (ProblemService 와 같은 방식)
+    public Result ingest(List<Problem> candidates) {
+        if (candidates.isEmpty()) {
+            return new Result(List.of(), List.of());
+        }
+
+        Map<String, Problem> byHash = new LinkedHashMap<>();
+        for (Problem candidate : candidates) {
+            byHash.putIfAbsent(candidate.fingerprint(), candidate);
+        }
+
+        Map<String, Problem> stored = new HashMap<>();
+        findExisting(byHash, stored);
+        List<Problem> fresh = missing(byHash, stored);
+        try {
+            problemRepository.saveAll(fresh);
+        } catch (DataIntegrityViolationException e) {
+            log.info("🔑 다른 요청이 같은 문제를 먼저 저장했습니다. 기존 행을 찾아서 다시 저장합니다.");
+            findExisting(byHash, stored);
+            // 실패한 saveAll 에서 id가 채워졌을 수 있으니 새 객체로 다시
+            fresh = missing(byHash, stored).stream()
+                    .map(problem -> problem.toBuilder().id(null).build())
+                    .toList();
+            problemRepository.saveAll(fresh);
+        }
+        fresh.forEach(problem -> stored.put(problem.getContentHash(), problem));
+        linkReused(byHash, stored, fresh);
+        problemCache.putAll(fresh); // 방금 만든 문제는 곧 학생이 조회 / 채점함
+
+        int reused = candidates.size() - fresh.size();
+        meterRegistry.counter("oriana.problems.ingest", "result", "inserted").increment(fresh.size());
+        meterRegistry.counter("oriana.problems.ingest", "result", "reused").increment(reused);
+        if (reused > 0) {
+            log.info("🔑 이미 있는 문제 {}개는 새로 저장하지 않고 재사용합니다.", reused);
+        }
+
+        List<Problem> problems = new ArrayList<>();
+        byHash.keySet().forEach(hash -> problems.add(stored.get(hash)));
+        return new Result(problems, fresh);
+    }
+
+    // 재사용한 기존 행에 이번 요청의 연결(원본 문제 / 재고에서 빼기 / 사진 해시)을 반영
+    private void linkReused(Map<String, Problem> byHash, Map<String, Problem> stored, List<Problem> fresh) {
+        Map<Long, List<Long>> idsByParent = new HashMap<>();
+        List<Long> claimedStock = new ArrayList<>();
+        Map<Long, List<Long>> idsByPhotoHash = new HashMap<>();
+        byHash.forEach((hash, candidate) -> {
+            Problem existing = stored.get(hash);
+            if (fresh.contains(existing)) {
+                return;
+            }
+            Problem parent = candidate.getParentProblem();
+            if (parent != null && existing.getParentProblem() == null) {
+                idsByParent.computeIfAbsent(parent.getId(), k -> new ArrayList<>()).add(existing.getId());
+            }
+            if (candidate.getInventoryBucket() == null && existing.getInventoryBucket() != null && existing.getServedAt() == null) {
+                claimedStock.add(existing.getId());
+            }
+            if (candidate.getPhotoHash() != null && existing.getPhotoHash() == null) {
+                idsByPhotoHash.computeIfAbsent(candidate.getPhotoHash(), k -> new ArrayList<>()).add(existing.getId());
+            }
+        });
+        idsByParent.forEach((parentId, ids) -> problemRepository.linkToParent(ids, parentId));
+        if (!claimedStock.isEmpty()) {
+            problemRepository.markStockServed(claimedStock, LocalDateTime.now());
+        }
+        idsByPhotoHash.forEach((photoHash, ids) -> problemRepository.fillPhotoHash(ids, photoHash));
+    }
+
+    private void findExisting(Map<String, Problem> byHash, Map<String, Problem> into) {
+        into.clear();
+        problemRepository.findByContentHashIn(byHash.keySet())
+                .forEach(problem -> into.put(problem.getContentHash(), problem));
+    }
+
+    private static List<Problem> missing(Map<String, Problem> byHash, Map<String, Problem> existing) {
+        return byHash.entrySet().stream()
+                .filter(entry -> !existing.containsKey(entry.getKey()))
+                .map(Map.Entry::getValue)
+                .toList();
+    }
+}
@@ -0,0 +1,275 @@
+package com.oriana.backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.oriana.backend.domain.Problem;
+import com.oriana.backend.domain.ProblemSource;
+import com.oriana.backend.dto.ProblemRequestDto;
+import com.oriana.backend.dto.ProblemResponseDto;
+import com.oriana.backend.repository.ProblemRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 📦 추천 문제 재고 관리
+ * 추천 요청 조건(학년/과목/단원/난이도/유형)은 가짓수가 적고 학생들끼리 많이 겹침.
+ * 그래서 버킷마다 "아직 안 나간 문제"를 problems 테이블에 미리 만들어두고, 요청이 오면 재고에서 바로 꺼내준다.
+ * 재고가 모자라면(miss) 예전처럼 바로 생성하고, 부족한 버킷은 백그라운드 스케줄러가 채워둠.
+ * 조건은 클라이언트가 보내는 자유 텍스트라서, 한 번만 들어온 조건까지 채우면 Gemini 호출이 헛돎.
+ * → bucket-idle-ttl 안에 min-requests 번 이상 요청됐거나 allow-list 에 있는 버킷만 채우고, 관리하는 버킷 수도 max-buckets 까지만.
+ * 버킷별 메트릭(hit/miss, 재고 수)은 위 조건을 넘긴 버킷만 bucket 태그로 남기고 (시계열 수 ≤ max-buckets),
+ * 나머지 요청은 bucket="other" 로 묶음. 버킷이 관리 대상에서 빠지면 그 버킷의 메트릭도 지움
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProblemInventoryService {
+
+    // 추천 API 한 번에 나가는 문제 수 (AI도 한 번에 3개씩 만듦)
+    static final int PROBLEMS_PER_REQUEST = 3;
+
+    // 버킷별 메트릭이 없는 요청(아직 수요가 모자란 조건 / 상한 넘은 조건)의 bucket 태그
+    static final String OTHER_BUCKET = "other";
+
+    private final ProblemRepository problemRepository;
+    private final AiService aiService;
+    private final ProblemIngestService problemIngestService;
+    private final MeterRegistry meterRegistry;
+
+    // 요청이 들어온 적 있는 버킷들 (key → 상태)
+    private final Map<String, BucketState> buckets = new ConcurrentHashMap<>();
+
+    @Value("${oriana.inventory.enabled:true}")
+    private boolean enabled;
+
+    @Value("${oriana.inventory.target-stock:9}")
+    private int targetStock;
+
+    @Value("${oriana.inventory.low-water-mark:3}")
+    private int lowWaterMark;
+
+    @Value("${oriana.inventory.max-generations-per-run:10}")
+    private int maxGenerationsPerRun;
+
+    @Value("${oriana.inventory.bucket-idle-ttl:24h}")
+    private Duration bucketIdleTtl;
+
+    @Value("${oriana.inventory.min-requests:2}")
+    private int minRequests;
+
+    @Value("${oriana.inventory.max-buckets:500}")
+    private int maxBuckets;
+
+    @Value("${oriana.inventory.allow-list:}")
+    private Set<String> allowList;
+
+    /**
+     * 재고에서 문제 3개 꺼내기. 3개가 안 되면 빈 리스트(miss) → 호출한 쪽이 바로 생성.
+     * 짧은 트랜잭션 안에서 잠금 + served_at 표시만 하고 끝남 (AI 호출 없음)
+     */
+    @Transactional
+    public List<ProblemResponseDto> take(ProblemRequestDto prefs) {
+        if (!enabled) {
+            return List.of();
+        }
+
+        ProblemBucket bucket = ProblemBucket.of(prefs);
+        BucketState state = track(bucket);
+        if (state == null) {
+            // 버킷 수 상한: 새 조건은 관리하지 않음 (재고도 없으니 바로 miss)
+            count(null, "untracked");
+            return List.of();
+        }
+        state.requests.incrementAndGet();
+        List<Problem> stock = problemRepository.lockUnservedStock(bucket.key(), PROBLEMS_PER_REQUEST);
+
+        if (stock.size() < PROBLEMS_PER_REQUEST) {
+            // 일부만 있으면 꺼내지 않음 (잠금은 트랜잭션 끝나면 풀림) - 다음 채우기 때 채워짐
+            count(state, "miss");
+            return List.of();
+        }
+
+        stock.forEach(Problem::markServed);
+        state.stock.addAndGet(-stock.size());
+        count(state, "hit");
+        log.info("📦 재고에서 문제 {}개 제공 (버킷: {})", stock.size(), bucket.key());
+
+        return stock.stream()
+                .map(ProblemResponseDto::from)
+                .toList();
+    }
+
+    // 재시작 후에도 allow-list 버킷과 이미 재고가 있는 버킷(전에 수요가 있었던 버킷)은 계속 관리
+    @EventListener(ApplicationReadyEvent.class)
+    public void restoreBuckets() {
+        if (!enabled) {
+            return;
+        }
+        Gauge.builder("oriana.inventory.stock", buckets,
+                        states -> states.values().stream().mapToLong(state -> state.stock.get()).sum())
+                .description("관리 중인 버킷들의 아직 안 나간 재고 문제 수 합")
+                .register(meterRegistry);
+        Gauge.builder("oriana.inventory.buckets", buckets, Map::size)
+                .description("관리 중인 재고 버킷 수")
+                .register(meterRegistry);
+
+        allowList.forEach(key -> track(ProblemBucket.fromKey(key)));
+        try {
+            problemRepository.findStockedBuckets().forEach(key -> {
+                BucketState state = track(ProblemBucket.fromKey(key));
+                if (state != null) {
+                    state.requests.set(minRequests);
+                }
+            });
+            log.info("📦 기존 재고 버킷 {}개를 불러왔습니다.", buckets.size());
+        } catch (Exception e) {
+            log.warn("⚠️ 기존 재고 버킷을 불러오지 못했습니다: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 🔄 백그라운드 재고 채우기
+     * 재고가 low-water-mark 아래로 떨어진 버킷만 target-stock까지 채움.
+     * 스케줄러 스레드 하나에서 순서대로 돌기 때문에, 백그라운드 Gemini 호출은 동시에 1개뿐 (실시간 요청 몫을 안 뺏음)
+     */
+    @Scheduled(fixedDelayString = "${oriana.inventory.refill-interval-ms:30000}",
+            initialDelayString = "${oriana.inventory.refill-interval-ms:30000}")
+    public void refill() {
+        if (!enabled) {
+            return;
+        }
+
+        dropIdleBuckets();
+
+        int budget = maxGenerationsPerRun; // 한 번 돌 때 AI 호출 상한
+        for (BucketState state : buckets.values()) {
+            if (!wanted(state)) {
+                continue; // 아직 한 번만 요청된 조건
+            }
+            long stock = problemRepository.countByInventoryBucketAndServedAtIsNull(state.bucket.key());
+            state.stock.set(stock);
+            registerStockGauge(state);
+
+            if (stock >= lowWaterMark) {
+                continue;
+            }
+
+            while (stock < targetStock && budget > 0) {
+                budget--;
+                int saved = generateInto(state);
+                if (saved == 0) {
+                    break; // AI 쪽 문제면 이번 회차는 이 버킷 포기
+                }
+                stock = state.stock.addAndGet(saved);
+            }
+
+            if (budget == 0) {
+                log.info("📦 이번 회차 재고 채우기 상한({}회)에 도달했습니다.", maxGenerationsPerRun);
+                return;
+            }
+        }
+    }
+
+    // AI로 3개 생성 → 재고로 저장 (트랜잭션 없이 생성하고, saveAll만 짧게)
+    private int generateInto(BucketState state) {
+        try {
+            JsonNode aiResponseArray = aiService.generateRecommendedProblem(state.bucket.toRequest());
+            List<Problem> problems = GeneratedProblemMapper.toProblems(aiResponseArray, ProblemSource.RECOMMEND, null);
+            problems.forEach(problem -> problem.stockInto(state.bucket.key()));
+            // 이미 있는 문제(예전에 나간 문제일 수 있음)는 재고로 다시 넣지 않음 → 새로 저장된 것만 재고
+            List<Problem> stocked = problemIngestService.ingest(problems).inserted();
+
+            meterRegistry.counter("oriana.inventory.refilled").increment(stocked.size());
+            log.info("📦 재고 {}개 채움 (버킷: {})", stocked.size(), state.bucket.key());
+            return stocked.size();
+        } catch (Exception e) {
+            log.error("❌ 재고 채우기 실패 (버킷: {}): {}", state.bucket.key(), e.getMessage());
+            return 0;
+        }
+    }
+
+    // 오랫동안 요청이 없는 버킷은 더 채우지 않음 (남은 재고는 DB에 그대로 두고, 다시 요청 오면 이어서 관리)
+    // 버킷 태그 메트릭도 같이 지움 → 시계열은 지금 관리 중인 버킷만큼만
+    private void dropIdleBuckets() {
+        Instant idleSince = Instant.now().minus(bucketIdleTtl);
+        buckets.values().removeIf(state -> {
+            if (allowList.contains(state.bucket.key()) || !state.lastRequested.isBefore(idleSince)) {
+                return false;
+            }
+            state.evicted = true;
+            state.meters.forEach(meterRegistry::remove);
+            return true;
+        });
+    }
+
+    // 관리 중인 버킷 상태. 처음 보는 조건인데 이미 max-buckets 개면 null (allow-list 는 예외)
+    private BucketState track(ProblemBucket bucket) {
+        BucketState state = buckets.get(bucket.key());
+        if (state == null) {
+            if (buckets.size() >= maxBuckets && !allowList.contains(bucket.key())) {
+                return null;
+            }
+            state = buckets.computeIfAbsent(bucket.key(), key -> new BucketState(bucket));
+        }
+        state.lastRequested = Instant.now();
+        return state;
+    }
+
+    private boolean wanted(BucketState state) {
+        return state.requests.get() >= minRequests || allowList.contains(state.bucket.key());
+    }
+
+    // 수요 조건을 넘긴 버킷만 bucket 태그, 나머지는 other
+    private void count(BucketState state, String result) {
+        if (state == null || state.evicted || !wanted(state)) {
+            meterRegistry.counter("oriana.inventory.requests", "result", result, "bucket", OTHER_BUCKET).increment();
+            return;
+        }
+        Counter counter = meterRegistry.counter("oriana.inventory.requests", "result", result, "bucket", state.bucket.key());
+        state.meters.add(counter);
+        counter.increment();
+        registerStockGauge(state);
+    }
+
+    // 버킷별 재고 수 (refill 때마다 DB 값으로 맞추고, 꺼내갈 때 줄임)
+    private void registerStockGauge(BucketState state) {
+        if (state.evicted || state.meters.stream().anyMatch(Gauge.class::isInstance)) {
+            return;
+        }
+        state.meters.add(Gauge.builder("oriana.inventory.bucket.stock", state.stock, AtomicLong::get)
+                .description("버킷별 아직 안 나간 재고 문제 수")
+                .tag("bucket", state.bucket.key())
+                .register(meterRegistry));
+    }
+
+    private static class BucketState {
+        private final ProblemBucket bucket;
+        private final AtomicLong stock = new AtomicLong();
+        private final AtomicInteger requests = new AtomicInteger(); // 버킷이 관리되기 시작한 뒤(= idle-ttl 안) 요청 수
+        private volatile Instant lastRequested = Instant.now();
+        private final Set<Meter> meters = ConcurrentHashMap.newKeySet(); // 이 버킷 태그가 붙은 메트릭 (빠질 때 지움)
+        private volatile boolean evicted;
+
+        private BucketState(ProblemBucket bucket) {
+            this.bucket = bucket;
+        }
+    }
+}
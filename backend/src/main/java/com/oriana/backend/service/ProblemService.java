@@ -3,6 +3,7 @@ package com.oriana.backend.service;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.oriana.backend.domain.Problem;
 import com.oriana.backend.domain.ProblemSource;
+import com.oriana.backend.dto.CursorPageDto;
 import com.oriana.backend.dto.ProblemRequestDto;
 import com.oriana.backend.dto.ProblemResponseDto;
 import com.oriana.backend.repository.ProblemRepository;
@@ -14,6 +15,11 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -23,172 +29,159 @@ public class ProblemService {
 
     private final AiService aiService;
     private final ProblemRepository problemRepository;
+    private final ProblemInventoryService problemInventoryService;
+    private final PhotoDedupService photoDedupService;
+    private final ProblemIngestService problemIngestService;
+    private final ProblemCache problemCache;
+    private final SingleFlightCoalescer coalescer;
+    private final AiMetrics aiMetrics;
+
+    // ⚠️ 생성 메서드에는 @Transactional을 붙이지 않는다!
+    // Gemini 호출은 수 초씩 걸리기 때문에, 트랜잭션 안에서 부르면 그동안 커넥션 풀의 커넥션을 하나씩 붙잡고 있게 됨.
+    // 그래서 (1) 트랜잭션 없이 AI 호출 + Entity 변환 → (2) saveAll 한 번으로 짧게 쓰기 순서로 나눠서 처리한다.
 
     // ✨ 1. 맞춤 추천 문제 3개 생성 & DB 저장
-    @Transactional
     public List<ProblemResponseDto> createRecommendedProblem(ProblemRequestDto prefs) {
-        JsonNode aiResponseArray = aiService.generateRecommendedProblem(prefs);
-        return saveProblemListToDb(aiResponseArray, ProblemSource.RECOMMEND, null);
+        // 📦 미리 만들어둔 재고가 있으면 AI 호출 없이 바로 (없으면 아래에서 바로 생성)
+        List<ProblemResponseDto> stocked = problemInventoryService.take(prefs);
+        if (!stocked.isEmpty()) {
+            return stocked;
+        }
+
+        // 같은 조건(정규화한 버킷 키)의 요청이 동시에 오면 Gemini 호출 + 저장 1번을 같이 기다렸다가 저장된 문제를 나눠 받음
+        return coalescer.execute("recommend", ProblemBucket.of(prefs).key(), () -> {
+            JsonNode aiResponseArray = aiService.generateRecommendedProblem(prefs);
+            return saveProblemListToDb(aiResponseArray, ProblemSource.RECOMMEND, null);
+        });
     }
 
     // ✨ 2. 사진 스캔 문제 3개 생성 & DB 저장
-    @Transactional
     public List<ProblemResponseDto> createPhotoProblem(MultipartFile imageFile) {
+        long start = System.nanoTime();
+        PhotoHash.Scan scan = photoDedupService.scan(imageFile);
+
+        // 📷 같은 문제를 찍은 사진이 이미 들어온 적 있으면 AI 호출 없이 그때 뽑은 문제를 그대로
+        List<Problem> scanned = photoDedupService.findNearDuplicate(scan);
+        if (!scanned.isEmpty()) {
+            photoDedupService.recordScan("hit", start);
+            return scanned.stream()
+                    .map(ProblemResponseDto::from)
+                    .collect(Collectors.toList());
+        }
+
         JsonNode aiResponseArray = aiService.analyzePhotoDirectly(imageFile);
-        return saveProblemListToDb(aiResponseArray, ProblemSource.PHOTO, null);
+        List<Problem> newProblems = toProblems(aiResponseArray, ProblemSource.PHOTO, null);
+        newProblems.forEach(problem -> problem.scannedFrom(scan == null ? null : scan.hash()));
+
+        List<Problem> saved = saveProblems(newProblems);
+        photoDedupService.remember(scan, saved);
+        photoDedupService.recordScan(scan == null ? "skipped" : "miss", start);
+        return saved.stream()
+                .map(ProblemResponseDto::from)
+                .collect(Collectors.toList());
     }
 
     // ✨ 3. 유사 문제 3개 생성 & DB 저장 (족보 연결)
-    @Transactional
     public List<ProblemResponseDto> createSimilarProblem(Long baseId) {
-        Problem baseProblem = problemRepository.findById(baseId)
-                .orElseThrow(() -> new IllegalArgumentException("원본 문제를 찾을 수 없습니다."));
-
-        JsonNode aiResponseArray = aiService.generateSimilarProblem(baseProblem);
-        return saveProblemListToDb(aiResponseArray, ProblemSource.SIMILAR, baseProblem);
+        // 같은 원본 문제의 유사 문제 요청은 하나로 합침 (생성 + 저장 1번, 저장된 문제를 나눠 받음)
+        return coalescer.execute("similar", String.valueOf(baseId), () -> {
+            // 원본 조회는 findById 자체의 짧은 읽기 트랜잭션으로 끝남 (AI 호출 전에 커넥션 반납)
+            Problem baseProblem = problemRepository.findById(baseId)
+                    .orElseThrow(() -> new IllegalArgumentException("원본 문제를 찾을 수 없습니다."));
+
+            JsonNode aiResponseArray = aiService.generateSimilarProblem(baseProblem);
+            return saveProblemListToDb(aiResponseArray, ProblemSource.SIMILAR, baseProblem);
+        });
     }
 
-    // 🛠️ 핵심 공통 로직: AI가 준 JSON 배열(3개)을 Entity로 변환하고 DB에 저장
-    private List<ProblemResponseDto> saveProblemListToDb(JsonNode jsonArray, ProblemSource source, Problem parent) {
-        List<Problem> newProblems = new ArrayList<>();
-
-        // 🛡️ [방어 1] AI 응답 자체가 null이거나 배열이 아니면 빈 리스트 반환
-        if (jsonArray == null || !jsonArray.isArray()) {
-            log.error("🚨 AI 응답이 비어있거나 형식이 올바르지 않아 저장을 건너뜁니다.");
-            return new ArrayList<>();
+    // ✨ 1-1. 맞춤 추천 스트리밍: 문제가 하나 완성될 때마다 바로 저장하고 onProblem으로 전달
+    // (3개를 다 기다리지 않으니 첫 문제가 훨씬 빨리 보임)
+    public int streamRecommendedProblem(ProblemRequestDto prefs, Consumer<ProblemResponseDto> onProblem) {
+        List<ProblemResponseDto> stocked = problemInventoryService.take(prefs);
+        if (!stocked.isEmpty()) {
+            stocked.forEach(onProblem);
+            return stocked.size();
         }
 
-        // JSON 배열을 돌면서 각각의 문제 데이터를 추출
-        for (JsonNode json : jsonArray) {
-            try {
-                // 🛡️ [방어 2] 필수 필드(문제 텍스트)가 없으면 이 문제는 스킵
-                if (json.path("question").isMissingNode() || json.path("question").asText().isEmpty()) {
-                    log.warn("⚠️ 필수 데이터(질문)가 없는 문제가 있어 스킵합니다.");
-                    continue;
-                }
-
-                // 💡 1. 보기(Options) 리스트 추출 - 각 항목 길이 제한
-                List<String> optionsList = new ArrayList<>();
-                json.path("options").forEach(opt -> {
-                    String optText = opt.asText();
-                    // 각 선택지는 500자로 제한 (안전)
-                    if (optText.length() > 500) {
-                        optText = optText.substring(0, 500);
-                        log.warn("⚠️ 선택지가 500자를 초과하여 잘랐습니다.");
-                    }
-                    optionsList.add(optText);
-                });
-
-                // 💡 2. 태그(Tags) 리스트 추출 - 각 항목 길이 제한
-                List<String> tagsList = new ArrayList<>();
-                json.path("tags").forEach(tag -> {
-                    String tagText = tag.asText();
-                    // 각 태그는 50자로 제한
-                    if (tagText.length() > 50) {
-                        tagText = tagText.substring(0, 50);
-                        log.warn("⚠️ 태그가 50자를 초과하여 잘랐습니다: {}", tagText);
-                    }
-                    tagsList.add(tagText);
-                });
-
-                // 💡 3. 길이 제한이 있는 필드들을 안전하게 추출
-                // Entity에서 VARCHAR(255)로 설정된 필드들
-                String grade = truncate(json.path("grade").asText("고1"), 255, "학년");
-                String subject = truncate(json.path("subject").asText("수학"), 255, "과목");
-                String difficulty = truncate(json.path("difficulty").asText("중"), 255, "난이도");
-
-                // TEXT 타입 필드들 (여유있게 설정)
-                String question = json.path("question").asText();
-                String answer = json.path("answer").asText("");
-                String solution = json.path("solution").asText("풀이가 제공되지 않습니다.");
-
-                // 💡 4. Entity 생성
-                Problem problem = Problem.builder()
-                        .parentProblem(parent)
-                        .sourceType(source)
-                        .grade(grade)
-                        .subject(subject)
-                        .difficulty(difficulty)
-                        .tags(tagsList)
-                        .question(question)
-                        .options(optionsList)
-                        .answer(answer)
-                        .solution(solution)
-                        .points(json.path("points").asInt(20))
-                        .isSubjective(json.path("isSubjective").asBoolean(false))
-                        .build();
-
-                newProblems.add(problem);
-                log.info("✅ 문제 생성 완료: {} (태그: {}개, 선택지: {}개)",
-                        question.substring(0, Math.min(30, question.length())),
-                        tagsList.size(),
-                        optionsList.size());
-
-            } catch (Exception e) {
-                // 🛡️ [방어 3] 특정 문제 하나가 파싱하다 터져도, 나머지 문제는 살림!
-                log.error("❌ 개별 문제 변환 중 오류 발생 (해당 문제만 스킵): {}", e.getMessage(), e);
+        AtomicInteger saved = new AtomicInteger();
+        Set<Long> sent = ConcurrentHashMap.newKeySet(); // 같은 응답 안에서 똑같은 문제가 또 나오면 한 번만 보냄
+        aiService.streamRecommendedProblem(prefs, json -> {
+            Problem problem = GeneratedProblemMapper.toProblem(json, ProblemSource.RECOMMEND, null);
+            if (problem == null) {
+                aiMetrics.recordDiscarded(ProblemSource.RECOMMEND.name(), "invalid", 1);
+                return;
             }
-        }
-
-        // 하나라도 제대로 파싱된 문제가 있다면 저장
-        if (!newProblems.isEmpty()) {
-            try {
-                problemRepository.saveAll(newProblems);
-                log.info("✅ 총 {}개의 문제가 DB에 저장되었습니다.", newProblems.size());
-            } catch (Exception e) {
-                log.error("❌ DB 저장 실패: {}", e.getMessage(), e);
-                return new ArrayList<>();
+            // 문제 1개짜리 짧은 쓰기 (이미 있는 문제면 기존 행)
+            Problem stored = problemIngestService.ingest(List.of(problem)).problems().get(0);
+            if (!sent.add(stored.getId())) {
+                return;
             }
-        }
+            saved.incrementAndGet();
+            onProblem.accept(ProblemResponseDto.from(stored));
+        });
+        log.info("✅ 스트리밍으로 총 {}개의 문제가 DB에 저장되었습니다.", saved.get());
+        return saved.get();
+    }
 
-        return newProblems.stream()
+    // 🛠️ 핵심 공통 로직: AI가 준 JSON 배열(3개)을 Entity로 변환하고 DB에 저장
+    // 합쳐진 요청들이 같은 리스트를 나눠 받으니 수정 불가 리스트로
+    private List<ProblemResponseDto> saveProblemListToDb(JsonNode jsonArray, ProblemSource source, Problem parent) {
+        // 1단계: 트랜잭션 없이 Entity 변환 (DB 커넥션 안 씀)
+        return saveProblems(toProblems(jsonArray, source, parent)).stream()
                 .map(ProblemResponseDto::from)
-                .collect(Collectors.toList());
+                .toList();
     }
 
-    /**
-     * 🛡️ 문자열 길이 제한 유틸리티
-     * DB 컬럼 길이를 초과하지 않도록 안전하게 자르기
-     */
-    private String truncate(String str, int maxLength, String fieldName) {
-        if (str == null || str.isEmpty()) {
-            return str == null ? "" : str;
+    // 📊 AI 응답에는 있었는데 필수 필드가 없거나 변환에 실패해서 버린 문제 수도 같이 기록
+    private List<Problem> toProblems(JsonNode jsonArray, ProblemSource source, Problem parent) {
+        List<Problem> newProblems = GeneratedProblemMapper.toProblems(jsonArray, source, parent);
+        if (jsonArray != null && jsonArray.isArray()) {
+            aiMetrics.recordDiscarded(source.name(), "invalid", jsonArray.size() - newProblems.size());
         }
+        return newProblems;
+    }
 
-        if (str.length() <= maxLength) {
-            return str;
+    private List<Problem> saveProblems(List<Problem> newProblems) {
+        // 2단계: 쓰기 전용 단계 - 지문으로 기존 행 확인 + 새 문제만 saveAll (각자 짧은 트랜잭션, ProblemIngestService)
+        // 하나라도 제대로 파싱된 문제가 있다면 저장
+        if (newProblems.isEmpty()) {
+            return newProblems;
+        }
+        try {
+            ProblemIngestService.Result result = problemIngestService.ingest(newProblems);
+            log.info("✅ 총 {}개의 문제가 DB에 저장되었습니다. (새로 저장 {}개)", result.problems().size(), result.inserted().size());
+            return result.problems();
+        } catch (Exception e) {
+            log.error("❌ DB 저장 실패: {}", e.getMessage(), e);
+            aiMetrics.recordDiscarded(newProblems.get(0).getSourceType().name(), "db_error", newProblems.size());
+            return new ArrayList<>();
         }
-
-        log.warn("⚠️ {}이(가) {}자를 초과하여 잘랐습니다. 원본 길이: {}, 잘린 내용: {}...",
-                fieldName, maxLength, str.length(),
-                str.substring(0, Math.min(30, str.length())));
-
-        return str.substring(0, maxLength);
     }
 
-    @Transactional(readOnly = true)
+    // 🗃️ 캐시에 있으면 DB 안 감 (없으면 읽어서 캐시에 넣음)
     public ProblemResponseDto getProblemById(Long id) {
-        Problem problem = problemRepository.findById(id)
+        return problemCache.find(id)
                 .orElseThrow(() -> new IllegalArgumentException("해당 문제를 찾을 수 없어! ID: " + id));
+    }
 
-        return ProblemResponseDto.from(problem);
+    // 없을 수도 있는 문제 조회 (중복 정리로 지워진 id 등)
+    public Optional<ProblemResponseDto> findProblem(Long id) {
+        return problemCache.find(id);
     }
 
-    @Transactional
     public List<ProblemResponseDto> generateSimilarProblems(Long baseId) {
-        Problem baseProblem = problemRepository.findById(baseId)
-                .orElseThrow(() -> new IllegalArgumentException("원본 문제를 찾을 수 없습니다."));
-
-        JsonNode aiResponseArray = aiService.generateSimilarProblem(baseProblem);
-        return saveProblemListToDb(aiResponseArray, ProblemSource.SIMILAR, baseProblem);
+        return createSimilarProblem(baseId);
     }
 
     @Transactional(readOnly = true)
-    public List<ProblemResponseDto> getSimilarProblems(Long baseId) {
-        List<Problem> similarList = problemRepository.findByParentProblemIdOrderByCreatedAtDesc(baseId);
-
-        return similarList.stream()
-                .map(ProblemResponseDto::from)
-                .collect(Collectors.toList());
+    public CursorPageDto<ProblemResponseDto> getSimilarProblems(Long baseId, String cursor, Integer size) {
+        PageCursor after = PageCursor.decode(cursor);
+        int pageSize = PageCursor.pageSize(size);
+        List<Problem> similarList = after == null
+                ? problemRepository.findSimilarPage(baseId, PageCursor.limitFor(pageSize))
+                : problemRepository.findSimilarPageAfter(baseId, after.at(), after.id(), PageCursor.limitFor(pageSize));
+
+        return PageCursor.page(similarList, pageSize, ProblemResponseDto::from,
+                problem -> new PageCursor(problem.getCreatedAt(), problem.getId()));
     }
 }
\ No newline at end of file
@@ -0,0 +1,95 @@
+package com.oriana.backend.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 🤝 같은 요청 합치기 (single-flight)
+ * 한 반이 같은 과제를 열면 똑같은 추천/유사 문제 요청이 1초 안에 수십 개 들어옴.
+ * 같은 키로 진행 중인 생성(Gemini 호출 + DB 저장, ProblemService)이 있으면 새로 부르지 않고,
+ * 그 요청이 저장까지 끝낸 결과(저장된 문제)를 같이 기다렸다가 받아감 → 같은 응답이 N번 저장되지 않음.
+ * 키당 동시 호출 수는 max-in-flight-per-key 까지만 (기본 1 = 완전히 하나로 합침)
+ */
+@Slf4j
+@Component
+public class SingleFlightCoalescer {
+
+    private final Map<String, List<CompletableFuture<Object>>> inFlight = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final int maxInFlightPerKey;
+
+    public SingleFlightCoalescer(MeterRegistry meterRegistry,
+                                 @Value("${oriana.generation.coalesce.enabled:true}") boolean enabled,
+                                 @Value("${oriana.generation.coalesce.max-in-flight-per-key:1}") int maxInFlightPerKey) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.maxInFlightPerKey = Math.max(1, maxInFlightPerKey);
+    }
+
+    /**
+     * 같은 operation + key 로 진행 중인 호출이 상한만큼 있으면 그중 가장 먼저 시작한 호출의 결과를 같이 받고,
+     * 아니면 직접 call 을 실행한다. (예외도 같이 기다리던 요청들에게 그대로 전달됨)
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String operation, String key, Supplier<T> call) {
+        if (!enabled) {
+            return call.get();
+        }
+
+        String flightKey = operation + ":" + key;
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object>[] joined = new CompletableFuture[1];
+
+        inFlight.compute(flightKey, (k, calls) -> {
+            List<CompletableFuture<Object>> current = calls == null ? new ArrayList<>() : calls;
+            if (current.size() < maxInFlightPerKey) {
+                current.add(mine);
+            } else {
+                joined[0] = current.get(0);
+            }
+            return current;
+        });
+
+        if (joined[0] != null) {
+            meterRegistry.counter("oriana.generation.coalesced", "operation", operation).increment();
+            log.debug("🤝 진행 중인 호출에 합류: {}", flightKey);
+            return (T) await(joined[0]);
+        }
+
+        try {
+            T result = call.get();
+            mine.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.computeIfPresent(flightKey, (k, calls) -> {
+                calls.remove(mine);
+                return calls.isEmpty() ? null : calls;
+            });
+        }
+    }
+
+    private static Object await(CompletableFuture<Object> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.oriana.backend.service;
+
+import java.time.LocalDateTime;
+
+/**
+ * 📝 채점 한 번 (write-behind 모드에서 로그에 남기고 나중에 DB에 반영하는 단위)
+ * points 는 채점 시점의 문제 포인트 (첫 시도 정답이면 이만큼 적립)
+ */
+public record SolveEvent(long userId, long problemId, boolean correct, int points, LocalDateTime solvedAt) {
+}
@@ -0,0 +1,383 @@
+package com.oriana.backend.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * 📼 채점 이벤트 추가 전용 로그 (write-behind 모드, SolveWriteBehind)
+ * append 는 디스크에 fsync 된 뒤에야 돌아옴. 대신 fsync 는 writer 스레드 하나가 몰아서 함 (group commit):
+ * fsync 하는 동안 들어온 이벤트들은 다음 write + fsync 한 번에 같이 나감 → 동시 제출이 많을수록 이벤트당 fsync 는 줄어듦.
+ *
+ * - 레코드: [CRC32 4바이트][seq, userId, problemId, correct, points, solvedAt] 고정 길이
+ * - 파일: solve-{첫 seq}.log, segment-bytes 를 넘으면 새 파일로. DB에 반영 끝난 파일은 deleteUpTo 로 지움
+ * - 열 때 마지막 파일 끝에 쓰다 만 레코드(전원 나감 등)가 있으면 잘라냄 → fsync 까지 끝난(= 응답 나간) 이벤트만 남음
+ * - 파일을 만들거나 지울 때마다 디렉터리도 fsync (안 하면 전원이 나갔을 때 새 파일의 디렉터리 항목째 사라질 수 있음)
+ * - node-id: 디렉터리를 처음 만들 때 정해서 파일로 남기는 이 로그의 이름. DB 체크포인트 키로 씀 →
+ *   컨테이너를 새로 띄워서 호스트 이름이 바뀌어도 같은 디렉터리면 같은 체크포인트를 이어 씀 (이미 반영한 이벤트를 다시 적용하지 않게)
+ */
+@Slf4j
+public class SolveEventLog implements Closeable {
+
+    static final int RECORD_BYTES = 4 + 8 + 8 + 8 + 1 + 4 + 8 + 4;
+    private static final int MAX_BATCH = 1024;
+    private static final Pattern SEGMENT_NAME = Pattern.compile("solve-(\\d{20})\\.log");
+    private static final String NODE_ID_FILE = "node-id";
+
+    private final Path dir;
+    private final String nodeId;
+    private final long segmentBytes;
+    private final Consumer<List<Entry>> onDurable;
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final List<Segment> segments = new ArrayList<>(); // 오래된 순, 마지막이 지금 쓰는 파일 (writer 스레드 + this 로 동기화)
+    private final Thread writer;
+    private final Object enqueueLock = new Object(); // append 의 closed 확인 + 큐 넣기 ↔ close 의 STOP 넣기 (STOP 뒤에 들어가는 이벤트가 없게)
+
+    private FileChannel active;
+    private long nextSeq;
+    private volatile IOException failure; // 쓰기 실패 후엔 더 안 받음 (호출한 쪽은 동기 채점으로)
+    private volatile boolean closed;
+
+    /**
+     * @param nodeId    디렉터리에 아직 node-id 가 없을 때 새로 정할 이름 (있으면 그걸 씀, nodeId() 참고)
+     * @param onDurable fsync 끝난 이벤트 묶음 (seq 순서, writer 스레드에서 호출)
+     */
+    public SolveEventLog(Path dir, String nodeId, long segmentBytes, Consumer<List<Entry>> onDurable) throws IOException {
+        this.dir = Files.createDirectories(dir);
+        this.nodeId = readOrWriteNodeId(nodeId);
+        this.segmentBytes = segmentBytes;
+        this.onDurable = onDurable;
+        recover();
+        this.writer = new Thread(this::writeLoop, "solve-log-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * 이벤트 기록. fsync 까지 끝나면 seq 를 돌려줌 (실패하면 UncheckedIOException, 닫혔으면 IllegalStateException)
+     */
+    public long append(SolveEvent event) {
+        if (closed) {
+            throw new IllegalStateException("채점 로그가 닫혔습니다.");
+        }
+        if (failure != null) {
+            throw new UncheckedIOException(failure);
+        }
+        Pending pending = new Pending(event, new CompletableFuture<>());
+        synchronized (enqueueLock) {
+            if (closed) {
+                throw new IllegalStateException("채점 로그가 닫혔습니다.");
+            }
+            queue.add(pending);
+        }
+        try {
+            return pending.seq.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw new UncheckedIOException(io);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * seq 보다 뒤의 이벤트 전부 (재시작 후 DB에 아직 반영 안 된 것 다시 적용할 때)
+     */
+    public synchronized List<Entry> readAfter(long seq) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        for (int i = 0; i < segments.size(); i++) {
+            Segment segment = segments.get(i);
+            boolean hasLater = i + 1 < segments.size();
+            if (hasLater && segments.get(i + 1).firstSeq <= seq + 1) {
+                continue; // 이 파일은 통째로 이미 반영됨
+            }
+            for (Entry entry : read(segment.path)) {
+                if (entry.seq > seq) {
+                    entries.add(entry);
+                }
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * seq 까지 DB에 반영됐으면 그 안에 다 들어있는 지난 파일들 삭제 (지금 쓰는 파일은 남김)
+     */
+    public synchronized void deleteUpTo(long seq) throws IOException {
+        boolean deleted = false;
+        while (segments.size() > 1 && segments.get(1).firstSeq <= seq + 1) {
+            Files.deleteIfExists(segments.remove(0).path);
+            deleted = true;
+        }
+        if (deleted) {
+            syncDir();
+        }
+    }
+
+    public synchronized long lastSeq() {
+        return nextSeq - 1;
+    }
+
+    /**
+     * 이 로그 디렉터리의 이름 (처음 만들 때 정한 값, 설정의 node-id 가 바뀌어도 그대로)
+     */
+    public String nodeId() {
+        return nodeId;
+    }
+
+    // 남은 이벤트는 다 쓰고 닫음
+    @Override
+    public void close() throws IOException {
+        synchronized (enqueueLock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            queue.add(Pending.STOP);
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // writer 가 STOP 전에 끝나버렸으면(인터럽트) 남은 건 여기서 실패 처리 → append 가 영원히 기다리지 않게
+        IllegalStateException closedError = new IllegalStateException("채점 로그가 닫혔습니다.");
+        for (Pending late; (late = queue.poll()) != null; ) {
+            late.seq.completeExceptionally(closedError);
+        }
+        synchronized (this) {
+            active.close();
+        }
+    }
+
+    private void writeLoop() {
+        List<Pending> batch = new ArrayList<>();
+        while (true) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.drainTo(batch, MAX_BATCH - 1);
+            boolean stop = batch.remove(Pending.STOP);
+            if (!batch.isEmpty()) {
+                writeBatch(batch);
+            }
+            batch.clear();
+            if (stop) {
+                return; // STOP 은 항상 마지막 (enqueueLock)
+            }
+        }
+    }
+
+    private void writeBatch(List<Pending> batch) {
+        if (failure != null) {
+            batch.forEach(pending -> pending.seq.completeExceptionally(failure));
+            return;
+        }
+        List<Entry> entries = new ArrayList<>(batch.size());
+        long start;
+        synchronized (this) {
+            start = nextSeq;
+            ByteBuffer buffer = ByteBuffer.allocate(RECORD_BYTES * batch.size());
+            for (Pending pending : batch) {
+                Entry entry = new Entry(nextSeq++, pending.event);
+                encode(entry, buffer);
+                entries.add(entry);
+            }
+            buffer.flip();
+            long position = -1;
+            try {
+                position = active.position();
+                while (buffer.hasRemaining()) {
+                    active.write(buffer);
+                }
+                active.force(false); // 🔒 묶음당 fsync 한 번
+            } catch (IOException e) {
+                log.error("🚨 채점 로그 쓰기 실패, write-behind 중단: {}", e.getMessage());
+                failure = e;
+                nextSeq = start;
+                truncateQuietly(position);
+                batch.forEach(pending -> pending.seq.completeExceptionally(e));
+                return;
+            }
+            try {
+                if (active.size() >= segmentBytes) {
+                    roll(nextSeq);
+                }
+            } catch (IOException e) {
+                // 이번 묶음은 이미 fsync 됐으니 성공으로 돌려주고, 다음부터만 안 받음
+                log.error("🚨 채점 로그 새 파일 생성 실패, write-behind 중단: {}", e.getMessage());
+                failure = e;
+            }
+        }
+        onDurable.accept(entries);
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).seq.complete(entries.get(i).seq);
+        }
+    }
+
+    // 실패한 묶음이 반쯤 남아있으면 재시작 때 되살아나서 동기 채점과 두 번 반영될 수 있음 → 묶음 시작 위치로 되돌림
+    private void truncateQuietly(long position) {
+        if (position < 0) {
+            return;
+        }
+        try {
+            active.truncate(position);
+            active.force(false);
+        } catch (IOException e) {
+            log.error("🚨 채점 로그 되돌리기 실패: {}", e.getMessage());
+        }
+    }
+
+    private void recover() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            files.map(SolveEventLog::segmentOf)
+                    .filter(segment -> segment != null)
+                    .sorted((a, b) -> Long.compare(a.firstSeq, b.firstSeq))
+                    .forEach(segments::add);
+        }
+        if (segments.isEmpty()) {
+            nextSeq = 1;
+            roll(1);
+            return;
+        }
+        Segment last = segments.get(segments.size() - 1);
+        List<Entry> tail = read(last.path);
+        long valid = (long) tail.size() * RECORD_BYTES;
+        active = FileChannel.open(last.path, StandardOpenOption.WRITE);
+        if (active.size() > valid) {
+            log.warn("⚠️ 채점 로그 {} 끝의 쓰다 만 레코드 {}바이트를 잘라냅니다.", last.path.getFileName(), active.size() - valid);
+            active.truncate(valid);
+            active.force(false);
+        }
+        active.position(valid);
+        nextSeq = tail.isEmpty() ? last.firstSeq : tail.get(tail.size() - 1).seq + 1;
+    }
+
+    private void roll(long firstSeq) throws IOException {
+        if (active != null) {
+            active.close();
+        }
+        Path path = dir.resolve(String.format("solve-%020d.log", firstSeq));
+        active = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        segments.add(new Segment(path, firstSeq));
+        syncDir(); // 이 파일에 쓴 레코드를 fsync 했다고 응답하기 전에 파일 자체가 디렉터리에 남아 있어야 함
+    }
+
+    // 디렉터리에 node-id 가 있으면 그대로, 없으면 임시 파일에 써서 fsync → 이름 바꾸기 → 디렉터리 fsync
+    private String readOrWriteNodeId(String configured) throws IOException {
+        Path file = dir.resolve(NODE_ID_FILE);
+        if (Files.exists(file)) {
+            String stored = Files.readString(file, StandardCharsets.UTF_8).strip();
+            if (!stored.equals(configured)) {
+                log.info("📼 채점 로그 {} 는 node-id '{}' 로 만들어진 로그라 설정값 '{}' 대신 그대로 씁니다.", dir, stored, configured);
+            }
+            return stored;
+        }
+        Path tmp = dir.resolve(NODE_ID_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(ByteBuffer.wrap(configured.getBytes(StandardCharsets.UTF_8)));
+            channel.force(true);
+        }
+        Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE);
+        syncDir();
+        return configured;
+    }
+
+    private void syncDir() throws IOException {
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (AccessDeniedException e) {
+            // 윈도우는 디렉터리를 열 수 없음 (NTFS 는 디렉터리 항목을 따로 fsync 하지 않아도 됨)
+        }
+    }
+
+    // CRC 가 안 맞거나 길이가 모자란 레코드에서 멈춤 (그 뒤는 fsync 전에 죽은 쓰기)
+    private static List<Entry> read(Path path) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+        List<Entry> entries = new ArrayList<>();
+        while (buffer.remaining() >= RECORD_BYTES) {
+            Entry entry = decode(buffer);
+            if (entry == null) {
+                break;
+            }
+            entries.add(entry);
+        }
+        return entries;
+    }
+
+    private static void encode(Entry entry, ByteBuffer buffer) {
+        int start = buffer.position();
+        buffer.position(start + 4);
+        SolveEvent event = entry.event;
+        buffer.putLong(entry.seq)
+                .putLong(event.userId())
+                .putLong(event.problemId())
+                .put((byte) (event.correct() ? 1 : 0))
+                .putInt(event.points())
+                .putLong(event.solvedAt().toEpochSecond(ZoneOffset.UTC))
+                .putInt(event.solvedAt().getNano());
+        buffer.putInt(start, crc(buffer, start + 4, RECORD_BYTES - 4));
+    }
+
+    private static Entry decode(ByteBuffer buffer) {
+        int start = buffer.position();
+        int crc = buffer.getInt();
+        if (crc != crc(buffer, start + 4, RECORD_BYTES - 4)) {
+            return null;
+        }
+        long seq = buffer.getLong();
+        long userId = buffer.getLong();
+        long problemId = buffer.getLong();
+        boolean correct = buffer.get() == 1;
+        int points = buffer.getInt();
+        LocalDateTime solvedAt = LocalDateTime.ofEpochSecond(buffer.getLong(), buffer.getInt(), ZoneOffset.UTC);
+        return new Entry(seq, new SolveEvent(userId, problemId, correct, points, solvedAt));
+    }
+
+    private static int crc(ByteBuffer buffer, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(offset, length));
+        return (int) crc.getValue();
+    }
+
+    private static Segment segmentOf(Path path) {
+        Matcher matcher = SEGMENT_NAME.matcher(path.getFileName().toString());
+        return matcher.matches() ? new Segment(path, Long.parseLong(matcher.group(1))) : null;
+    }
+
+    public record Entry(long seq, SolveEvent event) {
+    }
+
+    private record Segment(Path path, long firstSeq) {
+    }
+
+    private record Pending(SolveEvent event, CompletableFuture<Long> seq) {
+        private static final Pending STOP = new Pending(null, new CompletableFuture<>());
+    }
+}
@@ -0,0 +1,289 @@
+package com.oriana.backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.oriana.backend.domain.User;
+import com.oriana.backend.dto.ProblemResponseDto;
+import com.oriana.backend.dto.SolveResponseDto;
+import com.oriana.backend.repository.SolveEventBatchRepository;
+import com.oriana.backend.repository.SolveHistoryRepository;
+import com.oriana.backend.repository.UserRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 📼 채점 write-behind 모드 (oriana.solve.write-behind.enabled)
+ * 시험 시간에 제출이 몰리면 제출 1번 = DB 쓰기 트랜잭션 1번이라 DB 쓰기 부하가 제출 수만큼 늘어남.
+ * 이 모드에서는 채점 결과를 계산하고 이벤트를 로컬 로그(SolveEventLog, group fsync)에 남기자마자 응답하고,
+ * 백그라운드 flusher 가 쌓인 이벤트를 batch-size 개씩 트랜잭션 하나로 DB에 반영함 (SolveEventBatchRepository).
+ *
+ * - 응답의 보상 / 포인트 / 레벨은 학생별 메모리 상태(처음 채점할 때 DB에서 읽어둠)로 계산. DB 반영 때도 같은 규칙이라 결과가 같음
+ *   (단, 보상 여부의 최종 판단은 DB 기준이라 두 번 적립되는 일은 없음)
+ * - DB에 덜 반영된 이벤트가 있는 학생 상태는 unflushed 에 붙잡아 둠. 캐시에서 밀려나도 DB에서 (이벤트가 빠진 채로) 다시 읽지 않게
+ * - 죽었다 살아나면 DB 체크포인트(로그 디렉터리의 node-id 기준) 뒤의 로그를 다시 적용하고 나서야 이 모드로 받기 시작함 (그 전엔 동기 채점)
+ * - 로그 쓰기가 실패하면 바로 동기 채점으로 돌아감
+ * - 풀이 기록 조회 / 유저 조회는 최대 flush-interval 만큼 늦게 반영됨
+ * - 로그와 메모리 상태가 노드마다 따로라서, 여러 대로 돌릴 땐 같은 학생은 같은 노드로 보내야(sticky) 응답이 정확함
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SolveWriteBehind {
+
+    private final SolveEventBatchRepository solveEventBatchRepository;
+    private final UserRepository userRepository;
+    private final SolveHistoryRepository solveHistoryRepository;
+    private final MeterRegistry meterRegistry;
+
+    // 로그에 fsync 됐지만 아직 DB에 반영 안 된 이벤트 (seq 순서)
+    private final BlockingQueue<SolveEventLog.Entry> pending = new LinkedBlockingQueue<>();
+    private final List<SolveEventLog.Entry> inFlight = new ArrayList<>(); // 반영 중 / 실패해서 다시 시도할 묶음 (flusher 스레드 전용)
+    private final Cache<Long, Learner> learners = Caffeine.newBuilder()
+            .expireAfterAccess(Duration.ofMinutes(30))
+            .maximumSize(100_000)
+            .build();
+    // 로그에는 있지만 아직 DB에 반영 안 된 이벤트가 있는 학생 (캐시보다 먼저 봄). 그 이벤트가 반영되면 flusher 가 뺌
+    private final Map<Long, Learner> unflushed = new ConcurrentHashMap<>();
+
+    @Value("${oriana.solve.write-behind.enabled:false}")
+    private boolean enabled;
+
+    @Value("${oriana.solve.write-behind.dir:data/solve-log}")
+    private String dir;
+
+    // 로그 디렉터리를 처음 만들 때만 씀. 그 뒤로는 디렉터리에 남긴 값이 체크포인트 키 (SolveEventLog.nodeId)
+    @Value("${oriana.solve.write-behind.node-id:local}")
+    private String nodeId;
+
+    @Value("${oriana.solve.write-behind.segment-size:16MB}")
+    private DataSize segmentSize;
+
+    @Value("${oriana.solve.write-behind.flush-interval:200ms}")
+    private Duration flushInterval;
+
+    @Value("${oriana.solve.write-behind.batch-size:5000}")
+    private int batchSize;
+
+    private SolveEventLog eventLog;
+    private ScheduledExecutorService flusher;
+    private volatile boolean accepting; // true 일 때만 write-behind 로 채점
+    private boolean replayed;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            eventLog = new SolveEventLog(Path.of(dir), nodeId, segmentSize.toBytes(), pending::addAll);
+            List<SolveEventLog.Entry> unapplied = eventLog.readAfter(solveEventBatchRepository.findCheckpoint(eventLog.nodeId()));
+            pending.addAll(unapplied);
+            log.info("📼 채점 로그 {} 열림 (DB에 아직 반영 안 된 이벤트 {}개 다시 적용)", dir, unapplied.size());
+        } catch (Exception e) {
+            // 로그는 디스크에 그대로 있으니 다음 기동 때 다시 적용됨
+            log.warn("⚠️ 채점 로그를 열지 못해서 동기 채점으로 동작합니다: {}", e.getMessage());
+            closeLog();
+            return;
+        }
+        Gauge.builder("oriana.solve.write-behind.pending", pending, BlockingQueue::size).register(meterRegistry);
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("solve-flusher-");
+        threadFactory.setDaemon(true);
+        flusher = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        flusher.scheduleWithFixedDelay(this::flush, 0, flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * write-behind 로 채점 (로그에 fsync 될 때까지만 기다림). 꺼져 있거나 아직 재적용 중이거나 로그가 고장났으면 empty → 동기 채점
+     */
+    public Optional<SolveResponseDto> grade(Long userId, ProblemResponseDto problem, boolean correct) {
+        if (!accepting) {
+            return Optional.empty();
+        }
+        Learner learner = unflushed.get(userId);
+        if (learner == null) {
+            learner = learners.get(userId, this::loadLearner);
+        }
+        while (true) {
+            // 같은 학생 제출은 한 줄로: 메모리에서 판단한 순서 = 로그 순서 = DB 반영 순서
+            synchronized (learner) {
+                // 그 사이 캐시에서 밀려났다가 다른 요청이 다시 읽은 객체가 먼저 붙잡혔으면 그쪽으로
+                Learner pinned = unflushed.putIfAbsent(userId, learner);
+                if (pinned == null || pinned == learner) {
+                    return gradeLocked(userId, learner, problem, correct);
+                }
+                learner = pinned;
+            }
+        }
+    }
+
+    // learner 잠금 + unflushed 에 붙잡힌 상태에서 호출
+    private Optional<SolveResponseDto> gradeLocked(Long userId, Learner learner, ProblemResponseDto problem,
+                                                   boolean correct) {
+        boolean rewarded = correct && !learner.attempted.contains(problem.getId());
+        try {
+            learner.lastSeq = eventLog.append(
+                    new SolveEvent(userId, problem.getId(), correct, problem.getPoints(), LocalDateTime.now()));
+        } catch (RuntimeException e) {
+            log.error("🚨 채점 로그에 못 남겨서 동기 채점으로 돌아갑니다: {}", e.getMessage());
+            accepting = false;
+            learners.invalidateAll();
+            unflushed.clear();
+            return Optional.empty();
+        }
+        learner.attempted.add(problem.getId());
+        if (rewarded) {
+            learner.addPoints(problem.getPoints());
+        }
+        return Optional.of(SolveResponseDto.builder()
+                .isCorrect(correct)
+                .isRewarded(rewarded)
+                .earnedPoints(rewarded ? problem.getPoints() : 0)
+                .totalPoints(learner.points)
+                .currentLevel(learner.level)
+                .build());
+    }
+
+    /**
+     * 🔄 쌓인 이벤트를 batch-size 개씩 DB에 반영 (큐가 빌 때까지). 실패하면 같은 묶음을 다음 주기에 다시
+     */
+    void flush() {
+        while (true) {
+            if (inFlight.isEmpty()) {
+                pending.drainTo(inFlight, batchSize);
+            }
+            if (inFlight.isEmpty()) {
+                if (!replayed) {
+                    // 재시작 전 이벤트가 다 반영됐으니 이제부터 DB에서 읽는 학생 상태도 최신
+                    replayed = true;
+                    accepting = true;
+                    log.info("📼 write-behind 채점 시작 (flush {} / 최대 {}개씩)", flushInterval, batchSize);
+                }
+                return;
+            }
+            long start = System.nanoTime();
+            int rewarded;
+            try {
+                rewarded = solveEventBatchRepository.apply(eventLog.nodeId(), inFlight);
+            } catch (RuntimeException e) {
+                log.warn("⚠️ 채점 이벤트 {}개 DB 반영 실패, 다음 주기에 다시 시도: {}", inFlight.size(), e.getMessage());
+                return;
+            }
+            meterRegistry.timer("oriana.solve.write-behind.flush").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            meterRegistry.counter("oriana.solve.write-behind.events").increment(inFlight.size());
+            meterRegistry.counter("oriana.solve.write-behind.rewards").increment(rewarded);
+            long applied = inFlight.get(inFlight.size() - 1).seq();
+            release(applied);
+            inFlight.clear();
+            try {
+                eventLog.deleteUpTo(applied);
+            } catch (IOException e) {
+                log.warn("⚠️ 반영 끝난 채점 로그 정리 실패: {}", e.getMessage());
+            }
+        }
+    }
+
+    // 받던 제출은 로그에 다 남기고, 남은 이벤트까지 DB에 반영하고 끝냄 (DB가 죽어 있으면 다음 기동 때 로그에서 다시)
+    @PreDestroy
+    void stop() {
+        accepting = false;
+        replayed = true;
+        if (flusher == null) {
+            return;
+        }
+        closeLog();
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    // 이번 묶음의 학생 중 남은 이벤트가 다 DB에 들어간 학생은 놓아줌 (이제 캐시에서 밀려나도 DB에서 다시 읽으면 같은 상태)
+    private void release(long applied) {
+        Set<Long> userIds = new HashSet<>();
+        inFlight.forEach(entry -> userIds.add(entry.event().userId()));
+        for (Long userId : userIds) {
+            Learner learner = unflushed.get(userId);
+            if (learner == null) {
+                continue;
+            }
+            synchronized (learner) {
+                if (learner.lastSeq <= applied) {
+                    unflushed.remove(userId, learner);
+                }
+            }
+        }
+    }
+
+    private void closeLog() {
+        if (eventLog == null) {
+            return;
+        }
+        try {
+            eventLog.close();
+        } catch (IOException e) {
+            log.warn("⚠️ 채점 로그 닫기 실패: {}", e.getMessage());
+        }
+    }
+
+    private Learner loadLearner(Long userId) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new IllegalArgumentException("유저를 찾을 수 없습니다."));
+        return new Learner(user.getPoints(), user.getLevel(), user.getNextLevelPoints(),
+                new HashSet<>(solveHistoryRepository.findProblemIdsByUserId(userId)));
+    }
+
+    // 학생 한 명의 포인트 / 레벨 / 푼 문제 (this 로 동기화)
+    private static final class Learner {
+        private int points;
+        private int level;
+        private int nextLevelPoints;
+        private final Set<Long> attempted;
+        private long lastSeq; // 이 학생의 마지막 이벤트 seq
+
+        private Learner(int points, int level, int nextLevelPoints, Set<Long> attempted) {
+            this.points = points;
+            this.level = level;
+            this.nextLevelPoints = nextLevelPoints;
+            this.attempted = attempted;
+        }
+
+        // SolveHistoryRepository.grade 와 같은 적립 / 레벨업 규칙
+        private void addPoints(int earned) {
+            points += earned;
+            if (points >= nextLevelPoints) {
+                level += 1;
+                nextLevelPoints += level * 10;
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.oriana.backend.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 스트리밍으로 조금씩 들어오는 AI 응답에서 JSON 배열의 최상위 객체를 하나씩 잘라내는 도구
+ * 예) "[{...}, {..." 까지 왔으면 첫 번째 객체만 먼저 돌려주고, 나머지는 다음 조각을 기다림.
+ * 문자열 안의 괄호/따옴표는 무시하도록 문자열 상태를 추적한다. (응답 하나당 인스턴스 하나)
+ */
+class StreamingJsonArraySplitter {
+
+    private final StringBuilder current = new StringBuilder();
+    private boolean arrayStarted = false;
+    private int depth = 0;          // 현재 객체 안에서의 중첩 깊이 (0이면 객체 사이)
+    private boolean inString = false;
+    private boolean escaped = false;
+
+    /**
+     * 새로 도착한 텍스트 조각을 넣고, 이번 조각으로 완성된 객체들(JSON 문자열)을 돌려준다.
+     */
+    List<String> feed(CharSequence chunk) {
+        List<String> completed = new ArrayList<>();
+
+        for (int i = 0; i < chunk.length(); i++) {
+            char c = chunk.charAt(i);
+
+            // 배열 시작 전 (```json 같은 마크다운 등) 은 건너뜀
+            if (!arrayStarted) {
+                if (c == '[') {
+                    arrayStarted = true;
+                }
+                continue;
+            }
+
+            // 객체 사이 (쉼표, 공백, 닫는 ']') 는 건너뛰고 '{' 에서 새 객체 시작
+            if (depth == 0) {
+                if (c == '{') {
+                    current.setLength(0);
+                    current.append(c);
+                    depth = 1;
+                }
+                continue;
+            }
+
+            current.append(c);
+
+            if (inString) {
+                if (escaped) {
+                    escaped = false;
+                } else if (c == '\\') {
+                    escaped = true;
+                } else if (c == '"') {
+                    inString = false;
+                }
+                continue;
+            }
+
+            if (c == '"') {
+                inString = true;
+            } else if (c == '{' || c == '[') {
+                depth++;
+            } else if (c == '}' || c == ']') {
+                depth--;
+                if (depth == 0) {
+                    completed.add(current.toString());
+                    current.setLength(0);
+                }
+            }
+        }
+
+        return completed;
+    }
+}
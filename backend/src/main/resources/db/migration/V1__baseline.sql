@@ -0,0 +1,44 @@
+-- 🧱 기준 스키마: Flyway 도입 전 운영 DB 그대로 (ddl-auto: update 가 처음 만든 모양, IDENTITY id / FK 이름까지)
+-- 이미 ddl-auto 로 만들어진 DB는 이 파일을 건너뛰고 V1 으로 기록만 함 (spring.flyway.baseline-on-migrate)
+-- 그 뒤에 생긴 컬럼 / 시퀀스 / 인덱스는 V2 부터. 이 파일은 고치지 말 것
+
+CREATE TABLE users (
+    id                BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    name              VARCHAR(50) NOT NULL,
+    level             INTEGER     NOT NULL DEFAULT 1,
+    points            INTEGER     NOT NULL DEFAULT 0,
+    next_level_points INTEGER     NOT NULL DEFAULT 10,
+    created_at        TIMESTAMP(6),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE problems (
+    id                BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    parent_problem_id BIGINT,
+    source_type       VARCHAR(20)  NOT NULL CHECK (source_type IN ('PHOTO', 'RECOMMEND', 'SIMILAR')),
+    grade             VARCHAR(255),
+    subject           VARCHAR(255),
+    tags              JSONB,
+    difficulty        VARCHAR(255),
+    question          TEXT         NOT NULL,
+    options           JSONB,
+    answer            TEXT         NOT NULL,
+    solution          TEXT         NOT NULL,
+    points            INTEGER      NOT NULL,
+    is_subjective     BOOLEAN      NOT NULL,
+    created_at        TIMESTAMP(6),
+    PRIMARY KEY (id),
+    CONSTRAINT fkfqqsetbqm79bgmjdygay3qs5c FOREIGN KEY (parent_problem_id) REFERENCES problems
+);
+
+CREATE TABLE solve_history (
+    id            BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    user_id       BIGINT  NOT NULL,
+    problem_id    BIGINT  NOT NULL,
+    is_correct    BOOLEAN NOT NULL,
+    attempt_count INTEGER NOT NULL DEFAULT 0,
+    solved_at     TIMESTAMP(6),
+    PRIMARY KEY (id),
+    CONSTRAINT fkg86d2fl3jwfwju4kahkkawtwm FOREIGN KEY (user_id) REFERENCES users,
+    CONSTRAINT fks0d541ule5xyp01lco5d7x7so FOREIGN KEY (problem_id) REFERENCES problems
+);
@@ -0,0 +1,29 @@
+-- 🧩 기준 스키마 이후 엔티티에 생긴 것들
+-- ddl-auto: update 가 이미 일부를 만들어둔 DB(기준 이후 버전으로 돌던 DB)도 있어서 전부 IF NOT EXISTS
+
+-- 1) 추천 문제 재고 / 사진 중복 캐시 / 내용 지문 컬럼
+ALTER TABLE problems ADD COLUMN IF NOT EXISTS inventory_bucket VARCHAR(255);
+ALTER TABLE problems ADD COLUMN IF NOT EXISTS served_at TIMESTAMP(6);
+ALTER TABLE problems ADD COLUMN IF NOT EXISTS photo_hash BIGINT;
+ALTER TABLE problems ADD COLUMN IF NOT EXISTS content_hash VARCHAR(64);
+
+CREATE INDEX IF NOT EXISTS idx_problems_inventory ON problems (inventory_bucket, served_at);
+CREATE INDEX IF NOT EXISTS idx_problems_photo_hash ON problems (photo_hash);
+-- content_hash = 정규화한 문제 + 보기 + 정답의 SHA-256 (Problem.fingerprint, 원본 문제 / 재고 버킷 같은 연결 정보는 안 넣음)
+-- 예전 행은 content_hash 가 null (ProblemDedupJob 이 채움) → unique 여도 안 걸림
+CREATE UNIQUE INDEX IF NOT EXISTS uk_problems_content_hash ON problems (content_hash);
+
+-- 2) IDENTITY → 시퀀스(50개씩 미리 받는 pooled id, JDBC 배치용)
+--    기존 행 뒤에서 시작하도록 MAX(id) 로 맞춤. ddl-auto 가 먼저 만들어서 이미 앞서 있으면 그대로 (뒤로는 안 감)
+CREATE SEQUENCE IF NOT EXISTS problems_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS solve_history_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+
+SELECT setval('problems_seq', GREATEST(MAX(id), (SELECT last_value FROM problems_seq))) FROM problems HAVING MAX(id) IS NOT NULL;
+SELECT setval('solve_history_seq', GREATEST(MAX(id), (SELECT last_value FROM solve_history_seq))) FROM solve_history HAVING MAX(id) IS NOT NULL;
+SELECT setval('users_seq', GREATEST(MAX(id), (SELECT last_value FROM users_seq))) FROM users HAVING MAX(id) IS NOT NULL;
+
+-- id 는 이제 시퀀스에서만 (IDENTITY 의 *_id_seq 도 같이 지워짐)
+ALTER TABLE problems ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE solve_history ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY IF EXISTS;
@@ -0,0 +1,36 @@
+-- ⚡ 핫 쿼리용 인덱스 / 제약조건
+
+-- 1) 채점할 때마다 도는 findByUserIdAndProblemId: (user_id, problem_id) unique
+--    동시 제출 경합으로 같은 학생 + 같은 문제 기록이 여러 개 생긴 경우 가장 먼저 만든 행에 합친 뒤 제약을 건다
+UPDATE solve_history kept
+SET attempt_count = dup.attempt_count,
+    is_correct = dup.is_correct
+FROM (SELECT MIN(id) AS keep_id, SUM(attempt_count) AS attempt_count, BOOL_OR(is_correct) AS is_correct
+      FROM solve_history
+      GROUP BY user_id, problem_id
+      HAVING COUNT(*) > 1) dup
+WHERE kept.id = dup.keep_id;
+
+DELETE FROM solve_history dup
+USING solve_history kept
+WHERE dup.user_id = kept.user_id AND dup.problem_id = kept.problem_id AND dup.id > kept.id;
+
+ALTER TABLE solve_history ADD CONSTRAINT uk_solve_history_user_problem UNIQUE (user_id, problem_id);
+
+-- 2) 커서 페이지 정렬 순서(최신순) 그대로: 풀이 기록 / 유사 문제 목록
+--    키셋 조건 (시각, id) < (커서) 는 시각이 NULL 인 행을 영영 건너뛰므로 먼저 채우고 NOT NULL 로 막음
+--    (ddl-auto 시절 컬럼은 nullable. 엔티티 @PrePersist 와 채점 쿼리가 항상 넣지만, 시각을 모르는 예전 행은 가장 오래된 것으로)
+UPDATE solve_history SET solved_at = TIMESTAMP '1970-01-01 00:00:00' WHERE solved_at IS NULL;
+ALTER TABLE solve_history ALTER COLUMN solved_at SET NOT NULL;
+
+UPDATE problems SET created_at = TIMESTAMP '1970-01-01 00:00:00' WHERE created_at IS NULL;
+ALTER TABLE problems ALTER COLUMN created_at SET NOT NULL;
+
+UPDATE users SET created_at = TIMESTAMP '1970-01-01 00:00:00' WHERE created_at IS NULL;
+ALTER TABLE users ALTER COLUMN created_at SET NOT NULL;
+
+DROP INDEX IF EXISTS idx_solve_history_user_solved;
+CREATE INDEX idx_solve_history_user_solved ON solve_history (user_id, solved_at DESC, id DESC);
+
+DROP INDEX IF EXISTS idx_problems_parent_created;
+CREATE INDEX idx_problems_parent_created ON problems (parent_problem_id, created_at DESC, id DESC);
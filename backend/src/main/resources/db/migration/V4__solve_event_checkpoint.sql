@@ -0,0 +1,8 @@
+-- 📼 write-behind 채점 로그 체크포인트 (SolveEventBatchRepository)
+-- 노드(로그 디렉터리)별로 DB에 반영 끝난 마지막 이벤트 seq. 재시작하면 이 뒤부터 로그를 다시 적용
+CREATE TABLE solve_event_checkpoint (
+    node_id     VARCHAR(100) NOT NULL,
+    applied_seq BIGINT       NOT NULL,
+    updated_at  TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (node_id)
+);
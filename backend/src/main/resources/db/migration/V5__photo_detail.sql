@@ -0,0 +1,3 @@
+-- 📷 사진 중복 재사용 전 2차 확인용 세부 밝기 지도 (PhotoHash, 128x96 = 12KB)
+-- pHash가 가까워도(양식만 같고 숫자가 다른 학습지) 이게 다르면 다른 사진으로 봄. 예전 행은 NULL → 재사용 안 하고 새로 생성
+ALTER TABLE problems ADD COLUMN IF NOT EXISTS photo_detail BYTEA;
@@ -0,0 +1,179 @@
+package com.oriana.backend;
+
+import com.oriana.backend.domain.Problem;
+import com.oriana.backend.domain.ProblemSource;
+import com.oriana.backend.domain.User;
+import com.oriana.backend.repository.UserRepository;
+import com.oriana.backend.service.ProblemIngestService;
+import com.oriana.backend.support.GeminiStubServer;
+import com.oriana.backend.support.LoadClient;
+import com.oriana.backend.support.LoadReport;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 🏋️ 전체 API 부하 테스트 (오프라인)
+ * Gemini 대신 로컬 스텁(GeminiStubServer)을 띄우고, 실제 AiService → HTTP 클라이언트 → 스텁까지 그대로 태운다.
+ * 스텁은 로그정규 지연 + 5xx / 429 / 잘린 응답 / 깨진 JSON / 큰 LaTeX 응답을 섞어서 돌려줌.
+ * 가상 사용자 VIRTUAL_USERS 명이 조회 / 채점 / 기록 / 생성 API를 비율대로 섞어 호출하고,
+ * 엔드포인트별 처리량(req/s)과 p50/p95/p99, 상태 코드 분포를 출력한다.
+ * (로컬 DB 필요, 외부 네트워크 불필요) → ./gradlew loadTest -PloadDuration=60s
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "gemini.api-key=stub",
+        "oriana.inventory.enabled=false" // 재고 없이 생성 경로 그대로 측정
+})
+class ApiLoadTest {
+
+    private static final int VIRTUAL_USERS = 32;
+    private static final int SEED_PROBLEMS = 20;
+    private static final GeminiStubServer STUB = startStub();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ProblemIngestService problemIngestService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @DynamicPropertySource
+    static void gemini(DynamicPropertyRegistry registry) {
+        registry.add("gemini.model-url", STUB::modelUrl);
+    }
+
+    @AfterAll
+    static void stopStub() {
+        STUB.close();
+    }
+
+    @Test
+    void mixedWorkload() throws Exception {
+        Duration duration = Duration.parse("PT" + System.getProperty("oriana.load.duration", "20s").toUpperCase());
+        List<Long> userIds = new ArrayList<>();
+        for (int i = 0; i < VIRTUAL_USERS; i++) {
+            userIds.add(userRepository.save(User.builder().name("부하" + i).build()).getId());
+        }
+        List<Problem> seeds = new ArrayList<>();
+        for (int i = 0; i < SEED_PROBLEMS; i++) {
+            seeds.add(Problem.builder()
+                    .sourceType(ProblemSource.RECOMMEND)
+                    .grade("고1").subject("수학").difficulty("중")
+                    .tags(List.of("부하")).options(List.of("1", "2", "3", "4"))
+                    .question("1+" + i + "은?").answer(String.valueOf(1 + i)).solution("덧셈")
+                    .points(20)
+                    .build());
+        }
+        // 같은 DB로 다시 돌려도 content_hash unique 에 안 걸리게 기존 행 재사용
+        List<Long> problemIds = problemIngestService.ingest(seeds).problems().stream().map(Problem::getId).toList();
+
+        LoadClient client = new LoadClient(port);
+        LoadReport report = new LoadReport();
+        long deadline = System.nanoTime() + duration.toNanos();
+
+        ExecutorService users = Executors.newFixedThreadPool(VIRTUAL_USERS);
+        for (int u = 0; u < VIRTUAL_USERS; u++) {
+            long userId = userIds.get(u);
+            Random random = new Random(u);
+            users.submit(() -> {
+                while (System.nanoTime() < deadline) {
+                    step(client, report, random, userId, problemIds.get(random.nextInt(problemIds.size())));
+                }
+            });
+        }
+        users.shutdown();
+        assertThat(users.awaitTermination(duration.toSeconds() + 120, TimeUnit.SECONDS)).isTrue();
+
+        System.out.println("=== API 부하 테스트: 가상 사용자 " + VIRTUAL_USERS + "명, " + duration.toSeconds() + "초 ===");
+        System.out.print(report.format(duration));
+        System.out.println("Gemini 스텁 호출 " + STUB.requestCount() + "회: " + STUB.outcomes());
+
+        // 조회 / 채점 / 기록은 Gemini 상태와 상관없이 항상 성공해야 함
+        for (String endpoint : List.of("GET /api/problems/{id}", "POST /api/solve", "GET /api/solve/history")) {
+            assertThat(report.statuses(endpoint).keySet()).as(endpoint).containsOnly(200);
+        }
+        // 생성은 성공 또는 503(한도 초과 / 서킷 OPEN → Retry-After)만
+        for (String endpoint : List.of("POST /api/problems/recommend", "POST /api/problems/similar/generate")) {
+            assertThat(report.statuses(endpoint).keySet()).as(endpoint).isSubsetOf(200, 503);
+        }
+    }
+
+    // 가상 사용자 1명의 한 동작 (실제 사용 비율을 대략 흉내: 대부분 풀고/보고, 가끔 생성)
+    private static void step(LoadClient client, LoadReport report, Random random, long userId, long problemId) {
+        int dice = random.nextInt(100);
+        String endpoint;
+        IntSupplier call;
+        if (dice < 30) {
+            endpoint = "GET /api/problems/{id}";
+            call = () -> client.get("/api/problems/" + problemId);
+        } else if (dice < 60) {
+            endpoint = "POST /api/solve";
+            String body = "{\"userId\":" + userId + ",\"problemId\":" + problemId + ",\"userAnswer\":\"" + random.nextInt(20) + "\"}";
+            call = () -> client.post("/api/solve", body);
+        } else if (dice < 80) {
+            endpoint = "GET /api/solve/history";
+            call = () -> client.get("/api/solve/history?userId=" + userId);
+        } else if (dice < 85) {
+            endpoint = "GET /api/problems/similar";
+            call = () -> client.get("/api/problems/similar?baseId=" + problemId);
+        } else if (dice < 95) {
+            endpoint = "POST /api/problems/recommend";
+            String body = "{\"grade\":\"고1\",\"subject\":\"수학\",\"unit\":\"단원" + random.nextInt(8)
+                    + "\",\"difficulty\":\"중\",\"type\":\"객관식\"}";
+            call = () -> client.post("/api/problems/recommend", body);
+        } else {
+            endpoint = "POST /api/problems/similar/generate";
+            call = () -> client.post("/api/problems/similar/generate", "{\"baseId\":" + problemId + "}");
+        }
+
+        long start = System.nanoTime();
+        int status;
+        try {
+            status = call.getAsInt();
+        } catch (IllegalStateException e) {
+            status = -1; // 연결 실패 / 타임아웃 (상태 코드 분포에 -1로 표시)
+        }
+        report.record(endpoint, status, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // 실제 Gemini 비슷하게: 중앙값 1.5초(꼬리 긴 분포), 5xx 2%, 429 2%, 잘린 응답 3%, 깨진 JSON 2%, 20%는 큰 LaTeX 응답
+    private static GeminiStubServer startStub() {
+        String problem = GeminiStubServer.DEFAULT_PROBLEMS.substring(1, GeminiStubServer.DEFAULT_PROBLEMS.length() - 1);
+        String latex = GeminiStubServer.latexProblems(3, 40);
+        Random random = new Random(3);
+        try {
+            return GeminiStubServer.http()
+                    .latency(GeminiStubServer.logNormal(1500, 0.5))
+                    .errorRate(0.02)
+                    .tooManyRequestsRate(0.02, 1)
+                    .truncatedRate(0.03)
+                    .malformedRate(0.02)
+                    .respondUsing(body -> GeminiStubServer.sections(body).isEmpty() && random.nextInt(5) == 0
+                            ? latex
+                            : GeminiStubServer.answerFor(body, problem));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.oriana.backend;
+
+import com.oriana.backend.domain.Problem;
+import com.oriana.backend.domain.ProblemSource;
+import com.oriana.backend.repository.ProblemRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 문제 10,000개 저장 전/후 비교
+ * - 전: IDENTITY 방식 그대로 재현. problems 와 똑같이(인덱스 / 제약 포함) 만든 IDENTITY id 테이블에
+ *   한 트랜잭션 안에서 행마다 INSERT ... RETURNING id 왕복 (JDBC 배치 불가). problems.id 는 이제 시퀀스라 따로 만듦
+ * - 후: problemRepository.saveAll (시퀀스 pooled id + hibernate.jdbc.batch_size + reWriteBatchedInserts)
+ * 둘 다 같은 내용 / 같은 컬럼. WARMUP 개씩 한 번 돌린 뒤 걸린 시간과 초당 행 수를 출력. (로컬 DB 필요) → ./gradlew loadTest --tests '*BulkInsertLoadTest'
+ */
+@Tag("load")
+@SpringBootTest(properties = {
+        "oriana.inventory.enabled=false",
+        "spring.jpa.show-sql=false" // 배치 쪽만 INSERT 10,000개가 로그로 찍혀서 느려지지 않게 (JDBC 쪽은 로그 없음)
+})
+class BulkInsertLoadTest {
+
+    private static final int ROWS = 10_000;
+    private static final int CHUNK = 500; // 영속성 컨텍스트가 너무 커지지 않게 나눠서 saveAll
+    private static final int WARMUP = 2_000; // 재기 전에 양쪽 경로 JIT 워밍업 (안 하면 먼저 도는 쪽이 손해)
+
+    private static final String IDENTITY_TABLE = "bench_identity_problems";
+
+    private final String runId = UUID.randomUUID().toString();
+
+    @Autowired
+    private ProblemRepository problemRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void createIdentityTable() {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + IDENTITY_TABLE);
+        jdbcTemplate.execute("CREATE TABLE " + IDENTITY_TABLE + " (LIKE problems INCLUDING ALL)");
+        jdbcTemplate.execute("ALTER TABLE " + IDENTITY_TABLE + " ALTER COLUMN id ADD GENERATED BY DEFAULT AS IDENTITY");
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM problems WHERE question LIKE ?", runId + "%");
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + IDENTITY_TABLE);
+    }
+
+    @Test
+    void batchedInsertsBeatRowByRowIdentityInserts() {
+        insertRowByRow(problems("warmup-identity", WARMUP));
+        insertBatched(problems("warmup-batched", WARMUP));
+        jdbcTemplate.execute("TRUNCATE " + IDENTITY_TABLE);
+
+        long rowByRowMs = timed(() -> insertRowByRow(problems("identity", ROWS)));
+        long batchedMs = timed(() -> insertBatched(problems("batched", ROWS)));
+
+        System.out.printf("[row-by-row] %d rows in %dms (%.0f rows/s)%n", ROWS, rowByRowMs, ROWS * 1000.0 / rowByRowMs);
+        System.out.printf("[batched]    %d rows in %dms (%.0f rows/s) → %.1fx%n", ROWS, batchedMs, ROWS * 1000.0 / batchedMs,
+                (double) rowByRowMs / batchedMs);
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM problems WHERE question LIKE ?", Long.class, runId + " batched%"))
+                .isEqualTo(ROWS);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + IDENTITY_TABLE, Long.class)).isEqualTo(ROWS);
+        // 배수는 DB 왕복 비용에 달림: 같은 머신 loopback 에선 ~1.2x, 네트워크 너머 DB 면 왕복이 행 수만큼 붙는 전 쪽이 훨씬 느려짐
+        assertThat(batchedMs).isLessThan(rowByRowMs);
+    }
+
+    private void insertRowByRow(List<Problem> problems) {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (Problem problem : problems) {
+                jdbcTemplate.queryForObject("""
+                                INSERT INTO bench_identity_problems (source_type, grade, subject, difficulty, tags, options, question, answer,
+                                                      solution, points, is_subjective, created_at, content_hash)
+                                VALUES (?, ?, ?, ?, ?::jsonb, ?::jsonb, ?, ?, ?, ?, ?, ?, ?)
+                                RETURNING id""", Long.class,
+                        problem.getSourceType().name(), problem.getGrade(), problem.getSubject(), problem.getDifficulty(),
+                        "[\"부하\"]", "[\"1\", \"2\", \"3\", \"4\"]", problem.getQuestion(), problem.getAnswer(),
+                        problem.getSolution(), problem.getPoints(), problem.isSubjective(), Timestamp.valueOf(LocalDateTime.now()),
+                        problem.fingerprint());
+            }
+        });
+    }
+
+    private void insertBatched(List<Problem> problems) {
+        for (int from = 0; from < problems.size(); from += CHUNK) {
+            problemRepository.saveAll(problems.subList(from, Math.min(from + CHUNK, problems.size())));
+        }
+    }
+
+    private List<Problem> problems(String label, int rows) {
+        List<Problem> problems = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            problems.add(Problem.builder()
+                    .sourceType(ProblemSource.RECOMMEND)
+                    .grade("고1").subject("수학").difficulty("중")
+                    .tags(List.of("부하")).options(List.of("1", "2", "3", "4"))
+                    .question(runId + " " + label + " 1+" + i + "은?").answer(String.valueOf(1 + i)).solution("덧셈")
+                    .points(20)
+                    .build());
+        }
+        return problems;
+    }
+
+    private static long timed(Runnable work) {
+        long start = System.nanoTime();
+        work.run();
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+}
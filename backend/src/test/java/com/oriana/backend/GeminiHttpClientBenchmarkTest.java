@@ -0,0 +1,76 @@
+package com.oriana.backend;
+
+import com.oriana.backend.config.GeminiHttpConfig;
+import com.oriana.backend.config.GeminiHttpProperties;
+import com.oriana.backend.support.GeminiStubServer;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 로컬 HTTPS 스텁에 대해 "풀링 + keep-alive" vs "매번 새 연결" 호출 비용 비교.
+ * 차이 = 호출당 TCP 연결 + TLS 핸드셰이크 비용. (DB 불필요) → ./gradlew loadTest
+ */
+@Tag("load")
+class GeminiHttpClientBenchmarkTest {
+
+    private static final int WARMUP = 50;
+    private static final int CALLS = 300;
+
+    @Test
+    void pooledClientSkipsHandshakePerCall() throws Exception {
+        GeminiHttpProperties props = new GeminiHttpProperties();
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+        try (GeminiStubServer stub = GeminiStubServer.https();
+             PoolingHttpClientConnectionManager pooledManager =
+                     GeminiHttpConfig.buildConnectionManager(props, GeminiStubServer.clientSslContext());
+             CloseableHttpClient pooledClient = GeminiHttpConfig.buildHttpClient(pooledManager, props);
+             PoolingHttpClientConnectionManager freshManager =
+                     GeminiHttpConfig.buildConnectionManager(props, GeminiStubServer.clientSslContext());
+             CloseableHttpClient freshClient = HttpClients.custom()
+                     .setConnectionManager(freshManager)
+                     .setConnectionReuseStrategy((request, response, context) -> false) // 매 요청마다 연결 끊기
+                     .build()) {
+
+            String url = stub.modelUrl() + ":generateContent?key=stub";
+            RestTemplate pooled = new RestTemplate(
+                    GeminiHttpConfig.requestFactory(pooledClient, props, props.getText(), scheduler));
+            RestTemplate fresh = new RestTemplate(new HttpComponentsClientHttpRequestFactory(freshClient));
+
+            double freshMicros = averageMicros(fresh, url);
+            double pooledMicros = averageMicros(pooled, url);
+
+            System.out.printf("[fresh connection] %.0f us/call%n", freshMicros);
+            System.out.printf("[pooled keep-alive] %.0f us/call (saved %.0f us/call)%n", pooledMicros, freshMicros - pooledMicros);
+            System.out.printf("[pool] %s%n", pooledManager.getTotalStats());
+
+            assertThat(pooledMicros).isLessThan(freshMicros);
+            assertThat(pooledManager.getTotalStats().getAvailable()).isEqualTo(1); // 순차 호출 → 커넥션 1개 재사용
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private double averageMicros(RestTemplate restTemplate, String url) {
+        Map<String, Object> body = Map.of("contents", new Object[]{Map.of("parts", new Object[]{Map.of("text", "ping")})});
+        for (int i = 0; i < WARMUP; i++) {
+            restTemplate.postForObject(url, body, String.class);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < CALLS; i++) {
+            restTemplate.postForObject(url, body, String.class);
+        }
+        return (System.nanoTime() - start) / 1_000.0 / CALLS;
+    }
+}
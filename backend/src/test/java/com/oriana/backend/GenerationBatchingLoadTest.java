@@ -0,0 +1,128 @@
+package com.oriana.backend;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.oriana.backend.config.GeminiHttpConfig;
+import com.oriana.backend.config.GeminiHttpProperties;
+import com.oriana.backend.config.GeminiResilienceProperties;
+import com.oriana.backend.dto.ProblemRequestDto;
+import com.oriana.backend.service.AiMetrics;
+import com.oriana.backend.service.AiService;
+import com.oriana.backend.service.GeminiCallGuard;
+import com.oriana.backend.service.GeminiHedger;
+import com.oriana.backend.service.GenerationBatcher;
+import com.oriana.backend.support.GeminiStubServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import javax.net.ssl.SSLContext;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 묶음 생성 전/후 비교: 서로 다른 조건의 추천 요청 24개가 한꺼번에 들어올 때
+ * Gemini 호출 수(문제당)와 요청별 평균 지연 시간.
+ * 스텁은 호출마다 고정 800ms + 문제 3개당 300ms(출력 생성 시간)가 걸린다고 가정하고,
+ * 속도 제한은 기본값(초당 5회)을 그대로 씀. (DB 불필요) → ./gradlew loadTest
+ */
+@Tag("load")
+class GenerationBatchingLoadTest {
+
+    private static final int REQUESTS = 24;
+    private static final long FIXED_MS = 800;
+    private static final long PER_SECTION_MS = 300;
+
+    @Test
+    void batchingCutsUpstreamCallsPerProblem() throws Exception {
+        Result single = run(false);
+        Result batched = run(true);
+
+        System.out.printf("[single]  calls=%d problems=%d calls/problem=%.3f avg latency=%dms%n",
+                single.calls, single.problems, (double) single.calls / single.problems, single.avgLatencyMs);
+        System.out.printf("[batched] calls=%d problems=%d calls/problem=%.3f avg latency=%dms%n",
+                batched.calls, batched.problems, (double) batched.calls / batched.problems, batched.avgLatencyMs);
+
+        assertThat(single.problems).isEqualTo(REQUESTS * 3);
+        assertThat(batched.problems).isEqualTo(REQUESTS * 3);
+        assertThat(batched.calls * 3).isLessThanOrEqualTo(single.calls);
+    }
+
+    private Result run(boolean batching) throws Exception {
+        GeminiHttpProperties props = new GeminiHttpProperties();
+        GeminiResilienceProperties resilience = new GeminiResilienceProperties();
+        resilience.getRateLimit().setTimeout(Duration.ofSeconds(30)); // 한도 초과로 실패하지 않고 줄 서도록
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        ExecutorService callers = Executors.newFixedThreadPool(REQUESTS);
+
+        try (GeminiStubServer stub = GeminiStubServer.http().respondUsing(GenerationBatchingLoadTest::answer);
+             PoolingHttpClientConnectionManager manager = GeminiHttpConfig.buildConnectionManager(props, SSLContext.getDefault());
+             CloseableHttpClient client = GeminiHttpConfig.buildHttpClient(manager, props)) {
+
+            RestTemplate restTemplate = new RestTemplate(GeminiHttpConfig.requestFactory(client, props, props.getText(), scheduler));
+            SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+            GeminiCallGuard guard = new GeminiCallGuard(resilience, meterRegistry);
+            AiService aiService = new AiService(restTemplate, restTemplate, new ObjectMapper(),
+                    new GenerationBatcher(meterRegistry, batching, Duration.ofMillis(50), 4),
+                    guard,
+                    new GeminiHedger(resilience, guard, meterRegistry),
+                    new AiMetrics(meterRegistry));
+            ReflectionTestUtils.setField(aiService, "geminiApiKey", "stub");
+            ReflectionTestUtils.setField(aiService, "geminiModelUrl", stub.modelUrl());
+
+            List<CompletableFuture<long[]>> requests = new ArrayList<>();
+            for (int i = 0; i < REQUESTS; i++) {
+                ProblemRequestDto prefs = new ProblemRequestDto();
+                prefs.setGrade("고1");
+                prefs.setSubject("수학");
+                prefs.setUnit("단원" + i); // 전부 다른 버킷 → single-flight 로는 안 합쳐짐
+                requests.add(CompletableFuture.supplyAsync(() -> {
+                    long start = System.nanoTime();
+                    JsonNode problems = aiService.generateRecommendedProblem(prefs);
+                    return new long[]{problems == null ? 0 : problems.size(), (System.nanoTime() - start) / 1_000_000};
+                }, callers));
+            }
+
+            long problems = 0;
+            long totalLatency = 0;
+            for (CompletableFuture<long[]> request : requests) {
+                long[] result = request.join();
+                problems += result[0];
+                totalLatency += result[1];
+            }
+            return new Result(stub.requestCount(), problems, totalLatency / REQUESTS);
+        } finally {
+            callers.shutdownNow();
+            scheduler.shutdownNow();
+        }
+    }
+
+    // 묶음 프롬프트면 섹션 수만큼 오래 걸림
+    private static String answer(String requestBody) {
+        sleep(FIXED_MS + PER_SECTION_MS * Math.max(1, GeminiStubServer.sections(requestBody).size()));
+        String problem = GeminiStubServer.DEFAULT_PROBLEMS.substring(1, GeminiStubServer.DEFAULT_PROBLEMS.length() - 1);
+        return GeminiStubServer.answerFor(requestBody, problem);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private record Result(long calls, long problems, long avgLatencyMs) {
+    }
+}
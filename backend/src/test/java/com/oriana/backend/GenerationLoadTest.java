@@ -0,0 +1,117 @@
+package com.oriana.backend;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.oriana.backend.domain.Problem;
+import com.oriana.backend.domain.ProblemSource;
+import com.oriana.backend.domain.User;
+import com.oriana.backend.repository.ProblemRepository;
+import com.oriana.backend.repository.UserRepository;
+import com.oriana.backend.service.AiService;
+import com.oriana.backend.support.LoadClient;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static com.oriana.backend.support.LoadClient.percentile;
+import static com.oriana.backend.support.LoadClient.summary;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+
+/**
+ * 느린 Gemini 호출 50개가 돌고 있는 동안에도
+ * 문제 조회 / 채점 API의 지연 시간이 평소와 비슷하게 유지되는지 확인하는 부하 테스트.
+ * (Gemini는 3초 걸리는 가짜 응답으로 대체, 실제 DB 필요) → ./gradlew loadTest
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class GenerationLoadTest {
+
+    private static final int CONCURRENT_GENERATIONS = 50;
+    private static final long STUB_AI_LATENCY_MS = 3000;
+    private static final int PROBES = 100;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ProblemRepository problemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @MockitoBean
+    private AiService aiService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void readAndSolveLatencyStaysFlatWhileGenerationsAreInFlight() throws Exception {
+        JsonNode stubProblems = objectMapper.readTree("""
+                [{"grade":"고1","subject":"수학","difficulty":"중","tags":["부하"],"points":20,
+                  "question":"1+1은?","options":["1","2","3","4"],"answer":"2","solution":"1+1=2","isSubjective":false}]
+                """);
+        given(aiService.generateRecommendedProblem(any())).willAnswer(invocation -> {
+            Thread.sleep(STUB_AI_LATENCY_MS);
+            return stubProblems;
+        });
+
+        User user = userRepository.save(User.builder().name("부하테스트").build());
+        Problem problem = problemRepository.save(Problem.builder()
+                .sourceType(ProblemSource.RECOMMEND)
+                .grade("고1").subject("수학").difficulty("중")
+                .tags(List.of("부하")).options(List.of("1", "2", "3", "4"))
+                .question(UUID.randomUUID() + " 1+1은?").answer("2").solution("1+1=2") // 다시 돌려도 내용 지문이 안 겹치게
+                .points(20)
+                .build());
+
+        LoadClient client = new LoadClient(port);
+        List<Long> idle = probe(client, user.getId(), problem.getId());
+
+        ExecutorService generators = Executors.newFixedThreadPool(CONCURRENT_GENERATIONS);
+        List<CompletableFuture<Integer>> generations = new ArrayList<>();
+        for (int i = 0; i < CONCURRENT_GENERATIONS; i++) {
+            generations.add(CompletableFuture.supplyAsync(() -> client.post("/api/problems/recommend",
+                    "{\"grade\":\"고1\",\"subject\":\"수학\",\"unit\":\"다항식\",\"difficulty\":\"중\",\"type\":\"객관식\"}"),
+                    generators));
+        }
+        Thread.sleep(300); // 생성 요청들이 전부 AI 대기 상태에 들어갈 때까지
+
+        List<Long> loaded = probe(client, user.getId(), problem.getId());
+
+        CompletableFuture.allOf(generations.toArray(CompletableFuture[]::new)).join();
+        generators.shutdown();
+
+        System.out.println("[idle]   " + summary(idle));
+        System.out.println("[loaded] " + summary(loaded) + " (동시 생성 " + CONCURRENT_GENERATIONS + "개)");
+
+        assertThat(generations).allSatisfy(f -> assertThat(f.join()).isEqualTo(200));
+        // 생성이 커넥션 풀을 잡고 있으면 조회가 커넥션 대기(최대 30초)에 걸려서 초 단위로 튐
+        assertThat(percentile(loaded, 95)).isLessThan(Math.max(percentile(idle, 95) * 3, 200));
+    }
+
+    // 조회(GET /api/problems/{id}) + 채점(POST /api/solve)을 번갈아 호출하면서 지연 시간(ms) 수집
+    private List<Long> probe(LoadClient client, Long userId, Long problemId) {
+        List<Long> latencies = new ArrayList<>();
+        for (int i = 0; i < PROBES; i++) {
+            long start = System.nanoTime();
+            int status = (i % 2 == 0)
+                    ? client.get("/api/problems/" + problemId)
+                    : client.post("/api/solve", "{\"userId\":" + userId + ",\"problemId\":" + problemId + ",\"userAnswer\":\"3\"}");
+            latencies.add((System.nanoTime() - start) / 1_000_000);
+            assertThat(status).isEqualTo(200);
+        }
+        return latencies;
+    }
+}
@@ -0,0 +1,150 @@
+package com.oriana.backend;
+
+import com.oriana.backend.domain.Problem;
+import com.oriana.backend.domain.ProblemSource;
+import com.oriana.backend.domain.User;
+import com.oriana.backend.dto.SolveRequestDto;
+import com.oriana.backend.dto.SolveResponseDto;
+import com.oriana.backend.repository.UserRepository;
+import com.oriana.backend.service.ProblemIngestService;
+import com.oriana.backend.service.SolveService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 같은 학생이 같은 문제들을 동시에 막 제출할 때 (탭 여러 개 / 더블클릭 / 재시도)
+ * - 기록은 (학생, 문제)당 하나, 시도 횟수 = 제출 횟수 (안 빠짐)
+ * - 첫 시도 정답 보상은 문제당 딱 한 번, 포인트 / 레벨도 빠짐없이 적립
+ * - 채점 한 번에 SQL 몇 번 나가는지 출력 (예전: 유저 / 문제 / 기록 조회 + 기록 저장 + 유저 저장 = 5번 이상)
+ * (로컬 DB 필요) → ./gradlew loadTest --tests '*GradingConcurrencyLoadTest'
+ */
+@Tag("load")
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "oriana.inventory.enabled=false"
+})
+class GradingConcurrencyLoadTest {
+
+    private static final int PROBLEMS = 20;
+    private static final int THREADS = 16;
+    private static final int SUBMITS_PER_THREAD = 5; // 스레드마다 문제별로
+    private static final int POINTS = 10;
+
+    private final String runId = UUID.randomUUID().toString();
+    private Long userId;
+
+    @Autowired
+    private SolveService solveService;
+
+    @Autowired
+    private ProblemIngestService problemIngestService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM solve_history WHERE user_id = ?", userId);
+        jdbcTemplate.update("DELETE FROM problems WHERE question LIKE ?", runId + "%");
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", userId);
+    }
+
+    @Test
+    void concurrentSubmitsNeitherDuplicateHistoryNorLosePoints() throws Exception {
+        userId = userRepository.save(User.builder().name("동시 " + runId).build()).getId();
+        List<Problem> problems = new ArrayList<>();
+        for (int i = 0; i < PROBLEMS; i++) {
+            problems.add(Problem.builder()
+                    .sourceType(ProblemSource.RECOMMEND)
+                    .tags(List.of("동시")).options(List.of("1", "2"))
+                    .question(runId + " 문제 " + i).answer("1").solution("풀이").points(POINTS)
+                    .build());
+        }
+        List<Long> problemIds = problemIngestService.ingest(problems).problems().stream().map(Problem::getId).toList();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        AtomicInteger rewards = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> workers = new ArrayList<>();
+        long startedAt = System.nanoTime();
+        for (int t = 0; t < THREADS; t++) {
+            workers.add(pool.submit(() -> {
+                start.await();
+                for (int round = 0; round < SUBMITS_PER_THREAD; round++) {
+                    for (Long problemId : problemIds) {
+                        SolveRequestDto submit = new SolveRequestDto();
+                        submit.setUserId(userId);
+                        submit.setProblemId(problemId);
+                        submit.setUserAnswer("1");
+                        SolveResponseDto graded = solveService.gradeProblem(submit);
+                        if (graded.isRewarded()) {
+                            rewards.incrementAndGet();
+                        }
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get(2, TimeUnit.MINUTES);
+        }
+        pool.shutdown();
+        long elapsedMs = (System.nanoTime() - startedAt) / 1_000_000;
+
+        int submits = THREADS * SUBMITS_PER_THREAD * PROBLEMS;
+        System.out.printf("[grading] %d concurrent submits in %dms (%.0f/s), %.2f statements/submit%n", submits, elapsedMs,
+                submits * 1000.0 / elapsedMs, (double) statistics.getPrepareStatementCount() / submits);
+
+        assertThat(jdbcTemplate.queryForList("SELECT attempt_count FROM solve_history WHERE user_id = ?", Integer.class, userId))
+                .hasSize(PROBLEMS)
+                .containsOnly(THREADS * SUBMITS_PER_THREAD);
+        assertThat(rewards.get()).isEqualTo(PROBLEMS);
+        User user = userRepository.findById(userId).orElseThrow();
+        assertThat(user.getPoints()).isEqualTo(PROBLEMS * POINTS);
+        assertThat(user.getLevel()).isEqualTo(expectedLevel(PROBLEMS));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(submits);
+    }
+
+    // 레벨업 규칙대로 POINTS 씩 n번 적립했을 때 레벨
+    private static int expectedLevel(int rewards) {
+        int level = 1;
+        int points = 0;
+        int nextLevelPoints = 10;
+        for (int i = 0; i < rewards; i++) {
+            points += POINTS;
+            if (points >= nextLevelPoints) {
+                level++;
+                nextLevelPoints += level * 10;
+            }
+        }
+        return level;
+    }
+}
@@ -0,0 +1,133 @@
+package com.oriana.backend;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.oriana.backend.config.GeminiHttpConfig;
+import com.oriana.backend.config.GeminiHttpProperties;
+import com.oriana.backend.config.GeminiResilienceProperties;
+import com.oriana.backend.dto.ProblemRequestDto;
+import com.oriana.backend.service.AiMetrics;
+import com.oriana.backend.service.AiService;
+import com.oriana.backend.service.GeminiCallGuard;
+import com.oriana.backend.service.GeminiHedger;
+import com.oriana.backend.service.GenerationBatcher;
+import com.oriana.backend.support.GeminiStubServer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import javax.net.ssl.SSLContext;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.LongSupplier;
+
+import static com.oriana.backend.support.LoadClient.percentile;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Hedged request 전/후 꼬리 지연 비교
+ * 스텁은 95%는 200~400ms, 5%는 3~4초 걸림 (가끔 아주 느린 응답이 p99를 결정하는 상황).
+ * hedge 는 기본 설정(p90 기준, 최소 500ms, 예산 10%) 그대로. (DB 불필요) → ./gradlew loadTest
+ */
+@Tag("load")
+class HedgingLoadTest {
+
+    private static final int REQUESTS = 500;
+    private static final int CONCURRENCY = 8;
+
+    @Test
+    void hedgingCutsP99() throws Exception {
+        Result plain = run(false);
+        Result hedged = run(true);
+
+        System.out.printf("[plain]  p50=%dms p95=%dms p99=%dms upstream calls=%d%n",
+                plain.p50, plain.p95, plain.p99, plain.calls);
+        System.out.printf("[hedged] p50=%dms p95=%dms p99=%dms upstream calls=%d hedge rate=%.3f hedge win rate=%.2f cancelled=%d%n",
+                hedged.p50, hedged.p95, hedged.p99, hedged.calls, hedged.hedgeRate, hedged.hedgeWinRate, hedged.cancelled);
+
+        assertThat(hedged.p99 * 2).isLessThan(plain.p99);
+        assertThat(hedged.hedgeRate).isLessThanOrEqualTo(0.1 + 10.0 / REQUESTS); // 예산 + 처음에 채워둔 max-burst
+        assertThat(hedged.calls).isLessThan((long) (REQUESTS * 1.15));
+    }
+
+    private Result run(boolean hedging) throws Exception {
+        GeminiHttpProperties props = new GeminiHttpProperties();
+        GeminiResilienceProperties resilience = new GeminiResilienceProperties();
+        resilience.getRateLimit().setLimitForPeriod(100); // 속도 제한 대기는 이 비교에서 빼기
+        resilience.getHedge().setEnabled(hedging);
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        ExecutorService callers = Executors.newFixedThreadPool(CONCURRENCY);
+
+        try (GeminiStubServer stub = GeminiStubServer.http().latency(heavyTail());
+             PoolingHttpClientConnectionManager manager = GeminiHttpConfig.buildConnectionManager(props, SSLContext.getDefault());
+             CloseableHttpClient client = GeminiHttpConfig.buildHttpClient(manager, props)) {
+
+            RestTemplate restTemplate = new RestTemplate(GeminiHttpConfig.requestFactory(client, props, props.getText(), scheduler));
+            SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+            GeminiCallGuard guard = new GeminiCallGuard(resilience, meterRegistry);
+            AiService aiService = new AiService(restTemplate, restTemplate, new ObjectMapper(),
+                    new GenerationBatcher(meterRegistry, false, Duration.ZERO, 1),
+                    guard,
+                    new GeminiHedger(resilience, guard, meterRegistry),
+                    new AiMetrics(meterRegistry));
+            ReflectionTestUtils.setField(aiService, "geminiApiKey", "stub");
+            ReflectionTestUtils.setField(aiService, "geminiModelUrl", stub.modelUrl());
+
+            List<CompletableFuture<Long>> requests = new ArrayList<>();
+            for (int i = 0; i < REQUESTS; i++) {
+                ProblemRequestDto prefs = new ProblemRequestDto();
+                prefs.setGrade("고1");
+                prefs.setSubject("수학");
+                prefs.setUnit("단원" + i);
+                requests.add(CompletableFuture.supplyAsync(() -> {
+                    long start = System.nanoTime();
+                    JsonNode problems = aiService.generateRecommendedProblem(prefs);
+                    assertThat(problems).isNotNull();
+                    return (System.nanoTime() - start) / 1_000_000;
+                }, callers));
+            }
+            List<Long> latencies = requests.stream().map(CompletableFuture::join).toList();
+
+            double hedgedCalls = count(meterRegistry, "oriana.gemini.hedge.calls", "hedged", "true");
+            double allCalls = hedgedCalls + count(meterRegistry, "oriana.gemini.hedge.calls", "hedged", "false");
+            double hedgeWins = count(meterRegistry, "oriana.gemini.hedge.wins", "winner", "hedge");
+            return new Result(percentile(latencies, 50), percentile(latencies, 95), percentile(latencies, 99),
+                    stub.requestCount(),
+                    allCalls == 0 ? 0 : hedgedCalls / allCalls,
+                    hedgedCalls == 0 ? 0 : hedgeWins / hedgedCalls,
+                    (long) count(meterRegistry, "oriana.gemini.requests", "outcome", "cancelled"));
+        } finally {
+            callers.shutdownNow();
+            scheduler.shutdownNow();
+        }
+    }
+
+    // 95%: 200~400ms, 5%: 3000~4000ms
+    private static LongSupplier heavyTail() {
+        Random random = new Random(17);
+        return () -> random.nextDouble() < 0.05
+                ? 3000 + random.nextInt(1000)
+                : 200 + random.nextInt(200);
+    }
+
+    private static double count(SimpleMeterRegistry meterRegistry, String name, String tag, String value) {
+        if ("oriana.gemini.requests".equals(name)) {
+            return meterRegistry.find(name).tag(tag, value).timers().stream().mapToLong(timer -> timer.count()).sum();
+        }
+        return meterRegistry.find(name).tag(tag, value).counters().stream().mapToDouble(Counter::count).sum();
+    }
+
+    private record Result(long p50, long p95, long p99, long calls, double hedgeRate, double hedgeWinRate, long cancelled) {
+    }
+}
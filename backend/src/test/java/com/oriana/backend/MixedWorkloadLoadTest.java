@@ -0,0 +1,118 @@
+package com.oriana.backend;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.oriana.backend.domain.Problem;
+import com.oriana.backend.domain.ProblemSource;
+import com.oriana.backend.domain.User;
+import com.oriana.backend.repository.ProblemRepository;
+import com.oriana.backend.repository.UserRepository;
+import com.oriana.backend.service.AiService;
+import com.oriana.backend.support.LoadClient;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static com.oriana.backend.support.LoadClient.summary;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+
+/**
+ * 혼합 부하: 느린 AI 생성 요청이 Tomcat 스레드 수보다 많이 몰린 상태에서 /api/solve 처리량(req/s)과 p99 비교.
+ * - Blocking: 생성이 요청 스레드를 붙잡음 (oriana.generation.async.enabled=false)
+ * - Async: 생성은 전용 풀에서, 요청 스레드는 바로 반납
+ * (실제 DB 필요) → ./gradlew loadTest
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "server.tomcat.threads.max=40",
+        "oriana.generation.executor.pool-size=200",
+        "oriana.generation.executor.queue-capacity=500"
+})
+abstract class MixedWorkloadLoadTest {
+
+    private static final int GENERATION_CLIENTS = 60; // Tomcat 스레드(40개)보다 많게
+    private static final long STUB_AI_LATENCY_MS = 4000;
+    private static final int SOLVE_CLIENTS = 8;
+    private static final long SOLVE_WINDOW_MS = 3000;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ProblemRepository problemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @MockitoBean
+    private AiService aiService;
+
+    @TestPropertySource(properties = "oriana.generation.async.enabled=false")
+    static class Blocking extends MixedWorkloadLoadTest {
+    }
+
+    @TestPropertySource(properties = "oriana.generation.async.enabled=true")
+    static class Async extends MixedWorkloadLoadTest {
+    }
+
+    @Test
+    void solveThroughputUnderSlowGenerations() throws Exception {
+        given(aiService.generateRecommendedProblem(any())).willAnswer(invocation -> {
+            Thread.sleep(STUB_AI_LATENCY_MS);
+            return new ObjectMapper().readTree("[]");
+        });
+        User user = userRepository.save(User.builder().name("혼합부하").build());
+        Problem problem = problemRepository.save(Problem.builder()
+                .sourceType(ProblemSource.RECOMMEND)
+                .grade("고1").subject("수학").difficulty("중")
+                .tags(List.of()).options(List.of())
+                .question(UUID.randomUUID() + " 2+2는?").answer("4").solution("2+2=4") // 다시 돌려도 내용 지문이 안 겹치게
+                .points(10)
+                .build());
+
+        LoadClient client = new LoadClient(port);
+        ExecutorService pool = Executors.newFixedThreadPool(GENERATION_CLIENTS + SOLVE_CLIENTS);
+
+        List<CompletableFuture<Integer>> generations = new ArrayList<>();
+        for (int i = 0; i < GENERATION_CLIENTS; i++) {
+            generations.add(CompletableFuture.supplyAsync(() -> client.post("/api/problems/recommend",
+                    "{\"grade\":\"고1\",\"subject\":\"수학\",\"unit\":\"방정식\",\"difficulty\":\"중\",\"type\":\"객관식\"}"), pool));
+        }
+        Thread.sleep(300);
+
+        List<Long> solveLatencies = Collections.synchronizedList(new ArrayList<>());
+        long deadline = System.currentTimeMillis() + SOLVE_WINDOW_MS;
+        String solveBody = "{\"userId\":" + user.getId() + ",\"problemId\":" + problem.getId() + ",\"userAnswer\":\"5\"}";
+        List<CompletableFuture<Void>> solvers = new ArrayList<>();
+        for (int i = 0; i < SOLVE_CLIENTS; i++) {
+            solvers.add(CompletableFuture.runAsync(() -> {
+                while (System.currentTimeMillis() < deadline) {
+                    long start = System.nanoTime();
+                    client.post("/api/solve", solveBody);
+                    solveLatencies.add((System.nanoTime() - start) / 1_000_000);
+                }
+            }, pool));
+        }
+        CompletableFuture.allOf(solvers.toArray(CompletableFuture[]::new)).join();
+        CompletableFuture.allOf(generations.toArray(CompletableFuture[]::new)).join();
+        pool.shutdown();
+
+        double throughput = solveLatencies.size() * 1000.0 / SOLVE_WINDOW_MS;
+        System.out.printf("[%s] /api/solve %.1f req/s, %s%n", getClass().getSimpleName(), throughput, summary(solveLatencies));
+
+        assertThat(solveLatencies).isNotEmpty();
+    }
+}
@@ -0,0 +1,141 @@
+package com.oriana.backend;
+
+import com.oriana.backend.domain.Problem;
+import com.oriana.backend.domain.ProblemSource;
+import com.oriana.backend.dto.ProblemResponseDto;
+import com.oriana.backend.dto.SolveRequestDto;
+import com.oriana.backend.repository.ProblemRepository;
+import com.oriana.backend.repository.SolveHistoryRepository;
+import com.oriana.backend.service.AiMetrics;
+import com.oriana.backend.service.AiService;
+import com.oriana.backend.service.PhotoDedupService;
+import com.oriana.backend.service.ProblemCache;
+import com.oriana.backend.service.ProblemIngestService;
+import com.oriana.backend.service.ProblemInventoryService;
+import com.oriana.backend.service.ProblemService;
+import com.oriana.backend.service.SingleFlightCoalescer;
+import com.oriana.backend.service.SolveService;
+import com.oriana.backend.service.SolveWriteBehind;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 문제 캐시 전/후 DB 왕복 비교: 문제 풀이 세션 재현
+ * 학생 STUDENTS 명이 각자 SESSION_PROBLEMS 문제를 조회(GET /api/problems/{id})하고 1~3번 제출(POST /api/solve).
+ * 문제 인기도는 Zipf 분포 (같은 반 학습지 / 재고 / 유사 문제로 최근 문제에 몰림), 전체 CATALOGUE 개 중
+ * 캐시는 CACHE_SIZE 개만 들고 있어서 밀려나는 것도 같이 반영. 리포지토리는 호출 횟수를 세는 가짜 (DB 불필요)
+ * → ./gradlew loadTest --tests '*ProblemCacheLoadTest'
+ */
+@Tag("load")
+class ProblemCacheLoadTest {
+
+    private static final int CATALOGUE = 5000;
+    private static final int CACHE_SIZE = 1000;
+    private static final int STUDENTS = 100;
+    private static final int SESSION_PROBLEMS = 10;
+
+    @Test
+    void cacheCutsProblemReads() {
+        Result uncached = run(0);
+        Result cached = run(CACHE_SIZE);
+
+        System.out.printf("[no cache] requests=%d problem reads=%d (%.2f/request)%n",
+                uncached.requests, uncached.problemReads, (double) uncached.problemReads / uncached.requests);
+        System.out.printf("[cache %d] requests=%d problem reads=%d (%.2f/request) → %.0f%% fewer%n", CACHE_SIZE,
+                cached.requests, cached.problemReads, (double) cached.problemReads / cached.requests,
+                100.0 * (uncached.problemReads - cached.problemReads) / uncached.problemReads);
+
+        assertThat(cached.requests).isEqualTo(uncached.requests);
+        assertThat(uncached.problemReads).isEqualTo(uncached.requests); // 예전처럼 요청마다 한 번
+        assertThat(cached.problemReads).isLessThan(uncached.problemReads / 4);
+    }
+
+    private Result run(long cacheSize) {
+        AtomicInteger problemReads = new AtomicInteger();
+        ProblemRepository problemRepository = mock(ProblemRepository.class);
+        when(problemRepository.findById(anyLong())).thenAnswer(invocation -> {
+            problemReads.incrementAndGet();
+            return Optional.of(problem(invocation.getArgument(0)));
+        });
+        SolveHistoryRepository solveHistoryRepository = mock(SolveHistoryRepository.class);
+        when(solveHistoryRepository.grade(any(), any(), anyBoolean(), anyInt(), any()))
+                .thenReturn(mock(SolveHistoryRepository.GradeRow.class));
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ProblemCache problemCache = new ProblemCache(problemRepository, meterRegistry, cacheSize);
+        ProblemService problemService = new ProblemService(mock(AiService.class), problemRepository,
+                mock(ProblemInventoryService.class), mock(PhotoDedupService.class),
+                new ProblemIngestService(problemRepository, problemCache, meterRegistry), problemCache,
+                new SingleFlightCoalescer(meterRegistry, true, 1), mock(AiMetrics.class));
+        SolveService solveService = new SolveService(solveHistoryRepository, problemCache, mock(SolveWriteBehind.class));
+
+        Random random = new Random(7);
+        ZipfSampler popularity = new ZipfSampler(CATALOGUE, 1.1, random);
+        int requests = 0;
+        for (long student = 1; student <= STUDENTS; student++) {
+            for (int i = 0; i < SESSION_PROBLEMS; i++) {
+                long problemId = popularity.next();
+                ProblemResponseDto problem = problemService.getProblemById(problemId);
+                requests++;
+                int attempts = 1 + random.nextInt(3);
+                for (int attempt = 1; attempt <= attempts; attempt++) {
+                    SolveRequestDto submit = new SolveRequestDto();
+                    submit.setUserId(student);
+                    submit.setProblemId(problemId);
+                    submit.setUserAnswer(attempt == attempts ? problem.getAnswer() : "오답");
+                    solveService.gradeProblem(submit);
+                    requests++;
+                }
+            }
+        }
+        return new Result(requests, problemReads.get());
+    }
+
+    private static Problem problem(long id) {
+        return Problem.builder().id(id).sourceType(ProblemSource.RECOMMEND)
+                .tags(List.of("다항식")).options(List.of("1", "2", "3", "4"))
+                .question("문제 " + id).answer(String.valueOf(1 + id % 4)).solution("풀이").points(10).build();
+    }
+
+    private record Result(int requests, int problemReads) {
+    }
+
+    // 1..n 중 k 번째가 1/k^s 비율로 나오게
+    private static final class ZipfSampler {
+        private final double[] cumulative;
+        private final Random random;
+
+        ZipfSampler(int n, double s, Random random) {
+            this.random = random;
+            this.cumulative = new double[n];
+            double sum = 0;
+            for (int k = 1; k <= n; k++) {
+                sum += 1 / Math.pow(k, s);
+                cumulative[k - 1] = sum;
+            }
+            for (int k = 0; k < n; k++) {
+                cumulative[k] /= sum;
+            }
+        }
+
+        long next() {
+            int index = Arrays.binarySearch(cumulative, random.nextDouble());
+            return (index >= 0 ? index : -index - 1) + 1;
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.oriana.backend;
+
+import com.oriana.backend.domain.Problem;
+import com.oriana.backend.domain.ProblemSource;
+import com.oriana.backend.domain.User;
+import com.oriana.backend.dto.SolveRequestDto;
+import com.oriana.backend.repository.UserRepository;
+import com.oriana.backend.service.ProblemIngestService;
+import com.oriana.backend.service.SolveService;
+import com.oriana.backend.service.SolveWriteBehind;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 시험 시간 제출 폭주: 동기 채점 vs write-behind 채점
+ * 학생 STUDENTS 명이 쉬지 않고 제출 (문제 PROBLEMS 개 중 랜덤, 정답 반반), 모드마다 oriana.load.duration 동안.
+ * 제출 처리량(/s), 지연 p50 / p99, 제출당 DB 커밋 수(pg_stat_database)를 출력하고,
+ * write-behind 쪽은 flusher 가 다 반영한 뒤 DB의 시도 횟수 합이 제출 수와 같은지 확인.
+ * (로컬 DB 필요) → ./gradlew loadTest --tests '*SolveWriteBehindLoadTest' -PloadDuration=30s
+ */
+@Tag("load")
+@SpringBootTest(properties = {
+        "oriana.inventory.enabled=false",
+        "oriana.solve.write-behind.enabled=true",
+        "oriana.solve.write-behind.node-id=load-test"
+})
+class SolveWriteBehindLoadTest {
+
+    private static final int STUDENTS = 64;
+    private static final int PROBLEMS = 200;
+    private static final Path LOG_DIR = tempDir();
+
+    private final String runId = UUID.randomUUID().toString();
+    private final List<Long> userIds = new ArrayList<>();
+
+    @Autowired
+    private SolveService solveService;
+
+    @Autowired
+    private SolveWriteBehind solveWriteBehind;
+
+    @Autowired
+    private ProblemIngestService problemIngestService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void logDir(DynamicPropertyRegistry registry) {
+        registry.add("oriana.solve.write-behind.dir", LOG_DIR::toString);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        for (Long userId : userIds) {
+            jdbcTemplate.update("DELETE FROM solve_history WHERE user_id = ?", userId);
+            jdbcTemplate.update("DELETE FROM users WHERE id = ?", userId);
+        }
+        jdbcTemplate.update("DELETE FROM problems WHERE question LIKE ?", runId + "%");
+        jdbcTemplate.update("DELETE FROM solve_event_checkpoint WHERE node_id = 'load-test'");
+    }
+
+    @Test
+    void writeBehindSustainsMoreSubmitsWithLowerTail() throws Exception {
+        Duration duration = Duration.parse("PT" + System.getProperty("oriana.load.duration", "20s").toUpperCase());
+        for (int i = 0; i < STUDENTS; i++) {
+            userIds.add(userRepository.save(User.builder().name("시험" + i).build()).getId());
+        }
+        List<Problem> problems = new ArrayList<>();
+        for (int i = 0; i < PROBLEMS; i++) {
+            problems.add(Problem.builder()
+                    .sourceType(ProblemSource.RECOMMEND)
+                    .tags(List.of("시험")).options(List.of("1", "2"))
+                    .question(runId + " 문제 " + i).answer("1").solution("풀이").points(10)
+                    .build());
+        }
+        List<Long> problemIds = problemIngestService.ingest(problems).problems().stream().map(Problem::getId).toList();
+        awaitAccepting();
+
+        ReflectionTestUtils.setField(solveWriteBehind, "accepting", false);
+        Result sync = run("sync", duration, problemIds);
+        ReflectionTestUtils.setField(solveWriteBehind, "accepting", true);
+        Result writeBehind = run("write-behind", duration, problemIds);
+
+        // flusher 가 다 반영할 때까지
+        long expectedAttempts = sync.submits + writeBehind.submits;
+        for (int i = 0; i < 600 && attempts() < expectedAttempts; i++) {
+            Thread.sleep(100);
+        }
+        long commitsAfterDrain = commits();
+        System.out.printf("[write-behind] drained, %.3f DB commits/submit including flushes%n",
+                (double) (commitsAfterDrain - writeBehind.commitsBefore) / writeBehind.submits);
+
+        assertThat(attempts()).isEqualTo(expectedAttempts);
+        assertThat(writeBehind.throughput()).isGreaterThan(sync.throughput());
+    }
+
+    private Result run(String mode, Duration duration, List<Long> problemIds) throws Exception {
+        long commitsBefore = commits();
+        long deadline = System.nanoTime() + duration.toNanos();
+        ExecutorService pool = Executors.newFixedThreadPool(STUDENTS);
+        List<Future<long[]>> workers = new ArrayList<>();
+        for (int s = 0; s < STUDENTS; s++) {
+            long userId = userIds.get(s);
+            Random random = new Random(s);
+            workers.add(pool.submit(() -> {
+                long[] latencies = new long[1024];
+                int count = 0;
+                while (System.nanoTime() < deadline) {
+                    SolveRequestDto submit = new SolveRequestDto();
+                    submit.setUserId(userId);
+                    submit.setProblemId(problemIds.get(random.nextInt(problemIds.size())));
+                    submit.setUserAnswer(random.nextBoolean() ? "1" : "2");
+                    long start = System.nanoTime();
+                    solveService.gradeProblem(submit);
+                    if (count == latencies.length) {
+                        latencies = Arrays.copyOf(latencies, count * 2);
+                    }
+                    latencies[count++] = System.nanoTime() - start;
+                }
+                return Arrays.copyOf(latencies, count);
+            }));
+        }
+        List<long[]> perStudent = new ArrayList<>();
+        for (Future<long[]> worker : workers) {
+            perStudent.add(worker.get(duration.toSeconds() + 60, TimeUnit.SECONDS));
+        }
+        pool.shutdown();
+        long[] latencies = perStudent.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        Result result = new Result(latencies.length, duration, commitsBefore);
+        System.out.printf("[%s] %d submits in %ds: %.0f submits/s, p50 %.2fms, p99 %.2fms, %.3f DB commits/submit%n",
+                mode, latencies.length, duration.toSeconds(), result.throughput(),
+                percentile(latencies, 0.50), percentile(latencies, 0.99),
+                (double) (commits() - commitsBefore) / latencies.length);
+        return result;
+    }
+
+    private void awaitAccepting() throws InterruptedException {
+        for (int i = 0; i < 300 && !(boolean) ReflectionTestUtils.getField(solveWriteBehind, "accepting"); i++) {
+            Thread.sleep(100);
+        }
+    }
+
+    private long attempts() {
+        Long sum = jdbcTemplate.queryForObject("SELECT SUM(attempt_count) FROM solve_history h JOIN problems p ON p.id = h.problem_id"
+                + " WHERE p.question LIKE ?", Long.class, runId + "%");
+        return sum == null ? 0 : sum;
+    }
+
+    private long commits() {
+        return jdbcTemplate.queryForObject("SELECT xact_commit FROM pg_stat_database WHERE datname = current_database()",
+                Long.class);
+    }
+
+    private static double percentile(long[] sortedNanos, double p) {
+        return sortedNanos.length == 0 ? 0 : sortedNanos[(int) Math.ceil(p * sortedNanos.length) - 1] / 1_000_000.0;
+    }
+
+    private static Path tempDir() {
+        try {
+            return Files.createTempDirectory("solve-log");
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record Result(long submits, Duration duration, long commitsBefore) {
+        double throughput() {
+            return submits * 1.0 / duration.toSeconds();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.oriana.backend;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.oriana.backend.config.GeminiHttpConfig;
+import com.oriana.backend.config.GeminiHttpProperties;
+import com.oriana.backend.config.GeminiResilienceProperties;
+import com.oriana.backend.dto.ProblemRequestDto;
+import com.oriana.backend.service.AiMetrics;
+import com.oriana.backend.service.AiService;
+import com.oriana.backend.service.GeminiCallGuard;
+import com.oriana.backend.service.GeminiHedger;
+import com.oriana.backend.service.GenerationBatcher;
+import com.oriana.backend.support.GeminiStubServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import javax.net.ssl.SSLContext;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * "첫 문제가 보이기까지 걸리는 시간" 비교: 일반 generateContent vs streamGenerateContent(SSE).
+ * 스텁이 문제 3개를 3초에 걸쳐 생성한다고 가정. (DB 불필요) → ./gradlew loadTest
+ */
+@Tag("load")
+class StreamingTimeToFirstProblemTest {
+
+    private static final long GENERATION_MS = 3000;
+
+    @Test
+    void streamingCutsTimeToFirstProblem() throws Exception {
+        String problem = GeminiStubServer.DEFAULT_PROBLEMS.substring(1, GeminiStubServer.DEFAULT_PROBLEMS.length() - 1);
+        String threeProblems = "```json\n[" + problem + ",\n" + problem + ",\n" + problem + "]\n```";
+
+        GeminiHttpProperties props = new GeminiHttpProperties();
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+        try (GeminiStubServer stub = GeminiStubServer.http().respondWith(threeProblems).latency(GENERATION_MS).streamChunks(30);
+             PoolingHttpClientConnectionManager manager = GeminiHttpConfig.buildConnectionManager(props, SSLContext.getDefault());
+             CloseableHttpClient client = GeminiHttpConfig.buildHttpClient(manager, props)) {
+
+            RestTemplate restTemplate = new RestTemplate(GeminiHttpConfig.requestFactory(client, props, props.getText(), scheduler));
+            SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+            GeminiResilienceProperties resilience = new GeminiResilienceProperties();
+            GeminiCallGuard guard = new GeminiCallGuard(resilience, meterRegistry);
+            AiService aiService = new AiService(restTemplate, restTemplate, new ObjectMapper(),
+                    new GenerationBatcher(meterRegistry, false, Duration.ZERO, 1),
+                    guard,
+                    new GeminiHedger(resilience, guard, meterRegistry),
+                    new AiMetrics(meterRegistry));
+            ReflectionTestUtils.setField(aiService, "geminiApiKey", "stub");
+            ReflectionTestUtils.setField(aiService, "geminiModelUrl", stub.modelUrl());
+
+            ProblemRequestDto prefs = new ProblemRequestDto();
+            prefs.setGrade("고1");
+            prefs.setSubject("수학");
+
+            long start = System.nanoTime();
+            JsonNode all = aiService.generateRecommendedProblem(prefs);
+            long blockingMs = (System.nanoTime() - start) / 1_000_000;
+
+            AtomicLong firstMs = new AtomicLong(-1);
+            long streamStart = System.nanoTime();
+            int streamed = aiService.streamRecommendedProblem(prefs,
+                    json -> firstMs.compareAndSet(-1, (System.nanoTime() - streamStart) / 1_000_000));
+
+            System.out.printf("[blocking]  all %d problems after %dms%n", all.size(), blockingMs);
+            System.out.printf("[streaming] first problem after %dms (%d problems total, %.1fx faster)%n",
+                    firstMs.get(), streamed, (double) blockingMs / firstMs.get());
+
+            assertThat(all.size()).isEqualTo(3);
+            assertThat(streamed).isEqualTo(3);
+            assertThat(firstMs.get() * 2).isLessThan(blockingMs);
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.oriana.backend;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.oriana.backend.config.GeminiHttpConfig;
+import com.oriana.backend.config.GeminiHttpProperties;
+import com.oriana.backend.config.GeminiResilienceProperties;
+import com.oriana.backend.dto.ProblemRequestDto;
+import com.oriana.backend.service.AiMetrics;
+import com.oriana.backend.service.AiService;
+import com.oriana.backend.service.GeminiCallGuard;
+import com.oriana.backend.service.GeminiHedger;
+import com.oriana.backend.service.GenerationBatcher;
+import com.oriana.backend.support.GeminiStubServer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import javax.net.ssl.SSLContext;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 구조화 출력(responseSchema) 전/후 비교: 자유 텍스트 + 복구 파서 vs 스키마 + record 바인딩
+ * 스텁은 중앙값 1.2초, 깨진 JSON 10%, 잘린 응답 3%, 절반은 LaTeX가 잔뜩 든 큰 응답.
+ * 구조화 모드에선 스텁이 실제 Gemini처럼 엄격한 JSON만 돌려줌 (깨진 JSON 없음, 잘림은 그대로).
+ * 모드별 재시도 비율(재시도 / 요청)과 요청별 평균 지연 시간, 파싱 단계 분포를 출력. (DB 불필요) → ./gradlew loadTest
+ */
+@Tag("load")
+class StructuredOutputLoadTest {
+
+    private static final int REQUESTS = 60;
+    private static final int CONCURRENCY = 8;
+
+    @Test
+    void structuredOutputCutsRetries() throws Exception {
+        Result freeText = run(false);
+        Result structured = run(true);
+
+        System.out.printf("[free-text]  retries/request=%.3f calls=%d failed=%d problems=%d avg latency=%dms parse=%s%n",
+                (double) freeText.retries / REQUESTS, freeText.calls, freeText.failed, freeText.problems, freeText.avgLatencyMs, freeText.parseStages);
+        System.out.printf("[structured] retries/request=%.3f calls=%d failed=%d problems=%d avg latency=%dms parse=%s%n",
+                (double) structured.retries / REQUESTS, structured.calls, structured.failed, structured.problems, structured.avgLatencyMs, structured.parseStages);
+
+        assertThat(structured.retries).isLessThan(freeText.retries);
+        assertThat(structured.failed).isLessThanOrEqualTo(freeText.failed);
+    }
+
+    private Result run(boolean structuredOutput) throws Exception {
+        GeminiHttpProperties props = new GeminiHttpProperties();
+        GeminiResilienceProperties resilience = new GeminiResilienceProperties();
+        resilience.getRateLimit().setTimeout(Duration.ofSeconds(30)); // 한도 초과로 실패하지 않고 줄 서도록
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        ExecutorService callers = Executors.newFixedThreadPool(CONCURRENCY);
+
+        String problem = GeminiStubServer.DEFAULT_PROBLEMS.substring(1, GeminiStubServer.DEFAULT_PROBLEMS.length() - 1);
+        String latex = GeminiStubServer.latexProblems(3, 20);
+        Random random = new Random(5);
+
+        try (GeminiStubServer stub = GeminiStubServer.http()
+                .latency(GeminiStubServer.logNormal(1200, 0.4))
+                .malformedRate(0.10)
+                .truncatedRate(0.03)
+                .respondUsing(body -> random.nextBoolean() ? latex : GeminiStubServer.answerFor(body, problem));
+             PoolingHttpClientConnectionManager manager = GeminiHttpConfig.buildConnectionManager(props, SSLContext.getDefault());
+             CloseableHttpClient client = GeminiHttpConfig.buildHttpClient(manager, props)) {
+
+            RestTemplate restTemplate = new RestTemplate(GeminiHttpConfig.requestFactory(client, props, props.getText(), scheduler));
+            SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+            GeminiCallGuard guard = new GeminiCallGuard(resilience, meterRegistry);
+            AiService aiService = new AiService(restTemplate, restTemplate, new ObjectMapper(),
+                    new GenerationBatcher(meterRegistry, false, Duration.ZERO, 1),
+                    guard,
+                    new GeminiHedger(resilience, guard, meterRegistry),
+                    new AiMetrics(meterRegistry));
+            ReflectionTestUtils.setField(aiService, "geminiApiKey", "stub");
+            ReflectionTestUtils.setField(aiService, "geminiModelUrl", stub.modelUrl());
+            ReflectionTestUtils.setField(aiService, "structuredOutput", structuredOutput);
+
+            List<CompletableFuture<long[]>> requests = new ArrayList<>();
+            for (int i = 0; i < REQUESTS; i++) {
+                ProblemRequestDto prefs = new ProblemRequestDto();
+                prefs.setGrade("고2");
+                prefs.setSubject("수학II");
+                prefs.setUnit("단원" + i);
+                requests.add(CompletableFuture.supplyAsync(() -> {
+                    long start = System.nanoTime();
+                    JsonNode problems = aiService.generateRecommendedProblem(prefs);
+                    return new long[]{problems == null ? -1 : problems.size(), (System.nanoTime() - start) / 1_000_000};
+                }, callers));
+            }
+
+            long problems = 0;
+            long failed = 0;
+            long totalLatency = 0;
+            for (CompletableFuture<long[]> request : requests) {
+                long[] result = request.join();
+                if (result[0] < 0) {
+                    failed++;
+                } else {
+                    problems += result[0];
+                }
+                totalLatency += result[1];
+            }
+
+            long retries = (long) meterRegistry.find("oriana.gemini.retries").counters().stream().mapToDouble(Counter::count).sum();
+            TreeMap<String, Long> parseStages = new TreeMap<>();
+            meterRegistry.find("oriana.ai.parse").counters()
+                    .forEach(counter -> parseStages.merge(counter.getId().getTag("stage"), (long) counter.count(), Long::sum));
+            return new Result(stub.requestCount(), retries, failed, problems, totalLatency / REQUESTS, parseStages);
+        } finally {
+            callers.shutdownNow();
+            scheduler.shutdownNow();
+        }
+    }
+
+    private record Result(long calls, long retries, long failed, long problems, long avgLatencyMs, TreeMap<String, Long> parseStages) {
+    }
+}
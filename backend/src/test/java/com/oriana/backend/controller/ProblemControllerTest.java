@@ -0,0 +1,69 @@
+package com.oriana.backend.controller;
+
+import com.oriana.backend.dto.ProblemResponseDto;
+import com.oriana.backend.service.ProblemService;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.Optional;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class ProblemControllerTest {
+
+    private final ProblemService problemService = mock(ProblemService.class);
+    private final MockMvc mockMvc = MockMvcBuilders
+            .standaloneSetup(new ProblemController(problemService, mock(AsyncTaskExecutor.class)))
+            .build();
+
+    @Test
+    void problemIsServedWithStrongETagAndFiniteCaching() throws Exception {
+        when(problemService.findProblem(7L)).thenReturn(Optional.of(problem(7L)));
+
+        mockMvc.perform(get("/api/problems/7"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"problem-7-v1\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=3600, public"))
+                .andExpect(jsonPath("$.question").value("q"));
+    }
+
+    @Test
+    void revalidationOfAnExistingProblemIsAnsweredWithoutBody() throws Exception {
+        when(problemService.findProblem(7L)).thenReturn(Optional.of(problem(7L)));
+
+        // 압축하면서 Tomcat 이 약한 ETag(W/)로 바꿔 보낸 경우도 같은 것으로 봄
+        for (String ifNoneMatch : new String[]{"\"problem-7-v1\"", "W/\"problem-7-v1\""}) {
+            mockMvc.perform(get("/api/problems/7").header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string(HttpHeaders.ETAG, "\"problem-7-v1\""))
+                    .andExpect(header().exists(HttpHeaders.CACHE_CONTROL))
+                    .andExpect(content().string(""));
+        }
+    }
+
+    @Test
+    void revalidationOfAMergedAwayProblemIsNotFound() throws Exception {
+        when(problemService.findProblem(7L)).thenReturn(Optional.empty()); // 중복 정리로 지워짐
+
+        mockMvc.perform(get("/api/problems/7").header(HttpHeaders.IF_NONE_MATCH, "\"problem-7-v1\""))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void otherProblemsETagDoesNotMatch() throws Exception {
+        when(problemService.findProblem(8L)).thenReturn(Optional.of(problem(8L)));
+
+        mockMvc.perform(get("/api/problems/8").header(HttpHeaders.IF_NONE_MATCH, "\"problem-7-v1\""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.question").value("q"));
+    }
+
+    private static ProblemResponseDto problem(Long id) {
+        return ProblemResponseDto.builder().id(id).question("q").build();
+    }
+}
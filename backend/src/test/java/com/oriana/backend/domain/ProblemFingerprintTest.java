@@ -0,0 +1,35 @@
+package com.oriana.backend.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProblemFingerprintTest {
+
+    @Test
+    void whitespaceFullWidthAndInvisibleCharactersDoNotChangeFingerprint() {
+        String fingerprint = ProblemFingerprint.of("x^2 + 1 = 0 의 해는?", List.of("1", "2"), "1");
+
+        assertThat(ProblemFingerprint.of("  x^2  +\n1 = 0​ 의 해는? ", List.of(" 1", "２"), "1﻿"))
+                .isEqualTo(fingerprint)
+                .hasSize(64);
+    }
+
+    @Test
+    void differentContentOrFieldBoundariesChangeFingerprint() {
+        String fingerprint = ProblemFingerprint.of("q", List.of("a", "b"), "a");
+
+        assertThat(ProblemFingerprint.of("q", List.of("a", "b"), "b")).isNotEqualTo(fingerprint);
+        assertThat(ProblemFingerprint.of("q", List.of("b", "a"), "a")).isNotEqualTo(fingerprint);
+        assertThat(ProblemFingerprint.of("q", List.of("ab"), "a")).isNotEqualTo(fingerprint);
+        assertThat(ProblemFingerprint.of("q", null, "a")).isEqualTo(ProblemFingerprint.of("q", List.of(), "a"));
+    }
+
+    @Test
+    void normalizeCollapsesWhitespace() {
+        assertThat(ProblemFingerprint.normalize(" a\t\n b ")).isEqualTo("a b");
+        assertThat(ProblemFingerprint.normalize(null)).isEmpty();
+    }
+}
@@ -0,0 +1,115 @@
+package com.oriana.backend.service;
+
+import com.oriana.backend.config.GeminiResilienceProperties;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GeminiCallGuardTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final GeminiResilienceProperties props = new GeminiResilienceProperties();
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        props.getRetry().setInitialBackoff(Duration.ofMillis(10));
+        props.getRetry().setMaxBackoff(Duration.ofMillis(20));
+        props.getRateLimit().setLimitForPeriod(1000);
+    }
+
+    @Test
+    void retriesServerErrorsWithBackoffThenSucceeds() {
+        GeminiCallGuard guard = new GeminiCallGuard(props, meterRegistry);
+
+        String result = guard.call(() -> {
+            if (calls.incrementAndGet() < 3) {
+                throw HttpServerErrorException.create(HttpStatus.SERVICE_UNAVAILABLE, "down", null, null, null);
+            }
+            return "ok";
+        }, true);
+
+        assertThat(result).isEqualTo("ok");
+        assertThat(calls).hasValue(3);
+    }
+
+    @Test
+    void doesNotRetryClientErrors() {
+        GeminiCallGuard guard = new GeminiCallGuard(props, meterRegistry);
+
+        assertThatThrownBy(() -> guard.call(() -> {
+            calls.incrementAndGet();
+            throw HttpClientErrorException.create(HttpStatus.BAD_REQUEST, "bad", null, null, null);
+        }, true)).isInstanceOf(HttpClientErrorException.BadRequest.class);
+
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void waitsForRetryAfterOn429() {
+        GeminiCallGuard guard = new GeminiCallGuard(props, meterRegistry);
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, "1");
+
+        long start = System.nanoTime();
+        String result = guard.call(() -> {
+            if (calls.incrementAndGet() == 1) {
+                throw HttpClientErrorException.create(HttpStatus.TOO_MANY_REQUESTS, "slow down", headers, null, null);
+            }
+            return "ok";
+        }, true);
+
+        assertThat(result).isEqualTo("ok");
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(Duration.ofMillis(950));
+    }
+
+    @Test
+    void opensCircuitAndFailsFastWithoutCallingUpstream() {
+        props.getRetry().setMaxAttempts(1);
+        props.getCircuitBreaker().setMinimumNumberOfCalls(4);
+        props.getCircuitBreaker().setSlidingWindowSize(4);
+        GeminiCallGuard guard = new GeminiCallGuard(props, meterRegistry);
+
+        for (int i = 0; i < 4; i++) {
+            assertThatThrownBy(() -> guard.call(() -> {
+                calls.incrementAndGet();
+                throw HttpServerErrorException.create(HttpStatus.BAD_GATEWAY, "bad gateway", null, null, null);
+            }, true)).isInstanceOf(HttpServerErrorException.class);
+        }
+
+        assertThatThrownBy(() -> guard.call(() -> calls.incrementAndGet(), true))
+                .isInstanceOf(AiUnavailableException.class);
+        assertThat(calls).hasValue(4);
+        assertThat(guard.circuitState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(meterRegistry.counter("oriana.gemini.circuit.transitions", "from", "CLOSED", "to", "OPEN").count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void parseFailuresAreRetriedButDoNotOpenTheCircuit() {
+        props.getCircuitBreaker().setMinimumNumberOfCalls(2);
+        props.getCircuitBreaker().setSlidingWindowSize(2);
+        GeminiCallGuard guard = new GeminiCallGuard(props, meterRegistry);
+
+        for (int i = 0; i < 3; i++) {
+            assertThatThrownBy(() -> guard.call(() -> {
+                calls.incrementAndGet();
+                throw new AiResponseException("no problems");
+            }, true)).isInstanceOf(AiResponseException.class);
+        }
+
+        assertThat(calls).hasValue(9); // 3번 호출 x 3번 시도
+        assertThat(guard.circuitState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+}
@@ -0,0 +1,97 @@
+package com.oriana.backend.service;
+
+import com.oriana.backend.config.GeminiResilienceProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GeminiHedgerTest {
+
+    private static final String PROMPT = "recommend";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger attempts = new AtomicInteger();
+
+    @Test
+    void disabledHedgerJustCallsOnce() {
+        GeminiHedger hedger = hedger(false, 1.0);
+
+        assertThat(hedger.call(PROMPT, () -> "ok:" + attempts.incrementAndGet())).isEqualTo("ok:1");
+        assertThat(meterRegistry.find("oriana.gemini.hedge.calls").counters()).isEmpty();
+    }
+
+    @Test
+    void slowCallIsHedgedAndFasterDuplicateWins() {
+        GeminiHedger hedger = warmedUp(1.0);
+
+        long start = System.nanoTime();
+        String result = hedger.call(PROMPT, () -> attempts.incrementAndGet() == 1 ? slow("primary") : "hedge");
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertThat(result).isEqualTo("hedge");
+        assertThat(elapsedMs).isLessThan(1000);
+        assertThat(meterRegistry.counter("oriana.gemini.hedge.calls", "prompt", PROMPT, "hedged", "true").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("oriana.gemini.hedge.wins", "prompt", PROMPT, "winner", "hedge").count()).isEqualTo(1);
+    }
+
+    @Test
+    void noBudgetMeansNoHedge() {
+        GeminiHedger hedger = warmedUp(0.0);
+
+        String result = hedger.call(PROMPT, () -> attempts.incrementAndGet() == 1 ? slow("primary") : "hedge");
+
+        assertThat(result).isEqualTo("primary");
+        assertThat(attempts.get()).isEqualTo(1);
+        assertThat(meterRegistry.counter("oriana.gemini.hedge.skipped", "prompt", PROMPT, "reason", "budget").count()).isEqualTo(1);
+    }
+
+    @Test
+    void bothFailingPropagatesOriginalError() {
+        GeminiHedger hedger = warmedUp(1.0);
+
+        assertThatThrownBy(() -> hedger.call(PROMPT, () -> {
+            int attempt = attempts.incrementAndGet();
+            sleep(attempt == 1 ? 300 : 10);
+            throw new AiResponseException("실패 " + attempt);
+        })).isInstanceOf(AiResponseException.class).hasMessage("실패 1");
+        assertThat(attempts.get()).isEqualTo(2);
+    }
+
+    // 빠른 호출 표본 3개를 쌓아서 hedge 기준 시간이 min-delay(50ms)가 되게 함
+    private GeminiHedger warmedUp(double budget) {
+        GeminiHedger hedger = hedger(true, budget);
+        for (int i = 0; i < 3; i++) {
+            hedger.call(PROMPT, () -> "warm-up");
+        }
+        return hedger;
+    }
+
+    private GeminiHedger hedger(boolean enabled, double budget) {
+        GeminiResilienceProperties resilience = new GeminiResilienceProperties();
+        GeminiResilienceProperties.Hedge hedge = resilience.getHedge();
+        hedge.setEnabled(enabled);
+        hedge.setMinSamples(3);
+        hedge.setMinDelay(Duration.ofMillis(50));
+        hedge.setBudget(budget);
+        hedge.setMaxBurst(budget > 0 ? 10 : 0); // 예산 0 이면 처음 채워두는 분량도 없음
+        return new GeminiHedger(resilience, new GeminiCallGuard(resilience, meterRegistry), meterRegistry);
+    }
+
+    private static String slow(String result) {
+        sleep(2000);
+        return result;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
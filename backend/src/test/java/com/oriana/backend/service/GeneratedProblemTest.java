@@ -0,0 +1,50 @@
+package com.oriana.backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GeneratedProblemTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void schemaCoversEveryRecordField() {
+        List<String> components = Arrays.stream(GeneratedProblem.class.getRecordComponents())
+                .map(component -> component.getName())
+                .toList();
+
+        assertThat(requiredFields(GeneratedProblem.BATCH_RESPONSE_SCHEMA)).containsExactlyElementsOf(components);
+        assertThat(requiredFields(GeneratedProblem.RESPONSE_SCHEMA)).doesNotContain("section")
+                .containsExactlyElementsOf(components.subList(1, components.size()));
+    }
+
+    @Test
+    void bindsStrictJsonAndWritesBackTheSameKeys() throws Exception {
+        // 구조화 출력은 백슬래시가 제대로 이스케이프된 엄격한 JSON
+        String aiText = """
+                [{"grade":"고1","subject":"수학","difficulty":"중","tags":["분수"],"points":20,
+                  "question":"$\\\\frac{1}{2}+\\\\frac{1}{3}$ 은?","options":["5/6","2/5"],
+                  "answer":"5/6","solution":"통분","isSubjective":false}]""";
+
+        List<GeneratedProblem> problems = objectMapper.readerForListOf(GeneratedProblem.class).readValue(aiText);
+        JsonNode json = objectMapper.valueToTree(problems);
+
+        assertThat(problems.get(0).question()).isEqualTo("$\\frac{1}{2}+\\frac{1}{3}$ 은?");
+        assertThat(json.get(0).has("section")).isFalse();
+        assertThat(json.get(0).path("isSubjective").isBoolean()).isTrue();
+        assertThat(GeneratedProblemMapper.toProblem(json.get(0), null, null).getAnswer()).isEqualTo("5/6");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> requiredFields(Map<String, Object> schema) {
+        Map<String, Object> items = (Map<String, Object>) schema.get("items");
+        return (List<String>) items.get("required");
+    }
+}
@@ -0,0 +1,146 @@
+package com.oriana.backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GenerationBatcherTest {
+
+    private static final int SECTIONS = 4;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    // 묶음이 꽉 찰 때까지 충분히 기다리도록 window 를 길게
+    private final GenerationBatcher batcher = new GenerationBatcher(meterRegistry, true, Duration.ofSeconds(5), SECTIONS);
+    private final AtomicInteger batchCalls = new AtomicInteger();
+    private final AtomicInteger singleCalls = new AtomicInteger();
+    private final List<Boolean> retryableFlags = Collections.synchronizedList(new ArrayList<>());
+
+    @Test
+    void concurrentRequestsShareOneUpstreamCallAndGetTheirOwnSection() throws Exception {
+        List<String> results = submitConcurrently(sections -> {
+            batchCalls.incrementAndGet();
+            return sections.stream().map(section -> (JsonNode) problems("batch:" + section)).toList();
+        });
+
+        assertThat(batchCalls.get()).isEqualTo(1);
+        assertThat(singleCalls.get()).isZero();
+        assertThat(results).containsExactly("batch:s0", "batch:s1", "batch:s2", "batch:s3");
+        assertThat(meterRegistry.counter("oriana.generation.upstream.calls", "mode", "batch").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("oriana.generation.problems", "mode", "batched").count()).isEqualTo(4);
+    }
+
+    @Test
+    void missingSectionFallsBackToSingleCallForThatRequestOnly() throws Exception {
+        List<String> results = submitConcurrently(sections -> {
+            batchCalls.incrementAndGet();
+            List<JsonNode> answers = new ArrayList<>();
+            for (String section : sections) {
+                answers.add(section.equals("s2") ? null : problems("batch:" + section));
+            }
+            return answers;
+        });
+
+        assertThat(batchCalls.get()).isEqualTo(1);
+        assertThat(singleCalls.get()).isEqualTo(1);
+        assertThat(results).containsExactly("batch:s0", "batch:s1", "single:s2", "batch:s3");
+    }
+
+    @Test
+    void failedBatchFallsBackToSingleCalls() throws Exception {
+        List<String> results = submitConcurrently(sections -> {
+            throw new AiResponseException("섹션 번호가 없는 응답");
+        });
+
+        assertThat(singleCalls.get()).isEqualTo(SECTIONS);
+        assertThat(results).containsExactly("single:s0", "single:s1", "single:s2", "single:s3");
+        // 묶음 호출이 이미 재시도까지 하고 실패한 뒤라, 대신 부르는 단일 호출은 재시도 없이
+        assertThat(retryableFlags).hasSize(SECTIONS).containsOnly(false);
+    }
+
+    @Test
+    void unavailableUpstreamIsPropagatedWithoutFallback() {
+        assertThatThrownBy(() -> submitConcurrently(sections -> {
+            throw new AiUnavailableException("서킷 OPEN", Duration.ofSeconds(30), null);
+        })).hasRootCauseInstanceOf(AiUnavailableException.class);
+        assertThat(singleCalls.get()).isZero();
+    }
+
+    @Test
+    void loneRequestGoesStraightToSingleCallWithoutWaitingTheWindow() {
+        long start = System.nanoTime();
+
+        JsonNode result = batcher.submit("s0", retryable -> single("s0", retryable), sections -> {
+            batchCalls.incrementAndGet();
+            return List.of();
+        });
+
+        assertThat(result.get(0).asText()).isEqualTo("single:s0");
+        assertThat(batchCalls.get()).isZero();
+        assertThat(retryableFlags).containsExactly(true);
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(1)); // window 는 5초
+    }
+
+    // 섹션 s0..s3 을 동시에 제출하고 각 요청이 받은 결과를 섹션 순서대로 반환
+    // 진행 중인 다른 생성 요청이 하나 있는 상태에서 (혼자면 묶지 않고 바로 단일 호출이라)
+    private List<String> submitConcurrently(Function<List<String>, List<JsonNode>> batchCall) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(SECTIONS + 1);
+        CountDownLatch busyStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            pool.submit(() -> batcher.submit("busy", retryable -> {
+                busyStarted.countDown();
+                awaitQuietly(release);
+                return problems("busy");
+            }, sections -> List.of()));
+            busyStarted.await(10, TimeUnit.SECONDS);
+
+            List<Future<JsonNode>> futures = new ArrayList<>();
+            for (int i = 0; i < SECTIONS; i++) {
+                String section = "s" + i;
+                futures.add(pool.submit(() -> batcher.submit(section, retryable -> single(section, retryable), batchCall)));
+            }
+            List<String> results = new ArrayList<>();
+            for (Future<JsonNode> future : futures) {
+                results.add(future.get(10, TimeUnit.SECONDS).get(0).asText());
+            }
+            return results;
+        } finally {
+            release.countDown();
+            pool.shutdownNow();
+        }
+    }
+
+    private JsonNode single(String section, boolean retryable) {
+        singleCalls.incrementAndGet();
+        retryableFlags.add(retryable);
+        return problems("single:" + section);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static JsonNode problems(String marker) {
+        return JsonNodeFactory.instance.arrayNode().add(marker);
+    }
+}
@@ -0,0 +1,117 @@
+package com.oriana.backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LenientJsonParserTest {
+
+    @Test
+    void cleanJsonNeedsNoRepair() {
+        LenientJsonParser.Result result = LenientJsonParser.parseArray("""
+                [{"question": "1+1?", "options": ["1", "2"], "points": 20, "isSubjective": false}]""");
+
+        assertThat(result.repaired()).isFalse();
+        assertThat(result.truncated()).isFalse();
+        JsonNode problem = result.items().get(0);
+        assertThat(problem.path("question").asText()).isEqualTo("1+1?");
+        assertThat(problem.path("options")).hasSize(2);
+        assertThat(problem.path("points").asInt()).isEqualTo(20);
+        assertThat(problem.path("isSubjective").asBoolean(true)).isFalse();
+    }
+
+    @Test
+    void stripsMarkdownFenceAndProse() {
+        LenientJsonParser.Result result = LenientJsonParser.parseArray("""
+                다음은 문제입니다.
+                ```json
+                [{"question": "q1"}, {"question": "q2"}]
+                ```""");
+
+        assertThat(result.repaired()).isTrue();
+        assertThat(result.items()).hasSize(2);
+        assertThat(result.items().get(1).path("question").asText()).isEqualTo("q2");
+    }
+
+    @Test
+    void keepsLatexBackslashesThatAreNotJsonEscapes() {
+        // 모델이 백슬래시를 1개만 쓴 경우: \frac 의 \f, \times 의 \t, \neq 의 \n 도 LaTeX로 유지
+        LenientJsonParser.Result result = LenientJsonParser.parseArray(
+                "[{\"question\": \"$\\frac{1}{2} \\times \\sqrt{x} \\neq \\alpha$\"}]");
+
+        assertThat(result.items().get(0).path("question").asText())
+                .isEqualTo("$\\frac{1}{2} \\times \\sqrt{x} \\neq \\alpha$");
+        assertThat(result.repaired()).isTrue();
+    }
+
+    @Test
+    void decodesProperlyEscapedBackslashesAndUnicode() {
+        LenientJsonParser.Result result = LenientJsonParser.parseArray(
+                "[{\"question\": \"$\\\\frac{1}{2}$ \\u0041\\\"B\\\" a\\n 2\"}]");
+
+        assertThat(result.items().get(0).path("question").asText()).isEqualTo("$\\frac{1}{2}$ A\"B\" a\n 2");
+        assertThat(result.repaired()).isFalse();
+    }
+
+    @Test
+    void replacesRawNewlinesInsideStrings() {
+        LenientJsonParser.Result result = LenientJsonParser.parseArray("[{\"solution\": \"첫 줄\n둘째 줄\r\n셋째 줄\"}]");
+
+        assertThat(result.items().get(0).path("solution").asText()).isEqualTo("첫 줄 둘째 줄 셋째 줄");
+    }
+
+    @Test
+    void salvagesCompleteObjectsFromTruncatedArray() {
+        LenientJsonParser.Result result = LenientJsonParser.parseArray("""
+                [{"question": "q1", "tags": ["a"]},
+                 {"question": "q2", "tags": ["b"]},
+                 {"question": "q3", "solution": "풀이가 중간에 잘""");
+
+        assertThat(result.truncated()).isTrue();
+        assertThat(result.items()).hasSize(2);
+        assertThat(result.items().get(1).path("question").asText()).isEqualTo("q2");
+    }
+
+    @Test
+    void toleratesTrailingAndMissingCommas() {
+        LenientJsonParser.Result result = LenientJsonParser.parseArray("""
+                [
+                  {"question": "q1", "points": 10,}
+                  {"question": "q2"
+                   "answer": "3"},
+                ]""");
+
+        assertThat(result.items()).hasSize(2);
+        assertThat(result.items().get(0).path("points").asInt()).isEqualTo(10);
+        assertThat(result.items().get(1).path("answer").asText()).isEqualTo("3");
+        assertThat(result.repaired()).isTrue();
+    }
+
+    @Test
+    void keepsUnescapedQuotesInsideStrings() {
+        LenientJsonParser.Result result = LenientJsonParser.parseArray(
+                "[{\"question\": \"다음 중 \"정답\"을 고르시오\", \"answer\": \"1\"}]");
+
+        assertThat(result.items().get(0).path("question").asText()).isEqualTo("다음 중 \"정답\"을 고르시오");
+        assertThat(result.items().get(0).path("answer").asText()).isEqualTo("1");
+    }
+
+    @Test
+    void unwrapsSingleObjectAndWrapperObject() {
+        assertThat(LenientJsonParser.parseArray("{\"question\": \"q\"}").items()).hasSize(1);
+        assertThat(LenientJsonParser.parseArray("{\"problems\": [{\"question\": \"a\"}, {\"question\": \"b\"}]}").items())
+                .hasSize(2);
+    }
+
+    @Test
+    void returnsEmptyWhenThereIsNoJson() {
+        assertThat(LenientJsonParser.parseArray("죄송합니다. 문제를 만들 수 없습니다.").items()).isEmpty();
+    }
+
+    @Test
+    void parsesSingleStreamedObjectOrReturnsNullWhenIncomplete() {
+        assertThat(LenientJsonParser.parseObject("{\"question\": \"q\"}").path("question").asText()).isEqualTo("q");
+        assertThat(LenientJsonParser.parseObject("{\"question\": \"q")).isNull();
+    }
+}
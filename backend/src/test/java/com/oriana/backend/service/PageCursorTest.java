@@ -0,0 +1,50 @@
+package com.oriana.backend.service;
+
+import com.oriana.backend.dto.CursorPageDto;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PageCursorTest {
+
+    @Test
+    void encodedCursorRoundTrips() {
+        PageCursor cursor = new PageCursor(LocalDateTime.of(2026, 3, 1, 9, 30, 15, 123_456_000), 42L);
+
+        assertThat(cursor.encode()).doesNotContain(",", "=", "2026");
+        assertThat(PageCursor.decode(cursor.encode())).isEqualTo(cursor);
+        assertThat(PageCursor.decode(null)).isNull();
+    }
+
+    @Test
+    void malformedCursorIsRejected() {
+        assertThatThrownBy(() -> PageCursor.decode("not-a-cursor")).isInstanceOf(PageCursor.InvalidCursorException.class);
+        assertThatThrownBy(() -> PageCursor.decode("!!!")).isInstanceOf(PageCursor.InvalidCursorException.class);
+    }
+
+    @Test
+    void pageSizeIsCapped() {
+        assertThat(PageCursor.pageSize(null)).isEqualTo(PageCursor.DEFAULT_SIZE);
+        assertThat(PageCursor.pageSize(0)).isEqualTo(1);
+        assertThat(PageCursor.pageSize(100_000)).isEqualTo(PageCursor.MAX_SIZE);
+        assertThat(PageCursor.limitFor(20).getPageSize()).isEqualTo(21);
+    }
+
+    @Test
+    void extraRowMeansThereIsANextPage() {
+        LocalDateTime now = LocalDateTime.of(2026, 3, 1, 9, 0);
+        List<Long> rows = List.of(5L, 4L, 3L);
+
+        CursorPageDto<String> full = PageCursor.page(rows, 2, String::valueOf, id -> new PageCursor(now, id));
+        CursorPageDto<String> last = PageCursor.page(rows, 3, String::valueOf, id -> new PageCursor(now, id));
+
+        assertThat(full.items()).containsExactly("5", "4");
+        assertThat(PageCursor.decode(full.nextCursor())).isEqualTo(new PageCursor(now, 4L));
+        assertThat(last.items()).containsExactly("5", "4", "3");
+        assertThat(last.nextCursor()).isNull();
+    }
+}
@@ -0,0 +1,113 @@
+package com.oriana.backend.service;
+
+import com.oriana.backend.domain.Problem;
+import com.oriana.backend.domain.ProblemSource;
+import com.oriana.backend.repository.ProblemRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class PhotoDedupServiceTest {
+
+    private static final long PHOTO = 0x0F0F_0F0F_0F0F_0F0FL;
+    private static final byte[] DETAIL = detail(0);
+
+    private final ProblemRepository problemRepository = mock(ProblemRepository.class);
+    private final PhotoDedupService photoDedup = new PhotoDedupService(problemRepository, new SimpleMeterRegistry());
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(photoDedup, "enabled", true);
+        ReflectionTestUtils.setField(photoDedup, "maxDistance", 3);
+        ReflectionTestUtils.setField(photoDedup, "detailTolerance", 0.03);
+        ReflectionTestUtils.setField(photoDedup, "maxEntries", 100);
+        photoDedup.remember(new PhotoHash.Scan(PHOTO, DETAIL), List.of(problem(1L), problem(2L), problem(3L)));
+    }
+
+    @Test
+    void rememberedScanStoresItsDetailOnTheProblems() {
+        verify(problemRepository).fillPhotoDetail(List.of(1L, 2L, 3L), DETAIL);
+    }
+
+    @Test
+    void nearHashIsReusedOnlyWhenTheDetailAlsoMatches() {
+        when(problemRepository.findAllById(List.of(1L, 2L, 3L)))
+                .thenReturn(List.of(problem(1L), problem(2L), problem(3L)));
+        when(problemRepository.findPhotoDetails(List.of(1L, 2L, 3L)))
+                .thenReturn(List.of(detailRow(1L, DETAIL), detailRow(2L, DETAIL), detailRow(3L, DETAIL)));
+
+        assertThat(photoDedup.findNearDuplicate(new PhotoHash.Scan(PHOTO ^ 0b101, DETAIL)))
+                .extracting(Problem::getId).containsExactly(1L, 2L, 3L);
+        // 양식은 같고 숫자만 다른 학습지: 해시는 같아도 그 자리 밝기가 다름
+        assertThat(photoDedup.findNearDuplicate(new PhotoHash.Scan(PHOTO, detail(40)))).isEmpty();
+    }
+
+    @Test
+    void problemsWithoutAStoredDetailAreNotReused() {
+        when(problemRepository.findAllById(List.of(1L, 2L, 3L)))
+                .thenReturn(List.of(problem(1L), problem(2L), problem(3L)));
+        when(problemRepository.findPhotoDetails(List.of(1L, 2L, 3L)))
+                .thenReturn(List.of(detailRow(1L, DETAIL), detailRow(3L, DETAIL))); // 2 는 예전에 저장된 행
+
+        assertThat(photoDedup.findNearDuplicate(new PhotoHash.Scan(PHOTO, DETAIL))).isEmpty();
+    }
+
+    @Test
+    void mergedProblemsArePointedAtTheRowsThatWereKept() {
+        when(problemRepository.findAllById(List.of(1L, 9L)))
+                .thenReturn(List.of(problem(1L), problem(9L)));
+        when(problemRepository.findPhotoDetails(List.of(1L, 9L)))
+                .thenReturn(List.of(detailRow(1L, DETAIL), detailRow(9L, DETAIL)));
+
+        photoDedup.repoint(Map.of(2L, 9L, 3L, 9L)); // 2, 3 이 둘 다 9 로 합쳐짐
+
+        assertThat(photoDedup.findNearDuplicate(new PhotoHash.Scan(PHOTO ^ 0b11, DETAIL))).extracting(Problem::getId).containsExactly(1L, 9L);
+    }
+
+    @Test
+    void partiallyDeletedScanIsForgottenInsteadOfReturnedHalfEmpty() {
+        when(problemRepository.findAllById(List.of(1L, 2L, 3L)))
+                .thenReturn(List.of(problem(1L), problem(3L)));
+
+        assertThat(photoDedup.findNearDuplicate(new PhotoHash.Scan(PHOTO, DETAIL))).isEmpty();
+        assertThat(photoDedup.size()).isZero();
+    }
+
+    // 흰 종이에 가운데 한 블록만 darken 만큼 어두운 세부 밝기 지도 (128x96)
+    private static byte[] detail(int darken) {
+        byte[] detail = new byte[128 * 96];
+        Arrays.fill(detail, (byte) 255);
+        for (int y = 40; y < 52; y++) {
+            for (int x = 60; x < 72; x++) {
+                detail[y * 128 + x] = (byte) (255 - darken);
+            }
+        }
+        return detail;
+    }
+
+    private static ProblemRepository.PhotoDetailRow detailRow(Long id, byte[] detail) {
+        return new ProblemRepository.PhotoDetailRow() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public byte[] getPhotoDetail() {
+                return detail;
+            }
+        };
+    }
+
+    private static Problem problem(Long id) {
+        return Problem.builder().id(id).sourceType(ProblemSource.PHOTO).question("q").answer("1").solution("s").build();
+    }
+}
@@ -0,0 +1,170 @@
+package com.oriana.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PhotoHashTest {
+
+    private static final int MAX_DISTANCE = 3; // application.yaml 기본값
+    private static final double DETAIL_TOLERANCE = 0.03;
+
+    @Test
+    void sameWorksheetStaysWithinThreshold() throws Exception {
+        BufferedImage worksheet = worksheet(1, 7);
+        PhotoHash.Scan original = PhotoHash.of(read(jpeg(worksheet, 0.92f)));
+
+        // 다른 폰으로 찍어서 압축률이 다름
+        PhotoHash.Scan recompressed = PhotoHash.of(read(jpeg(worksheet, 0.5f)));
+        // 가장자리가 조금 잘림 (3%)
+        int dx = worksheet.getWidth() * 3 / 100;
+        int dy = worksheet.getHeight() * 3 / 100;
+        PhotoHash.Scan cropped = PhotoHash.of(read(jpeg(worksheet.getSubimage(dx, dy,
+                worksheet.getWidth() - 2 * dx, worksheet.getHeight() - 2 * dy), 0.85f)));
+        // 해상도가 절반 (해시는 가깝지만 세부는 리샘플링 차이가 커서 확인에서 걸러짐 → 새로 생성하는 쪽으로)
+        PhotoHash.Scan smaller = PhotoHash.of(read(jpeg(scale(worksheet, 0.5), 0.85f)));
+
+        assertThat(PhotoHash.distance(original.hash(), recompressed.hash())).isLessThanOrEqualTo(MAX_DISTANCE);
+        assertThat(PhotoHash.distance(original.hash(), cropped.hash())).isLessThanOrEqualTo(MAX_DISTANCE);
+        assertThat(PhotoHash.distance(original.hash(), smaller.hash())).isLessThanOrEqualTo(MAX_DISTANCE);
+        assertThat(PhotoHash.detailDifference(original.detail(), recompressed.detail())).isLessThanOrEqualTo(DETAIL_TOLERANCE);
+        assertThat(PhotoHash.detailDifference(original.detail(), cropped.detail())).isLessThanOrEqualTo(DETAIL_TOLERANCE);
+    }
+
+    @Test
+    void sameTemplateWithDifferentNumbersIsNotConfirmed() throws Exception {
+        // 같은 양식(줄 위치/도형 동일)에 숫자만 다른 학습지 두 장 → pHash는 거의 같아서 세부 확인이 막아야 함
+        for (int seed = 1; seed <= 6; seed++) {
+            PhotoHash.Scan a = PhotoHash.of(read(jpeg(worksheet(seed, 3 + seed, 100), 0.92f)));
+            PhotoHash.Scan b = PhotoHash.of(read(jpeg(worksheet(seed, 3 + seed, 200), 0.92f)));
+
+            assertThat(PhotoHash.detailDifference(a.detail(), b.detail()))
+                    .as("seed %d, 해밍 거리 %d", seed, PhotoHash.distance(a.hash(), b.hash()))
+                    .isGreaterThan(DETAIL_TOLERANCE);
+        }
+    }
+
+    @Test
+    void exifRotatedPhotoHashesLikeTheUprightOne() throws Exception {
+        BufferedImage upright = worksheet(1, 7);
+        // 폰이 세로로 들고 찍으면 픽셀은 눕혀서 저장하고 EXIF Orientation=6 (시계 방향 90도 돌려서 보라)으로 표시함
+        PhotoHash.Scan original = PhotoHash.of(read(jpeg(upright, 0.92f)));
+        PhotoHash.Scan rotated = PhotoHash.of(read(withOrientation(jpeg(rotateCounterClockwise(upright), 0.92f), 6)));
+
+        assertThat(PhotoHash.distance(original.hash(), rotated.hash())).isLessThanOrEqualTo(MAX_DISTANCE);
+        assertThat(PhotoHash.detailDifference(original.detail(), rotated.detail())).isLessThanOrEqualTo(DETAIL_TOLERANCE);
+    }
+
+    @Test
+    void differentProblemsAreFarApart() throws Exception {
+        long a = PhotoHash.of(read(jpeg(worksheet(1, 7), 0.85f))).hash();
+        long b = PhotoHash.of(read(jpeg(worksheet(2, 4), 0.85f))).hash();
+        long c = PhotoHash.of(read(jpeg(worksheet(3, 9), 0.85f))).hash();
+
+        assertThat(PhotoHash.distance(a, b)).isGreaterThan(MAX_DISTANCE);
+        assertThat(PhotoHash.distance(a, c)).isGreaterThan(MAX_DISTANCE);
+        assertThat(PhotoHash.distance(b, c)).isGreaterThan(MAX_DISTANCE);
+    }
+
+    @Test
+    void unreadableFormatHasNoHash() throws Exception {
+        assertThat(PhotoHash.of(new ByteArrayInputStream("not an image".getBytes()))).isNull();
+    }
+
+    // 학습지 사진: 종이 질감 + 문제 번호마다 다른 줄 수/도형 위치
+    private static BufferedImage worksheet(int seed, int lines) {
+        return worksheet(seed, lines, seed);
+    }
+
+    // numbersSeed 만 다르면 양식은 같고 식의 숫자만 다른 학습지
+    private static BufferedImage worksheet(int seed, int lines, int numbersSeed) {
+        BufferedImage image = new BufferedImage(2000, 1500, BufferedImage.TYPE_3BYTE_BGR);
+        Graphics2D g = image.createGraphics();
+        Random random = new Random(seed);
+        Random numbers = new Random(numbersSeed);
+        g.setColor(new Color(235, 232, 225));
+        g.fillRect(0, 0, 2000, 1500);
+        g.setColor(Color.DARK_GRAY);
+        g.setFont(new Font(Font.SERIF, Font.PLAIN, 48));
+        for (int i = 0; i < lines; i++) {
+            int indent = 80 + random.nextInt(300);
+            g.drawString("문제 " + seed + "-" + i + " : x^2 + " + (10 + numbers.nextInt(90)) + "x + "
+                    + (10 + numbers.nextInt(90)) + " = 0", indent, 120 + i * 150);
+        }
+        g.setStroke(new BasicStroke(8));
+        int size = 300 + random.nextInt(300);
+        g.drawOval(150 + random.nextInt(1700 - size), 150 + random.nextInt(1200 - size), size, size); // 학습지 여백 안쪽
+        g.dispose();
+        return image;
+    }
+
+    private static BufferedImage scale(BufferedImage source, double ratio) {
+        BufferedImage target = new BufferedImage((int) (source.getWidth() * ratio), (int) (source.getHeight() * ratio),
+                BufferedImage.TYPE_3BYTE_BGR);
+        Graphics2D g = target.createGraphics();
+        g.drawImage(source, 0, 0, target.getWidth(), target.getHeight(), null);
+        g.dispose();
+        return target;
+    }
+
+    private static BufferedImage rotateCounterClockwise(BufferedImage source) {
+        BufferedImage target = new BufferedImage(source.getHeight(), source.getWidth(), BufferedImage.TYPE_3BYTE_BGR);
+        for (int y = 0; y < source.getHeight(); y++) {
+            for (int x = 0; x < source.getWidth(); x++) {
+                target.setRGB(y, source.getWidth() - 1 - x, source.getRGB(x, y));
+            }
+        }
+        return target;
+    }
+
+    // SOI + JFIF(APP0) 뒤에 Orientation 태그 하나짜리 EXIF(APP1) 세그먼트를 끼워 넣음
+    private static byte[] withOrientation(byte[] jpeg, int orientation) {
+        byte[] exif = {
+                (byte) 0xFF, (byte) 0xE1, 0, 34,                 // APP1, 길이(자기 자신 2바이트 포함)
+                'E', 'x', 'i', 'f', 0, 0,
+                'M', 'M', 0, 42, 0, 0, 0, 8,                     // TIFF 헤더 (빅엔디언), IFD0 위치 8
+                0, 1,                                            // 항목 1개
+                0x01, 0x12, 0, 3, 0, 0, 0, 1, 0, (byte) orientation, 0, 0, // Orientation, SHORT, 1개
+                0, 0, 0, 0                                       // 다음 IFD 없음
+        };
+        int at = 4 + (((jpeg[4] & 0xFF) << 8) | (jpeg[5] & 0xFF)); // FFD8, FFE0 + APP0 길이
+        byte[] result = new byte[jpeg.length + exif.length];
+        System.arraycopy(jpeg, 0, result, 0, at);
+        System.arraycopy(exif, 0, result, at, exif.length);
+        System.arraycopy(jpeg, at, result, at + exif.length, jpeg.length - at);
+        return result;
+    }
+
+    private static byte[] jpeg(BufferedImage image, float quality) throws Exception {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(out)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            writer.setOutput(ios);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    private static ByteArrayInputStream read(byte[] bytes) {
+        return new ByteArrayInputStream(bytes);
+    }
+}
@@ -0,0 +1,152 @@
+package com.oriana.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.mock.web.MockMultipartFile;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PhotoPayloadTest {
+
+    private static final int MAX_DIMENSION = 1600;
+    private static final long MB = 1024 * 1024;
+
+    @TempDir
+    static Path dir;
+    private static Path phonePhoto; // 4000x3000 (12MP) JPEG
+
+    @BeforeAll
+    static void createPhonePhoto() throws Exception {
+        BufferedImage image = new BufferedImage(4000, 3000, BufferedImage.TYPE_3BYTE_BGR);
+        // 종이 질감 + 센서 노이즈 (실제 폰 사진처럼 JPEG 용량이 수 MB가 되도록)
+        byte[] pixels = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+        Random random = new Random(42);
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = (byte) (200 + random.nextInt(40));
+        }
+        Graphics2D g = image.createGraphics();
+        g.setColor(Color.DARK_GRAY);
+        g.setFont(new Font(Font.SERIF, Font.PLAIN, 90));
+        for (int y = 150; y < 3000; y += 130) {
+            g.drawString("x^2 - 5x + 6 = 0 의 두 근을 구하시오. (" + y + ")", 120, y);
+        }
+        g.dispose();
+        phonePhoto = dir.resolve("phone.jpg");
+        writeJpeg(image, phonePhoto, 0.92f);
+    }
+
+    @Test
+    void downscalesLargePhotoAndStreamsValidBase64Jpeg() throws Exception {
+        PhotoPayload payload = PhotoPayload.from(phonePhoto, "image/jpeg", MAX_DIMENSION, 0.85f);
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        payload.writeBase64To(body);
+
+        BufferedImage sent = ImageIO.read(new ByteArrayInputStream(Base64.getDecoder().decode(body.toByteArray())));
+        assertThat(payload.mimeType()).isEqualTo("image/jpeg");
+        assertThat(Math.max(sent.getWidth(), sent.getHeight())).isLessThanOrEqualTo(MAX_DIMENSION);
+        assertThat(sent.getWidth()).isEqualTo(1334); // 4000 / 3 (서브샘플링)
+        assertThat((long) body.size()).isLessThan(Files.size(phonePhoto));
+    }
+
+    @Test
+    void smallJpegIsSentAsIs() throws Exception {
+        Path small = dir.resolve("small.jpg");
+        ImageIO.write(new BufferedImage(800, 600, BufferedImage.TYPE_3BYTE_BGR), "jpeg", small.toFile());
+
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        PhotoPayload.from(small, "image/jpeg", MAX_DIMENSION, 0.85f).writeBase64To(body);
+
+        assertThat(Base64.getDecoder().decode(body.toByteArray())).isEqualTo(Files.readAllBytes(small));
+    }
+
+    @Test
+    void unreadableFormatIsStreamedUnchanged() throws Exception {
+        Path heic = dir.resolve("photo.heic");
+        Files.write(heic, new byte[]{0, 0, 0, 24, 'f', 't', 'y', 'p', 'h', 'e', 'i', 'c'});
+
+        PhotoPayload payload = PhotoPayload.from(heic, "image/heic", MAX_DIMENSION, 0.85f);
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        payload.writeBase64To(body);
+
+        assertThat(payload.mimeType()).isEqualTo("image/heic");
+        assertThat(Base64.getDecoder().decode(body.toByteArray())).isEqualTo(Files.readAllBytes(heic));
+    }
+
+    @Test
+    void peakAllocationPerUploadStaysBounded() throws Exception {
+        // 워밍업 (ImageIO 플러그인 로딩 등 1회성 할당 제외)
+        streamed();
+        legacy();
+
+        long streamedBytes = allocatedBy(PhotoPayloadTest::streamed);
+        long legacyBytes = allocatedBy(PhotoPayloadTest::legacy);
+        String allocated = String.format("12MP photo (%d KB): streamed %d MB vs legacy %d MB allocated",
+                Files.size(phonePhoto) / 1024, streamedBytes / MB, legacyBytes / MB);
+
+        // 원본 해상도 Raster(4000x3000x3 = 34MB)를 만들지 않아야 함 → 업로드 1건당 16MB 미만, 예전 방식보다 적게
+        // (할당 총량 ≥ 순간 최대 사용량이므로 이 값이 곧 peak 의 상한)
+        assertThat(streamedBytes).as(allocated).isLessThan(16 * MB);
+        assertThat(streamedBytes).as(allocated).isLessThan(legacyBytes);
+    }
+
+    // 현재 방식: 임시 파일 → 서브샘플링 디코딩 → 축소 → JPEG → base64 → 요청 본문
+    private static void streamed() throws Exception {
+        PhotoPayload.from(phonePhoto, "image/jpeg", MAX_DIMENSION, 0.85f).writeBase64To(OutputStream.nullOutputStream());
+    }
+
+    // 예전 방식: getBytes() → base64 String → Map → Jackson 직렬화
+    private static void legacy() throws Exception {
+        byte[] bytes = new MockMultipartFile("file", "phone.jpg", "image/jpeg", Files.newInputStream(phonePhoto)).getBytes();
+        String base64 = Base64.getEncoder().encodeToString(bytes);
+        new ObjectMapper().writeValue(OutputStream.nullOutputStream(),
+                Map.of("inline_data", Map.of("mime_type", "image/jpeg", "data", base64)));
+    }
+
+    private static void writeJpeg(BufferedImage image, Path file, float quality) throws Exception {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(file.toFile())) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    private static long allocatedBy(ThrowingRunnable task) throws Exception {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        task.run();
+        return threads.getThreadAllocatedBytes(threadId) - before;
+    }
+
+    private interface ThrowingRunnable {
+        void run() throws Exception;
+    }
+}
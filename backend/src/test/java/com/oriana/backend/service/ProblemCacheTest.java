@@ -0,0 +1,74 @@
+package com.oriana.backend.service;
+
+import com.oriana.backend.domain.Problem;
+import com.oriana.backend.domain.ProblemSource;
+import com.oriana.backend.repository.ProblemRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ProblemCacheTest {
+
+    private final ProblemRepository problemRepository = mock(ProblemRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void secondReadIsServedWithoutTheDatabase() {
+        when(problemRepository.findById(1L)).thenReturn(Optional.of(problem(1L)));
+        ProblemCache cache = new ProblemCache(problemRepository, meterRegistry, 100);
+
+        assertThat(cache.find(1L)).get().extracting("question").isEqualTo("q1");
+        assertThat(cache.find(1L)).get().extracting("question").isEqualTo("q1");
+
+        verify(problemRepository, times(1)).findById(1L);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "problems").tag("result", "hit").functionCounter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void missingProblemIsNotCached() {
+        ProblemCache cache = new ProblemCache(problemRepository, meterRegistry, 100);
+        when(problemRepository.findById(any())).thenReturn(Optional.empty());
+
+        assertThat(cache.find(7L)).isEmpty();
+        assertThat(cache.find(7L)).isEmpty();
+
+        verify(problemRepository, times(2)).findById(7L);
+    }
+
+    @Test
+    void savedAndWarmedUpProblemsAreCachedUpToMaxSize() {
+        when(problemRepository.findByOrderByIdDesc(any())).thenReturn(List.of(problem(3L), problem(2L), problem(1L)));
+        ProblemCache cache = new ProblemCache(problemRepository, meterRegistry, 2);
+        ReflectionTestUtils.setField(cache, "warmUp", 3);
+
+        cache.warmUp();
+        cache.putAll(List.of(Problem.builder().sourceType(ProblemSource.RECOMMEND).question("아직 id 없음").build()));
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(meterRegistry.get("cache.evictions").tag("cache", "problems").functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void zeroMaxSizeAlwaysGoesToTheDatabase() {
+        when(problemRepository.findById(1L)).thenReturn(Optional.of(problem(1L)));
+        ProblemCache cache = new ProblemCache(problemRepository, meterRegistry, 0);
+
+        cache.find(1L);
+        cache.find(1L);
+
+        verify(problemRepository, times(2)).findById(1L);
+    }
+
+    private static Problem problem(Long id) {
+        return Problem.builder().id(id).sourceType(ProblemSource.RECOMMEND)
+                .question("q" + id).options(List.of("1", "2")).answer("1").solution("s").points(10).build();
+    }
+}
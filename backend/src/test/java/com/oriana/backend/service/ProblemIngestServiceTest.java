@@ -0,0 +1,119 @@
+package com.oriana.backend.service;
+
+import com.oriana.backend.domain.Problem;
+import com.oriana.backend.domain.ProblemSource;
+import com.oriana.backend.repository.ProblemRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ProblemIngestServiceTest {
+
+    private final ProblemRepository problemRepository = mock(ProblemRepository.class);
+    private final List<Problem> table = new ArrayList<>(); // problems 테이블 대신
+    private ProblemIngestService ingestService;
+
+    @BeforeEach
+    void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ingestService = new ProblemIngestService(problemRepository,
+                new ProblemCache(problemRepository, meterRegistry, 100), meterRegistry);
+        when(problemRepository.findByContentHashIn(anyCollection())).thenAnswer(invocation -> {
+            Collection<String> hashes = invocation.getArgument(0);
+            return table.stream().filter(row -> hashes.contains(row.getContentHash())).toList();
+        });
+        when(problemRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Problem> problems = invocation.getArgument(0);
+            problems.forEach(this::insert);
+            return problems;
+        });
+    }
+
+    @Test
+    void sameQuestionFromAnotherPromptIsReusedAndLinkedUnderTheRequestedParent() {
+        Problem original = insert(problem(ProblemSource.RECOMMEND, null));
+        Problem recommended = insert(problem(ProblemSource.RECOMMEND, null)
+                .toBuilder().question("같은 문제가 추천으로 먼저 나옴").build());
+
+        Problem stored = ingestService.ingest(List.of(problem(ProblemSource.SIMILAR, original)
+                .toBuilder().question("같은 문제가 추천으로 먼저 나옴").build())).problems().get(0);
+
+        assertThat(stored.getId()).isEqualTo(recommended.getId());
+        verify(problemRepository, never()).saveAll(argThat(problems -> problems.iterator().hasNext()));
+        verify(problemRepository).linkToParent(List.of(recommended.getId()), original.getId());
+    }
+
+    @Test
+    void rowAlreadyUnderAnotherParentIsReusedWithoutRelinking() {
+        Problem otherParent = insert(problem(ProblemSource.RECOMMEND, null).toBuilder().question("다른 원본").build());
+        Problem similarOfOther = insert(problem(ProblemSource.SIMILAR, otherParent));
+        Problem original = insert(problem(ProblemSource.RECOMMEND, null).toBuilder().question("원본").build());
+
+        Problem stored = ingestService.ingest(List.of(problem(ProblemSource.SIMILAR, original))).problems().get(0);
+
+        assertThat(stored.getId()).isEqualTo(similarOfOther.getId());
+        verify(problemRepository, never()).linkToParent(anyCollection(), anyLong());
+    }
+
+    @Test
+    void directResultMatchingUnservedStockTakesItOutOfStock() {
+        Problem stock = problem(ProblemSource.RECOMMEND, null);
+        stock.stockInto("고1|수학(상)|다항식|중|객관식");
+        insert(stock);
+
+        Problem direct = ingestService.ingest(List.of(problem(ProblemSource.RECOMMEND, null))).problems().get(0);
+
+        assertThat(direct.getId()).isEqualTo(stock.getId());
+        verify(problemRepository).markStockServed(eq(List.of(stock.getId())), any());
+    }
+
+    @Test
+    void sameQuestionStockedIntoAnotherBucketStaysOneRow() {
+        Problem stock = problem(ProblemSource.RECOMMEND, null);
+        stock.stockInto("고1|수학(상)|다항식|중|객관식");
+        insert(stock);
+
+        Problem restock = problem(ProblemSource.RECOMMEND, null);
+        restock.stockInto("고1|수학(상)|다항식|상|객관식");
+        ProblemIngestService.Result result = ingestService.ingest(List.of(restock));
+
+        assertThat(result.inserted()).isEmpty(); // 재고 수에 안 들어감
+        assertThat(result.problems()).extracting(Problem::getId).containsExactly(stock.getId());
+        verify(problemRepository, never()).markStockServed(anyCollection(), any());
+    }
+
+    @Test
+    void reusedScanWithoutPhotoHashGetsThisScansHash() {
+        Problem earlier = insert(problem(ProblemSource.PHOTO, null)); // 해시 계산 실패했던 스캔
+
+        Problem rescan = problem(ProblemSource.PHOTO, null);
+        rescan.scannedFrom(42L);
+        Problem stored = ingestService.ingest(List.of(rescan)).problems().get(0);
+
+        assertThat(stored.getId()).isEqualTo(earlier.getId());
+        verify(problemRepository).fillPhotoHash(List.of(earlier.getId()), 42L);
+    }
+
+    private Problem insert(Problem problem) {
+        ReflectionTestUtils.setField(problem, "id", (long) table.size() + 1);
+        problem.fingerprint();
+        table.add(problem);
+        return problem;
+    }
+
+    private static Problem problem(ProblemSource source, Problem parent) {
+        return Problem.builder()
+                .sourceType(source).parentProblem(parent)
+                .options(List.of("1", "2")).question("x + 1 = 2 일 때 x는?").answer("1").solution("이항").points(10)
+                .build();
+    }
+}
@@ -0,0 +1,185 @@
+package com.oriana.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.oriana.backend.domain.Problem;
+import com.oriana.backend.domain.ProblemSource;
+import com.oriana.backend.dto.ProblemRequestDto;
+import com.oriana.backend.repository.ProblemRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ProblemInventoryServiceTest {
+
+    private static final String BUCKET = "고1|수학(상)|다항식|중|객관식";
+
+    private final ProblemRepository problemRepository = mock(ProblemRepository.class);
+    private final AiService aiService = mock(AiService.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ProblemInventoryService inventory;
+
+    @BeforeEach
+    void setUp() {
+        inventory = new ProblemInventoryService(problemRepository, aiService,
+                new ProblemIngestService(problemRepository, new ProblemCache(problemRepository, meterRegistry, 100), meterRegistry),
+                meterRegistry);
+        ReflectionTestUtils.setField(inventory, "enabled", true);
+        ReflectionTestUtils.setField(inventory, "targetStock", 9);
+        ReflectionTestUtils.setField(inventory, "lowWaterMark", 3);
+        ReflectionTestUtils.setField(inventory, "maxGenerationsPerRun", 10);
+        ReflectionTestUtils.setField(inventory, "bucketIdleTtl", Duration.ofHours(24));
+        ReflectionTestUtils.setField(inventory, "minRequests", 2);
+        ReflectionTestUtils.setField(inventory, "maxBuckets", 2);
+        ReflectionTestUtils.setField(inventory, "allowList", Set.of());
+        inventory.restoreBuckets();
+    }
+
+    @Test
+    void servesFromStockAndMarksProblemsServed() {
+        List<Problem> stock = List.of(problem(), problem(), problem());
+        when(problemRepository.lockUnservedStock(BUCKET, 3)).thenReturn(stock);
+
+        assertThat(inventory.take(prefs(" 고1 "))).hasSize(3);
+
+        assertThat(stock).allSatisfy(problem -> assertThat(problem.getServedAt()).isNotNull());
+        assertThat(meterRegistry.get("oriana.inventory.requests").tags("result", "hit", "bucket", "other").counter().count())
+                .isEqualTo(1); // 첫 요청이라 아직 버킷별로 안 셈
+    }
+
+    @Test
+    void partialStockIsAMiss() {
+        Problem only = problem();
+        when(problemRepository.lockUnservedStock(BUCKET, 3)).thenReturn(List.of(only));
+
+        assertThat(inventory.take(prefs("고1"))).isEmpty();
+
+        assertThat(only.getServedAt()).isNull();
+        assertThat(meterRegistry.get("oriana.inventory.requests").tags("result", "miss", "bucket", "other").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void refillsRequestedBucketsBelowLowWaterMarkUpToTarget() throws Exception {
+        when(problemRepository.lockUnservedStock(anyString(), anyInt())).thenReturn(List.of());
+        when(problemRepository.countByInventoryBucketAndServedAtIsNull(BUCKET)).thenReturn(1L);
+        when(aiService.generateRecommendedProblem(any())).thenReturn(new ObjectMapper().readTree("""
+                [{"question": "q1"}, {"question": "q2"}, {"question": "q3"}]"""));
+
+        inventory.take(prefs("고1"));
+        inventory.take(prefs("고1"));
+        inventory.refill();
+
+        // 1개 있음 → 3개씩 3번 생성해서 10개 (target 9 이상)
+        verify(aiService, times(3)).generateRecommendedProblem(argThat(p -> "다항식".equals(p.getUnit())));
+        verify(problemRepository, times(3)).saveAll(argThat(problems -> {
+            problems.forEach(problem -> assertThat(problem.getInventoryBucket()).isEqualTo(BUCKET));
+            return true;
+        }));
+        assertThat(meterRegistry.get("oriana.inventory.stock").gauge().value()).isEqualTo(10);
+        assertThat(meterRegistry.get("oriana.inventory.bucket.stock").tag("bucket", BUCKET).gauge().value()).isEqualTo(10);
+    }
+
+    @Test
+    void problemsAlreadyStoredAreNotCountedAsNewStock() throws Exception {
+        Problem existing = Problem.builder().sourceType(ProblemSource.RECOMMEND)
+                .question("q1").options(List.of()).answer("").solution("s").build();
+        existing.stockInto(BUCKET); // 같은 버킷에 이미 있는 문제
+        existing.fingerprint();
+        when(problemRepository.lockUnservedStock(anyString(), anyInt())).thenReturn(List.of());
+        when(problemRepository.countByInventoryBucketAndServedAtIsNull(BUCKET)).thenReturn(1L);
+        when(problemRepository.findByContentHashIn(anyCollection())).thenReturn(List.of(existing));
+        when(aiService.generateRecommendedProblem(any())).thenReturn(new ObjectMapper().readTree("""
+                [{"question": "q1"}, {"question": " q2 "}, {"question": "q2"}, {"question": "q3"}]"""));
+
+        inventory.take(prefs("고1"));
+        inventory.take(prefs("고1"));
+        inventory.refill();
+
+        // 매번 새 문제는 q2, q3 두 개뿐 (q1은 이미 있고, 공백만 다른 q2는 하나로) → 1 + 2 x 4 = 9
+        verify(aiService, times(4)).generateRecommendedProblem(any());
+        verify(problemRepository, times(4)).saveAll(argThat(problems -> {
+            assertThat(problems).extracting(Problem::getQuestion).containsExactly(" q2 ", "q3");
+            return true;
+        }));
+        assertThat(meterRegistry.get("oriana.inventory.stock").gauge().value()).isEqualTo(9);
+        assertThat(meterRegistry.counter("oriana.problems.ingest", "result", "reused").count()).isEqualTo(8);
+    }
+
+    @Test
+    void oneOffConditionsAreNotStockedAndBucketCountIsCapped() throws Exception {
+        when(problemRepository.lockUnservedStock(anyString(), anyInt())).thenReturn(List.of());
+        when(problemRepository.countByInventoryBucketAndServedAtIsNull(anyString())).thenReturn(0L);
+        when(aiService.generateRecommendedProblem(any())).thenReturn(new ObjectMapper().readTree("""
+                [{"question": "q1"}, {"question": "q2"}, {"question": "q3"}]"""));
+
+        inventory.take(prefs("고1"));
+        inventory.take(prefs("고2 아무말"));
+        inventory.take(prefs("고3 또 아무말")); // 상한(2개) 넘음 → 관리 안 함
+        inventory.refill();
+
+        verify(aiService, never()).generateRecommendedProblem(any());
+        assertThat(meterRegistry.get("oriana.inventory.buckets").gauge().value()).isEqualTo(2);
+        assertThat(meterRegistry.get("oriana.inventory.requests").tags("result", "untracked", "bucket", "other").counter().count())
+                .isEqualTo(1);
+        // 한 번씩만 들어온 조건은 버킷별 시계열을 만들지 않음
+        assertThat(meterRegistry.find("oriana.inventory.requests").meters())
+                .allSatisfy(meter -> assertThat(meter.getId().getTag("bucket")).isEqualTo("other"));
+        assertThat(meterRegistry.find("oriana.inventory.bucket.stock").meters()).isEmpty();
+    }
+
+    @Test
+    void bucketsWithDemandGetTheirOwnMetersUntilTheyGoIdle() {
+        when(problemRepository.lockUnservedStock(BUCKET, 3)).thenReturn(List.of());
+
+        inventory.take(prefs("고1"));
+        inventory.take(prefs("고1"));
+        inventory.take(prefs("고1"));
+
+        assertThat(meterRegistry.get("oriana.inventory.requests").tags("result", "miss", "bucket", BUCKET).counter().count())
+                .isEqualTo(2); // min-requests(2) 번째 요청부터
+        assertThat(meterRegistry.get("oriana.inventory.bucket.stock").tag("bucket", BUCKET).gauge().value()).isZero();
+
+        ReflectionTestUtils.setField(inventory, "bucketIdleTtl", Duration.ZERO);
+        inventory.refill();
+
+        assertThat(meterRegistry.find("oriana.inventory.requests").tag("bucket", BUCKET).meters()).isEmpty();
+        assertThat(meterRegistry.find("oriana.inventory.bucket.stock").meters()).isEmpty();
+    }
+
+    @Test
+    void allowListedBucketsAreStockedWithoutDemand() throws Exception {
+        ReflectionTestUtils.setField(inventory, "allowList", Set.of(BUCKET));
+        inventory.restoreBuckets();
+        when(problemRepository.countByInventoryBucketAndServedAtIsNull(BUCKET)).thenReturn(8L);
+        when(aiService.generateRecommendedProblem(any())).thenReturn(new ObjectMapper().readTree("""
+                [{"question": "q1"}, {"question": "q2"}, {"question": "q3"}]"""));
+        ReflectionTestUtils.setField(inventory, "lowWaterMark", 9);
+
+        inventory.refill();
+
+        verify(aiService).generateRecommendedProblem(argThat(p -> "다항식".equals(p.getUnit())));
+    }
+
+    private static ProblemRequestDto prefs(String grade) {
+        ProblemRequestDto prefs = new ProblemRequestDto();
+        prefs.setGrade(grade);
+        prefs.setSubject("수학(상)");
+        prefs.setUnit("다항식");
+        prefs.setDifficulty("중");
+        prefs.setType("객관식");
+        return prefs;
+    }
+
+    private static Problem problem() {
+        return Problem.builder().sourceType(ProblemSource.RECOMMEND).question("q").answer("1").solution("s").build();
+    }
+}
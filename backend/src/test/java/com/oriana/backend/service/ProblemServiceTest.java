@@ -0,0 +1,84 @@
+package com.oriana.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.oriana.backend.domain.Problem;
+import com.oriana.backend.dto.ProblemRequestDto;
+import com.oriana.backend.dto.ProblemResponseDto;
+import com.oriana.backend.repository.ProblemRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ProblemServiceTest {
+
+    private static final int CALLERS = 8;
+
+    private final ProblemRepository problemRepository = mock(ProblemRepository.class);
+    private final AiService aiService = mock(AiService.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ProblemCache problemCache = new ProblemCache(problemRepository, meterRegistry, 100);
+    private final ProblemService problemService = new ProblemService(aiService, problemRepository,
+            mock(ProblemInventoryService.class), mock(PhotoDedupService.class),
+            new ProblemIngestService(problemRepository, problemCache, meterRegistry), problemCache,
+            new SingleFlightCoalescer(meterRegistry, true, 1), new AiMetrics(meterRegistry));
+
+    @Test
+    void coalescedCallersShareTheLeadersSavedProblems() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(aiService.generateRecommendedProblem(any())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return new ObjectMapper().readTree("""
+                    [{"question": "q1", "answer": "1"}, {"question": "q2", "answer": "2"}, {"question": "q3", "answer": "3"}]""");
+        });
+        AtomicLong ids = new AtomicLong();
+        when(problemRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Problem> problems = invocation.getArgument(0);
+            problems.forEach(problem -> ReflectionTestUtils.setField(problem, "id", ids.incrementAndGet()));
+            return problems;
+        });
+
+        ExecutorService pool = Executors.newFixedThreadPool(CALLERS);
+        try {
+            List<Future<List<ProblemResponseDto>>> results = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                results.add(pool.submit(() -> problemService.createRecommendedProblem(prefs())));
+            }
+            // 나머지가 다 합류한 뒤에 Gemini 응답
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (meterRegistry.counter("oriana.generation.coalesced", "operation", "recommend").count() < CALLERS - 1
+                    && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            for (Future<List<ProblemResponseDto>> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).extracting(ProblemResponseDto::getId).containsExactly(1L, 2L, 3L);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        verify(aiService, times(1)).generateRecommendedProblem(any());
+        verify(problemRepository, times(1)).saveAll(anyList());
+        verify(problemRepository, times(1)).findByContentHashIn(anyCollection());
+    }
+
+    private static ProblemRequestDto prefs() {
+        ProblemRequestDto prefs = new ProblemRequestDto();
+        prefs.setGrade("고1");
+        prefs.setSubject("수학(상)");
+        return prefs;
+    }
+}
@@ -0,0 +1,117 @@
+package com.oriana.backend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightCoalescerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void concurrentIdenticalCallsShareOneUpstreamCall() throws Exception {
+        SingleFlightCoalescer coalescer = new SingleFlightCoalescer(meterRegistry, true, 1);
+
+        assertThat(runConcurrently(coalescer, 20)).isEqualTo(1);
+        assertThat(meterRegistry.counter("oriana.generation.coalesced", "operation", "recommend").count()).isEqualTo(19);
+    }
+
+    @Test
+    void perKeyLimitAllowsThatManyUpstreamCalls() throws Exception {
+        SingleFlightCoalescer coalescer = new SingleFlightCoalescer(meterRegistry, true, 3);
+
+        assertThat(runConcurrently(coalescer, 20)).isEqualTo(3);
+    }
+
+    @Test
+    void differentKeysAreNotCoalesced() {
+        SingleFlightCoalescer coalescer = new SingleFlightCoalescer(meterRegistry, true, 1);
+
+        assertThat(coalescer.execute("similar", "1", () -> "a")).isEqualTo("a");
+        assertThat(coalescer.execute("similar", "2", () -> "b")).isEqualTo("b");
+    }
+
+    @Test
+    void failureIsPropagatedToWaitingCallers() throws Exception {
+        SingleFlightCoalescer coalescer = new SingleFlightCoalescer(meterRegistry, true, 1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<Object> leader = pool.submit(() -> coalescer.execute("similar", "7", () -> {
+                started.countDown();
+                await(release);
+                throw new IllegalStateException("upstream down");
+            }));
+            started.await();
+            Future<Object> follower = pool.submit(() -> coalescer.execute("similar", "7", () -> "never"));
+            waitForCoalesced(1);
+            release.countDown();
+
+            assertThatThrownBy(leader::get).hasRootCauseMessage("upstream down");
+            assertThatThrownBy(follower::get).hasRootCauseMessage("upstream down");
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // 동시에 count 개 호출 → 실제 upstream 호출 횟수 반환 (모든 호출자가 결과를 받았는지도 확인)
+    private int runConcurrently(SingleFlightCoalescer coalescer, int count) throws Exception {
+        AtomicInteger upstreamCalls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(count);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                results.add(pool.submit(() -> coalescer.execute("recommend", "고1|수학|||", () -> {
+                    upstreamCalls.incrementAndGet();
+                    await(release);
+                    return "problems";
+                })));
+            }
+            // 모든 호출이 진행 중이거나 합류할 때까지 기다렸다가 upstream 완료
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (upstreamCalls.get() + coalescedCount() < count && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("problems");
+            }
+            return upstreamCalls.get();
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private void waitForCoalesced(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (coalescedCount() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    private double coalescedCount() {
+        return meterRegistry.find("oriana.generation.coalesced").counters().stream().mapToDouble(c -> c.count()).sum();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
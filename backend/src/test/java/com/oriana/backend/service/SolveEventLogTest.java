@@ -0,0 +1,146 @@
+package com.oriana.backend.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SolveEventLogTest {
+
+    private static final LocalDateTime SOLVED_AT = LocalDateTime.of(2026, 3, 2, 9, 0, 0, 123_456_000);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void appendedEventsSurviveReopenAndReplayAfterCheckpoint() throws Exception {
+        try (SolveEventLog log = new SolveEventLog(dir, "test", 1 << 20, entries -> { })) {
+            for (long i = 1; i <= 5; i++) {
+                assertThat(log.append(event(i))).isEqualTo(i);
+            }
+        }
+
+        try (SolveEventLog log = new SolveEventLog(dir, "test", 1 << 20, entries -> { })) {
+            assertThat(log.readAfter(2)).extracting(SolveEventLog.Entry::seq).containsExactly(3L, 4L, 5L);
+            assertThat(log.readAfter(0).get(0).event()).isEqualTo(event(1));
+            assertThat(log.append(event(6))).isEqualTo(6);
+        }
+    }
+
+    @Test
+    void tornTailFromACrashIsCutOff() throws Exception {
+        try (SolveEventLog log = new SolveEventLog(dir, "test", 1 << 20, entries -> { })) {
+            log.append(event(1));
+            log.append(event(2));
+        }
+        // fsync 전에 죽어서 반만 써진 레코드
+        Files.write(segments().get(0), new byte[SolveEventLog.RECORD_BYTES / 2], StandardOpenOption.APPEND);
+
+        try (SolveEventLog log = new SolveEventLog(dir, "test", 1 << 20, entries -> { })) {
+            assertThat(log.readAfter(0)).hasSize(2);
+            assertThat(log.append(event(3))).isEqualTo(3);
+            assertThat(log.readAfter(0)).extracting(SolveEventLog.Entry::seq).containsExactly(1L, 2L, 3L);
+        }
+    }
+
+    @Test
+    void appliedSegmentsAreDeletedButTheRestStaysReplayable() throws Exception {
+        try (SolveEventLog log = new SolveEventLog(dir, "test", SolveEventLog.RECORD_BYTES * 2L, entries -> { })) {
+            for (long i = 1; i <= 7; i++) {
+                log.append(event(i));
+            }
+            int before = segments().size();
+
+            log.deleteUpTo(4);
+
+            assertThat(segments()).hasSizeLessThan(before);
+            assertThat(log.readAfter(4)).extracting(SolveEventLog.Entry::seq).containsExactly(5L, 6L, 7L);
+        }
+    }
+
+    @Test
+    void concurrentAppendsGetDistinctSeqsAndReachListenerInOrder() throws Exception {
+        List<Long> durable = Collections.synchronizedList(new ArrayList<>());
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try (SolveEventLog log = new SolveEventLog(dir, "test", 1 << 20,
+                entries -> entries.forEach(entry -> durable.add(entry.seq())))) {
+            List<Future<Long>> seqs = new ArrayList<>();
+            for (long i = 1; i <= 400; i++) {
+                long userId = i;
+                seqs.add(pool.submit(() -> log.append(event(userId))));
+            }
+            List<Long> returned = new ArrayList<>();
+            for (Future<Long> seq : seqs) {
+                returned.add(seq.get());
+            }
+
+            assertThat(returned).containsExactlyInAnyOrderElementsOf(LongStream.rangeClosed(1, 400).boxed().toList());
+            assertThat(durable).isSorted().hasSize(400);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void nodeIdChosenWhenTheDirectoryWasCreatedIsKept() throws Exception {
+        try (SolveEventLog log = new SolveEventLog(dir, "container-a", 1 << 20, entries -> { })) {
+            assertThat(log.nodeId()).isEqualTo("container-a");
+        }
+        try (SolveEventLog log = new SolveEventLog(dir, "container-b", 1 << 20, entries -> { })) {
+            assertThat(log.nodeId()).isEqualTo("container-a");
+        }
+    }
+
+    @Test
+    void appendRacingCloseNeverHangs() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            for (int round = 0; round < 20; round++) {
+                SolveEventLog log = new SolveEventLog(dir.resolve("round-" + round), "test", 1 << 20, entries -> { });
+                List<Future<?>> appenders = new ArrayList<>();
+                for (long i = 1; i <= 8; i++) {
+                    long userId = i;
+                    appenders.add(pool.submit(() -> {
+                        try {
+                            while (true) {
+                                log.append(event(userId));
+                            }
+                        } catch (IllegalStateException closed) {
+                            return; // 닫혔다고 실패하는 건 정상, 영원히 기다리면 안 됨
+                        }
+                    }));
+                }
+                log.close();
+                for (Future<?> appender : appenders) {
+                    appender.get(5, TimeUnit.SECONDS);
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private List<Path> segments() throws Exception {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".log")).sorted().toList();
+        }
+    }
+
+    private static SolveEvent event(long userId) {
+        return new SolveEvent(userId, 100 + userId, userId % 2 == 0, 10, SOLVED_AT);
+    }
+}
@@ -0,0 +1,96 @@
+package com.oriana.backend.service;
+
+import com.oriana.backend.domain.Problem;
+import com.oriana.backend.domain.ProblemSource;
+import com.oriana.backend.domain.SolveHistory;
+import com.oriana.backend.domain.User;
+import com.oriana.backend.dto.CursorPageDto;
+import com.oriana.backend.dto.HistoryResponseDto;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 풀이 기록 조회가 기록 수와 상관없이 SQL 1번으로 끝나는지 (문제 LAZY 로딩 N+1 방지) + 커서로 빠짐없이 넘겨지는지
+ * 테스트 데이터는 트랜잭션 롤백으로 지워짐. (로컬 DB 필요, OrianaApplicationTests 와 같음)
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "oriana.inventory.enabled=false"
+})
+@Transactional
+class SolveHistoryQueryCountTest {
+
+    @Autowired
+    private SolveService solveService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 50})
+    void historyIsOneStatementRegardlessOfSize(int attempts) {
+        User user = User.builder().name("기록" + attempts).build();
+        entityManager.persist(user);
+        for (int i = 0; i < attempts; i++) {
+            Problem problem = Problem.builder()
+                    .sourceType(ProblemSource.RECOMMEND)
+                    .tags(List.of("기록")).options(List.of("1", "2"))
+                    .question(user.getName() + " 문제 " + i + " " + System.nanoTime()).answer("1").solution("풀이")
+                    .build();
+            entityManager.persist(problem);
+            entityManager.persist(SolveHistory.builder().user(user).problem(problem).attemptCount(1).build());
+        }
+        // 영속성 컨텍스트를 비워야 문제를 DB에서 다시 읽음 (안 비우면 N+1 이 있어도 안 보임)
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        CursorPageDto<HistoryResponseDto> history = solveService.getUserHistory(user.getId(), null, PageCursor.MAX_SIZE);
+
+        assertThat(history.items()).hasSize(attempts)
+                .allSatisfy(row -> assertThat(row.getProblem().getOptions()).containsExactly("1", "2"));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void cursorWalksEveryRowOnceNewestFirst() {
+        User user = User.builder().name("페이지").build();
+        entityManager.persist(user);
+        for (int i = 0; i < 5; i++) {
+            Problem problem = Problem.builder()
+                    .sourceType(ProblemSource.RECOMMEND)
+                    .question("페이지 문제 " + i + " " + System.nanoTime()).answer("1").solution("풀이")
+                    .build();
+            entityManager.persist(problem);
+            entityManager.persist(SolveHistory.builder().user(user).problem(problem).attemptCount(1).build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        List<HistoryResponseDto> walked = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPageDto<HistoryResponseDto> page = solveService.getUserHistory(user.getId(), cursor, 2);
+            assertThat(page.items()).hasSizeLessThanOrEqualTo(2);
+            walked.addAll(page.items());
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        assertThat(walked).extracting(HistoryResponseDto::getId).doesNotHaveDuplicates().hasSize(5);
+        assertThat(walked).extracting(HistoryResponseDto::getSolvedAt).isSortedAccordingTo(Comparator.reverseOrder());
+    }
+}
@@ -0,0 +1,165 @@
+package com.oriana.backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.oriana.backend.domain.User;
+import com.oriana.backend.dto.ProblemResponseDto;
+import com.oriana.backend.dto.SolveResponseDto;
+import com.oriana.backend.repository.SolveEventBatchRepository;
+import com.oriana.backend.repository.SolveHistoryRepository;
+import com.oriana.backend.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class SolveWriteBehindTest {
+
+    private final SolveEventBatchRepository batchRepository = mock(SolveEventBatchRepository.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final SolveHistoryRepository solveHistoryRepository = mock(SolveHistoryRepository.class);
+    private final List<SolveWriteBehind> started = new ArrayList<>();
+
+    @TempDir
+    Path dir;
+
+    @AfterEach
+    void tearDown() {
+        started.forEach(SolveWriteBehind::stop);
+    }
+
+    @Test
+    void predictsRewardsWithTheFirstAttemptAndLevelUpRules() throws Exception {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(User.builder().name("학생").build()));
+        when(solveHistoryRepository.findProblemIdsByUserId(1L)).thenReturn(List.of(10L)); // 10번은 예전에 풀어봄
+        SolveWriteBehind writeBehind = start(Duration.ofMillis(20));
+
+        assertThat(writeBehind.grade(1L, problem(10L), true).orElseThrow().isRewarded()).isFalse();
+        assertThat(writeBehind.grade(1L, problem(20L), false).orElseThrow().isRewarded()).isFalse();
+        assertThat(writeBehind.grade(1L, problem(20L), true).orElseThrow().isRewarded()).isFalse(); // 두 번째 시도
+        SolveResponseDto first = writeBehind.grade(1L, problem(30L), true).orElseThrow();
+
+        assertThat(first.isRewarded()).isTrue();
+        assertThat(first.getTotalPoints()).isEqualTo(10);
+        assertThat(first.getCurrentLevel()).isEqualTo(2);
+        verify(batchRepository, timeout(5000).atLeastOnce()).apply(eq("test"), anyList());
+    }
+
+    @Test
+    void eventsNotYetInTheDatabaseAreReplayedBeforeAcceptingNewOnes() throws Exception {
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(User.builder().name("학생").build()));
+        // flusher 가 한 번도 반영하기 전에 죽는 노드
+        SolveWriteBehind crashed = start(Duration.ofHours(1));
+        for (long problemId = 1; problemId <= 3; problemId++) {
+            crashed.grade(1L, problem(problemId), true).orElseThrow();
+        }
+        verify(batchRepository, never()).apply(anyString(), anyList());
+
+        // 다시 떴을 때 DB에는 seq 1 까지만 반영돼 있었음
+        List<Long> replayed = new ArrayList<>();
+        when(batchRepository.findCheckpoint("test")).thenReturn(1L);
+        when(batchRepository.apply(eq("test"), anyList())).thenAnswer(invocation -> {
+            List<SolveEventLog.Entry> entries = invocation.getArgument(1);
+            entries.forEach(entry -> replayed.add(entry.seq()));
+            return 0;
+        });
+        SolveWriteBehind restarted = start(Duration.ofHours(1));
+
+        assertThat(replayed).containsExactly(2L, 3L);
+        assertThat(restarted.grade(1L, problem(4L), true)).isPresent();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void learnerEvictedBeforeFlushKeepsItsUnflushedState() throws Exception {
+        User stored = User.builder().name("학생").build(); // DB 쪽 상태: 아직 아무것도 반영 안 됨
+        when(userRepository.findById(1L)).thenReturn(Optional.of(stored));
+        SolveWriteBehind writeBehind = start(Duration.ofHours(1));
+        Cache<Long, ?> learners = (Cache<Long, ?>) ReflectionTestUtils.getField(writeBehind, "learners");
+
+        assertThat(writeBehind.grade(1L, problem(30L), true).orElseThrow().isRewarded()).isTrue();
+        learners.invalidateAll(); // 제출과 flush 사이에 캐시에서 밀려남
+
+        SolveResponseDto again = writeBehind.grade(1L, problem(30L), true).orElseThrow();
+        assertThat(again.isRewarded()).isFalse();
+        assertThat(again.getTotalPoints()).isEqualTo(10);
+
+        // 반영이 끝나면 놓아주고, 그 뒤엔 DB에서 다시 읽어도 같은 상태
+        when(solveHistoryRepository.findProblemIdsByUserId(1L)).thenReturn(List.of(30L));
+        ReflectionTestUtils.setField(stored, "points", 10);
+        ReflectionTestUtils.setField(stored, "level", 2);
+        ReflectionTestUtils.setField(stored, "nextLevelPoints", 30);
+        writeBehind.flush();
+        assertThat((Map<?, ?>) ReflectionTestUtils.getField(writeBehind, "unflushed")).isEmpty();
+        learners.invalidateAll();
+
+        SolveResponseDto reloaded = writeBehind.grade(1L, problem(40L), false).orElseThrow();
+        assertThat(reloaded.getTotalPoints()).isEqualTo(10);
+        assertThat(reloaded.getCurrentLevel()).isEqualTo(2);
+        verify(userRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    void restartUnderANewNodeIdKeepsTheLogDirectorysCheckpoint() throws Exception {
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(User.builder().name("학생").build()));
+        List<Long> applied = new ArrayList<>();
+        when(batchRepository.apply(anyString(), anyList())).thenAnswer(invocation -> {
+            List<SolveEventLog.Entry> entries = invocation.getArgument(1);
+            entries.forEach(entry -> applied.add(entry.seq()));
+            return 0;
+        });
+        SolveWriteBehind first = start(Duration.ofHours(1));
+        for (long problemId = 1; problemId <= 3; problemId++) {
+            first.grade(1L, problem(problemId), true).orElseThrow();
+        }
+        first.stop(); // 전부 반영하고 내려감 → 체크포인트 3
+        assertThat(applied).containsExactly(1L, 2L, 3L);
+
+        // 컨테이너를 새로 띄워서 호스트 이름(설정 node-id)은 바뀌었지만 로그 디렉터리는 그대로
+        when(batchRepository.findCheckpoint("test")).thenReturn(3L);
+        SolveWriteBehind recreated = start(Duration.ofHours(1), "container-2");
+
+        verify(batchRepository, times(2)).findCheckpoint("test");
+        verify(batchRepository, never()).findCheckpoint("container-2");
+        assertThat(applied).containsExactly(1L, 2L, 3L); // 이미 반영된 3개를 다시 적용하지 않음
+        assertThat(recreated.grade(1L, problem(4L), true)).isPresent();
+    }
+
+    private SolveWriteBehind start(Duration flushInterval) throws InterruptedException {
+        return start(flushInterval, "test");
+    }
+
+    // 첫 flush(재적용) 가 끝나서 write-behind 로 받기 시작할 때까지 기다림
+    private SolveWriteBehind start(Duration flushInterval, String nodeId) throws InterruptedException {
+        SolveWriteBehind writeBehind = new SolveWriteBehind(batchRepository, userRepository, solveHistoryRepository,
+                new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(writeBehind, "enabled", true);
+        ReflectionTestUtils.setField(writeBehind, "dir", dir.toString());
+        ReflectionTestUtils.setField(writeBehind, "nodeId", nodeId);
+        ReflectionTestUtils.setField(writeBehind, "segmentSize", DataSize.ofKilobytes(64));
+        ReflectionTestUtils.setField(writeBehind, "flushInterval", flushInterval);
+        ReflectionTestUtils.setField(writeBehind, "batchSize", 100);
+        writeBehind.start();
+        started.add(writeBehind);
+        for (int i = 0; i < 500 && !(boolean) ReflectionTestUtils.getField(writeBehind, "accepting"); i++) {
+            Thread.sleep(10);
+        }
+        return writeBehind;
+    }
+
+    private static ProblemResponseDto problem(Long id) {
+        return ProblemResponseDto.builder().id(id).answer("1").points(10).build();
+    }
+}
@@ -0,0 +1,402 @@
+package com.oriana.backend.support;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.oriana.backend.service.LenientJsonParser;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.sun.net.httpserver.HttpsConfigurator;
+import com.sun.net.httpserver.HttpsServer;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManagerFactory;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyStore;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 테스트용 가짜 Gemini 서버 (generateContent / streamGenerateContent(SSE) 응답 흉내)
+ * 실제 쿼터를 쓰지 않고 AiService / HTTP 클라이언트를 돌려보기 위한 용도. 네트워크 없이 loopback 에서만 동작.
+ *
+ * 실제 Gemini처럼 굴리기 위한 설정들 (요청마다 seed 고정 난수로 하나를 고름):
+ * - latency: 고정값 또는 분포 (uniform, logNormal - 대부분 빠르고 가끔 아주 느린 꼬리)
+ * - errorRate: 500/503
+ * - tooManyRequestsRate: 429 + Retry-After
+ * - truncatedRate: 토큰 한도에 걸린 것처럼 응답 텍스트가 중간에 끊김
+ * - malformedRate: JSON이 아닌 응답 (거절 문구, 깨진 구조)
+ * - latexProblems(): LaTeX가 잔뜩 들어간 큰 응답 만들기
+ *
+ * 요청에 responseSchema(구조화 출력)가 있으면 실제 Gemini처럼 모델 텍스트를 엄격한 JSON으로 다시 써서 주고,
+ * 깨진 JSON(malformed)은 나오지 않음. 토큰 한도에 걸려 잘리는 것(truncated)은 그대로 일어남.
+ */
+public class GeminiStubServer implements AutoCloseable {
+
+    static {
+        // JDK HttpServer 기본값은 Nagle 알고리즘이 켜져 있어서 응답마다 ~40ms 지연이 생김
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private static final String KEYSTORE = "/gemini-stub.p12";
+    private static final char[] KEYSTORE_PASSWORD = "changeit".toCharArray();
+    private static final Pattern SECTION = Pattern.compile("\\[섹션 (\\d+)]");
+
+    public static final String DEFAULT_PROBLEMS = """
+            [{"grade":"고1","subject":"수학","difficulty":"중","tags":["스텁"],"points":20,
+              "question":"$x^2-1$을 인수분해하면?","options":["(x-1)(x+1)","(x-1)^2","(x+1)^2","x(x-1)"],
+              "answer":"(x-1)(x+1)","solution":"합차 공식","isSubjective":false}]""";
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicInteger requestCount = new AtomicInteger();
+    private final boolean https;
+
+    private final Map<Outcome, AtomicInteger> outcomes = new ConcurrentHashMap<>();
+
+    private volatile String responseText = DEFAULT_PROBLEMS;
+    private volatile Function<String, String> responder; // 요청 본문 → 모델 텍스트 (설정하면 responseText 대신 사용)
+    private volatile LongSupplier latencyMs = () -> 0; // 응답 전체 생성 시간 (스트리밍이면 조각들에 나눠서 흘림)
+    private volatile int streamChunks = 12;
+    private volatile double errorRate;
+    private volatile double tooManyRequestsRate;
+    private volatile int retryAfterSeconds = 1;
+    private volatile double truncatedRate;
+    private volatile double malformedRate;
+    private volatile Random random = new Random(42);
+
+    // 요청 하나가 어떻게 처리됐는지 (부하 테스트 결과와 같이 출력)
+    public enum Outcome {
+        OK, SERVER_ERROR, TOO_MANY_REQUESTS, TRUNCATED, MALFORMED
+    }
+
+    private GeminiStubServer(boolean https) throws IOException {
+        this.https = https;
+        InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+        if (https) {
+            HttpsServer httpsServer = HttpsServer.create(address, 0);
+            httpsServer.setHttpsConfigurator(new HttpsConfigurator(serverSslContext()));
+            this.server = httpsServer;
+        } else {
+            this.server = HttpServer.create(address, 0);
+        }
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    public static GeminiStubServer http() throws IOException {
+        return new GeminiStubServer(false);
+    }
+
+    public static GeminiStubServer https() throws IOException {
+        return new GeminiStubServer(true);
+    }
+
+    // gemini.model-url 에 그대로 넣으면 되는 주소
+    public String modelUrl() {
+        return (https ? "https" : "http") + "://localhost:" + server.getAddress().getPort() + "/v1beta/models/stub";
+    }
+
+    public GeminiStubServer respondWith(String modelText) {
+        this.responseText = modelText;
+        return this;
+    }
+
+    // 요청 내용(프롬프트)에 따라 다르게 답해야 할 때 (예: 묶음 프롬프트의 섹션 수만큼 문제 생성)
+    public GeminiStubServer respondUsing(Function<String, String> responder) {
+        this.responder = responder;
+        return this;
+    }
+
+    public GeminiStubServer latency(long millis) {
+        this.latencyMs = () -> millis;
+        return this;
+    }
+
+    // 요청마다 distribution 에서 뽑은 시간(ms)만큼 걸림 (uniform / logNormal 참고)
+    public GeminiStubServer latency(LongSupplier distribution) {
+        this.latencyMs = distribution;
+        return this;
+    }
+
+    public GeminiStubServer errorRate(double rate) {
+        this.errorRate = rate;
+        return this;
+    }
+
+    public GeminiStubServer tooManyRequestsRate(double rate, int retryAfterSeconds) {
+        this.tooManyRequestsRate = rate;
+        this.retryAfterSeconds = retryAfterSeconds;
+        return this;
+    }
+
+    public GeminiStubServer truncatedRate(double rate) {
+        this.truncatedRate = rate;
+        return this;
+    }
+
+    public GeminiStubServer malformedRate(double rate) {
+        this.malformedRate = rate;
+        return this;
+    }
+
+    public GeminiStubServer seed(long seed) {
+        this.random = new Random(seed);
+        return this;
+    }
+
+    public GeminiStubServer streamChunks(int chunks) {
+        this.streamChunks = chunks;
+        return this;
+    }
+
+    public int requestCount() {
+        return requestCount.get();
+    }
+
+    public Map<Outcome, Integer> outcomes() {
+        Map<Outcome, Integer> counts = new EnumMap<>(Outcome.class);
+        outcomes.forEach((outcome, count) -> counts.put(outcome, count.get()));
+        return counts;
+    }
+
+    // min ~ max ms 균등 분포
+    public static LongSupplier uniform(long minMs, long maxMs) {
+        Random random = new Random(7);
+        return () -> minMs + (long) (random.nextDouble() * (maxMs - minMs));
+    }
+
+    // 중앙값 medianMs, 꼬리 두께 sigma 인 로그정규 분포 (sigma 0.5면 p99가 중앙값의 약 3.2배)
+    public static LongSupplier logNormal(long medianMs, double sigma) {
+        Random random = new Random(11);
+        return () -> (long) (medianMs * Math.exp(sigma * random.nextGaussian()));
+    }
+
+    // 묶음 프롬프트(GenerationBatcher)의 섹션 번호들. 일반 프롬프트면 빈 리스트
+    public static List<Integer> sections(String requestBody) {
+        List<Integer> sections = new ArrayList<>();
+        Matcher matcher = SECTION.matcher(requestBody);
+        while (matcher.find()) {
+            sections.add(Integer.parseInt(matcher.group(1)));
+        }
+        return sections;
+    }
+
+    // 요청에 맞는 모델 텍스트: 묶음 프롬프트면 섹션마다 문제 3개(section 번호 포함), 아니면 문제 3개
+    public static String answerFor(String requestBody, String problemObject) {
+        List<Integer> sections = sections(requestBody);
+        if (sections.isEmpty()) {
+            sections = List.of(0);
+        }
+        List<String> problems = new ArrayList<>();
+        for (int section : sections) {
+            String tagged = section == 0 ? problemObject : problemObject.replaceFirst("\\{", "{\"section\":" + section + ",");
+            problems.add(tagged);
+            problems.add(tagged);
+            problems.add(tagged);
+        }
+        return "[" + String.join(",", problems) + "]";
+    }
+
+    /**
+     * LaTeX 수식이 잔뜩 들어간 문제 count 개짜리 응답 (termsPerProblem 이 클수록 응답이 커짐)
+     * 모델이 흔히 하는 실수(백슬래시 1개, 코드블록)도 섞어둠
+     */
+    public static String latexProblems(int count, int termsPerProblem) {
+        StringBuilder text = new StringBuilder("```json\n[");
+        for (int i = 0; i < count; i++) {
+            StringBuilder latex = new StringBuilder();
+            for (int t = 0; t < termsPerProblem; t++) {
+                latex.append(t % 2 == 0
+                        ? "$\\\\frac{" + (t + 1) + "}{x^{" + (t + 2) + "}} + \\\\sqrt{" + (t + 3) + "}$ "
+                        : "$\\int_0^{" + t + "} \\sin x \\, dx \\times \\left(" + t + "\\right)$ ");
+            }
+            if (i > 0) {
+                text.append(",\n");
+            }
+            text.append("{\"grade\":\"고2\",\"subject\":\"수학II\",\"difficulty\":\"상\",\"tags\":[\"미적분\",\"LaTeX\"],")
+                    .append("\"points\":30,\"question\":\"다음 식의 값을 구하시오. ").append(latex).append("\",")
+                    .append("\"options\":[\"$\\\\frac{1}{2}$\",\"$\\\\pi$\",\"$\\\\sqrt{2}$\",\"$e^{2}$\"],")
+                    .append("\"answer\":\"$\\\\frac{1}{2}$\",\"solution\":\"").append(latex).append("\",")
+                    .append("\"isSubjective\":false}");
+        }
+        return text.append("]\n```").toString();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requestCount.incrementAndGet();
+        Function<String, String> currentResponder = responder;
+        String text = responseText;
+        String requestBody;
+        try (InputStream in = exchange.getRequestBody()) {
+            requestBody = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        if (currentResponder != null) {
+            text = currentResponder.apply(requestBody);
+        }
+        boolean structured = requestBody.contains("\"responseSchema\"");
+        if (structured) {
+            text = objectMapper.writeValueAsString(LenientJsonParser.parseArray(text).items());
+        }
+
+        Outcome outcome = pickOutcome();
+        if (structured && outcome == Outcome.MALFORMED) {
+            outcome = Outcome.OK; // 스키마로 디코딩이 제한되면 설명문이나 깨진 구조는 안 나옴
+        }
+        outcomes.computeIfAbsent(outcome, k -> new AtomicInteger()).incrementAndGet();
+        switch (outcome) {
+            case SERVER_ERROR -> {
+                sleep(latencyMs.getAsLong() / 4); // 에러는 보통 생성 전에 빨리 옴
+                boolean unavailable = random.nextBoolean();
+                sendError(exchange, unavailable ? 503 : 500, unavailable ? "UNAVAILABLE" : "INTERNAL", "stub server error");
+                return;
+            }
+            case TOO_MANY_REQUESTS -> {
+                exchange.getResponseHeaders().set("Retry-After", String.valueOf(retryAfterSeconds));
+                sendError(exchange, 429, "RESOURCE_EXHAUSTED", "stub quota exceeded");
+                return;
+            }
+            case TRUNCATED -> text = text.substring(0, text.length() / 2);
+            case MALFORMED -> text = random.nextBoolean()
+                    ? "죄송합니다. 요청하신 조건으로는 문제를 만들 수 없습니다."
+                    : "[{\"grade\": \"고1\", \"question\": ";
+            default -> {
+            }
+        }
+
+        if (exchange.getRequestURI().getPath().endsWith(":streamGenerateContent")) {
+            stream(exchange, text);
+            return;
+        }
+        sleep(latencyMs.getAsLong());
+
+        byte[] bytes = objectMapper.writeValueAsBytes(responseBody(text));
+
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private Outcome pickOutcome() {
+        double r = random.nextDouble();
+        if ((r -= errorRate) < 0) {
+            return Outcome.SERVER_ERROR;
+        }
+        if ((r -= tooManyRequestsRate) < 0) {
+            return Outcome.TOO_MANY_REQUESTS;
+        }
+        if ((r -= truncatedRate) < 0) {
+            return Outcome.TRUNCATED;
+        }
+        if ((r -= malformedRate) < 0) {
+            return Outcome.MALFORMED;
+        }
+        return Outcome.OK;
+    }
+
+    // Gemini 에러 응답 형식 ({"error": {"code", "message", "status"}})
+    private void sendError(HttpExchange exchange, int code, String status, String message) throws IOException {
+        byte[] bytes = objectMapper.writeValueAsBytes(
+                Map.of("error", Map.of("code", code, "message", message, "status", status)));
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
+        exchange.sendResponseHeaders(code, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    // 모델 텍스트를 streamChunks 조각으로 나눠서 latency 동안 고르게 SSE로 흘려보냄
+    private void stream(HttpExchange exchange, String text) throws IOException {
+        int chunks = Math.max(1, Math.min(streamChunks, text.length()));
+        long pause = latencyMs.getAsLong() / chunks;
+
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream out = exchange.getResponseBody()) {
+            for (int i = 0; i < chunks; i++) {
+                sleep(pause);
+                String piece = text.substring(i * text.length() / chunks, (i + 1) * text.length() / chunks);
+                out.write(("data: " + objectMapper.writeValueAsString(responseBody(piece)) + "\r\n\r\n")
+                        .getBytes(StandardCharsets.UTF_8));
+                out.flush();
+            }
+        }
+    }
+
+    private Map<String, Object> responseBody(String text) {
+        return Map.of(
+                "candidates", List.of(Map.of("content", Map.of("parts", List.of(Map.of("text", text))))),
+                "usageMetadata", Map.of("promptTokenCount", 500, "candidatesTokenCount", 300));
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private static KeyStore keyStore() {
+        try (InputStream in = GeminiStubServer.class.getResourceAsStream(KEYSTORE)) {
+            KeyStore keyStore = KeyStore.getInstance("PKCS12");
+            keyStore.load(in, KEYSTORE_PASSWORD);
+            return keyStore;
+        } catch (Exception e) {
+            throw new IllegalStateException("스텁 키스토어 로딩 실패", e);
+        }
+    }
+
+    private static SSLContext serverSslContext() {
+        try {
+            KeyManagerFactory kmf = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+            kmf.init(keyStore(), KEYSTORE_PASSWORD);
+            SSLContext context = SSLContext.getInstance("TLS");
+            context.init(kmf.getKeyManagers(), null, null);
+            return context;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // 스텁의 self-signed 인증서를 신뢰하는 클라이언트용 SSLContext
+    public static SSLContext clientSslContext() {
+        try {
+            TrustManagerFactory tmf = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+            tmf.init(keyStore());
+            SSLContext context = SSLContext.getInstance("TLS");
+            context.init(null, tmf.getTrustManagers(), null);
+            return context;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.oriana.backend.support;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.oriana.backend.support.LoadClient.percentile;
+
+/**
+ * 부하 테스트 결과 집계: 엔드포인트별 처리량(req/s), p50/p95/p99, 상태 코드 분포
+ * 여러 스레드에서 동시에 record 해도 됨.
+ */
+public class LoadReport {
+
+    private final Map<String, Endpoint> endpoints = new ConcurrentSkipListMap<>();
+
+    public void record(String endpoint, int status, long millis) {
+        endpoints.computeIfAbsent(endpoint, k -> new Endpoint()).record(status, millis);
+    }
+
+    public List<Long> latencies(String endpoint) {
+        Endpoint stats = endpoints.get(endpoint);
+        return stats == null ? List.of() : stats.latencies();
+    }
+
+    public Map<Integer, Integer> statuses(String endpoint) {
+        Endpoint stats = endpoints.get(endpoint);
+        return stats == null ? Map.of() : stats.statuses();
+    }
+
+    public String format(Duration elapsed) {
+        double seconds = elapsed.toMillis() / 1000.0;
+        StringBuilder out = new StringBuilder(String.format("%-40s %7s %8s %7s %7s %7s  %s%n",
+                "endpoint", "n", "req/s", "p50", "p95", "p99", "status"));
+        endpoints.forEach((endpoint, stats) -> {
+            List<Long> latencies = stats.latencies();
+            out.append(String.format("%-40s %7d %8.1f %5dms %5dms %5dms  %s%n",
+                    endpoint, latencies.size(), latencies.size() / seconds,
+                    percentile(latencies, 50), percentile(latencies, 95), percentile(latencies, 99),
+                    stats.statuses()));
+        });
+        return out.toString();
+    }
+
+    private static final class Endpoint {
+        private final List<Long> latencies = new ArrayList<>();
+        private final Map<Integer, AtomicInteger> statuses = new ConcurrentHashMap<>();
+
+        synchronized void record(int status, long millis) {
+            latencies.add(millis);
+            statuses.computeIfAbsent(status, k -> new AtomicInteger()).incrementAndGet();
+        }
+
+        synchronized List<Long> latencies() {
+            return new ArrayList<>(latencies);
+        }
+
+        Map<Integer, Integer> statuses() {
+            Map<Integer, Integer> counts = new TreeMap<>();
+            statuses.forEach((status, count) -> counts.put(status, count.get()));
+            return counts;
+        }
+    }
+}